@@ -0,0 +1,51 @@
+"""
+Compare two JMH JSON result files (from run.sh): score and allocation per operation for each benchmark.
+
+    python3 compare.py results/jmh-<before>.json results/jmh-<after>.json
+"""
+import json
+import sys
+
+
+def _load(path):
+    with open(path, "r", encoding="utf-8") as f:
+        runs = json.load(f)
+    out = {}
+    for run in runs:
+        params = ",".join(f"{k}={v}" for k, v in sorted((run.get("params") or {}).items()))
+        name = run["benchmark"].rsplit(".", 2)[-2] + "." + run["benchmark"].rsplit(".", 1)[-1]
+        key = f"{name}[{params}]" if params else name
+        alloc = (run.get("secondaryMetrics") or {}).get("gc.alloc.rate.norm") or {}
+        out[key] = {
+            "score": run["primaryMetric"]["score"],
+            "unit": run["primaryMetric"]["scoreUnit"],
+            "mode": run["mode"],
+            "alloc": alloc.get("score"),
+        }
+    return out
+
+
+def _delta(before, after):
+    if before in (None, 0) or after is None:
+        return "    n/a"
+    return f"{(after - before) / before * 100:+7.1f}%"
+
+
+def main():
+    if len(sys.argv) != 3:
+        print(__doc__.strip(), file=sys.stderr)
+        sys.exit(2)
+    before, after = _load(sys.argv[1]), _load(sys.argv[2])
+    print(f"{'benchmark':<55} {'before':>14} {'after':>14} {'delta':>8}  {'B/op before':>12} {'B/op after':>12}")
+    for key in sorted(set(before) | set(after)):
+        b, a = before.get(key), after.get(key)
+        if b is None or a is None:
+            print(f"{key:<55} {'only in ' + ('after' if b is None else 'before'):>14}")
+            continue
+        # Throughput: higher is better; time modes: lower is better. Delta is always after vs before.
+        print(f"{key:<55} {b['score']:>14.3f} {a['score']:>14.3f} {_delta(b['score'], a['score'])}  "
+              f"{(b['alloc'] or 0):>12.1f} {(a['alloc'] or 0):>12.1f}   {a['unit']} ({a['mode']})")
+
+
+if __name__ == "__main__":
+    main()
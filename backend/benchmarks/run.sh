@@ -0,0 +1,16 @@
+#!/usr/bin/env sh
+# Runs all benchmarks (or those matching the given JMH arguments) with the GC profiler and writes
+# results/jmh-<commit>.json. Compare two runs with: python3 compare.py results/jmh-A.json results/jmh-B.json
+set -e
+cd "$(dirname "$0")"
+if [ ! -f target/benchmarks.jar ]; then
+  mvn -q -f ../pom.xml -Pbenchmarks -DskipTests install
+  mvn -q -DskipTests package
+fi
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+if ! git diff --quiet HEAD -- .. 2>/dev/null; then
+  commit="$commit-dirty"
+fi
+mkdir -p results
+CHURN_BACKEND_DIR="$(cd .. && pwd)" java -jar target/benchmarks.jar -prof gc -rf json -rff "results/jmh-$commit.json" "$@"
+echo "Results: results/jmh-$commit.json"
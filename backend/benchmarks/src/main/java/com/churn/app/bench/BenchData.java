@@ -0,0 +1,40 @@
+package com.churn.app.bench;
+
+import com.churn.app.dto.PredictRequest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Shared inputs: the backend directory (models/, ml/) and reproducible valid requests. */
+final class BenchData {
+
+    private static final String[] CONTRACTS = {"Month-to-month", "One year", "Two year"};
+    private static final String[] INTERNET_SERVICES = {"DSL", "Fiber optic", "None"};
+
+    private BenchData() {
+    }
+
+    /** -Dchurn.backend.dir, else $CHURN_BACKEND_DIR, else the parent of the working directory (backend/benchmarks). */
+    static Path backendDir() {
+        String dir = System.getProperty("churn.backend.dir", System.getenv("CHURN_BACKEND_DIR"));
+        return (dir != null ? Path.of(dir) : Path.of("..")).toAbsolutePath().normalize();
+    }
+
+    static List<PredictRequest> requests(int n, long seed) {
+        Random random = new Random(seed);
+        List<PredictRequest> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            PredictRequest req = new PredictRequest();
+            req.setAge(18 + random.nextInt(63));
+            req.setTenure(random.nextInt(73));
+            req.setMonthlyCharges(20 + random.nextInt(10_000) / 100.0);
+            req.setContract(CONTRACTS[random.nextInt(CONTRACTS.length)]);
+            req.setInternetService(INTERNET_SERVICES[random.nextInt(INTERNET_SERVICES.length)]);
+            req.setPaymentDelay(random.nextInt(31));
+            out.add(req);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package com.churn.app.bench;
+
+import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.service.ModelMetricsService;
+import com.churn.app.service.PrecomputedJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** GET /api/model/metrics work: the parsed metrics and the precomputed response body. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private ModelMetricsService service;
+
+    @Setup
+    public void setUp() {
+        service = new ModelMetricsService(BenchData.backendDir().resolve("models/metrics.json").toString());
+    }
+
+    @Benchmark
+    public ModelMetricsResponse getMetrics() {
+        return service.getMetrics();
+    }
+
+    @Benchmark
+    public PrecomputedJson getMetricsJson() {
+        return service.getMetricsJson();
+    }
+}
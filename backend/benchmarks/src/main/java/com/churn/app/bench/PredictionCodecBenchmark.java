@@ -0,0 +1,73 @@
+package com.churn.app.bench;
+
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.service.PredictionCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One python round trip's encoding work: the request line and decoding the answer. {@code codec} is
+ * PredictionCodec with a reused buffer; {@code objectMapperPerCall} is the previous approach (a new
+ * ObjectMapper per request, a payload object, a JsonNode tree). Compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictionCodecBenchmark {
+
+    private static final String ANSWER =
+            "{\"label\": \"CHURN\", \"score\": 0.8123, \"proba\": 0.8123, \"model_version\": \"rf-20240101\"}";
+
+    private final PredictionCodec codec = new PredictionCodec();
+    private final StringBuilder buffer = new StringBuilder(256);
+    private PredictRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchData.requests(1, 42L).get(0);
+    }
+
+    @Benchmark
+    public void codec(Blackhole bh) {
+        buffer.setLength(0);
+        bh.consume(codec.appendRequest(buffer, request));
+        bh.consume(codec.readResponse(ANSWER));
+    }
+
+    @Benchmark
+    public void objectMapperPerCall(Blackhole bh) throws IOException {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("age", request.getAge());
+        payload.put("tenure", request.getTenure());
+        payload.put("monthlyCharges", request.getMonthlyCharges());
+        payload.put("contract", request.getContract());
+        payload.put("internetService", request.getInternetService());
+        payload.put("paymentDelay", request.getPaymentDelay());
+        bh.consume(new ObjectMapper().writeValueAsString(payload));
+        JsonNode node = new ObjectMapper().readTree(ANSWER);
+        String label = node.get("label").asText();
+        bh.consume(new PredictResponse(label, node.get("score").asDouble(), "CHURN".equals(label) ? 1 : 0,
+                new ArrayList<>(), node.get("model_version").asText()));
+    }
+}
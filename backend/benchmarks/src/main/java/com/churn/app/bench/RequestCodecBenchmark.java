@@ -0,0 +1,53 @@
+package com.churn.app.bench;
+
+import com.churn.app.dto.PredictRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Request body handling before scoring: PredictRequest JSON deserialization, then Bean Validation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Validator validator;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        body = ("{\"age\":42,\"tenure\":12,\"monthlyCharges\":79.85,\"contract\":\"Month-to-month\","
+                + "\"internetService\":\"Fiber optic\",\"paymentDelay\":7}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PredictRequest deserialize() throws IOException {
+        return objectMapper.readValue(body, PredictRequest.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PredictRequest>> deserializeAndValidate() throws IOException {
+        return validator.validate(objectMapper.readValue(body, PredictRequest.class));
+    }
+}
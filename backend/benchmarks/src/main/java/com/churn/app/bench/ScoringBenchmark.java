@@ -0,0 +1,83 @@
+package com.churn.app.bench;
+
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.service.ChurnScoringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring throughput per row through each engine: "native" (in-JVM forest), "worker" (warm model_store.py
+ * workers) and "subprocess" (one python process per call). The prediction cache and lookup table are off,
+ * so every operation runs inference. With -prof gc, gc.alloc.rate.norm is the allocation per prediction.
+ * Needs a trained model: python ml/train_rf.py.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    static final int BATCH_ROWS = 100;
+
+    @Param({"native", "worker", "subprocess"})
+    public String path;
+
+    private ChurnScoringService service;
+    private List<PredictRequest> requests;
+    private List<PredictRequest> batch;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Path dir = BenchData.backendDir();
+        Path forest = dir.resolve("models/rf_forest.bin");
+        if (!Files.isRegularFile(forest)) {
+            throw new IllegalStateException("No trained model at " + forest + "; run python ml/train_rf.py first.");
+        }
+        service = new ChurnScoringService(new ChurnScoringService.Options()
+                .python(dir.toString(), "ml/model_store.py")
+                .forest(forest.toString(), "native".equals(path) ? "native" : "python")
+                .pythonWorkers("worker".equals(path) ? 2 : 0)
+                .timeouts(60_000, 3_600_000)
+                .cache(0, 0));
+        requests = BenchData.requests(1024, 1L);
+        batch = requests.subList(0, BATCH_ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public PredictResponse predictSingle() {
+        next = (next + 1) & 1023;
+        return service.predict(requests.get(next));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public List<PredictResponse> predictBatch() {
+        return service.predictBatch(batch);
+    }
+}
@@ -1,6 +1,11 @@
 """
-Lazy-load pipeline and metrics; predict_one(payload) for single-row prediction.
+Lazy-load pipeline and metrics; predict_one(payload) for single-row prediction,
+predict_batch(rows) for many rows with one predict_proba call.
 CLI: read JSON from stdin, print prediction JSON to stdout; on error print to stderr and exit non-zero.
+A {"rows": [...]} request answers {"results": [...], "model_version": ...} in both CLI and worker mode.
+Worker (--worker): load once, then one JSON request per stdin line -> one JSON response per stdout line.
+The first line written is {"ready": true, "model_version": ...}; {"ping": true} answers {"ok": true, ...};
+failures answer {"error": "..."} and the worker keeps running.
 """
 from __future__ import annotations
 
@@ -73,20 +78,59 @@ def predict_one(payload_dict: dict) -> dict:
     pipeline = _load_pipeline()
     proba = float(pipeline.predict_proba(X)[0][1])
     label = "CHURN" if proba >= 0.5 else "NO_CHURN"
-    try:
-        meta = load_metrics()
-        model_version = (meta.get("model") or {}).get("version") or meta.get("model_version") or ""
-    except Exception:
-        model_version = ""
 
     return {
         "label": label,
         "score": proba,
         "proba": proba,
-        "model_version": model_version,
+        "model_version": model_version(),
     }
 
 
+def predict_batch(rows: list) -> list:
+    """
+    Run model prediction for many records with a single DataFrame / predict_proba call.
+    Every row must contain REQUIRED_KEYS. Returns one predict_one-shaped dict per row, in order.
+    """
+    import pandas as pd
+
+    for i, payload_dict in enumerate(rows):
+        missing = [k for k in REQUIRED_KEYS if payload_dict.get(k) is None]
+        if missing:
+            raise ValueError(f"Row {i}: missing required fields: {missing}")
+
+    data = {PIPELINE_COLUMNS[i]: [r[k] for r in rows] for i, k in enumerate(REQUIRED_KEYS)}
+    X = pd.DataFrame(data, columns=PIPELINE_COLUMNS)
+
+    pipeline = _load_pipeline()
+    probas = pipeline.predict_proba(X)[:, 1] if rows else []
+    version = model_version()
+    return [
+        {
+            "label": "CHURN" if p >= 0.5 else "NO_CHURN",
+            "score": float(p),
+            "proba": float(p),
+            "model_version": version,
+        }
+        for p in probas
+    ]
+
+
+def _handle(payload: dict) -> dict:
+    if "rows" in payload:
+        return {"results": predict_batch(payload["rows"]), "model_version": model_version()}
+    return predict_one(payload)
+
+
+def model_version() -> str:
+    """Version from metrics.json, or "" when metrics are unavailable."""
+    try:
+        meta = load_metrics()
+        return (meta.get("model") or {}).get("version") or meta.get("model_version") or ""
+    except Exception:
+        return ""
+
+
 def _cli():
     try:
         raw = sys.stdin.read().strip()
@@ -95,7 +139,7 @@ def _cli():
             print(json.dumps(err), file=sys.stderr)
             sys.exit(1)
         payload = json.loads(raw)
-        out = predict_one(payload)
+        out = _handle(payload)
         print(json.dumps(out))
     except ValueError as e:
         err = {"error": str(e)}
@@ -107,5 +151,36 @@ def _cli():
         sys.exit(1)
 
 
+def _write_line(obj: dict) -> None:
+    sys.stdout.write(json.dumps(obj) + "\n")
+    sys.stdout.flush()
+
+
+def _worker():
+    try:
+        import pandas  # noqa: F401  (pay the import once, before the first request)
+        _load_pipeline()
+    except Exception as e:
+        _write_line({"error": str(e)})
+        sys.exit(1)
+    _write_line({"ready": True, "model_version": model_version()})
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            payload = json.loads(line)
+            if payload.get("ping"):
+                out = {"ok": True, "model_version": model_version()}
+            else:
+                out = _handle(payload)
+        except Exception as e:
+            out = {"error": str(e)}
+        _write_line(out)
+
+
 if __name__ == "__main__":
-    _cli()
+    if "--worker" in sys.argv[1:]:
+        _worker()
+    else:
+        _cli()
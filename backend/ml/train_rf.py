@@ -1,5 +1,5 @@
 """
-Train RandomForest churn model from CSV. Outputs rf_pipeline.joblib and metrics.json.
+Train RandomForest churn model from CSV. Outputs rf_pipeline.joblib, rf_forest.bin, drift_baseline.json and metrics.json.
 Usage: python -m backend.ml.train_rf [--csv path]   or set CHURN_CSV_PATH.
 Default CSV: backend/data/telecom_churn.csv
 """
@@ -8,6 +8,7 @@ from __future__ import annotations
 import argparse
 import json
 import os
+import struct
 import sys
 from pathlib import Path
 
@@ -68,6 +69,113 @@ def _normalize_target(y: pd.Series) -> np.ndarray:
     return (y.astype(str).str.lower().isin(("yes", "1", "true", "churn"))).astype(int).values
 
 
+FOREST_MAGIC = b"CHRF"
+FOREST_FORMAT_VERSION = 1
+
+
+def _pack_str(value: str) -> bytes:
+    data = value.encode("utf-8")
+    return struct.pack("<i", len(data)) + data
+
+
+def _floor_to_float32(values: np.ndarray) -> np.ndarray:
+    """Largest float32 <= each threshold, so float32(x) <= t32 iff float32(x) <= t (sklearn's comparison)."""
+    t32 = values.astype(np.float32)
+    over = t32.astype(np.float64) > values
+    t32[over] = np.nextafter(t32[over], np.float32(-np.inf))
+    return t32
+
+
+def _export_forest(pipeline: Pipeline, path: Path, model_version: str) -> None:
+    """
+    Write the fitted pipeline as rf_forest.bin for in-process scoring (ForestModelLoader memory-maps it).
+    Little-endian: magic, int32 formatVersion/treeCount/nodeCount/featureCount/metaLength, metadata
+    (model version and preprocessing parameters, padded to 8 bytes), then flat node arrays for all trees:
+    float64 value (P(churn) at node), float32 threshold, int32 feature/left/right (absolute, -1 at leaves),
+    int32 roots. Written to a temp file and renamed so readers never see a partial file.
+    """
+    ct = pipeline.named_steps["preprocessor"]
+    num = ct.named_transformers_["num"]
+    cat = ct.named_transformers_["cat"]
+    clf = pipeline.named_steps["classifier"]
+    churn_idx = list(clf.classes_).index(1)
+
+    values, thresholds, features, lefts, rights, roots = [], [], [], [], [], []
+    offset = 0
+    for est in clf.estimators_:
+        t = est.tree_
+        value = t.value[:, 0, :]
+        totals = value.sum(axis=1)
+        totals[totals == 0] = 1.0
+        leaf = t.children_left == -1
+        roots.append(offset)
+        values.append(value[:, churn_idx] / totals)
+        thresholds.append(_floor_to_float32(t.threshold))
+        features.append(np.where(leaf, -1, t.feature))
+        lefts.append(np.where(leaf, -1, t.children_left + offset))
+        rights.append(np.where(leaf, -1, t.children_right + offset))
+        offset += t.node_count
+
+    imputer = num.named_steps["imputer"]
+    scaler = num.named_steps["scaler"]
+    meta = _pack_str(model_version) + struct.pack("<i", len(NUMERIC_FEATURES))
+    for i, name in enumerate(NUMERIC_FEATURES):
+        meta += _pack_str(name) + struct.pack("<ddd", imputer.statistics_[i], scaler.mean_[i], scaler.scale_[i])
+    categories = cat.named_steps["onehot"].categories_
+    most_frequent = cat.named_steps["imputer"].statistics_
+    meta += struct.pack("<i", len(CATEGORICAL_FEATURES))
+    for i, name in enumerate(CATEGORICAL_FEATURES):
+        meta += _pack_str(name) + _pack_str(str(most_frequent[i])) + struct.pack("<i", len(categories[i]))
+        for c in categories[i]:
+            meta += _pack_str(str(c))
+    meta += b"\0" * (-len(meta) % 8)
+    feature_count = len(NUMERIC_FEATURES) + sum(len(c) for c in categories)
+
+    tmp = path.with_name(path.name + ".tmp")
+    with open(tmp, "wb") as f:
+        f.write(FOREST_MAGIC)
+        f.write(struct.pack("<iiiii", FOREST_FORMAT_VERSION, len(roots), offset, feature_count, len(meta)))
+        f.write(meta)
+        f.write(np.concatenate(values).astype("<f8").tobytes())
+        f.write(np.concatenate(thresholds).astype("<f4").tobytes())
+        for arr in (features, lefts, rights):
+            f.write(np.concatenate(arr).astype("<i4").tobytes())
+        f.write(np.asarray(roots, dtype="<i4").tobytes())
+    os.replace(tmp, path)
+
+
+DRIFT_QUANTILES = 20
+
+
+def _numeric_profile(values: np.ndarray) -> dict:
+    """Bin edges at the 5%..95% quantiles (duplicates dropped) and counts; bin k holds (edges[k-1], edges[k]]."""
+    values = values[~np.isnan(values)]
+    if len(values) == 0:
+        return {"edges": [], "counts": [0]}
+    edges = np.unique(np.quantile(values, np.arange(1, DRIFT_QUANTILES) / DRIFT_QUANTILES))
+    counts = np.bincount(np.searchsorted(edges, values, side="left"), minlength=len(edges) + 1)
+    return {"edges": [float(e) for e in edges], "counts": [int(c) for c in counts]}
+
+
+def _export_drift_baseline(X_train: pd.DataFrame, test_scores: np.ndarray, path: Path, model_version: str,
+                           dataset: str) -> None:
+    """
+    Training distributions for the backend's DriftMonitor: quantile bins of each numeric feature and of the holdout
+    scores, counts per category. Empty cells are left out. Temp file + rename, like the other artifacts.
+    """
+    numeric = {name: _numeric_profile(X_train[name].to_numpy(dtype=float)) for name in NUMERIC_FEATURES}
+    numeric["score"] = _numeric_profile(np.asarray(test_scores, dtype=float))
+    categorical = {}
+    for name in CATEGORICAL_FEATURES:
+        counts = X_train[name].dropna().astype(str).value_counts(sort=False)
+        categorical[name] = {"categories": list(counts.index), "counts": [int(c) for c in counts.values]}
+    baseline = {"model_version": model_version, "dataset": dataset, "numeric": numeric, "categorical": categorical}
+    tmp = path.with_name(path.name + ".tmp")
+    with open(tmp, "w", encoding="utf-8") as f:
+        json.dump(baseline, f, indent=2)
+    os.replace(tmp, path)
+
+
 def main():
     parser = argparse.ArgumentParser(description="Train RandomForest churn model")
     parser.add_argument("--csv", default=None, help="Path to churn CSV (default: backend/data/telecom_churn.csv)")
@@ -164,12 +272,22 @@ def main():
     models_dir = Path(__file__).resolve().parent.parent / "models"
     models_dir.mkdir(parents=True, exist_ok=True)
     import joblib
-    joblib.dump(pipeline, models_dir / "rf_pipeline.joblib")
-    with open(models_dir / "metrics.json", "w", encoding="utf-8") as f:
+    # Each artifact is written to a temp file and renamed, so a running backend (which watches models/ and
+    # reloads) never reads a partial file. metrics.json goes last: it carries the version the Python engine reports.
+    pipeline_tmp = models_dir / "rf_pipeline.joblib.tmp"
+    joblib.dump(pipeline, pipeline_tmp)
+    os.replace(pipeline_tmp, models_dir / "rf_pipeline.joblib")
+    _export_forest(pipeline, models_dir / "rf_forest.bin", model_version)
+    _export_drift_baseline(X_train, y_proba, models_dir / "drift_baseline.json", model_version, csv_path.name)
+    metrics_tmp = models_dir / "metrics.json.tmp"
+    with open(metrics_tmp, "w", encoding="utf-8") as f:
         json.dump(metrics, f, indent=2)
+    os.replace(metrics_tmp, models_dir / "metrics.json")
 
     print("Training done.", file=sys.stderr)
     print(f"  Pipeline: {models_dir / 'rf_pipeline.joblib'}", file=sys.stderr)
+    print(f"  Forest:   {models_dir / 'rf_forest.bin'}", file=sys.stderr)
+    print(f"  Drift:    {models_dir / 'drift_baseline.json'}", file=sys.stderr)
     print(f"  Metrics:  {models_dir / 'metrics.json'}", file=sys.stderr)
     print(f"  Accuracy: {accuracy:.4f}  F1: {f1:.4f}  ROC-AUC: {roc_auc:.4f}", file=sys.stderr)
 
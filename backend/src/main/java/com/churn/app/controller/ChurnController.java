@@ -1,8 +1,17 @@
 package com.churn.app.controller;
 
+import com.churn.app.dto.BatchPredictResponse;
 import com.churn.app.dto.PredictRequest;
 import com.churn.app.dto.PredictResponse;
-import com.churn.app.service.ChurnScoringService;
+import com.churn.app.dto.SweepRequest;
+import com.churn.app.dto.SweepResponse;
+import com.churn.app.service.BatchPredictionService;
+import com.churn.app.service.PredictionCoalescer;
+import com.churn.app.service.PredictionLimiter;
+import com.churn.app.service.PredictionMetrics;
+import com.churn.app.service.PredictionSweepService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -20,10 +30,20 @@ public class ChurnController {
 
     private static final Logger log = LoggerFactory.getLogger(ChurnController.class);
 
-    private final ChurnScoringService churnScoringService;
+    private final PredictionCoalescer predictionCoalescer;
+    private final BatchPredictionService batchPredictionService;
+    private final PredictionLimiter predictionLimiter;
+    private final PredictionMetrics predictionMetrics;
+    private final PredictionSweepService predictionSweepService;
 
-    public ChurnController(ChurnScoringService churnScoringService) {
-        this.churnScoringService = churnScoringService;
+    public ChurnController(PredictionCoalescer predictionCoalescer, BatchPredictionService batchPredictionService,
+                           PredictionLimiter predictionLimiter, PredictionMetrics predictionMetrics,
+                           PredictionSweepService predictionSweepService) {
+        this.predictionCoalescer = predictionCoalescer;
+        this.batchPredictionService = batchPredictionService;
+        this.predictionLimiter = predictionLimiter;
+        this.predictionMetrics = predictionMetrics;
+        this.predictionSweepService = predictionSweepService;
     }
 
     @GetMapping("/health")
@@ -42,7 +62,63 @@ public class ChurnController {
 
     @PostMapping(value = "/predict", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<PredictResponse> predict(@Valid @RequestBody PredictRequest request) {
-        PredictResponse response = churnScoringService.predict(request);
-        return ResponseEntity.ok(response);
+        long start = System.nanoTime();
+        try {
+            return ResponseEntity.ok(predictionLimiter.call(() -> predictionCoalescer.predict(request)));
+        } finally {
+            predictionMetrics.recordRequest("predict", System.nanoTime() - start);
+        }
+    }
+
+    @PostMapping(value = "/predict/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchPredictResponse> predictBatch(@RequestBody List<PredictRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return ResponseEntity.ok(predictionLimiter.call(() -> batchPredictionService.predict(requests)));
+        } finally {
+            predictionMetrics.recordRequest("batch", System.nanoTime() - start);
+        }
+    }
+
+    @PostMapping(value = "/predict/batch", consumes = "text/csv", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchPredictResponse> predictBatchCsv(@RequestBody String csv) {
+        long start = System.nanoTime();
+        try {
+            return ResponseEntity.ok(predictionLimiter.call(() -> batchPredictionService.predictCsv(csv)));
+        } finally {
+            predictionMetrics.recordRequest("batch", System.nanoTime() - start);
+        }
+    }
+
+    /** Scores a base request with one or two numeric features stepped over ranges, as one grid. */
+    @PostMapping(value = "/predict/sweep", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SweepResponse> predictSweep(@Valid @RequestBody SweepRequest request) {
+        long start = System.nanoTime();
+        try {
+            return ResponseEntity.ok(predictionLimiter.call(() -> predictionSweepService.sweep(request)));
+        } finally {
+            predictionMetrics.recordRequest("sweep", System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Streams a CSV body of any size: rows are scored in fixed-size chunks and written back as they finish,
+     * as CSV with score,label,error appended, or NDJSON with ?format=ndjson.
+     */
+    @PostMapping(value = "/predict/stream", consumes = "text/csv")
+    public void predictStream(@RequestParam(value = "format", defaultValue = "csv") String format,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        long start = System.nanoTime();
+        try {
+            predictionLimiter.run(() -> {
+                BatchPredictionService.CsvStream stream = batchPredictionService.openCsvStream(request.getInputStream());
+                response.setCharacterEncoding("UTF-8");
+                response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+                stream.writeTo(response.getOutputStream(), ndjson);
+            });
+        } finally {
+            predictionMetrics.recordRequest("stream", System.nanoTime() - start);
+        }
     }
 }
@@ -1,32 +1,173 @@
 package com.churn.app.controller;
 
-import com.churn.app.dto.FeatureImportanceItem;
-import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.dto.AuditLogStats;
+import com.churn.app.dto.CacheStats;
+import com.churn.app.dto.CoalescerStats;
+import com.churn.app.dto.DriftReport;
+import com.churn.app.dto.LabelledOutcome;
+import com.churn.app.dto.ModelVariantStats;
+import com.churn.app.dto.TrainingStatus;
+import com.churn.app.service.AuditLog;
+import com.churn.app.service.ChurnScoringService;
+import com.churn.app.service.DriftMonitor;
 import com.churn.app.service.ModelMetricsService;
+import com.churn.app.service.ModelTrainingService;
+import com.churn.app.service.ModelVariants;
+import com.churn.app.service.PrecomputedJson;
+import com.churn.app.service.PredictionCoalescer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/model")
 public class ModelMetricsController {
 
     private final ModelMetricsService modelMetricsService;
+    private final PredictionCoalescer predictionCoalescer;
+    private final ChurnScoringService churnScoringService;
+    private final ModelVariants modelVariants;
+    private final ModelTrainingService modelTrainingService;
+    private final DriftMonitor driftMonitor;
+    private final AuditLog auditLog;
 
-    public ModelMetricsController(ModelMetricsService modelMetricsService) {
+    public ModelMetricsController(ModelMetricsService modelMetricsService, PredictionCoalescer predictionCoalescer,
+                                  ChurnScoringService churnScoringService, ModelVariants modelVariants,
+                                  ModelTrainingService modelTrainingService, DriftMonitor driftMonitor,
+                                  AuditLog auditLog) {
         this.modelMetricsService = modelMetricsService;
+        this.predictionCoalescer = predictionCoalescer;
+        this.churnScoringService = churnScoringService;
+        this.modelVariants = modelVariants;
+        this.modelTrainingService = modelTrainingService;
+        this.driftMonitor = driftMonitor;
+        this.auditLog = auditLog;
     }
 
-    @GetMapping("/metrics")
-    public ResponseEntity<ModelMetricsResponse> getMetrics() {
-        return ResponseEntity.ok(modelMetricsService.getMetrics());
+    /** Precomputed body: 304 when If-None-Match matches, gzip bytes when the client accepts them. */
+    @GetMapping(value = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getMetrics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return precomputed(modelMetricsService.getMetricsJson(), ifNoneMatch, acceptEncoding);
     }
 
-    @GetMapping("/feature-importance")
-    public ResponseEntity<List<FeatureImportanceItem>> getFeatureImportance() {
-        return ResponseEntity.ok(modelMetricsService.getFeatureImportance());
+    @GetMapping(value = "/feature-importance", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getFeatureImportance(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return precomputed(modelMetricsService.getFeatureImportanceJson(), ifNoneMatch, acceptEncoding);
+    }
+
+    private static ResponseEntity<byte[]> precomputed(PrecomputedJson body, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? body.getGzipEtag() : body.getEtag();
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return res.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return res.body(body.getJson());
+    }
+
+    /** True when Accept-Encoding gives gzip (or, if gzip is not listed, {@code *}) a non-zero q-value. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0.0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0.0;
+        return q > 0.0;
+    }
+
+    /**
+     * Labelled outcomes ({@code score} the service returned, {@code churn} as observed) for the live evaluation
+     * window that GET /api/model/metrics reports once it holds model.evaluation.min-samples of them.
+     */
+    @PostMapping(value = "/outcomes", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Integer>> recordOutcomes(@RequestBody List<LabelledOutcome> outcomes) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", modelMetricsService.recordOutcomes(outcomes)));
+    }
+
+    @GetMapping("/coalescer")
+    public ResponseEntity<CoalescerStats> getCoalescerStats() {
+        return ResponseEntity.ok(predictionCoalescer.getStats());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(churnScoringService.getCacheStats());
+    }
+
+    @GetMapping("/lookup-table")
+    public ResponseEntity<Map<String, Object>> getLookupTableInfo() {
+        return ResponseEntity.ok(churnScoringService.getLookupTableInfo());
+    }
+
+    /** Loaded candidate models with their A/B and shadow comparison counters. */
+    @GetMapping("/variants")
+    public ResponseEntity<List<ModelVariantStats>> getVariants() {
+        return ResponseEntity.ok(modelVariants.getStats());
+    }
+
+    /** Per-feature and score PSI/KS of recent requests against the training baseline (drift_baseline.json). */
+    @GetMapping("/drift")
+    public ResponseEntity<DriftReport> getDrift() {
+        return ResponseEntity.ok(driftMonitor.getReport());
+    }
+
+    /** Ring depth, written and dropped counts of the prediction audit log. */
+    @GetMapping("/audit")
+    public ResponseEntity<AuditLogStats> getAuditStats() {
+        return ResponseEntity.ok(auditLog.getStats());
+    }
+
+    /** Retrains on model.training.csv-path in the background; poll GET /api/model/train for the outcome. */
+    @PostMapping("/train")
+    public ResponseEntity<TrainingStatus> startTraining() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(modelTrainingService.start());
+    }
+
+    @GetMapping("/train")
+    public ResponseEntity<TrainingStatus> getTrainingStatus() {
+        return ResponseEntity.ok(modelTrainingService.getStatus());
     }
 }
@@ -0,0 +1,94 @@
+package com.churn.app.controller;
+
+import com.churn.app.dto.AuditLogStats;
+import com.churn.app.dto.CacheStats;
+import com.churn.app.dto.CoalescerStats;
+import com.churn.app.dto.SessionStoreStats;
+import com.churn.app.service.AuditLog;
+import com.churn.app.service.ChurnScoringService;
+import com.churn.app.service.PredictionCoalescer;
+import com.churn.app.service.PredictionLimiter;
+import com.churn.app.service.PredictionMetrics;
+import com.churn.app.service.ModelVariants;
+import com.churn.app.service.SessionStoreService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Actuator-style scrape endpoint: {@link PredictionMetrics} histograms and counters, plus gauges read from
+ * the limiter, coalescer, cache, session store and audit log at scrape time.
+ */
+@RestController
+@RequestMapping("/actuator")
+public class PrometheusController {
+
+    static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+    private final PredictionMetrics predictionMetrics;
+    private final PredictionLimiter predictionLimiter;
+    private final PredictionCoalescer predictionCoalescer;
+    private final ChurnScoringService churnScoringService;
+    private final SessionStoreService sessionStoreService;
+    private final ModelVariants modelVariants;
+    private final AuditLog auditLog;
+
+    public PrometheusController(PredictionMetrics predictionMetrics, PredictionLimiter predictionLimiter,
+                                PredictionCoalescer predictionCoalescer, ChurnScoringService churnScoringService,
+                                SessionStoreService sessionStoreService, ModelVariants modelVariants, AuditLog auditLog) {
+        this.predictionMetrics = predictionMetrics;
+        this.predictionLimiter = predictionLimiter;
+        this.predictionCoalescer = predictionCoalescer;
+        this.churnScoringService = churnScoringService;
+        this.sessionStoreService = sessionStoreService;
+        this.modelVariants = modelVariants;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> scrape() {
+        StringBuilder out = new StringBuilder(16_384);
+        predictionMetrics.scrape(out);
+        PredictionMetrics.gauge(out, "churn_in_flight_requests", "Prediction calls currently holding a permit.",
+                predictionLimiter.getInFlight());
+        PredictionMetrics.gauge(out, "churn_max_in_flight_requests", "Configured model.max-in-flight (0 = unlimited).",
+                predictionLimiter.getMaxInFlight());
+        PredictionMetrics.counter(out, "churn_admission_rejected_total", "Calls refused with 503 by the limiter.",
+                predictionLimiter.getRejected());
+        CoalescerStats coalescer = predictionCoalescer.getStats();
+        PredictionMetrics.gauge(out, "churn_coalescer_queue_depth", "Single-row requests waiting to be batched.",
+                coalescer.getQueueDepth());
+        PredictionMetrics.counter(out, "churn_coalescer_batches_total", "Coalesced batches scored.", coalescer.getBatches());
+        CacheStats cache = churnScoringService.getCacheStats();
+        PredictionMetrics.gauge(out, "churn_cache_entries", "Scores held in the prediction cache.", cache.getEntries());
+        PredictionMetrics.counter(out, "churn_cache_hits_total", "Prediction cache hits.", cache.getHits());
+        PredictionMetrics.counter(out, "churn_cache_misses_total", "Prediction cache misses.", cache.getMisses());
+        SessionStoreStats sessions = sessionStoreService.getStats();
+        PredictionMetrics.gauge(out, "churn_sessions", "Chat sessions stored.", sessions.getSessions());
+        PredictionMetrics.gauge(out, "churn_sessions_resident", "Sessions held deserialized on the heap.",
+                sessions.getResident());
+        PredictionMetrics.gauge(out, "churn_sessions_resident_bytes", "JSON size of the sessions held on the heap.",
+                sessions.getResidentBytes());
+        PredictionMetrics.gauge(out, "churn_session_log_bytes", "Size of the session log file.", sessions.getDiskBytes());
+        PredictionMetrics.gauge(out, "churn_session_log_live_bytes", "Session log bytes holding current records.",
+                sessions.getLiveDiskBytes());
+        PredictionMetrics.counter(out, "churn_session_cold_loads_total", "Sessions read back from the log.",
+                sessions.getColdLoads());
+        PredictionMetrics.counter(out, "churn_session_evictions_total", "Sessions dropped beyond session.max-sessions.",
+                sessions.getEvictions());
+        PredictionMetrics.counter(out, "churn_session_expirations_total", "Sessions dropped after session.ttl-ms.",
+                sessions.getExpirations());
+        PredictionMetrics.gauge(out, "churn_shadow_queue_depth", "Shadow comparisons waiting to be scored.",
+                modelVariants.getShadowQueueDepth());
+        AuditLogStats audit = auditLog.getStats();
+        PredictionMetrics.gauge(out, "churn_audit_queue_depth", "Audit records waiting for the writer.",
+                audit.getQueueDepth());
+        PredictionMetrics.counter(out, "churn_audit_written_total", "Audit records written to segments.",
+                audit.getWritten());
+        PredictionMetrics.counter(out, "churn_audit_dropped_total", "Audit records lost to a full ring or a write error.",
+                audit.getDropped());
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(out.toString());
+    }
+}
@@ -1,5 +1,6 @@
 package com.churn.app.controller;
 
+import com.churn.app.dto.SessionAck;
 import com.churn.app.service.SessionStoreService;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -31,4 +32,10 @@ public class SessionController {
         sessionStore.put(id, body);
         return ResponseEntity.ok(body);
     }
+
+    /** Adds new messages (and replaces any other given fields) without resending the whole session. */
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SessionAck> appendToSession(@PathVariable String id, @RequestBody Map<String, Object> delta) {
+        return ResponseEntity.ok(sessionStore.append(id, delta));
+    }
 }
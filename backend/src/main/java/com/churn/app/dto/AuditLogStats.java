@@ -0,0 +1,94 @@
+package com.churn.app.dto;
+
+public class AuditLogStats {
+
+    private boolean enabled;
+    private int ringCapacity;
+    private int queueDepth;
+    private long published;
+    private long written;
+    /** Records lost to a full ring (after block-timeout-ms) or a write error. */
+    private long dropped;
+    /** Segment files opened since startup. */
+    private long segments;
+    private String currentSegment;
+
+    public AuditLogStats() {
+    }
+
+    public AuditLogStats(boolean enabled, int ringCapacity, int queueDepth, long published, long written, long dropped,
+                         long segments, String currentSegment) {
+        this.enabled = enabled;
+        this.ringCapacity = ringCapacity;
+        this.queueDepth = queueDepth;
+        this.published = published;
+        this.written = written;
+        this.dropped = dropped;
+        this.segments = segments;
+        this.currentSegment = currentSegment;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRingCapacity() {
+        return ringCapacity;
+    }
+
+    public void setRingCapacity(int ringCapacity) {
+        this.ringCapacity = ringCapacity;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public void setPublished(long published) {
+        this.published = published;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public void setWritten(long written) {
+        this.written = written;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getSegments() {
+        return segments;
+    }
+
+    public void setSegments(long segments) {
+        this.segments = segments;
+    }
+
+    public String getCurrentSegment() {
+        return currentSegment;
+    }
+
+    public void setCurrentSegment(String currentSegment) {
+        this.currentSegment = currentSegment;
+    }
+}
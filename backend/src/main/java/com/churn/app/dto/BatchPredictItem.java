@@ -0,0 +1,63 @@
+package com.churn.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** One row of a batch prediction: label/score when scored, error when the row was rejected. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPredictItem {
+
+    private int row;
+    private String label;
+    private Double score;
+    private String error;
+
+    public BatchPredictItem() {
+    }
+
+    public BatchPredictItem(int row, String label, Double score, String error) {
+        this.row = row;
+        this.label = label;
+        this.score = score;
+        this.error = error;
+    }
+
+    public static BatchPredictItem success(int row, PredictResponse response) {
+        return new BatchPredictItem(row, response.getLabel(), response.getScore(), null);
+    }
+
+    public static BatchPredictItem failure(int row, String error) {
+        return new BatchPredictItem(row, null, null, error);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
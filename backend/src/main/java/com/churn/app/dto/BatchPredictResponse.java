@@ -0,0 +1,53 @@
+package com.churn.app.dto;
+
+import java.util.List;
+
+public class BatchPredictResponse {
+
+    private List<BatchPredictItem> results;
+    private int succeeded;
+    private int failed;
+    private String modelVersion;
+
+    public BatchPredictResponse() {
+    }
+
+    public BatchPredictResponse(List<BatchPredictItem> results, int succeeded, int failed, String modelVersion) {
+        this.results = results;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.modelVersion = modelVersion;
+    }
+
+    public List<BatchPredictItem> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchPredictItem> results) {
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+}
@@ -0,0 +1,75 @@
+package com.churn.app.dto;
+
+import java.util.Map;
+
+public class CoalescerStats {
+
+    private boolean enabled;
+    private int queueDepth;
+    private long batches;
+    private long rows;
+    private long rejected;
+    /** Batch count per size bucket, keyed by the bucket's upper bound ("+Inf" for the last). */
+    private Map<String, Long> batchSizeHistogram;
+
+    public CoalescerStats() {
+    }
+
+    public CoalescerStats(boolean enabled, int queueDepth, long batches, long rows, long rejected,
+                          Map<String, Long> batchSizeHistogram) {
+        this.enabled = enabled;
+        this.queueDepth = queueDepth;
+        this.batches = batches;
+        this.rows = rows;
+        this.rejected = rejected;
+        this.batchSizeHistogram = batchSizeHistogram;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public Map<String, Long> getBatchSizeHistogram() {
+        return batchSizeHistogram;
+    }
+
+    public void setBatchSizeHistogram(Map<String, Long> batchSizeHistogram) {
+        this.batchSizeHistogram = batchSizeHistogram;
+    }
+}
@@ -0,0 +1,66 @@
+package com.churn.app.dto;
+
+import java.util.List;
+
+public class DriftReport {
+
+    /** model_version of the training run the baseline was exported from; null when no baseline is loaded. */
+    private String baselineVersion;
+    private String dataset;
+    /** Requests observed in the reported window. */
+    private long requests;
+    /** Start of the reported window (ISO-8601). */
+    private String since;
+    private List<FeatureDrift> features;
+
+    public DriftReport() {
+    }
+
+    public DriftReport(String baselineVersion, String dataset, long requests, String since, List<FeatureDrift> features) {
+        this.baselineVersion = baselineVersion;
+        this.dataset = dataset;
+        this.requests = requests;
+        this.since = since;
+        this.features = features;
+    }
+
+    public String getBaselineVersion() {
+        return baselineVersion;
+    }
+
+    public void setBaselineVersion(String baselineVersion) {
+        this.baselineVersion = baselineVersion;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public void setDataset(String dataset) {
+        this.dataset = dataset;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public String getSince() {
+        return since;
+    }
+
+    public void setSince(String since) {
+        this.since = since;
+    }
+
+    public List<FeatureDrift> getFeatures() {
+        return features;
+    }
+
+    public void setFeatures(List<FeatureDrift> features) {
+        this.features = features;
+    }
+}
@@ -4,13 +4,19 @@ public class ExplanationItem {
 
     private String feature;
     private String reason;
+    private Double contribution;
 
     public ExplanationItem() {
     }
 
     public ExplanationItem(String feature, String reason) {
+        this(feature, reason, null);
+    }
+
+    public ExplanationItem(String feature, String reason, Double contribution) {
         this.feature = feature;
         this.reason = reason;
+        this.contribution = contribution;
     }
 
     public String getFeature() {
@@ -28,4 +34,13 @@ public class ExplanationItem {
     public void setReason(String reason) {
         this.reason = reason;
     }
+
+    /** Change in churn probability attributed to this feature (positive raises risk), when computed. */
+    public Double getContribution() {
+        return contribution;
+    }
+
+    public void setContribution(Double contribution) {
+        this.contribution = contribution;
+    }
 }
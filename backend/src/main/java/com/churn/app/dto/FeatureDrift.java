@@ -0,0 +1,90 @@
+package com.churn.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class FeatureDrift {
+
+    /** Request feature name, or "score" for the model's output. */
+    private String feature;
+    /** "numeric" or "categorical". */
+    private String type;
+    /** Live values compared with the baseline (empty cells excluded). */
+    private long count;
+    private long missing;
+    /** Population stability index over the baseline's bins. */
+    private double psi;
+    /** Largest gap between the live and baseline CDFs at the bin edges; numeric features only. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double ks;
+    /** "ok" (PSI below 0.1), "warn" (below 0.25), "drift", or "insufficient" before min-samples values. */
+    private String status;
+
+    public FeatureDrift() {
+    }
+
+    public FeatureDrift(String feature, String type, long count, long missing, double psi, Double ks, String status) {
+        this.feature = feature;
+        this.type = type;
+        this.count = count;
+        this.missing = missing;
+        this.psi = psi;
+        this.ks = ks;
+        this.status = status;
+    }
+
+    public String getFeature() {
+        return feature;
+    }
+
+    public void setFeature(String feature) {
+        this.feature = feature;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public void setMissing(long missing) {
+        this.missing = missing;
+    }
+
+    public double getPsi() {
+        return psi;
+    }
+
+    public void setPsi(double psi) {
+        this.psi = psi;
+    }
+
+    public Double getKs() {
+        return ks;
+    }
+
+    public void setKs(Double ks) {
+        this.ks = ks;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -1,9 +1,16 @@
 package com.churn.app.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class Kpis {
 
     private double accuracy;
     private double f1;
+    /** Of CHURN at the 0.5 threshold; absent from metrics.json files written by train_rf.py. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double precision;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double recall;
     private double rocAuc;
     private double churnRate;
     private int samples;
@@ -19,6 +26,16 @@ public class Kpis {
         this.samples = samples;
     }
 
+    public Kpis(double accuracy, double f1, Double precision, Double recall, double rocAuc, double churnRate, int samples) {
+        this.accuracy = accuracy;
+        this.f1 = f1;
+        this.precision = precision;
+        this.recall = recall;
+        this.rocAuc = rocAuc;
+        this.churnRate = churnRate;
+        this.samples = samples;
+    }
+
     public double getAccuracy() {
         return accuracy;
     }
@@ -35,6 +52,22 @@ public class Kpis {
         this.f1 = f1;
     }
 
+    public Double getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(Double precision) {
+        this.precision = precision;
+    }
+
+    public Double getRecall() {
+        return recall;
+    }
+
+    public void setRecall(Double recall) {
+        this.recall = recall;
+    }
+
     public double getRocAuc() {
         return rocAuc;
     }
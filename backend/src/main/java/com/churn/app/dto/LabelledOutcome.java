@@ -0,0 +1,33 @@
+package com.churn.app.dto;
+
+public class LabelledOutcome {
+
+    /** Churn probability the service returned for the customer. */
+    private Double score;
+    /** Whether the customer went on to churn. */
+    private Boolean churn;
+
+    public LabelledOutcome() {
+    }
+
+    public LabelledOutcome(Double score, Boolean churn) {
+        this.score = score;
+        this.churn = churn;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Boolean getChurn() {
+        return churn;
+    }
+
+    public void setChurn(Boolean churn) {
+        this.churn = churn;
+    }
+}
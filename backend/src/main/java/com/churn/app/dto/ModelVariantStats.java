@@ -0,0 +1,123 @@
+package com.churn.app.dto;
+
+public class ModelVariantStats {
+
+    private String name;
+    private String modelVersion;
+    private String path;
+    private double trafficShare;
+    private boolean shadow;
+    private long routed;
+    private long shadowScored;
+    private long shadowDropped;
+    private long disagreements;
+    private double meanAbsDelta;
+    private double maxAbsDelta;
+
+    public ModelVariantStats() {
+    }
+
+    public ModelVariantStats(String name, String modelVersion, String path, double trafficShare, boolean shadow,
+                             long routed, long shadowScored, long shadowDropped, long disagreements,
+                             double meanAbsDelta, double maxAbsDelta) {
+        this.name = name;
+        this.modelVersion = modelVersion;
+        this.path = path;
+        this.trafficShare = trafficShare;
+        this.shadow = shadow;
+        this.routed = routed;
+        this.shadowScored = shadowScored;
+        this.shadowDropped = shadowDropped;
+        this.disagreements = disagreements;
+        this.meanAbsDelta = meanAbsDelta;
+        this.maxAbsDelta = maxAbsDelta;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public double getTrafficShare() {
+        return trafficShare;
+    }
+
+    public void setTrafficShare(double trafficShare) {
+        this.trafficShare = trafficShare;
+    }
+
+    public boolean isShadow() {
+        return shadow;
+    }
+
+    public void setShadow(boolean shadow) {
+        this.shadow = shadow;
+    }
+
+    public long getRouted() {
+        return routed;
+    }
+
+    public void setRouted(long routed) {
+        this.routed = routed;
+    }
+
+    public long getShadowScored() {
+        return shadowScored;
+    }
+
+    public void setShadowScored(long shadowScored) {
+        this.shadowScored = shadowScored;
+    }
+
+    public long getShadowDropped() {
+        return shadowDropped;
+    }
+
+    public void setShadowDropped(long shadowDropped) {
+        this.shadowDropped = shadowDropped;
+    }
+
+    public long getDisagreements() {
+        return disagreements;
+    }
+
+    public void setDisagreements(long disagreements) {
+        this.disagreements = disagreements;
+    }
+
+    public double getMeanAbsDelta() {
+        return meanAbsDelta;
+    }
+
+    public void setMeanAbsDelta(double meanAbsDelta) {
+        this.meanAbsDelta = meanAbsDelta;
+    }
+
+    public double getMaxAbsDelta() {
+        return maxAbsDelta;
+    }
+
+    public void setMaxAbsDelta(double maxAbsDelta) {
+        this.maxAbsDelta = maxAbsDelta;
+    }
+}
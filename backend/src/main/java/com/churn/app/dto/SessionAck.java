@@ -0,0 +1,41 @@
+package com.churn.app.dto;
+
+public class SessionAck {
+
+    private String id;
+    private int messages;
+    private int appended;
+
+    public SessionAck() {
+    }
+
+    public SessionAck(String id, int messages, int appended) {
+        this.id = id;
+        this.messages = messages;
+        this.appended = appended;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public void setMessages(int messages) {
+        this.messages = messages;
+    }
+
+    public int getAppended() {
+        return appended;
+    }
+
+    public void setAppended(int appended) {
+        this.appended = appended;
+    }
+}
@@ -0,0 +1,112 @@
+package com.churn.app.dto;
+
+public class SessionStoreStats {
+
+    private boolean persistent;
+    private int sessions;
+    private int resident;
+    private long residentBytes;
+    private long diskBytes;
+    private long liveDiskBytes;
+    private long spills;
+    private long coldLoads;
+    private long evictions;
+    private long expirations;
+
+    public SessionStoreStats() {
+    }
+
+    public SessionStoreStats(boolean persistent, int sessions, int resident, long residentBytes, long diskBytes,
+                             long liveDiskBytes, long spills, long coldLoads, long evictions, long expirations) {
+        this.persistent = persistent;
+        this.sessions = sessions;
+        this.resident = resident;
+        this.residentBytes = residentBytes;
+        this.diskBytes = diskBytes;
+        this.liveDiskBytes = liveDiskBytes;
+        this.spills = spills;
+        this.coldLoads = coldLoads;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int getResident() {
+        return resident;
+    }
+
+    public void setResident(int resident) {
+        this.resident = resident;
+    }
+
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public void setResidentBytes(long residentBytes) {
+        this.residentBytes = residentBytes;
+    }
+
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public void setDiskBytes(long diskBytes) {
+        this.diskBytes = diskBytes;
+    }
+
+    public long getLiveDiskBytes() {
+        return liveDiskBytes;
+    }
+
+    public void setLiveDiskBytes(long liveDiskBytes) {
+        this.liveDiskBytes = liveDiskBytes;
+    }
+
+    public long getSpills() {
+        return spills;
+    }
+
+    public void setSpills(long spills) {
+        this.spills = spills;
+    }
+
+    public long getColdLoads() {
+        return coldLoads;
+    }
+
+    public void setColdLoads(long coldLoads) {
+        this.coldLoads = coldLoads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public void setExpirations(long expirations) {
+        this.expirations = expirations;
+    }
+}
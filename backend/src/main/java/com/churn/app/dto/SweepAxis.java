@@ -0,0 +1,62 @@
+package com.churn.app.dto;
+
+import jakarta.validation.constraints.*;
+
+public class SweepAxis {
+
+    @NotNull(message = "feature is required")
+    @Pattern(regexp = "^(age|tenure|monthlyCharges|paymentDelay)$", message = "feature must be one of: age, tenure, monthlyCharges, paymentDelay")
+    private String feature;
+
+    @NotNull(message = "from is required")
+    private Double from;
+
+    @NotNull(message = "to is required")
+    private Double to;
+
+    @NotNull(message = "step is required")
+    @DecimalMin(value = "0", inclusive = false, message = "step must be > 0")
+    private Double step;
+
+    public SweepAxis() {
+    }
+
+    public SweepAxis(String feature, Double from, Double to, Double step) {
+        this.feature = feature;
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    public String getFeature() {
+        return feature;
+    }
+
+    public void setFeature(String feature) {
+        this.feature = feature;
+    }
+
+    public Double getFrom() {
+        return from;
+    }
+
+    public void setFrom(Double from) {
+        this.from = from;
+    }
+
+    public Double getTo() {
+        return to;
+    }
+
+    public void setTo(Double to) {
+        this.to = to;
+    }
+
+    public Double getStep() {
+        return step;
+    }
+
+    public void setStep(Double step) {
+        this.step = step;
+    }
+}
@@ -0,0 +1,36 @@
+package com.churn.app.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class SweepRequest {
+
+    @NotNull(message = "base is required")
+    @Valid
+    private PredictRequest base;
+
+    @NotEmpty(message = "axes is required")
+    @Size(max = 2, message = "at most 2 axes can be swept")
+    @Valid
+    private List<SweepAxis> axes;
+
+    public PredictRequest getBase() {
+        return base;
+    }
+
+    public void setBase(PredictRequest base) {
+        this.base = base;
+    }
+
+    public List<SweepAxis> getAxes() {
+        return axes;
+    }
+
+    public void setAxes(List<SweepAxis> axes) {
+        this.axes = axes;
+    }
+}
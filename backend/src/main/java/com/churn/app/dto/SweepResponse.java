@@ -0,0 +1,54 @@
+package com.churn.app.dto;
+
+import java.util.List;
+
+public class SweepResponse {
+
+    private List<String> features;
+    private List<double[]> values;
+    /** One score per grid cell, row-major: the first axis varies slowest. */
+    private double[] scores;
+    private String modelVersion;
+
+    public SweepResponse() {
+    }
+
+    public SweepResponse(List<String> features, List<double[]> values, double[] scores, String modelVersion) {
+        this.features = features;
+        this.values = values;
+        this.scores = scores;
+        this.modelVersion = modelVersion;
+    }
+
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    public void setFeatures(List<String> features) {
+        this.features = features;
+    }
+
+    public List<double[]> getValues() {
+        return values;
+    }
+
+    public void setValues(List<double[]> values) {
+        this.values = values;
+    }
+
+    public double[] getScores() {
+        return scores;
+    }
+
+    public void setScores(double[] scores) {
+        this.scores = scores;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+}
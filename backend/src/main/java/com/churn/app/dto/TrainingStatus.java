@@ -0,0 +1,114 @@
+package com.churn.app.dto;
+
+public class TrainingStatus {
+
+    /** idle, running, succeeded or failed. */
+    private String state;
+    private String dataset;
+    private String startedAt;
+    private String finishedAt;
+    private long elapsedMs;
+    private int trainRows;
+    private int testRows;
+    private int trees;
+    private String modelVersion;
+    /** Why the last run failed; null otherwise. */
+    private String error;
+
+    public TrainingStatus() {
+    }
+
+    public TrainingStatus(String state, String dataset, String startedAt, String finishedAt, long elapsedMs,
+                          int trainRows, int testRows, int trees, String modelVersion, String error) {
+        this.state = state;
+        this.dataset = dataset;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.elapsedMs = elapsedMs;
+        this.trainRows = trainRows;
+        this.testRows = testRows;
+        this.trees = trees;
+        this.modelVersion = modelVersion;
+        this.error = error;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public void setDataset(String dataset) {
+        this.dataset = dataset;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public int getTrainRows() {
+        return trainRows;
+    }
+
+    public void setTrainRows(int trainRows) {
+        this.trainRows = trainRows;
+    }
+
+    public int getTestRows() {
+        return testRows;
+    }
+
+    public void setTestRows(int testRows) {
+        this.testRows = testRows;
+    }
+
+    public int getTrees() {
+        return trees;
+    }
+
+    public void setTrees(int trees) {
+        this.trees = trees;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
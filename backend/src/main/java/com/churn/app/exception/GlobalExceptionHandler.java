@@ -1,5 +1,6 @@
 package com.churn.app.exception;
 
+import com.churn.app.service.PredictionMetrics;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,16 +14,32 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final PredictionMetrics predictionMetrics;
+
+    public GlobalExceptionHandler(PredictionMetrics predictionMetrics) {
+        this.predictionMetrics = predictionMetrics;
+    }
+
     @ExceptionHandler(PredictionException.class)
     public ResponseEntity<Map<String, Object>> handlePrediction(PredictionException ex) {
+        predictionMetrics.recordError(ex, ex.getStatusCode());
         Map<String, Object> body = new HashMap<>();
         body.put("message", ex.getMessage() != null ? ex.getMessage() : "Prediction failed");
         body.put("status", ex.getStatusCode());
         return ResponseEntity.status(ex.getStatusCode()).body(body);
     }
 
+    @ExceptionHandler(SessionException.class)
+    public ResponseEntity<Map<String, Object>> handleSession(SessionException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("status", ex.getStatusCode());
+        return ResponseEntity.status(ex.getStatusCode()).body(body);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
+        predictionMetrics.recordError(ex, 400);
         String message = ex.getBindingResult().getFieldErrors().stream()
                 .map(e -> e.getField() + ": " + e.getDefaultMessage())
                 .collect(Collectors.joining("; "));
@@ -34,6 +51,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
+        predictionMetrics.recordError(ex, 500);
         Map<String, Object> body = new HashMap<>();
         body.put("message", ex.getMessage() != null ? ex.getMessage() : "Internal server error");
         body.put("status", 500);
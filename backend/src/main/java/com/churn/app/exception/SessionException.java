@@ -0,0 +1,18 @@
+package com.churn.app.exception;
+
+/** A rejected session request; kept apart from {@link PredictionException} so it is not counted as a prediction error. */
+public class SessionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public SessionException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
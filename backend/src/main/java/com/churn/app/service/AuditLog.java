@@ -0,0 +1,422 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.AuditLogStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Audit trail of every answered prediction: inputs, score, label, model version and latency.
+ * {@link ChurnScoringService} calls {@link #publish}, which claims a slot of a preallocated ring with one CAS, copies
+ * the field references into it and marks it ready (per-slot sequence numbers, as in Vyukov's bounded queue), so the
+ * request thread never locks, allocates or touches the disk. A single writer thread drains the ring in batches and
+ * copies each record into the current segment file, which is memory-mapped at its full size: appending is a
+ * memcpy into the page cache, without a system call per record or per batch.
+ * <p>
+ * Segments are {@code audit-NNNNNNNN.seg} in model.audit.dir, numbered on from the highest already there. One is
+ * closed when the next record would not fit in segment-bytes: it is forced to disk and truncated to its records.
+ * The open segment is forced every force-interval-ms (0 leaves it to the OS), so a process crash loses nothing and a
+ * power loss at most that interval. When the ring is full a caller waits up to block-timeout-ms for the writer, then
+ * the record is dropped and counted, so a slow disk can never stall predictions for longer than that.
+ * <p>
+ * A segment starts with {@code int magic | int format}, then records of
+ * {@code int length | long timestamp | long latencyNanos | double score | byte present | int age | int tenure |
+ * double monthlyCharges | int paymentDelay | contract | internetService | label | modelVersion | int crc32}, where
+ * each string is {@code short length | utf-8} (length -1 for null), {@code present} flags which of the four numeric
+ * inputs were given, and the crc covers everything between length and crc. The length is written last, so a reader
+ * of the open segment stops at the first zero length. {@link AuditLogReader} replays segments as NDJSON.
+ */
+@Service
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    static final int MAGIC = 0x43484155;
+    static final int FORMAT = 1;
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    /** timestamp, latency, score, present, four numeric inputs and the crc; strings come on top. */
+    static final int FIXED_BYTES = 3 * Long.BYTES + 1 + 3 * Integer.BYTES + Double.BYTES + Integer.BYTES;
+    /** Longer strings are cut; keeps every record well inside the smallest segment. */
+    static final int MAX_STRING_CHARS = 256;
+    static final int MIN_SEGMENT_BYTES = 4096;
+    static final int AGE = 1;
+    static final int TENURE = 2;
+    static final int MONTHLY_CHARGES = 4;
+    static final int PAYMENT_DELAY = 8;
+    private static final int BATCH = 1024;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long blockNanos;
+    private final long forceIntervalMs;
+    private final int mask;
+    private final Slot[] slots;
+    /** Per slot: the position it is free for, or that position + 1 once a producer has filled it. */
+    private final AtomicLongArray sequence;
+    /** Next position to claim; every claim is one published record. */
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    /** Records taken off the ring by the writer, whether appended or lost to a write error. */
+    private volatile long taken;
+    /** Records actually appended to a segment. */
+    private volatile long written;
+    private volatile long segments;
+    private volatile String currentSegment;
+
+    // Writer thread only (or the closing thread once the writer is gone).
+    private long head;
+    private int nextSegment;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private boolean dirty;
+    private long lastForce;
+    private final ByteBuffer scratch;
+    private final CRC32 crc = new CRC32();
+    private final Map<String, byte[]> utf8 = new HashMap<>();
+
+    @Autowired
+    public AuditLog(@Value("${model.audit.enabled:false}") boolean enabled,
+                    @Value("${model.audit.dir:./audit}") String dir,
+                    @Value("${model.audit.segment-bytes:67108864}") int segmentBytes,
+                    @Value("${model.audit.ring-capacity:65536}") int ringCapacity,
+                    @Value("${model.audit.block-timeout-ms:0}") long blockTimeoutMs,
+                    @Value("${model.audit.force-interval-ms:1000}") long forceIntervalMs) {
+        this(enabled ? Path.of(dir) : null, segmentBytes, ringCapacity, blockTimeoutMs, forceIntervalMs,
+                VirtualThreads.factory("audit-writer", false));
+    }
+
+    AuditLog(Path dir, int segmentBytes, int ringCapacity, long blockTimeoutMs, long forceIntervalMs,
+             ThreadFactory threads) {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("model.audit.segment-bytes must be at least " + MIN_SEGMENT_BYTES + ": "
+                    + segmentBytes);
+        }
+        if (ringCapacity < 1 || ringCapacity > 1 << 30) {
+            throw new IllegalArgumentException("model.audit.ring-capacity must be between 1 and 2^30: " + ringCapacity);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMs));
+        this.forceIntervalMs = forceIntervalMs;
+        int capacity = dir != null ? Math.max(2, Integer.highestOneBit(ringCapacity - 1) << 1) : 1;
+        this.mask = capacity - 1;
+        this.slots = new Slot[capacity];
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequence.set(i, i);
+        }
+        this.scratch = ByteBuffer.allocate(dir != null ? FIXED_BYTES + 4 * (Short.BYTES + 3 * MAX_STRING_CHARS) : 0);
+        if (dir != null) {
+            this.nextSegment = lastSegment(dir) + 1;
+            this.writer = threads.newThread(this::writeLoop);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /** A log that records nothing. */
+    public static AuditLog none() {
+        return new AuditLog(null, MIN_SEGMENT_BYTES, 1, 0, 0, null);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Queues one answered prediction for the writer. Never throws and never touches the disk; when the ring stays full
+     * for block-timeout-ms (immediately by default) the record is dropped and counted instead.
+     */
+    public void publish(PredictRequest req, PredictResponse response, long latencyNanos) {
+        if (dir == null) {
+            return;
+        }
+        long pos = running ? claim() : -1;
+        if (pos < 0) {
+            dropped.increment();
+            return;
+        }
+        int i = (int) pos & mask;
+        slots[i].set(System.currentTimeMillis(), latencyNanos, req, response);
+        sequence.set(i, pos + 1);
+    }
+
+    private long claim() {
+        long deadline = 0;
+        boolean waiting = false;
+        while (true) {
+            long pos = tail.get();
+            long diff = sequence.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (diff < 0) {
+                // The slot still holds the record from one lap ago: the ring is full.
+                long now = System.nanoTime();
+                if (!waiting) {
+                    deadline = now + blockNanos;
+                    waiting = true;
+                }
+                if (now - deadline >= 0 || !running) {
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+            }
+        }
+    }
+
+    public AuditLogStats getStats() {
+        long published = tail.get();
+        return new AuditLogStats(dir != null, slots.length, (int) Math.max(0, published - taken), published, written,
+                dropped.sum(), segments, currentSegment);
+    }
+
+    /** Stops the writer once it has written everything queued, then closes the open segment. */
+    @PreDestroy
+    public void close() {
+        if (writer == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Audit writer did not finish within 10s; {} records may be missing from {}",
+                    tail.get() - taken, dir);
+            return;
+        }
+        // Normally a no-op; covers a writer that died early.
+        drain(Integer.MAX_VALUE);
+        closeSegment();
+    }
+
+    private void writeLoop() {
+        try {
+            while (running) {
+                if (drain(BATCH) == 0) {
+                    force(false);
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+            drain(Integer.MAX_VALUE);
+            closeSegment();
+        } catch (RuntimeException e) {
+            // Callers then drop straight away instead of waiting on a ring nobody drains.
+            running = false;
+            log.error("Audit writer stopped", e);
+            closeSegment();
+        }
+    }
+
+    /** Writes up to {@code max} ready records in ring order; returns how many it took off the ring. */
+    private int drain(int max) {
+        int n = 0;
+        int appended = 0;
+        while (n < max) {
+            int i = (int) head & mask;
+            if (sequence.get(i) != head + 1) {
+                break;
+            }
+            Slot slot = slots[i];
+            try {
+                append(slot);
+                appended++;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Audit record lost, starting a new segment: {}", e.toString());
+                dropped.increment();
+                abandonSegment();
+            }
+            slot.clear();
+            sequence.set(i, head + slots.length);
+            head++;
+            n++;
+        }
+        if (n > 0) {
+            taken = head;
+            written += appended;
+        }
+        return n;
+    }
+
+    private void append(Slot s) throws IOException {
+        ByteBuffer b = scratch.clear();
+        b.putLong(s.timestamp).putLong(s.latencyNanos).putDouble(s.score);
+        b.put((byte) ((s.age != null ? AGE : 0) | (s.tenure != null ? TENURE : 0)
+                | (s.monthlyCharges != null ? MONTHLY_CHARGES : 0) | (s.paymentDelay != null ? PAYMENT_DELAY : 0)));
+        b.putInt(s.age != null ? s.age : 0).putInt(s.tenure != null ? s.tenure : 0);
+        b.putDouble(s.monthlyCharges != null ? s.monthlyCharges : 0.0).putInt(s.paymentDelay != null ? s.paymentDelay : 0);
+        putString(b, s.contract);
+        putString(b, s.internetService);
+        putString(b, s.label);
+        putString(b, s.modelVersion);
+        crc.reset();
+        crc.update(b.array(), 0, b.position());
+        b.putInt((int) crc.getValue());
+        b.flip();
+        if (map == null || map.remaining() < Integer.BYTES + b.remaining()) {
+            closeSegment();
+            openSegment();
+        }
+        int at = map.position();
+        map.position(at + Integer.BYTES);
+        map.put(b);
+        map.putInt(at, b.limit());
+        dirty = true;
+    }
+
+    private void putString(ByteBuffer b, String s) {
+        if (s == null) {
+            b.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = utf8.get(s);
+        if (bytes == null) {
+            bytes = (s.length() > MAX_STRING_CHARS ? s.substring(0, MAX_STRING_CHARS) : s).getBytes(StandardCharsets.UTF_8);
+            // Contract, internet service, label and version repeat endlessly; anything else just churns the map.
+            if (utf8.size() >= 256) {
+                utf8.clear();
+            }
+            utf8.put(s, bytes);
+        }
+        b.putShort((short) bytes.length).put(bytes);
+    }
+
+    private void openSegment() throws IOException {
+        Files.createDirectories(dir);
+        Path path = dir.resolve(segmentName(nextSegment++));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        map.putInt(MAGIC).putInt(FORMAT);
+        lastForce = System.currentTimeMillis();
+        segments++;
+        currentSegment = path.getFileName().toString();
+    }
+
+    /** Flushes the open segment, truncates it to its records and closes it. */
+    private void closeSegment() {
+        if (map == null) {
+            return;
+        }
+        try {
+            force(true);
+            channel.truncate(map.position());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not finish audit segment {}: {}", currentSegment, e.toString());
+        }
+        abandonSegment();
+    }
+
+    private void abandonSegment() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close audit segment {}: {}", currentSegment, e.toString());
+        }
+        channel = null;
+        map = null;
+        dirty = false;
+        currentSegment = null;
+    }
+
+    private void force(boolean always) {
+        if (map == null || !dirty) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (always || forceIntervalMs > 0 && now - lastForce >= forceIntervalMs) {
+            map.force();
+            dirty = false;
+            lastForce = now;
+        }
+    }
+
+    static String segmentName(int n) {
+        return String.format("%s%08d%s", PREFIX, n, SUFFIX);
+    }
+
+    /** Highest segment number in {@code dir}, or 0; new segments never reuse a name. */
+    private static int lastSegment(Path dir) {
+        int last = 0;
+        for (Path path : AuditLogReader.segments(dir)) {
+            String name = path.getFileName().toString();
+            try {
+                last = Math.max(last, Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                // Not one of ours.
+            }
+        }
+        return last;
+    }
+
+    /** One ring entry; references to the request's immutable boxed values and strings, nothing copied. */
+    private static final class Slot {
+        long timestamp;
+        long latencyNanos;
+        double score;
+        Integer age;
+        Integer tenure;
+        Double monthlyCharges;
+        Integer paymentDelay;
+        String contract;
+        String internetService;
+        String label;
+        String modelVersion;
+
+        void set(long timestamp, long latencyNanos, PredictRequest req, PredictResponse response) {
+            this.timestamp = timestamp;
+            this.latencyNanos = latencyNanos;
+            this.score = response.getScore();
+            this.age = req.getAge();
+            this.tenure = req.getTenure();
+            this.monthlyCharges = req.getMonthlyCharges();
+            this.paymentDelay = req.getPaymentDelay();
+            this.contract = req.getContract();
+            this.internetService = req.getInternetService();
+            this.label = response.getLabel();
+            this.modelVersion = response.getModelVersion();
+        }
+
+        void clear() {
+            age = tenure = paymentDelay = null;
+            monthlyCharges = null;
+            contract = internetService = label = modelVersion = null;
+        }
+    }
+}
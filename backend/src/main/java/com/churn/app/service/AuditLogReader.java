@@ -0,0 +1,207 @@
+package com.churn.app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Replays {@link AuditLog} segments for offline analysis. Uses only the JDK, so it runs straight off the compiled
+ * classes against a copy of the audit directory (or the live one: the open segment is read up to its last complete
+ * record):
+ * <pre>
+ * java -cp backend/target/classes com.churn.app.service.AuditLogReader ./audit &gt; predictions.ndjson
+ * </pre>
+ * Each argument is a segment file or a directory of them; every record becomes one JSON line. A segment is read up
+ * to its first incomplete or corrupt record, which is reported on stderr.
+ */
+public final class AuditLogReader {
+
+    /** One audit record; numeric inputs and strings are null when absent from the request. */
+    public static final class Entry {
+        public final long timestamp;
+        public final long latencyNanos;
+        public final double score;
+        public final Integer age;
+        public final Integer tenure;
+        public final Double monthlyCharges;
+        public final Integer paymentDelay;
+        public final String contract;
+        public final String internetService;
+        public final String label;
+        public final String modelVersion;
+
+        Entry(ByteBuffer b) {
+            timestamp = b.getLong();
+            latencyNanos = b.getLong();
+            score = b.getDouble();
+            int present = b.get();
+            int age = b.getInt();
+            int tenure = b.getInt();
+            double monthlyCharges = b.getDouble();
+            int paymentDelay = b.getInt();
+            this.age = (present & AuditLog.AGE) != 0 ? age : null;
+            this.tenure = (present & AuditLog.TENURE) != 0 ? tenure : null;
+            this.monthlyCharges = (present & AuditLog.MONTHLY_CHARGES) != 0 ? monthlyCharges : null;
+            this.paymentDelay = (present & AuditLog.PAYMENT_DELAY) != 0 ? paymentDelay : null;
+            contract = string(b);
+            internetService = string(b);
+            label = string(b);
+            modelVersion = string(b);
+        }
+
+        private static String string(ByteBuffer b) {
+            int length = b.getShort();
+            if (length < 0) {
+                return null;
+            }
+            String s = new String(b.array(), b.arrayOffset() + b.position(), length, StandardCharsets.UTF_8);
+            b.position(b.position() + length);
+            return s;
+        }
+
+        /** The record as one line of JSON (no trailing newline). */
+        public void appendJson(StringBuilder out) {
+            out.append("{\"timestamp\":\"").append(Instant.ofEpochMilli(timestamp)).append('"');
+            out.append(",\"latencyMs\":").append(latencyNanos / 1_000_000.0);
+            out.append(",\"modelVersion\":");
+            json(out, modelVersion);
+            out.append(",\"label\":");
+            json(out, label);
+            out.append(",\"score\":").append(Double.isFinite(score) ? Double.toString(score) : "null");
+            out.append(",\"age\":").append(age);
+            out.append(",\"tenure\":").append(tenure);
+            out.append(",\"monthlyCharges\":").append(monthlyCharges);
+            out.append(",\"contract\":");
+            json(out, contract);
+            out.append(",\"internetService\":");
+            json(out, internetService);
+            out.append(",\"paymentDelay\":").append(paymentDelay).append('}');
+        }
+
+        private static void json(StringBuilder out, String s) {
+            if (s == null) {
+                out.append("null");
+                return;
+            }
+            out.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AuditLogReader <audit dir or segment>...");
+            System.exit(2);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        StringBuilder line = new StringBuilder(256);
+        long count = 0;
+        for (String arg : args) {
+            Path path = Path.of(arg);
+            count += replay(path, entry -> {
+                line.setLength(0);
+                entry.appendJson(line);
+                line.append('\n');
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        out.flush();
+        System.err.println(count + " records");
+    }
+
+    /** Hands every record under {@code path} (a segment, or a directory of them in order) to {@code consumer}. */
+    public static long replay(Path path, Consumer<Entry> consumer) throws IOException {
+        long count = 0;
+        for (Path segment : Files.isDirectory(path) ? segments(path) : List.of(path)) {
+            count += replaySegment(segment, consumer);
+        }
+        return count;
+    }
+
+    /** Segment files in {@code dir}, oldest first; empty when the directory does not exist. */
+    static List<Path> segments(Path dir) {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return out;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(AuditLog.PREFIX) && name.endsWith(AuditLog.SUFFIX);
+            }).sorted().forEach(out::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    private static long replaySegment(Path segment, Consumer<Entry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < AuditLog.HEADER_BYTES) {
+                return 0;
+            }
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt() != AuditLog.MAGIC || map.getInt() != AuditLog.FORMAT) {
+                System.err.println(segment + ": not an audit segment (format " + AuditLog.FORMAT + ")");
+                return 0;
+            }
+            byte[] body = new byte[AuditLog.FIXED_BYTES + 4 * (Short.BYTES + 3 * AuditLog.MAX_STRING_CHARS)];
+            CRC32 crc = new CRC32();
+            long count = 0;
+            while (map.remaining() >= Integer.BYTES) {
+                int length = map.getInt();
+                if (length == 0) {
+                    // Unwritten tail of the segment the service still has open.
+                    break;
+                }
+                if (length < AuditLog.FIXED_BYTES || length > body.length || length > map.remaining()) {
+                    System.err.println(segment + ": bad record length at offset " + (map.position() - Integer.BYTES));
+                    break;
+                }
+                map.get(body, 0, length);
+                crc.reset();
+                crc.update(body, 0, length - Integer.BYTES);
+                ByteBuffer record = ByteBuffer.wrap(body, 0, length);
+                if ((int) crc.getValue() != record.getInt(length - Integer.BYTES)) {
+                    System.err.println(segment + ": checksum mismatch at offset " + (map.position() - length - Integer.BYTES));
+                    break;
+                }
+                consumer.accept(new Entry(record));
+                count++;
+            }
+            return count;
+        }
+    }
+}
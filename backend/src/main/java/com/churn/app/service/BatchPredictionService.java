@@ -0,0 +1,343 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.BatchPredictItem;
+import com.churn.app.dto.BatchPredictResponse;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Validates and scores many rows per call for POST /api/predict/batch and /api/predict/stream.
+ * Invalid rows get a per-row error; valid rows are scored together by {@link ChurnScoringService#predictBatch}.
+ */
+@Service
+public class BatchPredictionService {
+
+    /** Chunks in flight while streaming: chunk N is scored while chunk N+1 is parsed. */
+    private static final int STREAM_PIPELINE_DEPTH = 2;
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private final ChurnScoringService churnScoringService;
+    private final Validator validator;
+    private final int maxRows;
+    private final int streamBatchRows;
+    private final ExecutorService streamExecutor;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public BatchPredictionService(ChurnScoringService churnScoringService, Validator validator,
+                                  @Value("${model.batch-max-rows:50000}") int maxRows,
+                                  @Value("${model.stream-batch-rows:1000}") int streamBatchRows,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.churnScoringService = churnScoringService;
+        this.validator = validator;
+        this.maxRows = maxRows;
+        this.streamBatchRows = streamBatchRows;
+        // Chunk scoring blocks on the engine; on virtual threads that no longer pins a platform thread per chunk.
+        this.streamExecutor = VirtualThreads.newExecutor("predict-stream", virtualThreads,
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @PreDestroy
+    public void close() {
+        streamExecutor.shutdownNow();
+    }
+
+    public BatchPredictResponse predict(List<PredictRequest> rows) {
+        if (rows == null) {
+            throw new PredictionException("Request body must be a JSON array of predict requests.", 400);
+        }
+        checkSize(rows.size());
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            errors[i] = rows.get(i) == null ? "row is null" : validate(rows.get(i));
+        }
+        return score(rows, errors);
+    }
+
+    public BatchPredictResponse predictCsv(String csv) {
+        String[] lines = csv == null ? new String[0] : csv.split("\r?\n");
+        int start = 0;
+        while (start < lines.length && lines[start].isBlank()) start++;
+        if (start == lines.length) {
+            throw new PredictionException("CSV body is empty.", 400);
+        }
+        PredictCsv format;
+        try {
+            format = PredictCsv.fromHeader(lines[start]);
+        } catch (IllegalArgumentException e) {
+            throw new PredictionException(e.getMessage(), 400);
+        }
+        List<PredictRequest> rows = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = start + 1; i < lines.length; i++) {
+            if (lines[i].isBlank()) continue;
+            checkSize(rows.size() + 1);
+            try {
+                PredictRequest req = format.parse(lines[i]);
+                rows.add(req);
+                errors.add(validate(req));
+            } catch (IllegalArgumentException e) {
+                rows.add(null);
+                errors.add(e.getMessage());
+            }
+        }
+        return score(rows, errors.toArray(new String[0]));
+    }
+
+    /** Field errors in the same "field: message" form as GlobalExceptionHandler, or null when valid. */
+    String validate(PredictRequest req) {
+        Set<ConstraintViolation<PredictRequest>> violations = validator.validate(req);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private void checkSize(int size) {
+        if (size > maxRows) {
+            throw new PredictionException("Batch too large: at most " + maxRows + " rows per request.", 413);
+        }
+    }
+
+    private BatchPredictResponse score(List<PredictRequest> rows, String[] errors) {
+        List<PredictRequest> valid = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null) {
+                valid.add(rows.get(i));
+            }
+        }
+        List<PredictResponse> scored = churnScoringService.predictBatch(valid);
+        BatchPredictItem[] items = new BatchPredictItem[rows.size()];
+        int next = 0;
+        String modelVersion = null;
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] != null) {
+                items[i] = BatchPredictItem.failure(i, errors[i]);
+            } else {
+                PredictResponse response = scored.get(next++);
+                modelVersion = response.getModelVersion();
+                items[i] = BatchPredictItem.success(i, response);
+            }
+        }
+        return new BatchPredictResponse(Arrays.asList(items), valid.size(), rows.size() - valid.size(), modelVersion);
+    }
+
+    /**
+     * Reads the CSV header of a streamed body; throws PredictionException (400) before any output is written
+     * when it is empty or lacks a column. Rows are read later by {@link CsvStream#writeTo}.
+     */
+    public CsvStream openCsvStream(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), STREAM_BUFFER_BYTES);
+        String header;
+        do {
+            header = reader.readLine();
+        } while (header != null && header.isBlank());
+        if (header == null) {
+            throw new PredictionException("CSV body is empty.", 400);
+        }
+        try {
+            return new CsvStream(reader, header, PredictCsv.fromHeader(header));
+        } catch (IllegalArgumentException e) {
+            throw new PredictionException(e.getMessage(), 400);
+        }
+    }
+
+    /**
+     * A CSV body being scored chunk by chunk. Heap use is bounded by {@code model.stream-batch-rows}
+     * times the pipeline depth, whatever the size of the file.
+     */
+    public final class CsvStream {
+
+        private final BufferedReader reader;
+        private final String header;
+        private final PredictCsv format;
+        private int nextRow;
+
+        private CsvStream(BufferedReader reader, String header, PredictCsv format) {
+            this.reader = reader;
+            this.header = header;
+            this.format = format;
+        }
+
+        /** Writes the input lines with score,label,error appended (CSV) or one JSON object per row (NDJSON). */
+        public void writeTo(OutputStream out, boolean ndjson) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_BYTES);
+            JsonGenerator json = null;
+            if (ndjson) {
+                json = jsonFactory.createGenerator(writer);
+                json.setRootValueSeparator(null);
+            } else {
+                writer.write(header);
+                writer.write(",score,label,error\n");
+            }
+            ArrayDeque<Chunk> inFlight = new ArrayDeque<>(STREAM_PIPELINE_DEPTH);
+            Chunk chunk;
+            while ((chunk = readChunk()) != null) {
+                List<PredictRequest> valid = chunk.valid();
+                chunk.scored = CompletableFuture.supplyAsync(() -> churnScoringService.predictBatch(valid), streamExecutor);
+                inFlight.add(chunk);
+                if (inFlight.size() >= STREAM_PIPELINE_DEPTH) {
+                    writeChunk(inFlight.poll(), writer, json);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeChunk(inFlight.poll(), writer, json);
+            }
+            if (json != null) {
+                json.flush();
+            }
+            writer.flush();
+        }
+
+        private Chunk readChunk() throws IOException {
+            Chunk chunk = null;
+            String line;
+            while ((chunk == null || chunk.size < streamBatchRows) && (line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (chunk == null) {
+                    chunk = new Chunk(nextRow, streamBatchRows);
+                }
+                PredictRequest req = null;
+                String error;
+                try {
+                    req = format.parse(line);
+                    error = validate(req);
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                chunk.add(line, req, error);
+                nextRow++;
+            }
+            return chunk;
+        }
+
+        private void writeChunk(Chunk chunk, Writer writer, JsonGenerator json) throws IOException {
+            List<PredictResponse> scored;
+            try {
+                scored = chunk.scored.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+            int next = 0;
+            for (int i = 0; i < chunk.size; i++) {
+                PredictResponse response = chunk.errors[i] == null ? scored.get(next++) : null;
+                if (json != null) {
+                    writeJsonRow(json, chunk.firstRow + i, chunk.requests[i], response, chunk.errors[i]);
+                } else {
+                    writeCsvRow(writer, chunk.lines[i], response, chunk.errors[i]);
+                }
+            }
+            if (json != null) {
+                json.flush();
+            }
+            writer.flush();
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, String line, PredictResponse response, String error) throws IOException {
+        writer.write(line);
+        if (response != null) {
+            writer.write(',');
+            writer.write(Double.toString(response.getScore()));
+            writer.write(',');
+            writer.write(response.getLabel());
+            writer.write(",\n");
+        } else {
+            writer.write(",,,\"");
+            writer.write(error.replace("\"", "\"\""));
+            writer.write("\"\n");
+        }
+    }
+
+    private static void writeJsonRow(JsonGenerator json, int row, PredictRequest req, PredictResponse response,
+                                     String error) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("row", row);
+        if (req != null) {
+            writeField(json, "age", req.getAge());
+            writeField(json, "tenure", req.getTenure());
+            if (req.getMonthlyCharges() != null) json.writeNumberField("monthlyCharges", req.getMonthlyCharges());
+            if (req.getContract() != null) json.writeStringField("contract", req.getContract());
+            if (req.getInternetService() != null) json.writeStringField("internetService", req.getInternetService());
+            writeField(json, "paymentDelay", req.getPaymentDelay());
+        }
+        if (response != null) {
+            json.writeNumberField("score", response.getScore());
+            json.writeStringField("label", response.getLabel());
+        } else {
+            json.writeStringField("error", error);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeField(JsonGenerator json, String name, Integer value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(name, value);
+        }
+    }
+
+    /** Up to streamBatchRows parsed lines plus the pending score for the valid ones. */
+    private static final class Chunk {
+        final int firstRow;
+        final String[] lines;
+        final PredictRequest[] requests;
+        final String[] errors;
+        int size;
+        CompletableFuture<List<PredictResponse>> scored;
+
+        Chunk(int firstRow, int capacity) {
+            this.firstRow = firstRow;
+            this.lines = new String[capacity];
+            this.requests = new PredictRequest[capacity];
+            this.errors = new String[capacity];
+        }
+
+        void add(String line, PredictRequest req, String error) {
+            lines[size] = line;
+            requests[size] = req;
+            errors[size] = error;
+            size++;
+        }
+
+        List<PredictRequest> valid() {
+            List<PredictRequest> valid = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (errors[i] == null) {
+                    valid.add(requests[i]);
+                }
+            }
+            return valid;
+        }
+    }
+}
@@ -1,62 +1,607 @@
 package com.churn.app.service;
 
+import com.churn.app.dto.CacheStats;
 import com.churn.app.dto.ExplanationItem;
 import com.churn.app.dto.PredictRequest;
 import com.churn.app.dto.PredictResponse;
+import com.churn.app.dto.SweepResponse;
 import com.churn.app.exception.PredictionException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Scores churn requests. Uses the in-process {@link ForestModel} when rf_forest.bin is available
+ * (engine "native", or "auto" with the export present); otherwise sends requests to a pool of warm
+ * ml/model_store.py workers, or starts the script per request when model.python-workers=0.
+ * With model.lookup-table.enabled the forest's scores are also precomputed ({@link ForestLookupTable}).
+ * The active forest is hot-swapped when training writes a new export ({@link ModelRegistry}).
+ * Scores are cached per exact input and model version ({@link PredictionCache}) unless model.cache.max-entries=0.
+ * Single native predictions are explained by per-feature tree-path contributions ({@link ForestModel#explain}),
+ * returning the model.explanation.top-k largest; the cache then holds the explained answer, and a miss walks the
+ * trees rather than reading the lookup table (which still serves batch and stream rows).
+ * Candidate forests can take a share of single predictions or shadow-score them ({@link ModelVariants}).
+ * Every answered request is also counted by the {@link DriftMonitor} and, with model.audit.enabled, queued for the
+ * {@link AuditLog} with its latency.
+ */
 @Service
 public class ChurnScoringService {
 
     private static final Logger log = LoggerFactory.getLogger(ChurnScoringService.class);
-    private static final int PREDICT_TIMEOUT_SEC = 30;
+    static final String DEFAULT_FOREST_PATH = "./models/rf_forest.bin";
+    private static final int LOOKUP_VERIFY_SAMPLES = 10_000;
+    /** Cap on what is kept of the script's stdout and of its stderr per call. */
+    static final int MAX_PYTHON_OUTPUT_BYTES = 16 * 1024 * 1024;
+    /** Reused per thread to encode single-row python requests. */
+    private static final ThreadLocal<StringBuilder> REQUEST_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    /** Reused per thread by {@link ForestModel#explain}; replaced when a reload changes the forest's width. */
+    private static final ThreadLocal<ForestModel.Explanation> EXPLANATION = new ThreadLocal<>();
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    enum Engine { AUTO, NATIVE, PYTHON }
+
+    private final PredictionCodec codec = new PredictionCodec();
     private final Path pythonWorkingDir;
     private final String pythonScript;
+    private final ModelRegistry registry;
+    private final Duration predictTimeout;
+    private final PythonWorkerPool workerPool;
+    private final ProcessRunner processRunner;
+    private final PredictionMetrics metrics;
+    private final int explanationTopK;
+    private final PredictionCache cache;
+    private final ModelVariants variants;
+    private final DriftMonitor drift;
+    private final AuditLog audit;
+    /** Last model_version reported by Python; cache entries from another version are never returned. */
+    private volatile String pythonModelVersion;
+
+    public ChurnScoringService(String pythonWorkingDir, String pythonScript) {
+        this(new Options().python(pythonWorkingDir, pythonScript));
+    }
+
+    /** A service built outside Spring, for tests and the benchmarks module; see {@link Options} for the defaults. */
+    public ChurnScoringService(Options o) {
+        this(o.pythonWorkingDir, o.pythonScript, o.forestPath, o.scoringEngine, o.pythonWorkers, o.predictTimeoutMs,
+                o.healthIntervalMs, o.cacheMaxEntries, o.cacheTtlMs, false, 0, false, 0, o.explanationTopK, o.metrics,
+                o.variants != null ? o.variants : ModelVariants.none(o.metrics), DriftMonitor.none(), AuditLog.none());
+    }
 
+    @Autowired
     public ChurnScoringService(
             @Value("${model.python-working-dir:.}") String pythonWorkingDir,
-            @Value("${model.python-script:ml/model_store.py}") String pythonScript) {
+            @Value("${model.python-script:ml/model_store.py}") String pythonScript,
+            @Value("${model.forest-path:" + DEFAULT_FOREST_PATH + "}") String forestPath,
+            @Value("${model.scoring-engine:auto}") String scoringEngine,
+            @Value("${model.python-workers:2}") int pythonWorkers,
+            @Value("${model.predict-timeout-ms:30000}") long predictTimeoutMs,
+            @Value("${model.python-worker-health-interval-ms:30000}") long healthIntervalMs,
+            @Value("${model.cache.max-entries:65536}") int cacheMaxEntries,
+            @Value("${model.cache.ttl-ms:600000}") long cacheTtlMs,
+            @Value("${model.lookup-table.enabled:false}") boolean lookupTableEnabled,
+            @Value("${model.lookup-table.max-cells:4194304}") long lookupTableMaxCells,
+            @Value("${model.reload.enabled:true}") boolean reloadEnabled,
+            @Value("${model.reload.settle-ms:500}") long reloadSettleMs,
+            @Value("${model.explanation.top-k:3}") int explanationTopK,
+            PredictionMetrics metrics,
+            ModelVariants variants,
+            DriftMonitor drift,
+            AuditLog audit) {
+        this.metrics = metrics;
+        this.variants = variants;
+        this.drift = drift;
+        this.audit = audit;
+        this.explanationTopK = explanationTopK;
         this.pythonWorkingDir = Path.of(pythonWorkingDir);
         this.pythonScript = pythonScript;
+        this.registry = new ModelRegistry(Path.of(forestPath), Engine.valueOf(scoringEngine.trim().toUpperCase(Locale.ROOT)),
+                lookupTableEnabled, lookupTableMaxCells, LOOKUP_VERIFY_SAMPLES, metrics);
+        this.predictTimeout = Duration.ofMillis(predictTimeoutMs);
+        this.processRunner = new ProcessRunner(this.pythonWorkingDir, MAX_PYTHON_OUTPUT_BYTES);
+        this.workerPool = registry.active() == null && pythonWorkers > 0
+                ? new PythonWorkerPool(this.pythonWorkingDir, pythonScript, pythonWorkers, predictTimeout,
+                        Duration.ofMillis(healthIntervalMs), metrics)
+                : null;
+        this.cache = cacheMaxEntries > 0 ? new PredictionCache(cacheMaxEntries, cacheTtlMs) : null;
+        registry.onPythonModelChange(this::pythonModelChanged);
+        if (reloadEnabled) {
+            registry.watch(Duration.ofMillis(reloadSettleMs));
+        }
+    }
+
+    /**
+     * Settings and collaborators for {@link #ChurnScoringService(Options)}. Defaults are those of
+     * application.properties, except that explanations, A/B variants, the lookup table, the reload watcher, drift
+     * monitoring and the audit log are off.
+     */
+    public static final class Options {
+        private String pythonWorkingDir = ".";
+        private String pythonScript = "ml/model_store.py";
+        private String forestPath = DEFAULT_FOREST_PATH;
+        private String scoringEngine = "auto";
+        private int pythonWorkers = 2;
+        private long predictTimeoutMs = 30_000;
+        private long healthIntervalMs = 30_000;
+        private int cacheMaxEntries = 65_536;
+        private long cacheTtlMs = 600_000;
+        private int explanationTopK;
+        private PredictionMetrics metrics = new PredictionMetrics();
+        /** Null for {@link ModelVariants#none} on {@link #metrics}. */
+        private ModelVariants variants;
+
+        public Options python(String workingDir, String script) {
+            this.pythonWorkingDir = workingDir;
+            this.pythonScript = script;
+            return this;
+        }
+
+        public Options forest(String forestPath, String scoringEngine) {
+            this.forestPath = forestPath;
+            this.scoringEngine = scoringEngine;
+            return this;
+        }
+
+        /** 0 workers runs one model_store.py subprocess per call instead of a warm pool. */
+        public Options pythonWorkers(int pythonWorkers) {
+            this.pythonWorkers = pythonWorkers;
+            return this;
+        }
+
+        public Options timeouts(long predictTimeoutMs, long healthIntervalMs) {
+            this.predictTimeoutMs = predictTimeoutMs;
+            this.healthIntervalMs = healthIntervalMs;
+            return this;
+        }
+
+        /** 0 entries disables the cache. */
+        public Options cache(int maxEntries, long ttlMs) {
+            this.cacheMaxEntries = maxEntries;
+            this.cacheTtlMs = ttlMs;
+            return this;
+        }
+
+        public Options explanationTopK(int explanationTopK) {
+            this.explanationTopK = explanationTopK;
+            return this;
+        }
+
+        public Options metrics(PredictionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Options variants(ModelVariants variants) {
+            this.variants = variants;
+            return this;
+        }
+    }
+
+    /**
+     * Python's model files changed: workers are restarted and the version scores were cached under is forgotten, so no
+     * cached score of the old model is served before the first answer from the new one.
+     */
+    private void pythonModelChanged() {
+        pythonModelVersion = null;
+        if (cache != null) {
+            cache.invalidate();
+        }
+        if (workerPool != null) {
+            workerPool.recycle();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        registry.close();
+        if (workerPool != null) {
+            workerPool.close();
+        }
+    }
+
+    /** True when predictions are computed in-process rather than by the Python script. */
+    public boolean isNative() {
+        return registry.active() != null;
     }
 
+    /**
+     * Loads rf_forest.bin again and swaps it in if valid (the file watcher does this on its own when
+     * model.reload.enabled). Returns false and keeps the current model when the export is missing or invalid.
+     */
+    public boolean reloadModel() {
+        return registry.reload();
+    }
+
+    /**
+     * Scores one request with the primary model, or with a model variant when A/B routing picks one; primary answers
+     * are then handed to the shadow variant, if any, for comparison off the request thread.
+     */
     public PredictResponse predict(PredictRequest req) {
-        String jsonRequest = buildRequestJson(req);
-        ProcessBuilder pb = new ProcessBuilder("python", pythonScript)
-                .directory(pythonWorkingDir.toFile())
-                .redirectErrorStream(false);
+        return predictSingle(req, variants.route(req));
+    }
+
+    private PredictResponse predictSingle(PredictRequest req, ModelVariants.Variant variant) {
+        long start = System.nanoTime();
+        if (variant != null) {
+            return recorded(req, predictVariant(variant, req), start);
+        }
+        PredictResponse response = predictPrimary(req);
+        variants.shadow(req, response);
+        return recorded(req, response, start);
+    }
+
+    private PredictResponse predictPrimary(PredictRequest req) {
+        // One read of the active model per request: the score and its modelVersion always come from the same forest.
+        ModelRegistry.Active model = registry.active();
+        long key = cache != null ? PredictionCache.key(req) : PredictionCache.NO_KEY;
+        if (explains(model)) {
+            String version = model.forest.getModelVersion();
+            PredictResponse cached = key != PredictionCache.NO_KEY ? cache.getExplained(key, version) : null;
+            if (cached != null) {
+                return cached;
+            }
+            // The lookup table holds scores only; an explained answer walks the trees.
+            long start = System.nanoTime();
+            PredictResponse response = explainNative(model.forest, req);
+            inferred(ModelVariants.PRIMARY, start);
+            if (key != PredictionCache.NO_KEY) {
+                cache.putExplained(key, version, response);
+            }
+            return response;
+        }
+        if (key != PredictionCache.NO_KEY) {
+            String version = modelVersion(model);
+            double cached = cache.get(key, version);
+            if (!Double.isNaN(cached)) {
+                return toResponse(cached, version);
+            }
+        }
+        PredictResponse response;
+        long start = System.nanoTime();
+        if (model != null) {
+            response = predictNative(model, req);
+            inferred(ModelVariants.PRIMARY, start);
+        } else {
+            response = predictWithPython(req);
+            metrics.recordModel(ModelVariants.PRIMARY, System.nanoTime() - start);
+        }
+        remember(model, key, response);
+        return response;
+    }
+
+    /** True when single predictions on {@code model} carry explanations (native engine, model.explanation.top-k > 0). */
+    private boolean explains(ModelRegistry.Active model) {
+        return model != null && explanationTopK > 0;
+    }
+
+    /** A/B answer from a variant forest; always walks its trees (the cache and lookup table belong to the primary). */
+    private PredictResponse predictVariant(ModelVariants.Variant variant, PredictRequest req) {
+        long start = System.nanoTime();
+        ForestModel forest = variant.forest;
+        PredictResponse response = explanationTopK > 0
+                ? explainNative(forest, req)
+                : toResponse(forest.predictProba(req), forest.getModelVersion());
+        inferred(variant.name, start);
+        return response;
+    }
+
+    private void inferred(String model, long start) {
+        long nanos = System.nanoTime() - start;
+        metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, nanos);
+        metrics.recordModel(model, nanos);
+    }
+
+    public CacheStats getCacheStats() {
+        if (cache == null) {
+            return new CacheStats(false, 0, 0, 0, 0, 0, 0, null);
+        }
+        return cache.getStats();
+    }
+
+    /** Version of the model currently serving (null for the Python engine until its first answer). */
+    public String getActiveModelVersion() {
+        return modelVersion(registry.active());
+    }
+
+    private String modelVersion(ModelRegistry.Active model) {
+        return model != null ? model.forest.getModelVersion() : pythonModelVersion;
+    }
+
+    private void remember(ModelRegistry.Active model, long key, PredictResponse response) {
+        if (model == null && response.getModelVersion() != null) {
+            pythonModelVersion = response.getModelVersion();
+        }
+        if (key != PredictionCache.NO_KEY) {
+            cache.put(key, response.getModelVersion(), response.getScore());
+        }
+    }
+
+    private PredictResponse recorded(PredictRequest req, PredictResponse response, long start) {
+        metrics.recordPrediction(response);
+        drift.observe(req, response.getScore());
+        audit.publish(req, response, System.nanoTime() - start);
+        return response;
+    }
+
+    private static PredictResponse predictNative(ModelRegistry.Active model, PredictRequest req) {
+        double score = model.lookupTable != null ? model.lookupTable.score(req) : Double.NaN;
+        return toResponse(Double.isNaN(score) ? model.forest.predictProba(req) : score, model.forest.getModelVersion());
+    }
+
+    private PredictResponse explainNative(ForestModel forest, PredictRequest req) {
+        ForestModel.Explanation explanation = EXPLANATION.get();
+        if (explanation == null || !explanation.fits(forest)) {
+            explanation = new ForestModel.Explanation(forest);
+            EXPLANATION.set(explanation);
+        }
+        forest.explain(req, explanation);
+        boolean churn = explanation.score >= 0.5;
+        return new PredictResponse(churn ? PredictionCodec.CHURN : PredictionCodec.NO_CHURN, explanation.score,
+                explanation.votes, topContributions(req, explanation.contributions), forest.getModelVersion());
+    }
+
+    /** The {@code explanationTopK} largest contributions by magnitude, largest first; features that never split are left out. */
+    private List<ExplanationItem> topContributions(PredictRequest req, double[] contributions) {
+        List<ExplanationItem> items = new ArrayList<>(explanationTopK);
+        int taken = 0;
+        for (int k = 0; k < explanationTopK; k++) {
+            int best = -1;
+            for (int f = 0; f < contributions.length; f++) {
+                if ((taken & (1 << f)) == 0 && contributions[f] != 0.0
+                        && (best < 0 || Math.abs(contributions[f]) > Math.abs(contributions[best]))) {
+                    best = f;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken |= 1 << best;
+            double c = contributions[best];
+            String reason = featureValue(req, best) + (c > 0 ? " raises" : " lowers") + " churn risk by "
+                    + Math.round(Math.abs(c) * 1000) / 10.0 + " pts";
+            items.add(new ExplanationItem(ForestModel.FEATURES.get(best), reason, c));
+        }
+        return items;
+    }
+
+    private static Object featureValue(PredictRequest req, int feature) {
+        return switch (feature) {
+            case 0 -> req.getAge();
+            case 1 -> req.getTenure();
+            case 2 -> req.getMonthlyCharges();
+            case 3 -> req.getPaymentDelay();
+            case 4 -> req.getContract();
+            default -> req.getInternetService();
+        };
+    }
+
+    /**
+     * Scores {@code base} over the grid of {@code values} for one or two numeric {@code features} (row-major, first
+     * feature outer). The in-process forest walks each tree once for the whole grid ({@link ForestModel#sweep});
+     * the Python engine gets the grid as one batch. Grid rows are synthetic: they are neither cached nor recorded as
+     * predictions, so they reach no metrics, drift counts or audit log.
+     */
+    public SweepResponse sweep(PredictRequest base, List<String> features, List<double[]> values) {
+        ModelRegistry.Active model = registry.active();
+        int featureA = ForestModel.NUMERIC_FEATURES.indexOf(features.get(0));
+        int featureB = features.size() > 1 ? ForestModel.NUMERIC_FEATURES.indexOf(features.get(1)) : -1;
+        double[] valuesA = values.get(0);
+        double[] valuesB = featureB >= 0 ? values.get(1) : new double[1];
+        double[] scores = new double[valuesA.length * valuesB.length];
+        if (model != null) {
+            long start = System.nanoTime();
+            model.forest.sweep(base, featureA, valuesA, featureB, valuesB, scores);
+            metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, System.nanoTime() - start);
+            return new SweepResponse(features, values, scores, model.forest.getModelVersion());
+        }
+        List<PredictRequest> grid = new ArrayList<>(scores.length);
+        for (double a : valuesA) {
+            PredictRequest row = withFeature(base, featureA, a);
+            for (double b : valuesB) {
+                grid.add(featureB >= 0 ? withFeature(row, featureB, b) : row);
+            }
+        }
+        List<PredictResponse> responses = scoreBatch(null, grid);
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = responses.get(i).getScore();
+        }
+        return new SweepResponse(features, values, scores, responses.get(0).getModelVersion());
+    }
+
+    /** A copy of {@code req} with numeric feature {@code feature} set to {@code value}. */
+    private static PredictRequest withFeature(PredictRequest req, int feature, double value) {
+        PredictRequest copy = new PredictRequest();
+        copy.setAge(feature == 0 ? (int) value : req.getAge());
+        copy.setTenure(feature == 1 ? (int) value : req.getTenure());
+        copy.setMonthlyCharges(feature == 2 ? value : req.getMonthlyCharges());
+        copy.setPaymentDelay(feature == 3 ? (int) value : req.getPaymentDelay());
+        copy.setContract(req.getContract());
+        copy.setInternetService(req.getInternetService());
+        return copy;
+    }
+
+    /** Size of the precomputed score table, or enabled=false when model.lookup-table.enabled is off or it did not fit. */
+    public Map<String, Object> getLookupTableInfo() {
+        ModelRegistry.Active model = registry.active();
+        ForestLookupTable lookupTable = model != null ? model.lookupTable : null;
+        if (lookupTable == null) {
+            return Map.of("enabled", false);
+        }
+        return Map.of(
+                "enabled", true,
+                "modelVersion", model.forest.getModelVersion(),
+                "cells", lookupTable.getCells(),
+                "memoryBytes", lookupTable.getMemoryBytes(),
+                "buildMillis", lookupTable.getBuildMillis(),
+                "verifiedSamples", LOOKUP_VERIFY_SAMPLES);
+    }
+
+    private static PredictResponse toResponse(double score, String modelVersion) {
+        boolean churn = score >= 0.5;
+        return new PredictResponse(churn ? PredictionCodec.CHURN : PredictionCodec.NO_CHURN, score, churn ? 1 : 0,
+                PredictionCodec.NO_EXPLANATION, modelVersion);
+    }
+
+    /**
+     * Scores many requests at once: one tight loop over the forest, or one predict_proba call in Python.
+     * Requests must already be valid; results are in request order. Cached rows are not rescored.
+     */
+    public List<PredictResponse> predictBatch(List<PredictRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<PredictResponse> responses = predictBatchPrimary(requests);
+        variants.shadow(requests, responses);
+        return recorded(requests, responses, start);
+    }
+
+    /**
+     * Scores single-prediction calls collected by {@link PredictionCoalescer} into {@code responses}, in request order,
+     * answering each as {@link #predict} would: rows routed to a variant, and every row when single answers carry
+     * explanations, are answered (and cached) on their own; the remaining rows are scored together by
+     * {@link #predictBatch}. When this throws, rows already answered keep their (recorded) response and the others
+     * stay null.
+     */
+    public void predictCoalesced(List<PredictRequest> requests, PredictResponse[] responses) {
+        boolean explain = explains(registry.active());
+        if (!explain && !variants.isRouting()) {
+            predictBatch(requests).toArray(responses);
+            return;
+        }
+        List<PredictRequest> rest = new ArrayList<>();
+        for (int i = 0; i < responses.length; i++) {
+            PredictRequest req = requests.get(i);
+            ModelVariants.Variant variant = variants.route(req);
+            if (variant != null || explain) {
+                responses[i] = predictSingle(req, variant);
+            } else {
+                rest.add(req);
+            }
+        }
+        if (!rest.isEmpty()) {
+            List<PredictResponse> scored = predictBatch(rest);
+            for (int i = 0, next = 0; i < responses.length; i++) {
+                if (responses[i] == null) {
+                    responses[i] = scored.get(next++);
+                }
+            }
+        }
+    }
+
+    private List<PredictResponse> predictBatchPrimary(List<PredictRequest> requests) {
+        ModelRegistry.Active model = registry.active();
+        if (cache == null) {
+            return scoreBatch(model, requests);
+        }
+        String version = modelVersion(model);
+        PredictResponse[] responses = new PredictResponse[requests.size()];
+        long[] keys = new long[requests.size()];
+        List<PredictRequest> misses = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            keys[i] = PredictionCache.key(requests.get(i));
+            double cached = cache.get(keys[i], version);
+            if (Double.isNaN(cached)) {
+                misses.add(requests.get(i));
+            } else {
+                responses[i] = toResponse(cached, version);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Arrays.asList(responses);
+        }
+        List<PredictResponse> scored = scoreBatch(model, misses);
+        int next = 0;
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) {
+                responses[i] = scored.get(next++);
+                remember(model, keys[i], responses[i]);
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    /** Batch rows are audited with the latency of the whole batch. */
+    private List<PredictResponse> recorded(List<PredictRequest> requests, List<PredictResponse> responses, long start) {
+        long nanos = System.nanoTime() - start;
+        for (int i = 0; i < responses.size(); i++) {
+            metrics.recordPrediction(responses.get(i));
+            drift.observe(requests.get(i), responses.get(i).getScore());
+            audit.publish(requests.get(i), responses.get(i), nanos);
+        }
+        return responses;
+    }
+
+    private List<PredictResponse> scoreBatch(ModelRegistry.Active model, List<PredictRequest> requests) {
+        List<PredictResponse> responses = new ArrayList<>(requests.size());
+        if (model != null) {
+            long start = System.nanoTime();
+            ForestModel forest = model.forest;
+            ForestLookupTable lookupTable = model.lookupTable;
+            double[] x = new double[forest.getFeatureCount()];
+            for (PredictRequest req : requests) {
+                double score = lookupTable != null ? lookupTable.score(req) : Double.NaN;
+                if (Double.isNaN(score)) {
+                    forest.transform(req, x);
+                    score = forest.predictProba(x);
+                }
+                responses.add(toResponse(score, forest.getModelVersion()));
+            }
+            metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, System.nanoTime() - start);
+            return responses;
+        }
+        // Batches can be large; their buffer is not kept.
+        String answer = runPython(codec.appendBatchRequest(new StringBuilder(64 + 128 * requests.size()), requests));
+        long parseStart = System.nanoTime();
+        List<PredictResponse> results = codec.readResults(answer, requests.size());
+        metrics.recordPhase(PredictionMetrics.Phase.JSON_PARSE, System.nanoTime() - parseStart);
+        return results;
+    }
+
+    PredictResponse predictWithPython(PredictRequest req) {
+        StringBuilder request = REQUEST_BUFFER.get();
+        request.setLength(0);
+        String answer = runPython(codec.appendRequest(request, req));
+        long parseStart = System.nanoTime();
+        PredictResponse response = codec.readResponse(answer);
+        metrics.recordPhase(PredictionMetrics.Phase.JSON_PARSE, System.nanoTime() - parseStart);
+        return response;
+    }
+
+    /** Sends one encoded request to a worker, or to a fresh python process, and returns its raw JSON answer. */
+    private String runPython(CharSequence jsonRequest) {
+        if (workerPool != null) {
+            return workerPool.request(jsonRequest);
+        }
         try {
-            Process process = pb.start();
-            process.getOutputStream().write(jsonRequest.getBytes(StandardCharsets.UTF_8));
-            process.getOutputStream().close();
-            String stdout = readFully(process.getInputStream(), StandardCharsets.UTF_8);
-            String stderr = readFully(process.getErrorStream(), StandardCharsets.UTF_8);
-            boolean finished = process.waitFor(PREDICT_TIMEOUT_SEC, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
+            ProcessRunner.Result result = processRunner.run(List.of("python", pythonScript),
+                    jsonRequest.toString().getBytes(StandardCharsets.UTF_8), predictTimeout);
+            log.debug("Python predict: spawn {} ms, io {} ms, exit {} ms", result.getSpawnNanos() / 1_000_000,
+                    result.getIoNanos() / 1_000_000, result.getExitNanos() / 1_000_000);
+            metrics.recordPhase(PredictionMetrics.Phase.SPAWN, result.getSpawnNanos());
+            metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, result.getIoNanos() + result.getExitNanos());
+            if (result.isTimedOut()) {
+                log.warn("Python predict timed out after {} ms; process killed", result.getTotalNanos() / 1_000_000);
                 throw new PredictionException("Prediction timed out.", 500);
             }
-            if (process.exitValue() != 0) {
-                String message = parsePythonError(stderr);
-                throw new PredictionException(message, 400);
+            if (result.getExitCode() != 0) {
+                throw new PredictionException(parsePythonError(result.getStderr()), 400);
+            }
+            if (result.isStdoutTruncated()) {
+                throw new PredictionException("Prediction failed: Python output exceeded " + MAX_PYTHON_OUTPUT_BYTES + " bytes.", 500);
             }
-            return parsePythonResponse(stdout);
+            return result.getStdout();
         } catch (IOException e) {
             log.warn("Python predict failed: {}", e.getMessage());
             throw new PredictionException("Prediction failed: " + e.getMessage(), 500);
@@ -66,62 +611,10 @@ public class ChurnScoringService {
         }
     }
 
-    private static String buildRequestJson(PredictRequest req) {
-        try {
-            ObjectMapper m = new ObjectMapper();
-            return m.writeValueAsString(new RequestPayload(
-                    req.getAge(),
-                    req.getTenure(),
-                    req.getMonthlyCharges(),
-                    req.getContract(),
-                    req.getInternetService(),
-                    req.getPaymentDelay()));
-        } catch (Exception e) {
-            throw new PredictionException("Invalid request.", 400);
-        }
-    }
-
-    private static String readFully(InputStream in, java.nio.charset.Charset cs) throws IOException {
-        byte[] buf = in.readAllBytes();
-        return new String(buf, cs);
-    }
-
-    private static String parsePythonError(String stderr) {
+    private String parsePythonError(String stderr) {
         if (stderr == null || stderr.isBlank()) return "Prediction failed (Python error).";
-        try {
-            JsonNode node = new ObjectMapper().readTree(stderr.trim());
-            JsonNode err = node.get("error");
-            if (err != null && err.isTextual()) return err.asText();
-        } catch (Exception ignored) { }
+        String error = codec.readError(stderr.trim());
+        if (error != null) return error;
         return stderr.length() > 200 ? stderr.substring(0, 200) + "..." : stderr;
     }
-
-    private PredictResponse parsePythonResponse(String stdout) throws IOException {
-        JsonNode node = objectMapper.readTree(stdout);
-        String label = node.has("label") ? node.get("label").asText() : "NO_CHURN";
-        double score = node.has("score") ? node.get("score").asDouble() : 0.0;
-        String modelVersion = node.has("model_version") && !node.get("model_version").isNull()
-                ? node.get("model_version").asText() : null;
-        int votes = "CHURN".equals(label) ? 1 : 0;
-        List<ExplanationItem> explanation = new ArrayList<>();
-        return new PredictResponse(label, score, votes, explanation, modelVersion);
-    }
-
-    private static class RequestPayload {
-        public final int age;
-        public final int tenure;
-        public final double monthlyCharges;
-        public final String contract;
-        public final String internetService;
-        public final int paymentDelay;
-
-        RequestPayload(int age, int tenure, double monthlyCharges, String contract, String internetService, int paymentDelay) {
-            this.age = age;
-            this.tenure = tenure;
-            this.monthlyCharges = monthlyCharges;
-            this.contract = contract;
-            this.internetService = internetService;
-            this.paymentDelay = paymentDelay;
-        }
-    }
 }
@@ -0,0 +1,574 @@
+package com.churn.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A churn CSV held column by column: one double column per {@link ForestModel#NUMERIC_FEATURES} entry (NaN for an
+ * empty cell), one int column of dictionary codes per {@link ForestModel#CATEGORICAL_FEATURES} entry (-1 for an
+ * empty cell), and the 0/1 target when the file has one. Rows are read with primitive accessors, so training and
+ * scoring loops never box or build request objects.
+ * <p>
+ * {@link #read} memory-maps the file and parses fields straight from the mapped bytes: numbers without building
+ * strings, categoricals by looking the bytes up in the dictionary (a string is made once per distinct value), and
+ * the target from its bytes too. The file is mapped a window at a time, and the columns are kept in chunks of
+ * {@link #CHUNK_ROWS} rows (41 bytes a row) so no single array has to grow with the file. Chunks are heap arrays, or,
+ * when reading into a {@link SpillFile}, regions of that file, so the columns are paged rather than held on the heap.
+ * <p>
+ * Header names are matched like train_rf.py's _load_and_prepare_df (see {@link PredictCsv}); the target is
+ * {@code Churn} (or {@code churn}) and counts as churn for yes/1/true/churn, case-insensitive.
+ */
+public final class ColumnarDataset {
+
+    static final String TARGET_COLUMN = "Churn";
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    /** Bytes of the CSV mapped at a time; a line must fit in one window. */
+    static final int WINDOW_BYTES = 64 << 20;
+    /** {@link PredictCsv#COLUMNS} position of each numeric and categorical feature. */
+    private static final int[] NUMERIC_COLUMNS = {0, 1, 2, 5};
+    private static final int[] CATEGORICAL_COLUMNS = {3, 4};
+    /** Numeric features that must hold whole numbers (age, tenure, paymentDelay), as {@link PredictCsv} requires. */
+    private static final boolean[] INTEGER_FEATURES = {true, true, false, true};
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final Chunk[] chunks;
+    private final String[][] dictionaries;
+    private final int rows;
+    private final boolean labelled;
+
+    private ColumnarDataset(Chunk[] chunks, String[][] dictionaries, int rows, boolean labelled) {
+        this.chunks = chunks;
+        this.dictionaries = dictionaries;
+        this.rows = rows;
+        this.labelled = labelled;
+    }
+
+    /** Loads {@code csv}; throws IllegalArgumentException naming the line of a malformed row. */
+    public static ColumnarDataset read(Path csv) throws IOException {
+        return read(csv, null, WINDOW_BYTES);
+    }
+
+    /** Loads {@code csv} with its chunks paged to {@code spill}, or held on the heap when it is null. */
+    static ColumnarDataset read(Path csv, SpillFile spill) throws IOException {
+        return read(csv, spill, WINDOW_BYTES);
+    }
+
+    static ColumnarDataset read(Path csv, int windowBytes) throws IOException {
+        return read(csv, null, windowBytes);
+    }
+
+    static ColumnarDataset read(Path csv, SpillFile spill, int windowBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            Loader loader = null;
+            long size = channel.size();
+            long position = 0;
+            int lineNumber = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowBytes, size - position);
+                boolean lastWindow = position + length == size;
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int start = position == 0 && startsWithBom(window) ? 3 : 0;
+                while (start < length) {
+                    int end = indexOf(window, (byte) '\n', start, length);
+                    if (end < 0) {
+                        if (!lastWindow) {
+                            break;
+                        }
+                        end = length;
+                    }
+                    lineNumber++;
+                    int lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+                    if (loader == null) {
+                        loader = new Loader(new String(bytes(window, start, lineEnd), StandardCharsets.UTF_8), spill);
+                    } else if (!isBlank(window, start, lineEnd)) {
+                        try {
+                            loader.parse(window, start, lineEnd);
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+                        }
+                    }
+                    start = end + 1;
+                }
+                if (start == 0) {
+                    throw new IllegalArgumentException("Line " + (lineNumber + 1) + " is longer than " + windowBytes + " bytes");
+                }
+                position += Math.min(start, length);
+            }
+            if (loader == null) {
+                throw new IllegalArgumentException("CSV is empty: " + csv);
+            }
+            return loader.finish();
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /** Whether the file had a target column ({@link #label} is only valid then). */
+    public boolean isLabelled() {
+        return labelled;
+    }
+
+    /** Value of numeric feature {@code feature} in {@code row}; NaN when the cell was empty. */
+    public double numeric(int feature, int row) {
+        return chunks[row >>> CHUNK_SHIFT].numeric[feature].get(row & CHUNK_MASK);
+    }
+
+    /** Dictionary code of categorical feature {@code feature} in {@code row}; -1 when the cell was empty. */
+    public int category(int feature, int row) {
+        return chunks[row >>> CHUNK_SHIFT].categorical[feature].get(row & CHUNK_MASK);
+    }
+
+    /** Values of categorical feature {@code feature}, indexed by code, in order of first appearance. */
+    public String[] dictionary(int feature) {
+        return dictionaries[feature].clone();
+    }
+
+    /** 1 when {@code row} churned, else 0. */
+    public int label(int row) {
+        return chunks[row >>> CHUNK_SHIFT].labels.get(row & CHUNK_MASK);
+    }
+
+    /** One block of up to {@link #CHUNK_ROWS} rows; buffers wrap heap arrays or are mapped from the spill file. */
+    private static final class Chunk {
+        final DoubleBuffer[] numeric;
+        final IntBuffer[] categorical;
+        final ByteBuffer labels;
+
+        Chunk(DoubleBuffer[] numeric, IntBuffer[] categorical, ByteBuffer labels) {
+            this.numeric = numeric;
+            this.categorical = categorical;
+            this.labels = labels;
+        }
+    }
+
+    /** Values seen in one categorical column, looked up by their UTF-8 bytes through an open-addressing table. */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+        private int[] table = new int[16];
+
+        Dictionary() {
+            Arrays.fill(table, -1);
+        }
+
+        int code(ByteBuffer buf, int from, int to) {
+            int hash = hash(buf, from, to);
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int code = table[slot];
+                if (code < 0) {
+                    return add(bytes(buf, from, to), slot);
+                }
+                if (equals(encoded.get(code), buf, from, to)) {
+                    return code;
+                }
+            }
+        }
+
+        int code(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            return code(ByteBuffer.wrap(utf8), 0, utf8.length);
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+
+        private int add(byte[] bytes, int slot) {
+            int code = values.size();
+            values.add(new String(bytes, StandardCharsets.UTF_8));
+            encoded.add(bytes);
+            table[slot] = code;
+            if (values.size() * 2 > table.length) {
+                int[] grown = new int[table.length * 2];
+                Arrays.fill(grown, -1);
+                int mask = grown.length - 1;
+                for (int c = 0; c < encoded.size(); c++) {
+                    byte[] e = encoded.get(c);
+                    int s = hash(ByteBuffer.wrap(e), 0, e.length) & mask;
+                    while (grown[s] >= 0) {
+                        s = (s + 1) & mask;
+                    }
+                    grown[s] = c;
+                }
+                table = grown;
+            }
+            return code;
+        }
+
+        private static int hash(ByteBuffer buf, int from, int to) {
+            int h = 1;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + buf.get(i);
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean equals(byte[] value, ByteBuffer buf, int from, int to) {
+            if (value.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < value.length; i++) {
+                if (value[i] != buf.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Parses lines into the current chunk's arrays and seals each chunk when full (copying it to the spill file). */
+    private static final class Loader {
+        private final int[] numericIndex = new int[NUMERIC_COLUMNS.length];
+        private final int[] categoricalIndex = new int[CATEGORICAL_COLUMNS.length];
+        private final int targetIndex;
+        private final Dictionary[] dictionaries = new Dictionary[CATEGORICAL_COLUMNS.length];
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final SpillFile spill;
+        private int rows;
+
+        private double[][] numeric;
+        private int[][] categorical;
+        private byte[] labels;
+        private int filled;
+        /** Start and end offsets of the current line's fields; end is negative for a quoted field. */
+        private int[] fieldStart = new int[16];
+        private int[] fieldEnd = new int[16];
+
+        Loader(String header, SpillFile spill) {
+            PredictCsv format = PredictCsv.fromHeader(header);
+            for (int i = 0; i < NUMERIC_COLUMNS.length; i++) {
+                numericIndex[i] = format.columnIndex(NUMERIC_COLUMNS[i]);
+            }
+            for (int i = 0; i < CATEGORICAL_COLUMNS.length; i++) {
+                categoricalIndex[i] = format.columnIndex(CATEGORICAL_COLUMNS[i]);
+                dictionaries[i] = new Dictionary();
+            }
+            this.targetIndex = targetIndex(PredictCsv.split(header));
+            this.spill = spill;
+            newArrays();
+        }
+
+        private void newArrays() {
+            numeric = new double[NUMERIC_COLUMNS.length][CHUNK_ROWS];
+            categorical = new int[CATEGORICAL_COLUMNS.length][CHUNK_ROWS];
+            labels = new byte[CHUNK_ROWS];
+        }
+
+        void parse(ByteBuffer line, int from, int to) throws IOException {
+            int fields = split(line, from, to);
+            for (int i = 0; i < numericIndex.length; i++) {
+                int f = numericIndex[i];
+                String name = PredictCsv.COLUMNS.get(NUMERIC_COLUMNS[i]);
+                numeric[i][filled] = f >= fields ? Double.NaN
+                        : fieldEnd[f] < 0 ? parseNumber(unquote(line, f), name, INTEGER_FEATURES[i])
+                        : parseNumber(line, fieldStart[f], fieldEnd[f], name, INTEGER_FEATURES[i]);
+            }
+            for (int i = 0; i < categoricalIndex.length; i++) {
+                int f = categoricalIndex[i];
+                int code = -1;
+                if (f < fields) {
+                    if (fieldEnd[f] < 0) {
+                        String v = unquote(line, f).trim();
+                        code = v.isEmpty() ? -1 : dictionaries[i].code(v);
+                    } else {
+                        int s = trimStart(line, fieldStart[f], fieldEnd[f]);
+                        int e = trimEnd(line, s, fieldEnd[f]);
+                        code = s == e ? -1 : dictionaries[i].code(line, s, e);
+                    }
+                }
+                categorical[i][filled] = code;
+            }
+            if (targetIndex >= 0) {
+                labels[filled] = targetIndex >= fields ? 0
+                        : fieldEnd[targetIndex] < 0 ? label(unquote(line, targetIndex))
+                        : label(line, fieldStart[targetIndex], fieldEnd[targetIndex]);
+            }
+            rows++;
+            if (++filled == CHUNK_ROWS) {
+                seal();
+            }
+        }
+
+        /** Records field offsets; a quoted field is left for {@link #unquote} by storing its end as -1 - end. */
+        private int split(ByteBuffer line, int from, int to) {
+            int fields = 0;
+            int p = from;
+            while (true) {
+                if (fields == fieldStart.length) {
+                    fieldStart = Arrays.copyOf(fieldStart, fields * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, fields * 2);
+                }
+                int s = trimStart(line, p, to);
+                boolean quoted = s < to && line.get(s) == '"';
+                if (quoted) {
+                    p = s + 1;
+                    while (p < to) {
+                        if (line.get(p) == '"') {
+                            if (p + 1 < to && line.get(p + 1) == '"') {
+                                p += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        p++;
+                    }
+                }
+                while (p < to && line.get(p) != ',') {
+                    p++;
+                }
+                fieldStart[fields] = s;
+                fieldEnd[fields] = quoted ? -1 - p : p;
+                fields++;
+                if (p >= to) {
+                    return fields;
+                }
+                p++;
+            }
+        }
+
+        private String unquote(ByteBuffer line, int field) {
+            int s = fieldStart[field];
+            int e = -1 - fieldEnd[field];
+            return PredictCsv.split(new String(bytes(line, s, e), StandardCharsets.UTF_8)).get(0);
+        }
+
+        private void seal() throws IOException {
+            if (filled == 0) {
+                return;
+            }
+            int n = filled;
+            DoubleBuffer[] numericColumns = new DoubleBuffer[numeric.length];
+            IntBuffer[] categoricalColumns = new IntBuffer[categorical.length];
+            ByteBuffer labelColumn;
+            if (spill == null) {
+                for (int i = 0; i < numeric.length; i++) {
+                    numericColumns[i] = DoubleBuffer.wrap(n < CHUNK_ROWS ? Arrays.copyOf(numeric[i], n) : numeric[i]);
+                }
+                for (int i = 0; i < categorical.length; i++) {
+                    categoricalColumns[i] = IntBuffer.wrap(n < CHUNK_ROWS ? Arrays.copyOf(categorical[i], n) : categorical[i]);
+                }
+                labelColumn = ByteBuffer.wrap(n < CHUNK_ROWS ? Arrays.copyOf(labels, n) : labels);
+                newArrays();
+            } else {
+                // The arrays are copied out and reused for the next chunk.
+                int numericBytes = n * Double.BYTES;
+                int categoricalBytes = n * Integer.BYTES;
+                ByteBuffer region = spill.allocate((long) n * (numeric.length * Double.BYTES
+                        + categorical.length * Integer.BYTES + 1));
+                int position = 0;
+                for (int i = 0; i < numeric.length; i++, position += numericBytes) {
+                    numericColumns[i] = region.slice(position, numericBytes).order(region.order()).asDoubleBuffer();
+                    numericColumns[i].put(0, numeric[i], 0, n);
+                }
+                for (int i = 0; i < categorical.length; i++, position += categoricalBytes) {
+                    categoricalColumns[i] = region.slice(position, categoricalBytes).order(region.order()).asIntBuffer();
+                    categoricalColumns[i].put(0, categorical[i], 0, n);
+                }
+                labelColumn = region.slice(position, n).put(0, labels, 0, n);
+            }
+            chunks.add(new Chunk(numericColumns, categoricalColumns, labelColumn));
+            filled = 0;
+        }
+
+        ColumnarDataset finish() throws IOException {
+            seal();
+            String[][] values = new String[dictionaries.length][];
+            for (int i = 0; i < dictionaries.length; i++) {
+                values[i] = dictionaries[i].values();
+            }
+            return new ColumnarDataset(chunks.toArray(new Chunk[0]), values, rows, targetIndex >= 0);
+        }
+    }
+
+    /** Header position of the target column, or -1 when there is none. */
+    private static int targetIndex(List<String> headers) {
+        int fallback = -1;
+        for (int h = 0; h < headers.size(); h++) {
+            String name = headers.get(h).replace(" ", "");
+            if (name.equals(TARGET_COLUMN)) {
+                return h;
+            }
+            if (name.equals("churn")) {
+                fallback = h;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * {@link #label(String)} read from the bytes: the usual words and plain numbers are matched without building a
+     * string.
+     */
+    private static byte label(ByteBuffer buf, int from, int to) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+        if (s == e) {
+            return 0;
+        }
+        if (equalsIgnoreCase(buf, s, e, "yes") || equalsIgnoreCase(buf, s, e, "true")
+                || equalsIgnoreCase(buf, s, e, "churn")) {
+            return 1;
+        }
+        byte first = buf.get(s);
+        if ((first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.') {
+            try {
+                return parseNumber(buf, s, e, TARGET_COLUMN, false) == 1.0 ? (byte) 1 : 0;
+            } catch (IllegalArgumentException ex) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /** Same truth values as train_rf.py's _normalize_target: yes/1/true/churn, case-insensitive. */
+    private static byte label(String cell) {
+        String v = cell.trim();
+        if (v.equalsIgnoreCase("yes") || v.equals("1") || v.equalsIgnoreCase("true") || v.equalsIgnoreCase("churn")) {
+            return 1;
+        }
+        try {
+            return Double.parseDouble(v) == 1.0 ? (byte) 1 : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a decimal straight from the bytes: plain [-+]digits[.digits] of up to 15 significant digits is
+     * converted with one correctly rounded division (same double as Double.parseDouble); anything else (exponents,
+     * longer mantissas) falls back to Double.parseDouble. Empty means NaN.
+     */
+    static double parseNumber(ByteBuffer buf, int from, int to, String name, boolean integer) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+        if (s == e) {
+            return Double.NaN;
+        }
+        int p = s;
+        boolean negative = false;
+        byte first = buf.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        boolean simple = p < e;
+        for (; p < e && simple; p++) {
+            byte b = buf.get(p);
+            if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction >= 0) {
+                    fraction++;
+                }
+                simple = digits <= 15;
+            } else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                simple = false;
+            }
+        }
+        if (!simple || fraction == 0 || fraction >= POWERS_OF_TEN.length) {
+            return parseNumber(new String(bytes(buf, s, e), StandardCharsets.UTF_8), name, integer);
+        }
+        double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+        if (negative) {
+            value = -value;
+        }
+        return integer ? checkInteger(value, name) : value;
+    }
+
+    private static double parseNumber(String v, String name, boolean integer) {
+        String t = v.trim();
+        if (t.isEmpty()) {
+            return Double.NaN;
+        }
+        double d;
+        try {
+            d = Double.parseDouble(t);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + (integer ? " must be an integer" : " must be a number"));
+        }
+        if (!Double.isFinite(d)) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        return integer ? checkInteger(d, name) : d;
+    }
+
+    /** Same range {@link PredictCsv} accepts for an int column. */
+    private static double checkInteger(double d, String name) {
+        if (d != Math.rint(d) || Math.abs(d) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return d;
+    }
+
+    /** Whether the bytes are {@code word} (lower-case ASCII), ignoring ASCII case. */
+    private static boolean equalsIgnoreCase(ByteBuffer buf, int from, int to, String word) {
+        if (to - from != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if ((buf.get(from + i) | 0x20) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithBom(ByteBuffer buf) {
+        return buf.limit() >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF;
+    }
+
+    private static int indexOf(ByteBuffer buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        return trimStart(buf, from, to) == to;
+    }
+
+    private static int trimStart(ByteBuffer buf, int from, int to) {
+        while (from < to && (buf.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buf, int from, int to) {
+        while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static byte[] bytes(ByteBuffer buf, int from, int to) {
+        byte[] out = new byte[to - from];
+        buf.get(from, out);
+        return out;
+    }
+}
@@ -0,0 +1,274 @@
+package com.churn.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Training-time distribution of each input feature and of the model's score, written next to rf_forest.bin as
+ * drift_baseline.json (by train_rf.py and {@link ModelTrainingService}) for {@link DriftMonitor} to compare live
+ * traffic against. Numeric columns are cut at their 5%, 10%, ..., 95% quantiles (numpy's linear interpolation,
+ * duplicates dropped); bin k holds values in {@code (edges[k-1], edges[k]]}, with open ends. Categoricals keep a
+ * count per training category. Empty cells are left out of both.
+ */
+public final class DriftBaseline {
+
+    public static final String FILE_NAME = "drift_baseline.json";
+    /** Key of the score distribution among the numeric entries. */
+    public static final String SCORE = "score";
+    static final int QUANTILES = 20;
+
+    /** Bin edges and per-bin training counts of one numeric column. */
+    static final class Numeric {
+        final double[] edges;
+        final long[] counts;
+
+        Numeric(double[] edges, long[] counts) {
+            if (counts.length != edges.length + 1) {
+                throw new IllegalArgumentException("Expected " + (edges.length + 1) + " counts for " + edges.length + " edges.");
+            }
+            this.edges = edges;
+            this.counts = counts;
+        }
+
+        /** Bin of {@code v}: the number of edges below it. */
+        int bin(double v) {
+            int lo = 0;
+            int hi = edges.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (edges[mid] < v) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** Quantile edges and counts of {@code values[0..n)} (NaN entries skipped). */
+        static Numeric of(double[] values, int n) throws IOException {
+            SortedColumn sorted = new SortedColumn(null, n);
+            for (int i = 0; i < n; i++) {
+                if (!Double.isNaN(values[i])) {
+                    sorted.add(values[i]);
+                }
+            }
+            Numeric numeric = edges(sorted);
+            for (int i = 0; i < n; i++) {
+                numeric.add(values[i]);
+            }
+            return numeric;
+        }
+
+        /** Quantile edges of the (non-NaN) values added to {@code sorted}, with zero counts; reads it through. */
+        static Numeric edges(SortedColumn sorted) throws IOException {
+            int m = sorted.size();
+            sorted.sort();
+            if (m == 0) {
+                return new Numeric(new double[0], new long[1]);
+            }
+            double[] edges = new double[QUANTILES - 1];
+            int e = 0;
+            // current is the sorted value at k and before the one at k - 1; no quantile's lo is behind k - 1.
+            int k = -1;
+            double before = 0.0;
+            double current = 0.0;
+            for (int q = 1; q < QUANTILES; q++) {
+                double pos = (double) q / QUANTILES * (m - 1);
+                int lo = (int) Math.floor(pos);
+                int hi = Math.min(lo + 1, m - 1);
+                while (k < lo) {
+                    before = current;
+                    current = sorted.next();
+                    k++;
+                }
+                double low = k == lo ? current : before;
+                while (k < hi) {
+                    before = current;
+                    current = sorted.next();
+                    k++;
+                }
+                double high = k == hi ? current : before;
+                double edge = low + (pos - lo) * (high - low);
+                if (e == 0 || edge != edges[e - 1]) {
+                    edges[e++] = edge;
+                }
+            }
+            return new Numeric(Arrays.copyOf(edges, e), new long[e + 1]);
+        }
+
+        /** Counts {@code v} in its bin; NaN is skipped. */
+        void add(double v) {
+            if (!Double.isNaN(v)) {
+                counts[bin(v)]++;
+            }
+        }
+    }
+
+    /** Training categories of one categorical column and their counts. */
+    static final class Categorical {
+        final String[] categories;
+        final long[] counts;
+
+        Categorical(String[] categories, long[] counts) {
+            if (categories.length != counts.length) {
+                throw new IllegalArgumentException("Expected one count per category.");
+            }
+            this.categories = categories;
+            this.counts = counts;
+        }
+    }
+
+    final String modelVersion;
+    final String dataset;
+    final Map<String, Numeric> numeric;
+    final Map<String, Categorical> categorical;
+
+    DriftBaseline(String modelVersion, String dataset, Map<String, Numeric> numeric, Map<String, Categorical> categorical) {
+        this.modelVersion = modelVersion;
+        this.dataset = dataset;
+        this.numeric = numeric;
+        this.categorical = categorical;
+    }
+
+    /**
+     * Profiles the training rows of {@code data} plus the holdout {@code scores}. Categories are the dictionary
+     * values seen in those rows.
+     */
+    static DriftBaseline of(String modelVersion, String dataset, ColumnarDataset data, int[] rows, double[] scores)
+            throws IOException {
+        return of(modelVersion, dataset, data, rows, scores, null);
+    }
+
+    /** {@link #of(String, String, ColumnarDataset, int[], double[])} sorting the columns in runs paged to {@code spill}. */
+    static DriftBaseline of(String modelVersion, String dataset, ColumnarDataset data, int[] rows, double[] scores,
+                            SpillFile spill) throws IOException {
+        Map<String, Numeric> numeric = new LinkedHashMap<>();
+        for (int i = 0; i < ForestModel.NUMERIC_FEATURES.size(); i++) {
+            SortedColumn sorted = new SortedColumn(spill, rows.length);
+            for (int row : rows) {
+                double v = data.numeric(i, row);
+                if (!Double.isNaN(v)) {
+                    sorted.add(v);
+                }
+            }
+            Numeric column = Numeric.edges(sorted);
+            for (int row : rows) {
+                column.add(data.numeric(i, row));
+            }
+            numeric.put(ForestModel.NUMERIC_FEATURES.get(i), column);
+        }
+        numeric.put(SCORE, Numeric.of(scores, scores.length));
+        Map<String, Categorical> categorical = new LinkedHashMap<>();
+        for (int i = 0; i < ForestModel.CATEGORICAL_FEATURES.size(); i++) {
+            String[] dictionary = data.dictionary(i);
+            long[] counts = new long[dictionary.length];
+            for (int row : rows) {
+                int code = data.category(i, row);
+                if (code >= 0) {
+                    counts[code]++;
+                }
+            }
+            int seen = 0;
+            for (long c : counts) {
+                if (c > 0) {
+                    seen++;
+                }
+            }
+            String[] categories = new String[seen];
+            long[] seenCounts = new long[seen];
+            for (int code = 0, j = 0; code < dictionary.length; code++) {
+                if (counts[code] > 0) {
+                    categories[j] = dictionary[code];
+                    seenCounts[j++] = counts[code];
+                }
+            }
+            categorical.put(ForestModel.CATEGORICAL_FEATURES.get(i), new Categorical(categories, seenCounts));
+        }
+        return new DriftBaseline(modelVersion, dataset, numeric, categorical);
+    }
+
+    static DriftBaseline read(Path path, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(path.toFile());
+        Map<String, Numeric> numeric = new LinkedHashMap<>();
+        root.path("numeric").fields().forEachRemaining(e -> numeric.put(e.getKey(),
+                new Numeric(doubles(e.getValue().path("edges")), longs(e.getValue().path("counts")))));
+        Map<String, Categorical> categorical = new LinkedHashMap<>();
+        root.path("categorical").fields().forEachRemaining(e -> {
+            JsonNode names = e.getValue().path("categories");
+            String[] categories = new String[names.size()];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = names.get(i).asText();
+            }
+            categorical.put(e.getKey(), new Categorical(categories, longs(e.getValue().path("counts"))));
+        });
+        return new DriftBaseline(root.path("model_version").asText(null), root.path("dataset").asText(null),
+                numeric, categorical);
+    }
+
+    /** Same layout as train_rf.py's _export_drift_baseline; temp file + rename. */
+    void write(Path path, ObjectMapper objectMapper) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("model_version", modelVersion);
+        root.put("dataset", dataset);
+        ObjectNode numericNode = root.putObject("numeric");
+        numeric.forEach((name, n) -> {
+            ObjectNode node = numericNode.putObject(name);
+            ArrayNode edges = node.putArray("edges");
+            for (double edge : n.edges) {
+                edges.add(edge);
+            }
+            ArrayNode counts = node.putArray("counts");
+            for (long count : n.counts) {
+                counts.add(count);
+            }
+        });
+        ObjectNode categoricalNode = root.putObject("categorical");
+        categorical.forEach((name, c) -> {
+            ObjectNode node = categoricalNode.putObject(name);
+            ArrayNode categories = node.putArray("categories");
+            for (String category : c.categories) {
+                categories.add(category);
+            }
+            ArrayNode counts = node.putArray("counts");
+            for (long count : c.counts) {
+                counts.add(count);
+            }
+        });
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static double[] doubles(JsonNode array) {
+        double[] out = new double[array.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = array.get(i).asDouble();
+        }
+        return out;
+    }
+
+    private static long[] longs(JsonNode array) {
+        long[] out = new long[array.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = array.get(i).asLong();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,304 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.DriftReport;
+import com.churn.app.dto.FeatureDrift;
+import com.churn.app.dto.PredictRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the requests the service scores with the training data, per feature and for the score itself.
+ * {@link ChurnScoringService} calls {@link #observe} for every answered request: each numeric value (and the score)
+ * is binned on the baseline's quantile edges and each categorical counted per training category, into
+ * {@link LongAdder} counters, so concurrent requests increment separate cells instead of contending on a lock.
+ * Roughly a binary search over 19 edges per numeric feature plus seven adder increments per request.
+ * <p>
+ * {@link #getReport()} compares the live counts with drift_baseline.json ({@link DriftBaseline}): the population
+ * stability index over the baseline's bins and, for numeric features, the KS distance between the two CDFs at the
+ * bin edges. Counts cover the current and previous window-ms period, so old traffic ages out. The baseline is
+ * re-read when a report finds the file changed (a new training run), which also restarts the counts.
+ */
+@Service
+public class DriftMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(DriftMonitor.class);
+    /** Floor for empty-bin proportions in PSI, so a bin seen on one side only adds a large but finite term. */
+    static final double PSI_EPSILON = 1e-4;
+    static final double PSI_WARN = 0.1;
+    static final double PSI_DRIFT = 0.25;
+    /** Numeric columns in observation order: the request features, then the score. */
+    private static final String[] NUMERIC = {"age", "tenure", "monthlyCharges", "paymentDelay", DriftBaseline.SCORE};
+
+    private final Path baselinePath;
+    private final long windowMs;
+    private final int minSamples;
+    private final LongSupplier clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Profile profile;
+    private volatile String stamp;
+
+    @Autowired
+    public DriftMonitor(@Value("${model.drift.enabled:true}") boolean enabled,
+                        @Value("${model.drift.baseline-path:./models/" + DriftBaseline.FILE_NAME + "}") String baselinePath,
+                        @Value("${model.drift.window-ms:3600000}") long windowMs,
+                        @Value("${model.drift.min-samples:100}") int minSamples) {
+        this(enabled ? Path.of(baselinePath) : null, windowMs, minSamples, System::currentTimeMillis);
+    }
+
+    DriftMonitor(Path baselinePath, long windowMs, int minSamples, LongSupplier clock) {
+        if (windowMs < 1) {
+            throw new IllegalArgumentException("model.drift.window-ms must be positive: " + windowMs);
+        }
+        this.baselinePath = baselinePath;
+        this.windowMs = windowMs;
+        this.minSamples = Math.max(1, minSamples);
+        this.clock = clock;
+        refresh();
+    }
+
+    /** A monitor that ignores every request (no baseline). */
+    public static DriftMonitor none() {
+        return new DriftMonitor(null, 1, 1, System::currentTimeMillis);
+    }
+
+    /** Counts one answered request; a no-op until a baseline is loaded. */
+    public void observe(PredictRequest req, double score) {
+        Profile p = profile;
+        if (p != null) {
+            p.window(clock.getAsLong()).observe(p, req, score);
+        }
+    }
+
+    /** Live distributions against the baseline; an empty feature list when there is no baseline. */
+    public DriftReport getReport() {
+        refresh();
+        Profile p = profile;
+        if (p == null) {
+            return new DriftReport(null, null, 0, null, List.of());
+        }
+        long now = clock.getAsLong();
+        Counts current = p.window(now);
+        Counts previous = p.previous;
+        long since = previous != null ? previous.start : current.start;
+        List<FeatureDrift> features = new ArrayList<>();
+        for (int f = 0; f < NUMERIC.length; f++) {
+            DriftBaseline.Numeric base = p.numeric[f];
+            if (base != null) {
+                long[] live = merge(current.numeric[f], previous != null ? previous.numeric[f] : null);
+                long missing = current.numericMissing[f].sum() + (previous != null ? previous.numericMissing[f].sum() : 0);
+                features.add(compare(NUMERIC[f], "numeric", live, base.counts, missing, true));
+            }
+        }
+        for (int f = 0; f < p.categorical.length; f++) {
+            DriftBaseline.Categorical base = p.categorical[f];
+            if (base != null) {
+                long[] live = merge(current.categorical[f], previous != null ? previous.categorical[f] : null);
+                long[] expected = new long[live.length];
+                System.arraycopy(base.counts, 0, expected, 0, base.counts.length);
+                long missing = current.categoricalMissing[f].sum()
+                        + (previous != null ? previous.categoricalMissing[f].sum() : 0);
+                features.add(compare(ForestModel.CATEGORICAL_FEATURES.get(f), "categorical", live, expected, missing, false));
+            }
+        }
+        long requests = current.requests.sum() + (previous != null ? previous.requests.sum() : 0);
+        return new DriftReport(p.baseline.modelVersion, p.baseline.dataset, requests,
+                Instant.ofEpochMilli(since).toString(), features);
+    }
+
+    private FeatureDrift compare(String feature, String type, long[] live, long[] expected, long missing, boolean ks) {
+        long n = 0;
+        long m = 0;
+        for (int b = 0; b < live.length; b++) {
+            n += live[b];
+            m += expected[b];
+        }
+        double psi = 0.0;
+        double maxGap = 0.0;
+        double cumLive = 0.0;
+        double cumExpected = 0.0;
+        if (n > 0 && m > 0) {
+            for (int b = 0; b < live.length; b++) {
+                double a = (double) live[b] / n;
+                double e = (double) expected[b] / m;
+                double af = Math.max(a, PSI_EPSILON);
+                double ef = Math.max(e, PSI_EPSILON);
+                psi += (af - ef) * Math.log(af / ef);
+                cumLive += a;
+                cumExpected += e;
+                maxGap = Math.max(maxGap, Math.abs(cumLive - cumExpected));
+            }
+        }
+        String status = n < minSamples ? "insufficient" : psi < PSI_WARN ? "ok" : psi < PSI_DRIFT ? "warn" : "drift";
+        return new FeatureDrift(feature, type, n, missing, OutcomeEvaluator.round4(psi),
+                ks ? OutcomeEvaluator.round4(maxGap) : null, status);
+    }
+
+    private static long[] merge(LongAdder[] current, LongAdder[] previous) {
+        long[] out = new long[current.length];
+        for (int b = 0; b < out.length; b++) {
+            out[b] = current[b].sum() + (previous != null ? previous[b].sum() : 0);
+        }
+        return out;
+    }
+
+    /** Loads the baseline when its file appeared or changed since the last check. */
+    private synchronized void refresh() {
+        if (baselinePath == null) {
+            return;
+        }
+        String next = stamp(baselinePath);
+        if (next.equals(stamp)) {
+            return;
+        }
+        stamp = next;
+        if (!Files.isRegularFile(baselinePath)) {
+            profile = null;
+            return;
+        }
+        try {
+            profile = new Profile(DriftBaseline.read(baselinePath, objectMapper), clock.getAsLong());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring drift baseline {}: {}", baselinePath, e.toString());
+            profile = null;
+        }
+    }
+
+    private static String stamp(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return attrs.lastModifiedTime().toMillis() + "|" + attrs.size() + "|" + attrs.fileKey();
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /** A loaded baseline with the bins looked up per request, plus the two live windows. */
+    private final class Profile {
+        final DriftBaseline baseline;
+        /** Per {@link #NUMERIC} entry; null when the baseline lacks it. */
+        final DriftBaseline.Numeric[] numeric = new DriftBaseline.Numeric[NUMERIC.length];
+        /** Per {@link ForestModel#CATEGORICAL_FEATURES} entry; null when the baseline lacks it. */
+        final DriftBaseline.Categorical[] categorical = new DriftBaseline.Categorical[ForestModel.CATEGORICAL_FEATURES.size()];
+        /** Category -> bin per categorical feature; values not seen in training go to the extra last bin. */
+        final List<Map<String, Integer>> categoryBins = new ArrayList<>();
+        volatile Counts current;
+        volatile Counts previous;
+
+        Profile(DriftBaseline baseline, long now) {
+            this.baseline = baseline;
+            for (int f = 0; f < NUMERIC.length; f++) {
+                numeric[f] = baseline.numeric.get(NUMERIC[f]);
+            }
+            for (int f = 0; f < categorical.length; f++) {
+                categorical[f] = baseline.categorical.get(ForestModel.CATEGORICAL_FEATURES.get(f));
+                Map<String, Integer> bins = new HashMap<>();
+                if (categorical[f] != null) {
+                    for (int c = 0; c < categorical[f].categories.length; c++) {
+                        bins.put(categorical[f].categories[c], c);
+                    }
+                }
+                categoryBins.add(bins);
+            }
+            this.current = new Counts(this, now);
+        }
+
+        /** The window to count into at {@code now}, rotating when window-ms has passed since it opened. */
+        Counts window(long now) {
+            Counts c = current;
+            return now - c.start < windowMs ? c : rotate(now);
+        }
+
+        private synchronized Counts rotate(long now) {
+            Counts c = current;
+            if (now - c.start < windowMs) {
+                return c;
+            }
+            // After more than one idle window the old counts are too old to keep as "previous".
+            previous = now - c.start < 2 * windowMs ? c : null;
+            long start = c.start + (now - c.start) / windowMs * windowMs;
+            current = new Counts(this, start);
+            return current;
+        }
+    }
+
+    /** Counters of one window; every array is sized from the baseline once, so observing never allocates. */
+    private static final class Counts {
+        final long start;
+        final LongAdder requests = new LongAdder();
+        final LongAdder[][] numeric = new LongAdder[NUMERIC.length][];
+        final LongAdder[] numericMissing = adders(NUMERIC.length);
+        final LongAdder[][] categorical;
+        final LongAdder[] categoricalMissing;
+
+        Counts(Profile profile, long start) {
+            this.start = start;
+            for (int f = 0; f < NUMERIC.length; f++) {
+                numeric[f] = adders(profile.numeric[f] != null ? profile.numeric[f].counts.length : 0);
+            }
+            categorical = new LongAdder[profile.categorical.length][];
+            for (int f = 0; f < categorical.length; f++) {
+                categorical[f] = adders(profile.categorical[f] != null ? profile.categorical[f].categories.length + 1 : 0);
+            }
+            categoricalMissing = adders(categorical.length);
+        }
+
+        void observe(Profile p, PredictRequest req, double score) {
+            requests.increment();
+            numeric(p, 0, req.getAge() != null ? req.getAge() : Double.NaN);
+            numeric(p, 1, req.getTenure() != null ? req.getTenure() : Double.NaN);
+            numeric(p, 2, req.getMonthlyCharges() != null ? req.getMonthlyCharges() : Double.NaN);
+            numeric(p, 3, req.getPaymentDelay() != null ? req.getPaymentDelay() : Double.NaN);
+            numeric(p, 4, score);
+            categorical(p, 0, req.getContract());
+            categorical(p, 1, req.getInternetService());
+        }
+
+        private void numeric(Profile p, int f, double v) {
+            DriftBaseline.Numeric base = p.numeric[f];
+            if (base == null) {
+                return;
+            }
+            if (Double.isNaN(v)) {
+                numericMissing[f].increment();
+            } else {
+                numeric[f][base.bin(v)].increment();
+            }
+        }
+
+        private void categorical(Profile p, int f, String v) {
+            if (p.categorical[f] == null) {
+                return;
+            }
+            if (v == null) {
+                categoricalMissing[f].increment();
+                return;
+            }
+            Integer bin = p.categoryBins.get(f).get(v);
+            categorical[f][bin != null ? bin : categorical[f].length - 1].increment();
+        }
+
+        private static LongAdder[] adders(int n) {
+            LongAdder[] out = new LongAdder[n];
+            for (int i = 0; i < n; i++) {
+                out[i] = new LongAdder();
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Every score the forest can produce for a valid request, precomputed into one off-heap table.
+ * <p>
+ * Each numeric feature only matters through which of the forest's split thresholds it exceeds, so its domain
+ * (age, tenure 0-120, paymentDelay 0-60, monthlyCharges 0-1000) is collapsed into the intervals between
+ * those thresholds; contract and internetService keep their three valid values. A cell is scored once with a
+ * representative of its interval, which walks every tree down the same path as any other member, so a lookup
+ * returns exactly what {@link ForestModel#predictProba} would. Requests outside the domain return NaN and are
+ * scored by the trees.
+ */
+final class ForestLookupTable {
+
+    static final int MAX_AGE = 120;
+    static final int MAX_TENURE = 120;
+    static final int MAX_PAYMENT_DELAY = 60;
+    static final double MAX_MONTHLY_CHARGES = 1000.0;
+    static final String[] CONTRACTS = {"Month-to-month", "One year", "Two year"};
+    static final String[] INTERNET_SERVICES = {"DSL", "Fiber optic", "None"};
+    /** Direct buffers are int-indexed by byte. */
+    static final long MAX_CELLS = Integer.MAX_VALUE / Double.BYTES;
+
+    private final ForestModel forest;
+    private final int[] ageBin;
+    private final int[] tenureBin;
+    private final int[] delayBin;
+    private final float[] chargeThresholds;
+    private final int chargeBinOffset;
+    private final int chargeBins;
+    private final int tenureBins;
+    private final int delayBins;
+    private final long cells;
+    private final DoubleBuffer table;
+    private final long buildMillis;
+
+    private ForestLookupTable(ForestModel forest, long maxCells) {
+        long start = System.nanoTime();
+        this.forest = forest;
+        float[][] thresholds = splitThresholds(forest);
+        float[] ageValues = new float[MAX_AGE + 1];
+        float[] tenureValues = new float[MAX_TENURE + 1];
+        float[] delayValues = new float[MAX_PAYMENT_DELAY + 1];
+        this.ageBin = integerBins(forest, 0, thresholds[0], ageValues);
+        this.tenureBin = integerBins(forest, 1, thresholds[1], tenureValues);
+        this.delayBin = integerBins(forest, 3, thresholds[3], delayValues);
+        this.chargeThresholds = thresholds[2];
+        this.chargeBinOffset = interval(chargeThresholds, forest.scale(2, 0.0));
+        this.chargeBins = interval(chargeThresholds, forest.scale(2, MAX_MONTHLY_CHARGES)) - chargeBinOffset + 1;
+        int ageBins = ageBin[MAX_AGE] + 1;
+        this.tenureBins = tenureBin[MAX_TENURE] + 1;
+        this.delayBins = delayBin[MAX_PAYMENT_DELAY] + 1;
+        this.cells = (long) ageBins * tenureBins * delayBins * CONTRACTS.length * INTERNET_SERVICES.length * chargeBins;
+        if (cells > Math.min(maxCells, MAX_CELLS)) {
+            throw new IllegalStateException("Lookup table would need " + cells + " cells (limit " + maxCells + ").");
+        }
+        this.table = ByteBuffer.allocateDirect((int) cells * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        fill(representatives(ageValues, ageBin, ageBins), representatives(tenureValues, tenureBin, tenureBins),
+                representatives(delayValues, delayBin, delayBins), chargeRepresentatives(), categoricalColumns(forest));
+        this.buildMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /** Builds and verifies the table; throws IllegalStateException when it exceeds {@code maxCells} or a sample differs. */
+    static ForestLookupTable build(ForestModel forest, long maxCells, int verifySamples) {
+        ForestLookupTable lookup = new ForestLookupTable(forest, maxCells);
+        int mismatches = lookup.verify(verifySamples, 42L);
+        if (mismatches > 0) {
+            throw new IllegalStateException("Lookup table differs from the forest on " + mismatches + " of "
+                    + verifySamples + " sampled requests.");
+        }
+        return lookup;
+    }
+
+    /** Score for a request inside the table's domain, or NaN. */
+    double score(PredictRequest req) {
+        Integer age = req.getAge();
+        Integer tenure = req.getTenure();
+        Integer delay = req.getPaymentDelay();
+        Double charges = req.getMonthlyCharges();
+        int contract = indexOf(CONTRACTS, req.getContract());
+        int internet = indexOf(INTERNET_SERVICES, req.getInternetService());
+        if (age == null || age < 0 || age > MAX_AGE || tenure == null || tenure < 0 || tenure > MAX_TENURE
+                || delay == null || delay < 0 || delay > MAX_PAYMENT_DELAY || contract < 0 || internet < 0
+                || charges == null || !(charges >= 0.0 && charges <= MAX_MONTHLY_CHARGES)) {
+            return Double.NaN;
+        }
+        int charge = interval(chargeThresholds, forest.scale(2, charges)) - chargeBinOffset;
+        return table.get(index(ageBin[age], tenureBin[tenure], delayBin[delay], contract, internet, charge));
+    }
+
+    /** Compares {@code samples} random in-domain requests against full tree evaluation; returns the mismatch count. */
+    int verify(int samples, long seed) {
+        Random random = new Random(seed);
+        int mismatches = 0;
+        for (int i = 0; i < samples; i++) {
+            PredictRequest req = new PredictRequest();
+            req.setAge(random.nextInt(MAX_AGE + 1));
+            req.setTenure(random.nextInt(MAX_TENURE + 1));
+            req.setPaymentDelay(random.nextInt(MAX_PAYMENT_DELAY + 1));
+            req.setMonthlyCharges(random.nextInt(100_001) / 100.0);
+            req.setContract(CONTRACTS[random.nextInt(CONTRACTS.length)]);
+            req.setInternetService(INTERNET_SERVICES[random.nextInt(INTERNET_SERVICES.length)]);
+            if (Double.compare(score(req), forest.predictProba(req)) != 0) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    long getCells() {
+        return cells;
+    }
+
+    long getMemoryBytes() {
+        long binMaps = (long) (ageBin.length + tenureBin.length + delayBin.length) * Integer.BYTES;
+        return cells * Double.BYTES + binMaps + (long) chargeThresholds.length * Float.BYTES;
+    }
+
+    long getBuildMillis() {
+        return buildMillis;
+    }
+
+    ForestModel getForest() {
+        return forest;
+    }
+
+    private int index(int age, int tenure, int delay, int contract, int internet, int charge) {
+        int i = age;
+        i = i * tenureBins + tenure;
+        i = i * delayBins + delay;
+        i = i * CONTRACTS.length + contract;
+        i = i * INTERNET_SERVICES.length + internet;
+        return i * chargeBins + charge;
+    }
+
+    private void fill(float[] ages, float[] tenures, float[] delays, float[] charges, double[][] categorical) {
+        int numeric = ForestModel.NUMERIC_FEATURES.size();
+        IntStream.range(0, ages.length).parallel().forEach(a -> {
+            double[] x = new double[forest.getFeatureCount()];
+            x[0] = ages[a];
+            for (int t = 0; t < tenures.length; t++) {
+                x[1] = tenures[t];
+                for (int d = 0; d < delays.length; d++) {
+                    x[3] = delays[d];
+                    for (int c = 0; c < CONTRACTS.length; c++) {
+                        for (int s = 0; s < INTERNET_SERVICES.length; s++) {
+                            double[] oneHot = categorical[c * INTERNET_SERVICES.length + s];
+                            System.arraycopy(oneHot, numeric, x, numeric, oneHot.length - numeric);
+                            int base = index(a, t, d, c, s, 0);
+                            for (int m = 0; m < charges.length; m++) {
+                                x[2] = charges[m];
+                                table.put(base + m, forest.predictProba(x));
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /** Sorted distinct split thresholds of each numeric feature. */
+    private static float[][] splitThresholds(ForestModel forest) {
+        int numeric = ForestModel.NUMERIC_FEATURES.size();
+        float[][] out = new float[numeric][forest.getNodeCount()];
+        int[] counts = new int[numeric];
+        for (int node = 0; node < forest.getNodeCount(); node++) {
+            int f = forest.feature.get(node);
+            if (forest.left.get(node) != -1 && f < numeric) {
+                out[f][counts[f]++] = forest.threshold.get(node);
+            }
+        }
+        for (int f = 0; f < numeric; f++) {
+            float[] t = out[f];
+            Arrays.sort(t, 0, counts[f]);
+            int n = 0;
+            for (int i = 0; i < counts[f]; i++) {
+                if (n == 0 || t[i] != t[n - 1]) {
+                    t[n++] = t[i];
+                }
+            }
+            out[f] = Arrays.copyOf(t, n);
+        }
+        return out;
+    }
+
+    /** Number of thresholds below {@code x}: trees send x right at exactly those splits. */
+    private static int interval(float[] thresholds, float x) {
+        int lo = 0;
+        int hi = thresholds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (thresholds[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Dense bin per integer value 0..max (ascending), and each value's scaled feature in {@code values}. */
+    private static int[] integerBins(ForestModel forest, int feature, float[] thresholds, float[] values) {
+        int[] bins = new int[values.length];
+        int previous = -1;
+        int bin = -1;
+        for (int v = 0; v < values.length; v++) {
+            values[v] = forest.scale(feature, v);
+            int interval = interval(thresholds, values[v]);
+            if (interval != previous) {
+                bin++;
+                previous = interval;
+            }
+            bins[v] = bin;
+        }
+        return bins;
+    }
+
+    private static float[] representatives(float[] values, int[] bins, int count) {
+        float[] out = new float[count];
+        for (int v = values.length - 1; v >= 0; v--) {
+            out[bins[v]] = values[v];
+        }
+        return out;
+    }
+
+    /** A value inside each monthlyCharges interval: its upper threshold, or just above the last one. */
+    private float[] chargeRepresentatives() {
+        float[] out = new float[chargeBins];
+        if (chargeThresholds.length == 0) {
+            out[0] = forest.scale(2, 0.0);
+            return out;
+        }
+        for (int b = 0; b < chargeBins; b++) {
+            int interval = chargeBinOffset + b;
+            out[b] = interval < chargeThresholds.length ? chargeThresholds[interval]
+                    : Math.nextUp(chargeThresholds[chargeThresholds.length - 1]);
+        }
+        return out;
+    }
+
+    private static double[][] categoricalColumns(ForestModel forest) {
+        double[][] out = new double[CONTRACTS.length * INTERNET_SERVICES.length][];
+        for (int c = 0; c < CONTRACTS.length; c++) {
+            for (int s = 0; s < INTERNET_SERVICES.length; s++) {
+                PredictRequest req = new PredictRequest();
+                req.setAge(0);
+                req.setTenure(0);
+                req.setMonthlyCharges(0.0);
+                req.setPaymentDelay(0);
+                req.setContract(CONTRACTS[c]);
+                req.setInternetService(INTERNET_SERVICES[s]);
+                double[] x = new double[forest.getFeatureCount()];
+                forest.transform(req, x);
+                out[c * INTERNET_SERVICES.length + s] = x;
+            }
+        }
+        return out;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,475 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Random Forest exported by train_rf.py, scored in-process.
+ * Reproduces the sklearn pipeline: median imputation + StandardScaler on numeric columns,
+ * most-frequent imputation + OneHotEncoder(handle_unknown="ignore") on categoricals,
+ * then averages per-tree churn probabilities like RandomForestClassifier.predict_proba.
+ * <p>
+ * Nodes of all trees are stored as flat structure-of-arrays (usually views over the memory-mapped
+ * rf_forest.bin, see {@link ForestModelLoader}); child indices are absolute and leaves have left == -1.
+ * Thresholds are float32 rounded down, so {@code (float) x <= threshold} matches sklearn exactly.
+ * Immutable and safe to share between request threads.
+ */
+public final class ForestModel {
+
+    public static final List<String> NUMERIC_FEATURES = List.of("age", "tenure", "monthlyCharges", "paymentDelay");
+    public static final List<String> CATEGORICAL_FEATURES = List.of("contract", "internetService");
+    /** Request features as explanations report them: numeric, then categorical. */
+    public static final List<String> FEATURES = List.of("age", "tenure", "monthlyCharges", "paymentDelay", "contract", "internetService");
+
+    final String modelVersion;
+    final double[] numericMedians;
+    final double[] scalerMean;
+    final double[] scalerScale;
+    final String[] categoricalMostFrequent;
+    final String[][] categories;
+    private final int[] categoryOffsets;
+    private final int featureCount;
+    /** Request feature ({@link #FEATURES} index) that each transformed column came from. */
+    private final int[] columnFeature;
+    private final double bias;
+
+    final int[] roots;
+    final IntBuffer feature;
+    final FloatBuffer threshold;
+    final IntBuffer left;
+    final IntBuffer right;
+    final DoubleBuffer value;
+
+    ForestModel(String modelVersion, double[] numericMedians, double[] scalerMean, double[] scalerScale,
+                String[] categoricalMostFrequent, String[][] categories,
+                int[] roots, IntBuffer feature, FloatBuffer threshold, IntBuffer left, IntBuffer right, DoubleBuffer value) {
+        if (numericMedians.length != NUMERIC_FEATURES.size()
+                || scalerMean.length != NUMERIC_FEATURES.size()
+                || scalerScale.length != NUMERIC_FEATURES.size()) {
+            throw new IllegalArgumentException("Expected " + NUMERIC_FEATURES.size() + " numeric features.");
+        }
+        if (categories.length != CATEGORICAL_FEATURES.size()
+                || categoricalMostFrequent.length != CATEGORICAL_FEATURES.size()) {
+            throw new IllegalArgumentException("Expected " + CATEGORICAL_FEATURES.size() + " categorical features.");
+        }
+        if (roots.length == 0) {
+            throw new IllegalArgumentException("Forest has no trees.");
+        }
+        this.modelVersion = modelVersion;
+        this.numericMedians = numericMedians;
+        this.scalerMean = scalerMean;
+        this.scalerScale = scalerScale;
+        this.categoricalMostFrequent = categoricalMostFrequent;
+        this.categories = categories;
+        this.categoryOffsets = new int[categories.length];
+        int offset = numericMedians.length;
+        for (int i = 0; i < categories.length; i++) {
+            categoryOffsets[i] = offset;
+            offset += categories[i].length;
+        }
+        this.featureCount = offset;
+        this.columnFeature = new int[featureCount];
+        for (int i = 0; i < numericMedians.length; i++) {
+            columnFeature[i] = i;
+        }
+        for (int i = 0; i < categories.length; i++) {
+            for (int c = 0; c < categories[i].length; c++) {
+                columnFeature[categoryOffsets[i] + c] = numericMedians.length + i;
+            }
+        }
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+        validateNodes();
+        double rootSum = 0.0;
+        for (int root : roots) {
+            rootSum += value.get(root);
+        }
+        this.bias = rootSum / roots.length;
+    }
+
+    /**
+     * Builds a heap-backed forest from per-tree node tables (tree-local child indices, double thresholds),
+     * flattening them into the same layout as rf_forest.bin.
+     */
+    static ForestModel of(String modelVersion, double[] numericMedians, double[] scalerMean, double[] scalerScale,
+                          String[] categoricalMostFrequent, String[][] categories, List<Tree> trees) {
+        int nodeCount = 0;
+        for (Tree tree : trees) {
+            nodeCount += tree.feature.length;
+        }
+        int[] roots = new int[trees.size()];
+        int[] feature = new int[nodeCount];
+        float[] threshold = new float[nodeCount];
+        int[] left = new int[nodeCount];
+        int[] right = new int[nodeCount];
+        double[] value = new double[nodeCount];
+        int base = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            Tree tree = trees.get(t);
+            roots[t] = base;
+            for (int i = 0; i < tree.feature.length; i++) {
+                boolean leaf = tree.left[i] == -1;
+                feature[base + i] = leaf ? -1 : tree.feature[i];
+                threshold[base + i] = floorToFloat(tree.threshold[i]);
+                left[base + i] = leaf ? -1 : base + tree.left[i];
+                right[base + i] = leaf ? -1 : base + tree.right[i];
+                value[base + i] = tree.value[i];
+            }
+            base += tree.feature.length;
+        }
+        return new ForestModel(modelVersion, numericMedians, scalerMean, scalerScale, categoricalMostFrequent, categories,
+                roots, IntBuffer.wrap(feature), FloatBuffer.wrap(threshold), IntBuffer.wrap(left), IntBuffer.wrap(right),
+                DoubleBuffer.wrap(value));
+    }
+
+    /** Largest float32 not above {@code v}: for any float32 x, {@code x <= v} iff {@code x <= floorToFloat(v)}. */
+    static float floorToFloat(double v) {
+        float f = (float) v;
+        return f > v ? Math.nextDown(f) : f;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public int getTreeCount() {
+        return roots.length;
+    }
+
+    public int getNodeCount() {
+        return feature.limit();
+    }
+
+    /** P(CHURN) for one request, same value as pipeline.predict_proba(X)[0][1]. */
+    public double predictProba(PredictRequest req) {
+        double[] x = new double[featureCount];
+        transform(req, x);
+        return predictProba(x);
+    }
+
+    /** P(CHURN) for a row already produced by {@link #transform}. */
+    public double predictProba(double[] x) {
+        double sum = 0.0;
+        for (int root : roots) {
+            sum += value.get(leaf(root, x));
+        }
+        return sum / roots.length;
+    }
+
+    /**
+     * Scores {@code rows} of {@code data} into {@code out} (same order), transforming each row as {@link #transform}
+     * would the equivalent request. Dictionary codes are mapped to one-hot columns once per call, so the loop reads
+     * primitives only and reuses one feature vector.
+     */
+    public void predictProba(ColumnarDataset data, int[] rows, double[] out) {
+        int[][] hot = new int[categories.length][];
+        int[] missing = new int[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            String[] dictionary = data.dictionary(i);
+            hot[i] = new int[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                hot[i][code] = categoryColumn(i, dictionary[code]);
+            }
+            missing[i] = categoryColumn(i, categoricalMostFrequent[i]);
+        }
+        double[] x = new double[featureCount];
+        for (int k = 0; k < rows.length; k++) {
+            int row = rows[k];
+            for (int i = 0; i < numericMedians.length; i++) {
+                transformNumeric(i, data.numeric(i, row), x);
+            }
+            for (int i = 0; i < categories.length; i++) {
+                int offset = categoryOffsets[i];
+                Arrays.fill(x, offset, offset + categories[i].length, 0.0);
+                int code = data.category(i, row);
+                int c = code < 0 ? missing[i] : hot[i][code];
+                if (c >= 0) {
+                    x[offset + c] = 1.0;
+                }
+            }
+            out[k] = predictProba(x);
+        }
+    }
+
+    /** Position of {@code v} among categorical feature {@code i}'s categories, or -1 if it is unknown. */
+    private int categoryColumn(int i, String v) {
+        String[] cats = categories[i];
+        for (int c = 0; c < cats.length; c++) {
+            if (cats[c].equals(v)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /** Mean churn probability at the roots: the score before any split, which explanations start from. */
+    public double getBias() {
+        return bias;
+    }
+
+    /**
+     * Scores a request and explains the score in the same walk (Saabas decomposition): each split on a tree's path
+     * moves the churn probability from the node's value to the child's, and that change is credited to the request
+     * feature the split tests. Averaged over trees, {@code getBias() + sum(contributions)} equals the score up to
+     * rounding. The score itself is summed exactly as {@link #predictProba(double[])} does, and a tree votes CHURN
+     * when its leaf probability is above 0.5 (sklearn's argmax gives ties to the first class). Allocation-free.
+     */
+    public void explain(PredictRequest req, Explanation out) {
+        double[] x = out.x;
+        double[] contributions = out.contributions;
+        transform(req, x);
+        Arrays.fill(contributions, 0.0);
+        double sum = 0.0;
+        int votes = 0;
+        for (int root : roots) {
+            int node = root;
+            double v = value.get(node);
+            int l;
+            while ((l = left.get(node)) != -1) {
+                int f = feature.get(node);
+                node = x[f] <= threshold.get(node) ? l : right.get(node);
+                double child = value.get(node);
+                contributions[columnFeature[f]] += child - v;
+                v = child;
+            }
+            sum += v;
+            if (v > 0.5) {
+                votes++;
+            }
+        }
+        for (int i = 0; i < contributions.length; i++) {
+            contributions[i] /= roots.length;
+        }
+        out.score = sum / roots.length;
+        out.votes = votes;
+    }
+
+    /**
+     * Scores {@code base} with numeric feature {@code featureA} (a {@link #NUMERIC_FEATURES} index) set to each of
+     * {@code valuesA} and, unless {@code featureB} is -1, {@code featureB} to each of {@code valuesB}. Writes one
+     * score per combination into {@code out}, row-major with {@code valuesA} outer. Values must be ascending.
+     * <p>
+     * Rather than walking every tree once per cell, each tree is walked once for the whole grid: splits on the
+     * fixed features follow the base row, a split on a swept feature divides the cells at its threshold, and each
+     * leaf reached adds its value to the block of cells that end there. Per cell the leaf values are summed in
+     * tree order, so every score equals {@link #predictProba(PredictRequest)} for that combination exactly.
+     */
+    public void sweep(PredictRequest base, int featureA, double[] valuesA, int featureB, double[] valuesB, double[] out) {
+        double[] x = new double[featureCount];
+        transform(base, x);
+        float[] xa = scaled(featureA, valuesA);
+        float[] xb = featureB >= 0 ? scaled(featureB, valuesB) : new float[1];
+        if (out.length != xa.length * xb.length) {
+            throw new IllegalArgumentException("Output holds " + out.length + " scores, grid has " + xa.length * xb.length);
+        }
+        Arrays.fill(out, 0.0);
+        Grid grid = new Grid(x, featureA, xa, featureB, xb, out);
+        for (int root : roots) {
+            sweepNode(root, grid, 0, xa.length, 0, xb.length);
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] /= roots.length;
+        }
+    }
+
+    /** Adds this subtree's leaf values to cells [a0, a1) x [b0, b1), all of which reach {@code node}. */
+    private void sweepNode(int node, Grid grid, int a0, int a1, int b0, int b1) {
+        int l;
+        while ((l = left.get(node)) != -1) {
+            int f = feature.get(node);
+            float t = threshold.get(node);
+            if (f == grid.featureA) {
+                int m = firstAbove(grid.xa, a0, a1, t);
+                if (m > a0 && m < a1) {
+                    sweepNode(l, grid, a0, m, b0, b1);
+                    a0 = m;
+                    node = right.get(node);
+                } else {
+                    node = m == a1 ? l : right.get(node);
+                }
+            } else if (f == grid.featureB) {
+                int m = firstAbove(grid.xb, b0, b1, t);
+                if (m > b0 && m < b1) {
+                    sweepNode(l, grid, a0, a1, b0, m);
+                    b0 = m;
+                    node = right.get(node);
+                } else {
+                    node = m == b1 ? l : right.get(node);
+                }
+            } else {
+                node = grid.x[f] <= t ? l : right.get(node);
+            }
+        }
+        double v = value.get(node);
+        int stride = grid.xb.length;
+        for (int a = a0; a < a1; a++) {
+            int row = a * stride;
+            for (int b = b0; b < b1; b++) {
+                grid.out[row + b] += v;
+            }
+        }
+    }
+
+    /** First index in [from, to) whose value is above {@code t}; values are ascending. */
+    private static int firstAbove(float[] values, int from, int to, float t) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private float[] scaled(int numericFeature, double[] values) {
+        if (numericFeature < 0 || numericFeature >= NUMERIC_FEATURES.size()) {
+            throw new IllegalArgumentException("Only numeric features can be swept: " + numericFeature);
+        }
+        float[] scaled = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = scale(numericFeature, values[i]);
+            if (i > 0 && scaled[i] < scaled[i - 1]) {
+                throw new IllegalArgumentException("Sweep values must be ascending.");
+            }
+        }
+        return scaled;
+    }
+
+    private int leaf(int node, double[] x) {
+        int l;
+        while ((l = left.get(node)) != -1) {
+            node = x[feature.get(node)] <= threshold.get(node) ? l : right.get(node);
+        }
+        return node;
+    }
+
+    /**
+     * Writes the preprocessed feature row into {@code out} (length {@link #getFeatureCount()}).
+     * Values are rounded to float32 because sklearn casts X to float32 before walking the trees.
+     */
+    public void transform(PredictRequest req, double[] out) {
+        transformNumeric(0, req.getAge() != null ? req.getAge().doubleValue() : Double.NaN, out);
+        transformNumeric(1, req.getTenure() != null ? req.getTenure().doubleValue() : Double.NaN, out);
+        transformNumeric(2, req.getMonthlyCharges() != null ? req.getMonthlyCharges() : Double.NaN, out);
+        transformNumeric(3, req.getPaymentDelay() != null ? req.getPaymentDelay().doubleValue() : Double.NaN, out);
+        transformCategorical(0, req.getContract(), out);
+        transformCategorical(1, req.getInternetService(), out);
+    }
+
+    private void transformNumeric(int i, double raw, double[] out) {
+        out[i] = scale(i, Double.isNaN(raw) ? numericMedians[i] : raw);
+    }
+
+    /** Scaled, float32-rounded value of numeric feature {@code i}, exactly as {@link #transform} writes it. */
+    float scale(int i, double v) {
+        return (float) ((v - scalerMean[i]) / scalerScale[i]);
+    }
+
+    private void transformCategorical(int i, String raw, double[] out) {
+        String v = raw != null ? raw : categoricalMostFrequent[i];
+        String[] cats = categories[i];
+        int offset = categoryOffsets[i];
+        for (int c = 0; c < cats.length; c++) {
+            out[offset + c] = cats[c].equals(v) ? 1.0 : 0.0;
+        }
+    }
+
+    private void validateNodes() {
+        int n = feature.limit();
+        if (n == 0 || threshold.limit() != n || left.limit() != n || right.limit() != n || value.limit() != n) {
+            throw new IllegalArgumentException("Node arrays must be non-empty and of equal length.");
+        }
+        for (int root : roots) {
+            if (root < 0 || root >= n) {
+                throw new IllegalArgumentException("Tree root out of range: " + root);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int l = left.get(i);
+            if (l == -1) continue;
+            int r = right.get(i);
+            if (l <= i || l >= n || r <= i || r >= n) {
+                throw new IllegalArgumentException("Child index out of range at node " + i);
+            }
+            int f = feature.get(i);
+            if (f < 0 || f >= featureCount) {
+                throw new IllegalArgumentException("Feature index out of range at node " + i);
+            }
+        }
+    }
+
+    /** The base row and swept axes shared by one {@link #sweep} walk; numeric feature i is column i. */
+    private static final class Grid {
+        final double[] x;
+        final int featureA;
+        final float[] xa;
+        final int featureB;
+        final float[] xb;
+        final double[] out;
+
+        Grid(double[] x, int featureA, float[] xa, int featureB, float[] xb, double[] out) {
+            this.x = x;
+            this.featureA = featureA;
+            this.xa = xa;
+            this.featureB = featureB;
+            this.xb = xb;
+            this.out = out;
+        }
+    }
+
+    /** Reusable output of {@link #explain}; one per thread, sized for the forest it is used with. */
+    public static final class Explanation {
+        final double[] x;
+        /** Per {@link #FEATURES} entry, the average change in churn probability it caused. */
+        public final double[] contributions = new double[FEATURES.size()];
+        public double score;
+        /** Trees whose leaf predicts CHURN. */
+        public int votes;
+
+        public Explanation(ForestModel forest) {
+            this.x = new double[forest.getFeatureCount()];
+        }
+
+        boolean fits(ForestModel forest) {
+            return x.length == forest.getFeatureCount();
+        }
+    }
+
+    /** Node tables of one fitted tree before flattening; children are tree-local and leaves have left == -1. */
+    static final class Tree {
+        final int[] feature;
+        final double[] threshold;
+        final int[] left;
+        final int[] right;
+        final double[] value;
+
+        Tree(int[] feature, double[] threshold, int[] left, int[] right, double[] value) {
+            int n = feature.length;
+            if (threshold.length != n || left.length != n || right.length != n || value.length != n) {
+                throw new IllegalArgumentException("Tree node arrays must be of equal length.");
+            }
+            this.feature = feature;
+            this.threshold = threshold;
+            this.left = left;
+            this.right = right;
+            this.value = value;
+        }
+    }
+}
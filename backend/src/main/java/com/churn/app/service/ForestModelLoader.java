@@ -0,0 +1,138 @@
+package com.churn.app.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Memory-maps rf_forest.bin written by train_rf.py into a {@link ForestModel}.
+ * Node arrays stay in the mapping (no copy to heap), so processes on one host share the page cache.
+ * <p>
+ * Layout (little-endian): magic "CHRF", int32 formatVersion, treeCount, nodeCount, featureCount,
+ * metaLength; metadata (model version, preprocessing parameters, zero-padded to 8 bytes);
+ * then float64 value[nodeCount], float32 threshold[nodeCount], int32 feature/left/right[nodeCount],
+ * int32 roots[treeCount].
+ */
+public final class ForestModelLoader {
+
+    static final byte[] MAGIC = {'C', 'H', 'R', 'F'};
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 24;
+
+    private ForestModelLoader() {
+    }
+
+    public static ForestModel load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static ForestModel read(ByteBuffer buffer) throws IOException {
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a churn forest file (bad magic).");
+            }
+            int version = buf.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported forest format version " + version + " (expected " + FORMAT_VERSION + ").");
+            }
+            int treeCount = buf.getInt();
+            int nodeCount = buf.getInt();
+            int featureCount = buf.getInt();
+            int metaLength = buf.getInt();
+            if (treeCount <= 0 || nodeCount <= 0 || metaLength < 0 || metaLength % 8 != 0) {
+                throw new IOException("Corrupt forest header.");
+            }
+            long expected = (long) HEADER_BYTES + metaLength + (long) nodeCount * (8 + 4 + 4 + 4 + 4) + (long) treeCount * 4;
+            if (buf.limit() < expected) {
+                throw new IOException("Forest file truncated: " + buf.limit() + " bytes, expected " + expected + ".");
+            }
+
+            String modelVersion = readString(buf);
+            int numericCount = buf.getInt();
+            String[] numericNames = new String[numericCount];
+            double[] medians = new double[numericCount];
+            double[] mean = new double[numericCount];
+            double[] scale = new double[numericCount];
+            for (int i = 0; i < numericCount; i++) {
+                numericNames[i] = readString(buf);
+                medians[i] = buf.getDouble();
+                mean[i] = buf.getDouble();
+                scale[i] = buf.getDouble();
+            }
+            int categoricalCount = buf.getInt();
+            String[] categoricalNames = new String[categoricalCount];
+            String[] mostFrequent = new String[categoricalCount];
+            String[][] categories = new String[categoricalCount][];
+            for (int i = 0; i < categoricalCount; i++) {
+                categoricalNames[i] = readString(buf);
+                mostFrequent[i] = readString(buf);
+                categories[i] = new String[buf.getInt()];
+                for (int c = 0; c < categories[i].length; c++) {
+                    categories[i][c] = readString(buf);
+                }
+            }
+            expectNames(numericNames, ForestModel.NUMERIC_FEATURES.toArray(new String[0]));
+            expectNames(categoricalNames, ForestModel.CATEGORICAL_FEATURES.toArray(new String[0]));
+
+            int pos = HEADER_BYTES + metaLength;
+            ByteBuffer value = section(buf, pos, nodeCount * 8);
+            pos += nodeCount * 8;
+            ByteBuffer threshold = section(buf, pos, nodeCount * 4);
+            pos += nodeCount * 4;
+            ByteBuffer feature = section(buf, pos, nodeCount * 4);
+            pos += nodeCount * 4;
+            ByteBuffer left = section(buf, pos, nodeCount * 4);
+            pos += nodeCount * 4;
+            ByteBuffer right = section(buf, pos, nodeCount * 4);
+            pos += nodeCount * 4;
+            int[] roots = new int[treeCount];
+            section(buf, pos, treeCount * 4).asIntBuffer().get(roots);
+
+            ForestModel model = new ForestModel(modelVersion, medians, mean, scale, mostFrequent, categories, roots,
+                    feature.asIntBuffer(), threshold.asFloatBuffer(), left.asIntBuffer(), right.asIntBuffer(),
+                    value.asDoubleBuffer());
+            if (model.getFeatureCount() != featureCount) {
+                throw new IOException("Forest featureCount " + featureCount + " does not match preprocessing ("
+                        + model.getFeatureCount() + ").");
+            }
+            return model;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Forest file truncated.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid forest file: " + e.getMessage(), e);
+        }
+    }
+
+    private static ByteBuffer section(ByteBuffer buf, int pos, int length) {
+        return buf.slice(pos, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String readString(ByteBuffer buf) throws IOException {
+        int length = buf.getInt();
+        if (length < 0 || length > buf.remaining()) {
+            throw new IOException("Corrupt string in forest metadata.");
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void expectNames(String[] actual, String[] expected) throws IOException {
+        if (!Arrays.equals(actual, expected)) {
+            throw new IOException("Forest features " + Arrays.toString(actual)
+                    + " do not match " + Arrays.toString(expected) + ".");
+        }
+    }
+}
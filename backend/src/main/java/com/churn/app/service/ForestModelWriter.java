@@ -0,0 +1,101 @@
+package com.churn.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link ForestModel} in the rf_forest.bin layout read by {@link ForestModelLoader}
+ * (same bytes as train_rf.py's export). The file is written next to the target and moved into place.
+ */
+public final class ForestModelWriter {
+
+    private ForestModelWriter() {
+    }
+
+    public static void write(ForestModel model, Path path) throws IOException {
+        ByteBuffer buf = encode(model);
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static ByteBuffer encode(ForestModel model) {
+        byte[] meta = encodeMeta(model);
+        int metaLength = (meta.length + 7) & ~7;
+        int nodeCount = model.getNodeCount();
+        int treeCount = model.getTreeCount();
+        ByteBuffer buf = ByteBuffer.allocate(ForestModelLoader.HEADER_BYTES + metaLength + nodeCount * 24 + treeCount * 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(ForestModelLoader.MAGIC)
+                .putInt(ForestModelLoader.FORMAT_VERSION)
+                .putInt(treeCount)
+                .putInt(nodeCount)
+                .putInt(model.getFeatureCount())
+                .putInt(metaLength)
+                .put(meta);
+        buf.position(ForestModelLoader.HEADER_BYTES + metaLength);
+        for (int i = 0; i < nodeCount; i++) buf.putDouble(model.value.get(i));
+        for (int i = 0; i < nodeCount; i++) buf.putFloat(model.threshold.get(i));
+        for (int i = 0; i < nodeCount; i++) buf.putInt(model.feature.get(i));
+        for (int i = 0; i < nodeCount; i++) buf.putInt(model.left.get(i));
+        for (int i = 0; i < nodeCount; i++) buf.putInt(model.right.get(i));
+        for (int root : model.roots) buf.putInt(root);
+        return buf.flip();
+    }
+
+    private static byte[] encodeMeta(ForestModel model) {
+        int size = 4 + utf8(model.modelVersion).length + 8;
+        for (String name : ForestModel.NUMERIC_FEATURES) {
+            size += 4 + utf8(name).length + 24;
+        }
+        for (int i = 0; i < model.categories.length; i++) {
+            size += 4 + utf8(ForestModel.CATEGORICAL_FEATURES.get(i)).length + 4 + utf8(model.categoricalMostFrequent[i]).length + 4;
+            for (String c : model.categories[i]) {
+                size += 4 + utf8(c).length;
+            }
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        putString(buf, model.modelVersion);
+        buf.putInt(ForestModel.NUMERIC_FEATURES.size());
+        for (int i = 0; i < ForestModel.NUMERIC_FEATURES.size(); i++) {
+            putString(buf, ForestModel.NUMERIC_FEATURES.get(i));
+            buf.putDouble(model.numericMedians[i]).putDouble(model.scalerMean[i]).putDouble(model.scalerScale[i]);
+        }
+        buf.putInt(model.categories.length);
+        for (int i = 0; i < model.categories.length; i++) {
+            putString(buf, ForestModel.CATEGORICAL_FEATURES.get(i));
+            putString(buf, model.categoricalMostFrequent[i]);
+            buf.putInt(model.categories[i].length);
+            for (String c : model.categories[i]) {
+                putString(buf, c);
+            }
+        }
+        return buf.array();
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        byte[] bytes = utf8(s);
+        buf.putInt(bytes.length).put(bytes);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,723 @@
+package com.churn.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fits a random forest the way train_rf.py's pipeline does: median imputation and standard scaling of the
+ * numeric features, most-frequent imputation and one-hot encoding of the categoricals, then
+ * RandomForestClassifier(class_weight="balanced") trees (bootstrap rows, sqrt(features) candidates per split,
+ * gini, grown until pure unless maxDepth is set). The result is a {@link ForestModel} ready for
+ * {@link ForestModelWriter}.
+ * <p>
+ * Each transformed column is presorted once and cut into at most maxBins bins (every distinct value gets its own
+ * bin when there are fewer), so rows are stored as one byte per feature and a split search is a histogram of the
+ * node's rows followed by a scan over bins. Thresholds fall midway between the neighbouring values present in the
+ * node, as sklearn's do. Trees are grown in parallel on a ForkJoinPool; tree t always uses the same random stream,
+ * so a given seed yields the same forest regardless of the number of threads.
+ * <p>
+ * Columns are read from the dataset rather than copied: the medians and bin edges come from a {@link SortedColumn},
+ * and rows are coded in a second pass. With a {@link SpillFile} the sorted runs, the binned rows and each worker's
+ * bootstrap scratch are regions of that file, so besides the caller's row indices nothing per row is on the heap
+ * and the training set can be larger than it; results are the same either way.
+ */
+public final class ForestTrainer {
+
+    /** Bin codes are stored in a byte. */
+    public static final int MAX_BINS = 256;
+
+    private final int trees;
+    private final int maxBins;
+    private final int maxDepth;
+    private final int minSamplesLeaf;
+    private final long seed;
+    private final int parallelism;
+
+    /**
+     * @param maxDepth    0 grows every tree until its leaves are pure (sklearn's max_depth=None)
+     * @param parallelism worker threads; 0 uses one per available core
+     */
+    public ForestTrainer(int trees, int maxBins, int maxDepth, int minSamplesLeaf, long seed, int parallelism) {
+        if (trees < 1) {
+            throw new IllegalArgumentException("trees must be at least 1");
+        }
+        if (maxBins < 2 || maxBins > MAX_BINS) {
+            throw new IllegalArgumentException("maxBins must be between 2 and " + MAX_BINS);
+        }
+        this.trees = trees;
+        this.maxBins = maxBins;
+        this.maxDepth = maxDepth;
+        this.minSamplesLeaf = Math.max(1, minSamplesLeaf);
+        this.seed = seed;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** A fitted forest and the mean decrease in impurity of each transformed column (summing to 1). */
+    static final class Result {
+        final ForestModel forest;
+        final List<String> featureNames;
+        final double[] importances;
+
+        Result(ForestModel forest, List<String> featureNames, double[] importances) {
+            this.forest = forest;
+            this.featureNames = featureNames;
+            this.importances = importances;
+        }
+    }
+
+    /** Fits preprocessing and trees on {@code rows} (indices into {@code data}), with the binned rows on the heap. */
+    Result train(ColumnarDataset data, int[] rows, String modelVersion) throws IOException {
+        return train(data, rows, modelVersion, null);
+    }
+
+    /** Fits preprocessing and trees on {@code rows}, paging the per-row buffers to {@code spill} when it is not null. */
+    Result train(ColumnarDataset data, int[] rows, String modelVersion, SpillFile spill) throws IOException {
+        if (!data.isLabelled()) {
+            throw new IllegalArgumentException("CSV missing column: " + ColumnarDataset.TARGET_COLUMN);
+        }
+        if (rows.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 training rows, got " + rows.length);
+        }
+        int numericCount = ForestModel.NUMERIC_FEATURES.size();
+        double[] medians = new double[numericCount];
+        double[] mean = new double[numericCount];
+        double[] scale = new double[numericCount];
+        for (int i = 0; i < numericCount; i++) {
+            fitNumeric(ForestModel.NUMERIC_FEATURES.get(i), data, rows, i, spill, medians, mean, scale);
+        }
+        int categoricalCount = ForestModel.CATEGORICAL_FEATURES.size();
+        String[] mostFrequent = new String[categoricalCount];
+        String[][] categories = new String[categoricalCount][];
+        for (int i = 0; i < categoricalCount; i++) {
+            fitCategorical(ForestModel.CATEGORICAL_FEATURES.get(i), data, rows, i, mostFrequent, categories);
+        }
+
+        List<String> names = new ArrayList<>(ForestModel.NUMERIC_FEATURES);
+        for (int i = 0; i < categoricalCount; i++) {
+            for (String c : categories[i]) {
+                names.add(ForestModel.CATEGORICAL_FEATURES.get(i) + "_" + c);
+            }
+        }
+        int features = names.size();
+        Binned binned = new Binned(spill, features, rows.length);
+        for (int i = 0; i < numericCount; i++) {
+            int feature = i;
+            binned.add(i, k -> {
+                double v = data.numeric(feature, rows[k]);
+                return (float) (((Double.isNaN(v) ? medians[feature] : v) - mean[feature]) / scale[feature]);
+            }, maxBins);
+        }
+        int f = numericCount;
+        for (int i = 0; i < categoricalCount; i++) {
+            // Dictionary code -> one-hot column; empty cells take the most frequent value's column.
+            String[] dictionary = data.dictionary(i);
+            int[] hot = new int[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                hot[code] = Arrays.binarySearch(categories[i], dictionary[code]);
+            }
+            int missing = Arrays.binarySearch(categories[i], mostFrequent[i]);
+            for (int c = 0; c < categories[i].length; c++) {
+                int feature = i;
+                int category = c;
+                binned.add(f++, k -> {
+                    int code = data.category(feature, rows[k]);
+                    return (code < 0 ? missing : hot[code]) == category ? 1f : 0f;
+                }, maxBins);
+            }
+        }
+        long churners = 0;
+        for (int k = 0; k < rows.length; k++) {
+            byte label = (byte) data.label(rows[k]);
+            binned.labels.put(k, label);
+            churners += label;
+        }
+        if (churners == 0 || churners == rows.length) {
+            throw new IllegalArgumentException("Training rows must contain both classes.");
+        }
+        // class_weight="balanced": n_samples / (n_classes * count(class)).
+        binned.classWeight[0] = rows.length / (2.0 * (rows.length - churners));
+        binned.classWeight[1] = rows.length / (2.0 * churners);
+
+        // Seeds drawn up front (not seed + k * gamma, which would replay one stream shifted by k draws).
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] treeSeeds = new long[trees];
+        for (int t = 0; t < trees; t++) {
+            treeSeeds[t] = seeds.nextLong();
+        }
+        int workers = Math.min(parallelism, trees);
+        BlockingQueue<Scratch> scratch = new ArrayBlockingQueue<>(workers);
+        for (int w = 0; w < workers; w++) {
+            scratch.add(new Scratch(spill, rows.length));
+        }
+        Grown[] grown = new Grown[trees];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new GrowTrees(this, binned, scratch, treeSeeds, grown, 0, trees));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<ForestModel.Tree> fitted = new ArrayList<>(trees);
+        double[] importances = new double[features];
+        for (Grown g : grown) {
+            fitted.add(g.tree);
+            for (int j = 0; j < features; j++) {
+                importances[j] += g.importances[j];
+            }
+        }
+        double total = 0.0;
+        for (double v : importances) {
+            total += v;
+        }
+        if (total > 0) {
+            for (int j = 0; j < features; j++) {
+                importances[j] /= total;
+            }
+        }
+        ForestModel forest = ForestModel.of(modelVersion, medians, mean, scale, mostFrequent, categories, fitted);
+        return new Result(forest, List.copyOf(names), importances);
+    }
+
+    /** SimpleImputer(strategy="median") then StandardScaler (population std, 1 for a constant column). */
+    private static void fitNumeric(String name, ColumnarDataset data, int[] rows, int i, SpillFile spill,
+                                   double[] medians, double[] mean, double[] scale) throws IOException {
+        SortedColumn present = new SortedColumn(spill, rows.length);
+        for (int row : rows) {
+            double v = data.numeric(i, row);
+            if (!Double.isNaN(v)) {
+                present.add(v);
+            }
+        }
+        int n = present.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Column " + name + " has no values.");
+        }
+        present.sort();
+        for (int k = 0; k < (n - 1) / 2; k++) {
+            present.next();
+        }
+        double middle = present.next();
+        medians[i] = n % 2 == 1 ? middle : (middle + present.next()) / 2.0;
+        double sum = 0.0;
+        for (int row : rows) {
+            double v = data.numeric(i, row);
+            sum += Double.isNaN(v) ? medians[i] : v;
+        }
+        mean[i] = sum / rows.length;
+        double squares = 0.0;
+        for (int row : rows) {
+            double v = data.numeric(i, row);
+            double d = (Double.isNaN(v) ? medians[i] : v) - mean[i];
+            squares += d * d;
+        }
+        double std = Math.sqrt(squares / rows.length);
+        scale[i] = std > 0 ? std : 1.0;
+    }
+
+    /** SimpleImputer(strategy="most_frequent", ties to the smallest value) then OneHotEncoder's sorted categories. */
+    private static void fitCategorical(String name, ColumnarDataset data, int[] rows, int i, String[] mostFrequent,
+                                       String[][] categories) {
+        String[] dictionary = data.dictionary(i);
+        int[] counts = new int[dictionary.length];
+        for (int row : rows) {
+            int code = data.category(i, row);
+            if (code >= 0) {
+                counts[code]++;
+            }
+        }
+        TreeSet<String> seen = new TreeSet<>();
+        String best = null;
+        int bestCount = 0;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (counts[code] == 0) {
+                continue;
+            }
+            seen.add(dictionary[code]);
+            if (counts[code] > bestCount || (counts[code] == bestCount && dictionary[code].compareTo(best) < 0)) {
+                best = dictionary[code];
+                bestCount = counts[code];
+            }
+        }
+        if (seen.isEmpty()) {
+            throw new IllegalArgumentException("Column " + name + " has no values.");
+        }
+        mostFrequent[i] = best;
+        categories[i] = seen.toArray(new String[0]);
+    }
+
+    /** Transformed value of the k-th training row in one column. */
+    private interface Column {
+        float value(int k);
+    }
+
+    /** The binned training rows shared read-only by every tree. */
+    private static final class Binned {
+        /** Per feature, the bin of each training row (unsigned byte). */
+        final ByteBuffer[] codes;
+        /** Per feature, the smallest and largest value falling in each bin. */
+        final float[][] lower;
+        final float[][] upper;
+        final ByteBuffer labels;
+        final double[] classWeight = new double[2];
+        private final SpillFile spill;
+        private final int rows;
+
+        Binned(SpillFile spill, int features, int rows) throws IOException {
+            this.spill = spill;
+            this.rows = rows;
+            this.codes = new ByteBuffer[features];
+            this.lower = new float[features][];
+            this.upper = new float[features][];
+            this.labels = bytes(spill, rows);
+        }
+
+        int features() {
+            return codes.length;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        /**
+         * Presorts the column, cuts it at quantiles when it has more than maxBins distinct values, and codes each row.
+         * The column is read twice, once to sort and once to code, instead of being copied.
+         */
+        void add(int feature, Column column, int maxBins) throws IOException {
+            SortedColumn sorted = new SortedColumn(spill, rows);
+            for (int k = 0; k < rows; k++) {
+                sorted.add(column.value(k));
+            }
+            sorted.sort();
+            // One pass collects the distinct values (the bins while there are at most maxBins) and the quantile bins.
+            float[] distinctValues = new float[maxBins];
+            int distinct = 0;
+            float[] lo = new float[maxBins];
+            float[] up = new float[maxBins];
+            int bins = 0;
+            int start = 0;
+            int end = binEnd(1, start, rows, maxBins);
+            float previous = 0f;
+            float first = 0f;
+            float last = 0f;
+            boolean closing = false;
+            for (int k = 0; k < rows; k++) {
+                float v = (float) sorted.next();
+                if (k == 0 || v != previous) {
+                    if (distinct < maxBins) {
+                        distinctValues[distinct] = v;
+                    }
+                    distinct++;
+                }
+                previous = v;
+                if (closing) {
+                    // Bin ends after the last copy of the value at its quantile.
+                    if (v == last) {
+                        continue;
+                    }
+                    lo[bins] = first;
+                    up[bins++] = last;
+                    start = k;
+                    end = binEnd(bins + 1, start, rows, maxBins);
+                    closing = false;
+                }
+                if (k == start) {
+                    first = v;
+                }
+                if (k == end - 1) {
+                    last = v;
+                    closing = true;
+                }
+            }
+            if (closing) {
+                lo[bins] = first;
+                up[bins++] = last;
+            }
+            if (distinct <= maxBins) {
+                upper[feature] = Arrays.copyOf(distinctValues, distinct);
+                lower[feature] = Arrays.copyOf(distinctValues, distinct);
+            } else {
+                upper[feature] = Arrays.copyOf(up, bins);
+                lower[feature] = Arrays.copyOf(lo, bins);
+            }
+            ByteBuffer out = bytes(spill, rows);
+            for (int k = 0; k < rows; k++) {
+                out.put(k, (byte) firstAtLeast(upper[feature], column.value(k)));
+            }
+            codes[feature] = out;
+        }
+
+        /** End (exclusive) of quantile bin {@code b}, counted from 1, before copies of its last value are added. */
+        private static int binEnd(int b, int start, int n, int maxBins) {
+            return b == maxBins ? n : Math.max(start + 1, (int) ((long) b * n / maxBins));
+        }
+
+        private static ByteBuffer bytes(SpillFile spill, int n) throws IOException {
+            return spill == null ? ByteBuffer.wrap(new byte[n]) : spill.allocate(n);
+        }
+
+        private static int firstAtLeast(float[] values, float v) {
+            int lo = 0;
+            int hi = values.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < v) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /** One fitted tree and its impurity decrease per feature, normalized to sum 1 (all zero for a single leaf). */
+    private static final class Grown {
+        final ForestModel.Tree tree;
+        final double[] importances;
+
+        Grown(ForestModel.Tree tree, double[] importances) {
+            this.tree = tree;
+            this.importances = importances;
+        }
+    }
+
+    /** One worker's per-tree buffers over the training rows, handed from tree to tree. */
+    private static final class Scratch {
+        /** Bootstrap draws of each training row; all zero between trees. */
+        final ByteBuffer counts;
+        /** Rows drawn at least once; each node owns a contiguous range. */
+        final IntBuffer rows;
+
+        Scratch(SpillFile spill, int n) throws IOException {
+            if (spill == null) {
+                this.counts = ByteBuffer.wrap(new byte[n]);
+                this.rows = IntBuffer.wrap(new int[n]);
+            } else {
+                this.counts = spill.allocate(n);
+                this.rows = spill.allocate((long) n * Integer.BYTES).asIntBuffer();
+            }
+        }
+    }
+
+    /** Splits the tree range in halves until one tree per task; the pool balances the tasks across workers. */
+    private static final class GrowTrees extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ForestTrainer trainer;
+        private final Binned binned;
+        private final BlockingQueue<Scratch> scratch;
+        private final long[] seeds;
+        private final Grown[] out;
+        private final int from;
+        private final int to;
+
+        GrowTrees(ForestTrainer trainer, Binned binned, BlockingQueue<Scratch> scratch, long[] seeds, Grown[] out,
+                  int from, int to) {
+            this.trainer = trainer;
+            this.binned = binned;
+            this.scratch = scratch;
+            this.seeds = seeds;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                // A worker that helps with another tree while joining is not inside a leaf, so at most one set per
+                // running leaf is taken and every set is returned.
+                Scratch buffers;
+                try {
+                    buffers = scratch.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while growing trees", e);
+                }
+                try {
+                    out[from] = new Grower(trainer, binned, buffers, seeds[from]).grow();
+                } finally {
+                    scratch.add(buffers);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GrowTrees(trainer, binned, scratch, seeds, out, from, mid),
+                    new GrowTrees(trainer, binned, scratch, seeds, out, mid, to));
+        }
+    }
+
+    /** Grows one tree depth-first; nodes are numbered in preorder (parent, left subtree, right subtree) like sklearn. */
+    private static final class Grower {
+        private final Binned data;
+        private final int maxDepth;
+        private final int minSamplesLeaf;
+        private final int maxFeatures;
+        private final SplittableRandom random;
+        private final ByteBuffer labels;
+        private final double[] classWeight;
+        private final ByteBuffer counts;
+        private final IntBuffer rows;
+        /** Rows drawn at least once, the used prefix of {@link #rows}. */
+        private final int drawn;
+        private final int[] order;
+        private final double[] hist0;
+        private final double[] hist1;
+        private final int[] histRows;
+        private final double[] importances;
+
+        private int size;
+        private int[] feature = new int[64];
+        private double[] threshold = new double[64];
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private double[] value = new double[64];
+
+        private int bestFeature;
+        private int bestBin;
+        private double bestThreshold;
+        /** Weighted impurity of both children of the best split, for the importance of its feature. */
+        private double bestChildImpurity;
+
+        Grower(ForestTrainer trainer, Binned data, Scratch scratch, long seed) {
+            this.data = data;
+            this.maxDepth = trainer.maxDepth;
+            this.minSamplesLeaf = trainer.minSamplesLeaf;
+            this.maxFeatures = Math.max(1, (int) Math.sqrt(data.features()));
+            this.random = new SplittableRandom(seed);
+            this.labels = data.labels;
+            this.classWeight = data.classWeight;
+            this.counts = scratch.counts;
+            this.rows = scratch.rows;
+            int n = data.rows();
+            int drawn = 0;
+            for (int i = 0; i < n; i++) {
+                int r = random.nextInt(n);
+                byte count = counts.get(r);
+                if (count == 0) {
+                    drawn++;
+                }
+                if (count < Byte.MAX_VALUE) {
+                    counts.put(r, (byte) (count + 1));
+                }
+            }
+            this.drawn = drawn;
+            for (int r = 0, k = 0; r < n; r++) {
+                if (counts.get(r) != 0) {
+                    rows.put(k++, r);
+                }
+            }
+            this.order = new int[data.features()];
+            for (int f = 0; f < order.length; f++) {
+                order[f] = f;
+            }
+            this.hist0 = new double[MAX_BINS];
+            this.hist1 = new double[MAX_BINS];
+            this.histRows = new int[MAX_BINS];
+            this.importances = new double[data.features()];
+        }
+
+        Grown grow() {
+            // Frames of (from, to, depth, parent << 1 | isRight); the left child is pushed last so it is numbered next.
+            int[] stack = new int[64];
+            int top = 0;
+            stack[top++] = 0;
+            stack[top++] = drawn;
+            stack[top++] = 0;
+            stack[top++] = -1;
+            double rootWeight = 0.0;
+            while (top > 0) {
+                int link = stack[--top];
+                int depth = stack[--top];
+                int to = stack[--top];
+                int from = stack[--top];
+                int node = newNode();
+                if (link >= 0) {
+                    if ((link & 1) == 0) {
+                        left[link >> 1] = node;
+                    } else {
+                        right[link >> 1] = node;
+                    }
+                }
+                double w0 = 0.0;
+                double w1 = 0.0;
+                for (int i = from; i < to; i++) {
+                    int r = rows.get(i);
+                    byte label = labels.get(r);
+                    double w = counts.get(r) * classWeight[label];
+                    if (label == 0) {
+                        w0 += w;
+                    } else {
+                        w1 += w;
+                    }
+                }
+                double weight = w0 + w1;
+                if (node == 0) {
+                    rootWeight = weight;
+                }
+                value[node] = w1 / weight;
+                int n = to - from;
+                if (n < 2 * minSamplesLeaf || w0 == 0.0 || w1 == 0.0 || (maxDepth > 0 && depth >= maxDepth)
+                        || !findSplit(from, to, w0, w1)) {
+                    continue;
+                }
+                int mid = partition(from, to);
+                importances[bestFeature] += weight * gini(w0, w1) - bestChildImpurity;
+                feature[node] = bestFeature;
+                threshold[node] = bestThreshold;
+                if (top + 8 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = mid;
+                stack[top++] = to;
+                stack[top++] = depth + 1;
+                stack[top++] = node << 1 | 1;
+                stack[top++] = from;
+                stack[top++] = mid;
+                stack[top++] = depth + 1;
+                stack[top++] = node << 1;
+            }
+            for (int i = 0; i < drawn; i++) {
+                counts.put(rows.get(i), (byte) 0);
+            }
+            double sum = 0.0;
+            for (int f = 0; f < importances.length; f++) {
+                importances[f] /= rootWeight;
+                sum += importances[f];
+            }
+            if (sum > 0) {
+                for (int f = 0; f < importances.length; f++) {
+                    importances[f] /= sum;
+                }
+            }
+            ForestModel.Tree tree = new ForestModel.Tree(Arrays.copyOf(feature, size), Arrays.copyOf(threshold, size),
+                    Arrays.copyOf(left, size), Arrays.copyOf(right, size), Arrays.copyOf(value, size));
+            return new Grown(tree, importances);
+        }
+
+        /**
+         * Draws features at random until maxFeatures that are not constant in this node have been searched (as
+         * sklearn does), keeping the split with the highest gini proxy; false when no valid split exists.
+         */
+        private boolean findSplit(int from, int to, double w0, double w1) {
+            double bestProxy = Double.NEGATIVE_INFINITY;
+            bestFeature = -1;
+            int n = to - from;
+            int searched = 0;
+            for (int k = 0; k < order.length && searched < maxFeatures; k++) {
+                int swap = k + random.nextInt(order.length - k);
+                int f = order[swap];
+                order[swap] = order[k];
+                order[k] = f;
+                int bins = data.upper[f].length;
+                if (bins < 2) {
+                    continue;
+                }
+                Arrays.fill(hist0, 0, bins, 0.0);
+                Arrays.fill(hist1, 0, bins, 0.0);
+                Arrays.fill(histRows, 0, bins, 0);
+                ByteBuffer codes = data.codes[f];
+                for (int i = from; i < to; i++) {
+                    int r = rows.get(i);
+                    int b = codes.get(r) & 0xFF;
+                    byte label = labels.get(r);
+                    double w = counts.get(r) * classWeight[label];
+                    if (label == 0) {
+                        hist0[b] += w;
+                    } else {
+                        hist1[b] += w;
+                    }
+                    histRows[b]++;
+                }
+                double l0 = 0.0;
+                double l1 = 0.0;
+                int leftRows = 0;
+                int previous = -1;
+                boolean constant = true;
+                for (int b = 0; b < bins; b++) {
+                    if (histRows[b] == 0) {
+                        continue;
+                    }
+                    if (previous >= 0) {
+                        constant = false;
+                        if (leftRows >= minSamplesLeaf && n - leftRows >= minSamplesLeaf) {
+                            double r0 = w0 - l0;
+                            double r1 = w1 - l1;
+                            double proxy = (l0 * l0 + l1 * l1) / (l0 + l1) + (r0 * r0 + r1 * r1) / (r0 + r1);
+                            if (proxy > bestProxy) {
+                                bestProxy = proxy;
+                                bestFeature = f;
+                                bestBin = previous;
+                                bestThreshold = midpoint(data.upper[f][previous], data.lower[f][b]);
+                                bestChildImpurity = (l0 + l1) * gini(l0, l1) + (r0 + r1) * gini(r0, r1);
+                            }
+                        }
+                    }
+                    l0 += hist0[b];
+                    l1 += hist1[b];
+                    leftRows += histRows[b];
+                    previous = b;
+                }
+                if (!constant) {
+                    searched++;
+                }
+            }
+            return bestFeature >= 0;
+        }
+
+        /** Moves the node's rows in bins up to bestBin ahead of the rest; returns where the right child starts. */
+        private int partition(int from, int to) {
+            ByteBuffer codes = data.codes[bestFeature];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                int r = rows.get(i);
+                if ((codes.get(r) & 0xFF) <= bestBin) {
+                    i++;
+                } else {
+                    rows.put(i, rows.get(j));
+                    rows.put(j--, r);
+                }
+            }
+            return i;
+        }
+
+        private int newNode() {
+            if (size == feature.length) {
+                int capacity = size * 2;
+                feature = Arrays.copyOf(feature, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                value = Arrays.copyOf(value, capacity);
+            }
+            feature[size] = -2;
+            threshold[size] = -2.0;
+            left[size] = -1;
+            right[size] = -1;
+            return size++;
+        }
+
+        /** sklearn's threshold between neighbouring values; falls back to the lower one if the mean rounds up to b. */
+        private static double midpoint(float a, float b) {
+            double mid = a / 2.0 + b / 2.0;
+            return mid >= b ? a : mid;
+        }
+
+        private static double gini(double w0, double w1) {
+            double w = w0 + w1;
+            return 1.0 - (w0 * w0 + w1 * w1) / (w * w);
+        }
+    }
+}
@@ -1,29 +1,62 @@
 package com.churn.app.service;
 
 import com.churn.app.dto.FeatureImportanceItem;
+import com.churn.app.dto.LabelledOutcome;
+import com.churn.app.dto.ModelInfo;
 import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.exception.PredictionException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Serves metrics.json from a parsed snapshot. The file is re-read only when its modification time, size or
+ * identity changes (train_rf.py replaces it by rename) or the scoring service reports a new model version;
+ * otherwise each call costs one stat. Response bodies are serialized and gzipped once per snapshot.
+ * <p>
+ * Once the {@link OutcomeEvaluator} window holds enough labelled outcomes (POST /api/model/outcomes), the KPIs,
+ * confusion matrix and ROC curve are the live ones over that window instead of the file's holdout figures; model
+ * info and feature importance still come from the file. Live figures are recomputed at most every refresh-ms,
+ * and only when outcomes arrived or a slice aged out since the last snapshot.
+ */
 @Service
 public class ModelMetricsService {
 
     private static final String CLASSPATH_METRICS = "models/metrics.json";
+    private static final String CLASSPATH_STAMP = "classpath:" + CLASSPATH_METRICS;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final String configuredMetricsPath;
+    private final ChurnScoringService churnScoringService;
+    private final OutcomeEvaluator outcomeEvaluator;
+    private final long refreshNanos;
+    private volatile Snapshot snapshot;
 
-    public ModelMetricsService(@Value("${model.metrics-path:./models/metrics.json}") String metricsPath) {
+    public ModelMetricsService(String metricsPath) {
+        this(metricsPath, null, null, 0);
+    }
+
+    @Autowired
+    public ModelMetricsService(@Value("${model.metrics-path:./models/metrics.json}") String metricsPath,
+                               ChurnScoringService churnScoringService,
+                               OutcomeEvaluator outcomeEvaluator,
+                               @Value("${model.evaluation.refresh-ms:1000}") long refreshMs) {
         this.configuredMetricsPath = metricsPath;
+        this.churnScoringService = churnScoringService;
+        this.outcomeEvaluator = outcomeEvaluator;
+        this.refreshNanos = Math.max(0, refreshMs) * 1_000_000L;
     }
 
     /** Resolves metrics from configured path only; if it does not exist, caller uses classpath. */
@@ -33,21 +66,106 @@ public class ModelMetricsService {
     }
 
     public ModelMetricsResponse getMetrics() {
+        return current().metrics;
+    }
+
+    /** Adds labelled outcomes to the live evaluation window; 400 naming the first invalid entry, none recorded then. */
+    public int recordOutcomes(List<LabelledOutcome> outcomes) {
+        if (outcomeEvaluator == null) {
+            throw new PredictionException("Live evaluation is not available.", 503);
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            LabelledOutcome o = outcomes.get(i);
+            if (o == null || o.getChurn() == null) {
+                throw new PredictionException("Outcome " + i + ": churn is required", 400);
+            }
+            if (o.getScore() == null || !(o.getScore() >= 0.0 && o.getScore() <= 1.0)) {
+                throw new PredictionException("Outcome " + i + ": score must be between 0 and 1", 400);
+            }
+        }
+        for (LabelledOutcome o : outcomes) {
+            outcomeEvaluator.record(o.getScore(), o.getChurn());
+        }
+        return outcomes.size();
+    }
+
+    public List<FeatureImportanceItem> getFeatureImportance() {
+        try {
+            return current().featureImportance;
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /** GET /api/model/metrics body, serialized once per snapshot. */
+    public PrecomputedJson getMetricsJson() {
+        return current().metricsJson;
+    }
+
+    /** GET /api/model/feature-importance body; an empty list when metrics are unavailable. */
+    public PrecomputedJson getFeatureImportanceJson() {
+        try {
+            return current().featureImportanceJson;
+        } catch (Exception e) {
+            return EmptyList.JSON;
+        }
+    }
+
+    private Snapshot current() {
+        Path path = resolveMetricsPath();
+        String stamp = path != null ? stamp(path) : CLASSPATH_STAMP;
+        String modelVersion = churnScoringService != null ? churnScoringService.getActiveModelVersion() : null;
+        Snapshot s = snapshot;
+        if (s != null && s.stamp.equals(stamp) && Objects.equals(s.modelVersion, modelVersion) && !liveChanged(s)) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s == null || !s.stamp.equals(stamp) || !Objects.equals(s.modelVersion, modelVersion)) {
+                s = new Snapshot(stamp, modelVersion, read(path));
+                snapshot = s;
+            } else if (liveChanged(s)) {
+                s = new Snapshot(s);
+                snapshot = s;
+            }
+            return s;
+        }
+    }
+
+    /** Whether outcomes arrived or a slice expired since {@code s} was built, and refresh-ms has passed. */
+    private boolean liveChanged(Snapshot s) {
+        return outcomeEvaluator != null
+                && (s.outcomesVersion != outcomeEvaluator.getVersion() || s.slice != outcomeEvaluator.currentSlice())
+                && System.nanoTime() - s.builtAt >= refreshNanos;
+    }
+
+    /** The file's metrics with KPIs, confusion matrix and ROC curve replaced by the live window's, when it has enough. */
+    private ModelMetricsResponse withLiveEvaluation(ModelMetricsResponse file) {
+        ModelMetricsResponse live = outcomeEvaluator != null ? outcomeEvaluator.evaluate() : null;
+        if (live == null) {
+            return file;
+        }
+        ModelInfo info = file.getModel() != null ? file.getModel() : new ModelInfo();
+        live.setModel(new ModelInfo(info.getName(), info.getVersion(), info.getLastTrainedAt(),
+                Instant.ofEpochMilli(outcomeEvaluator.now()).toString(), info.getDataset(),
+                "Live evaluation on " + live.getKpis().getSamples() + " labelled outcomes from the last "
+                        + outcomeEvaluator.getWindowMs() / 60_000 + " min."));
+        live.setFeatureImportance(file.getFeatureImportance());
+        return live;
+    }
+
+    private ModelMetricsResponse read(Path path) {
         try {
-            Path path = resolveMetricsPath();
-            String json;
             if (path != null) {
-                json = Files.readString(path);
-            } else {
-                ClassPathResource resource = new ClassPathResource(CLASSPATH_METRICS);
-                if (!resource.exists()) {
-                    throw new IllegalStateException("Model metrics file not found. Run training first: python backend/ml/train_rf.py");
-                }
-                try (InputStream in = resource.getInputStream()) {
-                    json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-                }
+                return objectMapper.readValue(Files.readAllBytes(path), ModelMetricsResponse.class);
+            }
+            ClassPathResource resource = new ClassPathResource(CLASSPATH_METRICS);
+            if (!resource.exists()) {
+                throw new IllegalStateException("Model metrics file not found. Run training first: python backend/ml/train_rf.py");
+            }
+            try (InputStream in = resource.getInputStream()) {
+                return objectMapper.readValue(in, ModelMetricsResponse.class);
             }
-            return objectMapper.readValue(json, ModelMetricsResponse.class);
         } catch (IllegalStateException e) {
             throw e;
         } catch (Exception e) {
@@ -55,13 +173,63 @@ public class ModelMetricsService {
         }
     }
 
-    public List<FeatureImportanceItem> getFeatureImportance() {
+    private static String stamp(Path path) {
         try {
-            ModelMetricsResponse metrics = getMetrics();
-            List<FeatureImportanceItem> list = metrics.getFeatureImportance();
-            return list != null ? list : Collections.emptyList();
-        } catch (Exception e) {
-            return Collections.emptyList();
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return path + "|" + attrs.lastModifiedTime().toMillis() + "|" + attrs.size() + "|" + attrs.fileKey();
+        } catch (IOException e) {
+            return path + "|unreadable";
+        }
+    }
+
+    /** Parsed metrics plus everything derived from them; never modified after construction. */
+    private final class Snapshot {
+        final String stamp;
+        final String modelVersion;
+        /** As read from the file; {@link #metrics} may carry live KPIs on top. */
+        final ModelMetricsResponse fileMetrics;
+        final ModelMetricsResponse metrics;
+        final List<FeatureImportanceItem> featureImportance;
+        final PrecomputedJson metricsJson;
+        final PrecomputedJson featureImportanceJson;
+        final long outcomesVersion;
+        final long slice;
+        final long builtAt;
+
+        Snapshot(String stamp, String modelVersion, ModelMetricsResponse metrics) {
+            this.stamp = stamp;
+            this.modelVersion = modelVersion;
+            if (metrics.getRocCurve() != null) {
+                metrics.setRocCurve(Collections.unmodifiableList(metrics.getRocCurve()));
+            }
+            this.featureImportance = metrics.getFeatureImportance() != null
+                    ? Collections.unmodifiableList(metrics.getFeatureImportance()) : Collections.emptyList();
+            metrics.setFeatureImportance(metrics.getFeatureImportance() != null ? featureImportance : null);
+            this.fileMetrics = metrics;
+            this.featureImportanceJson = PrecomputedJson.of(objectMapper, featureImportance);
+            this.outcomesVersion = outcomeEvaluator != null ? outcomeEvaluator.getVersion() : 0;
+            this.slice = outcomeEvaluator != null ? outcomeEvaluator.currentSlice() : 0;
+            this.builtAt = System.nanoTime();
+            this.metrics = withLiveEvaluation(metrics);
+            this.metricsJson = PrecomputedJson.of(objectMapper, this.metrics);
+        }
+
+        /** Same file, live evaluation recomputed. */
+        Snapshot(Snapshot previous) {
+            this.stamp = previous.stamp;
+            this.modelVersion = previous.modelVersion;
+            this.fileMetrics = previous.fileMetrics;
+            this.featureImportance = previous.featureImportance;
+            this.featureImportanceJson = previous.featureImportanceJson;
+            this.outcomesVersion = outcomeEvaluator.getVersion();
+            this.slice = outcomeEvaluator.currentSlice();
+            this.builtAt = System.nanoTime();
+            this.metrics = withLiveEvaluation(previous.fileMetrics);
+            this.metricsJson = PrecomputedJson.of(objectMapper, this.metrics);
         }
     }
+
+    private static final class EmptyList {
+        static final PrecomputedJson JSON = PrecomputedJson.of(new ObjectMapper(), Collections.emptyList());
+    }
 }
@@ -0,0 +1,213 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the forest currently serving and swaps in new rf_forest.bin exports while the app runs.
+ * <p>
+ * A watcher thread notices when train_rf.py replaces the export (or metrics.json, for the Python engine),
+ * waits for writes to settle, then loads and validates the new file in the background. Only a valid model
+ * replaces the active one, by a single volatile write: request threads read {@link #active()} once and
+ * score with that snapshot, so in-flight requests finish on the model they started with and the hot path
+ * takes no locks. A bad export is logged and the previous model keeps serving.
+ */
+final class ModelRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRegistry.class);
+    static final String METRICS_FILE = "metrics.json";
+
+    /** The forest plus everything derived from it; swapped as one unit so they always agree. */
+    static final class Active {
+        final ForestModel forest;
+        final ForestLookupTable lookupTable;
+
+        Active(ForestModel forest, ForestLookupTable lookupTable) {
+            this.forest = forest;
+            this.lookupTable = lookupTable;
+        }
+    }
+
+    private final Path forestPath;
+    private final boolean nativeEngine;
+    private final boolean lookupTableEnabled;
+    private final long lookupTableMaxCells;
+    private final int lookupVerifySamples;
+    private final PredictionMetrics metrics;
+    private volatile Active active;
+    private volatile Runnable onPythonModelChange = () -> { };
+    private WatchService watchService;
+    private Thread watcher;
+
+    ModelRegistry(Path forestPath, ChurnScoringService.Engine engine, boolean lookupTableEnabled,
+                  long lookupTableMaxCells, int lookupVerifySamples, PredictionMetrics metrics) {
+        this.forestPath = forestPath;
+        this.nativeEngine = engine != ChurnScoringService.Engine.PYTHON;
+        this.lookupTableEnabled = lookupTableEnabled;
+        this.lookupTableMaxCells = lookupTableMaxCells;
+        this.lookupVerifySamples = lookupVerifySamples;
+        this.metrics = metrics;
+        if (!nativeEngine) {
+            return;
+        }
+        if (!Files.isRegularFile(forestPath)) {
+            if (engine == ChurnScoringService.Engine.NATIVE) {
+                throw new IllegalStateException("Forest export not found: " + forestPath + ". Run training first: python backend/ml/train_rf.py");
+            }
+            log.info("No forest export at {}; scoring through python", forestPath);
+            return;
+        }
+        try {
+            this.active = load();
+        } catch (IOException | RuntimeException e) {
+            if (engine == ChurnScoringService.Engine.NATIVE) {
+                throw new IllegalStateException("Forest export invalid: " + forestPath, e);
+            }
+            log.warn("Could not load forest export {}: {}; scoring through python", forestPath, e.getMessage());
+        }
+    }
+
+    /** Current model, or null when scoring through python. Read it once per request. */
+    Active active() {
+        return active;
+    }
+
+    /** Called (on the watcher thread) when metrics.json changes while no native forest is serving. */
+    void onPythonModelChange(Runnable callback) {
+        this.onPythonModelChange = callback;
+    }
+
+    /** Loads and validates the export and makes it active; keeps the current model and returns false on failure. */
+    boolean reload() {
+        if (!nativeEngine) {
+            return false;
+        }
+        try {
+            Active next = load();
+            Active previous = active;
+            active = next;
+            log.info("Model reloaded: {} -> {} ({} trees)",
+                    previous != null ? previous.forest.getModelVersion() : "python",
+                    next.forest.getModelVersion(), next.forest.getTreeCount());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring forest export {}: {}; still serving {}", forestPath, e.getMessage(),
+                    active != null ? active.forest.getModelVersion() : "python");
+            return false;
+        }
+    }
+
+    private Active load() throws IOException {
+        long start = System.nanoTime();
+        ForestModel forest = ForestModelLoader.load(forestPath);
+        validate(forest);
+        metrics.recordPhase(PredictionMetrics.Phase.MODEL_LOAD, System.nanoTime() - start);
+        log.info("Loaded forest {} ({} trees) from {}", forest.getModelVersion(), forest.getTreeCount(), forestPath);
+        return new Active(forest, lookupTableEnabled ? buildLookupTable(forest) : null);
+    }
+
+    /** The loader checks structure; this checks the forest actually scores a request to a probability. */
+    static void validate(ForestModel forest) {
+        PredictRequest probe = new PredictRequest();
+        probe.setAge(40);
+        probe.setTenure(12);
+        probe.setMonthlyCharges(70.0);
+        probe.setContract("Month-to-month");
+        probe.setInternetService("DSL");
+        probe.setPaymentDelay(0);
+        double p = forest.predictProba(probe);
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalStateException("Forest scored a probe request as " + p);
+        }
+    }
+
+    private ForestLookupTable buildLookupTable(ForestModel forest) {
+        try {
+            ForestLookupTable table = ForestLookupTable.build(forest, lookupTableMaxCells, lookupVerifySamples);
+            log.info("Lookup table for {}: {} cells, {} KiB off-heap, built in {} ms, {} samples verified",
+                    forest.getModelVersion(), table.getCells(), table.getMemoryBytes() / 1024, table.getBuildMillis(),
+                    lookupVerifySamples);
+            return table;
+        } catch (IllegalStateException e) {
+            log.warn("Lookup table disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Starts watching the export's directory; changes are applied once no event arrived for {@code settle}. */
+    void watch(Duration settle) {
+        Path dir = forestPath.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            log.info("Model directory {} not found; hot reload disabled", dir);
+            return;
+        }
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.warn("Could not watch {}: {}; hot reload disabled", dir, e.getMessage());
+            return;
+        }
+        watcher = new Thread(() -> watchLoop(settle), "model-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for new model exports", dir);
+    }
+
+    private void watchLoop(Duration settle) {
+        Path forestName = forestPath.getFileName();
+        Path metricsName = Path.of(METRICS_FILE);
+        try {
+            while (true) {
+                boolean forestChanged = false;
+                boolean metricsChanged = false;
+                WatchKey key = watchService.take();
+                // Keep collecting until the directory has been quiet for the settle time (training writes several files).
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object name = event.context();
+                        forestChanged |= forestName.equals(name);
+                        metricsChanged |= metricsName.equals(name);
+                    }
+                    key.reset();
+                    key = watchService.poll(settle.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (forestChanged) {
+                    reload();
+                }
+                if (metricsChanged && active == null) {
+                    onPythonModelChange.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closing
+        } catch (RuntimeException e) {
+            log.warn("Model watcher stopped", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.FeatureImportanceItem;
+import com.churn.app.dto.Kpis;
+import com.churn.app.dto.ModelInfo;
+import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.dto.TrainingStatus;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Retrains the model inside the service: reads the training CSV into a {@link ColumnarDataset}, holds out a
+ * stratified test split, fits a forest with {@link ForestTrainer}, and writes rf_forest.bin and metrics.json (temp file + rename, metrics last) in the
+ * format train_rf.py produces, plus the {@link DriftBaseline} of the training rows next to the forest. The running
+ * service picks the new forest up through the model reload watcher. With model.training.spill-dir set, the columns,
+ * binned rows, sort runs and tree scratch of a run are paged through a {@link SpillFile} there, so the heap only
+ * holds the split's row indices and the holdout scores and the CSV can be larger than the heap.
+ * One run at a time, on a background thread; {@link #getStatus()} reports progress and the outcome.
+ * <p>
+ * Only the native forest is rebuilt, so runs are refused when model.scoring-engine=python: that engine keeps scoring
+ * with its rf_pipeline.joblib, and a new metrics.json would describe a forest nobody serves.
+ */
+@Service
+public class ModelTrainingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelTrainingService.class);
+    static final String MODEL_NAME = "RandomForestChurn";
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+    private static final int TOP_FEATURES = 15;
+
+    private final boolean enabled;
+    private final boolean pythonEngine;
+    private final Path csvPath;
+    private final Path forestPath;
+    private final Path metricsPath;
+    private final double testFraction;
+    private final long seed;
+    private final int trees;
+    private final ForestTrainer trainer;
+    /** Where a run pages its per-row buffers; null keeps them on the heap. */
+    private final Path spillDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor;
+    private final AtomicReference<TrainingStatus> status =
+            new AtomicReference<>(new TrainingStatus("idle", null, null, null, 0, 0, 0, 0, null, null));
+
+    @Autowired
+    public ModelTrainingService(@Value("${model.training.enabled:false}") boolean enabled,
+                                @Value("${model.training.csv-path:./data/telecom_churn.csv}") String csvPath,
+                                @Value("${model.forest-path:" + ChurnScoringService.DEFAULT_FOREST_PATH + "}") String forestPath,
+                                @Value("${model.scoring-engine:auto}") String scoringEngine,
+                                @Value("${model.metrics-path:./models/metrics.json}") String metricsPath,
+                                @Value("${model.training.trees:300}") int trees,
+                                @Value("${model.training.max-bins:256}") int maxBins,
+                                @Value("${model.training.max-depth:0}") int maxDepth,
+                                @Value("${model.training.min-samples-leaf:1}") int minSamplesLeaf,
+                                @Value("${model.training.test-fraction:0.2}") double testFraction,
+                                @Value("${model.training.seed:42}") long seed,
+                                @Value("${model.training.threads:0}") int threads,
+                                @Value("${model.training.spill-dir:}") String spillDir) {
+        if (!(testFraction > 0.0 && testFraction < 1.0)) {
+            throw new IllegalArgumentException("model.training.test-fraction must be between 0 and 1: " + testFraction);
+        }
+        this.enabled = enabled;
+        this.pythonEngine = ChurnScoringService.Engine.valueOf(scoringEngine.trim().toUpperCase(Locale.ROOT))
+                == ChurnScoringService.Engine.PYTHON;
+        this.csvPath = Path.of(csvPath);
+        this.forestPath = Path.of(forestPath);
+        this.metricsPath = Path.of(metricsPath);
+        this.testFraction = testFraction;
+        this.seed = seed;
+        this.trees = trees;
+        this.trainer = new ForestTrainer(trees, maxBins, maxDepth, minSamplesLeaf, seed, threads);
+        this.spillDir = spillDir.isBlank() ? null : Path.of(spillDir);
+        this.executor = Executors.newSingleThreadExecutor(VirtualThreads.factory("model-training", false));
+    }
+
+    /**
+     * Starts a run in the background; 403 when training is disabled or the python engine is serving, 409 while a run
+     * is in progress.
+     */
+    public TrainingStatus start() {
+        if (!enabled) {
+            throw new PredictionException("Training is disabled (model.training.enabled=false).", 403);
+        }
+        if (pythonEngine) {
+            throw new PredictionException("Training rebuilds the native forest only; model.scoring-engine=python "
+                    + "keeps serving rf_pipeline.joblib. Retrain with ml/train_rf.py instead.", 403);
+        }
+        TrainingStatus current = status.get();
+        TrainingStatus running = new TrainingStatus("running", csvPath.getFileName().toString(), Instant.now().toString(),
+                null, 0, 0, 0, trees, null, null);
+        if ("running".equals(current.getState()) || !status.compareAndSet(current, running)) {
+            throw new PredictionException("Training is already running.", 409);
+        }
+        executor.execute(() -> run(running));
+        return running;
+    }
+
+    public TrainingStatus getStatus() {
+        return status.get();
+    }
+
+    private void run(TrainingStatus running) {
+        long start = System.nanoTime();
+        try {
+            Run result = train(csvPath, VERSION_FORMAT.format(Instant.now()));
+            ModelMetricsResponse metrics = result.metrics;
+            Kpis kpis = metrics.getKpis();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("Trained {} on {} in {} ms: accuracy {}, ROC-AUC {}", metrics.getModel().getVersion(), csvPath,
+                    elapsedMs, kpis.getAccuracy(), kpis.getRocAuc());
+            status.set(new TrainingStatus("succeeded", running.getDataset(), running.getStartedAt(),
+                    Instant.now().toString(), elapsedMs, result.trainRows, kpis.getSamples(), trees,
+                    metrics.getModel().getVersion(), null));
+        } catch (Throwable e) {
+            // Errors too (an OutOfMemoryError on a large export), or the status stays "running" and blocks every run.
+            log.warn("Training on {} failed: {}", csvPath, e.toString());
+            status.set(new TrainingStatus("failed", running.getDataset(), running.getStartedAt(),
+                    Instant.now().toString(), (System.nanoTime() - start) / 1_000_000, 0, 0, trees, null,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /** What one run wrote, plus the size of its training split. */
+    static final class Run {
+        final ModelMetricsResponse metrics;
+        final int trainRows;
+
+        Run(ModelMetricsResponse metrics, int trainRows) {
+            this.metrics = metrics;
+            this.trainRows = trainRows;
+        }
+    }
+
+    /** One full run on the calling thread; returns the metrics written next to the forest. */
+    Run train(Path csv, String modelVersion) throws IOException {
+        if (!Files.isRegularFile(csv)) {
+            throw new IllegalArgumentException("CSV not found: " + csv + ". Set model.training.csv-path.");
+        }
+        ForestTrainer.Result result;
+        int[] train;
+        double[] scores;
+        byte[] labels;
+        double churnRate;
+        DriftBaseline baseline;
+        try (SpillFile spill = spillDir != null ? new SpillFile(spillDir) : null) {
+            ColumnarDataset data = ColumnarDataset.read(csv, spill);
+            if (!data.isLabelled()) {
+                throw new IllegalArgumentException("CSV missing column: " + ColumnarDataset.TARGET_COLUMN);
+            }
+            byte[] all = new byte[data.getRows()];
+            long churners = 0;
+            for (int row = 0; row < all.length; row++) {
+                all[row] = (byte) data.label(row);
+                churners += all[row];
+            }
+            int[][] split = stratifiedSplit(all, testFraction, seed);
+            train = split[0];
+            int[] test = split[1];
+            result = trainer.train(data, train, modelVersion, spill);
+
+            scores = new double[test.length];
+            result.forest.predictProba(data, test, scores);
+            labels = new byte[test.length];
+            for (int i = 0; i < test.length; i++) {
+                labels[i] = all[test[i]];
+            }
+            churnRate = round4((double) churners / all.length);
+            baseline = DriftBaseline.of(modelVersion, csv.getFileName().toString(), data, train, scores, spill);
+        }
+        ModelMetricsResponse metrics = evaluate(scores, labels, churnRate);
+        metrics.setModel(new ModelInfo(MODEL_NAME, modelVersion, modelVersion, modelVersion,
+                csv.getFileName().toString(), "Trained in-process by ForestTrainer on holdout test set."));
+        metrics.setFeatureImportance(topFeatures(result.featureNames, result.importances));
+
+        Path forestDir = forestPath.toAbsolutePath().getParent();
+        if (forestDir != null) {
+            Files.createDirectories(forestDir);
+        }
+        ForestModelWriter.write(result.forest, forestPath);
+        baseline.write(forestPath.resolveSibling(DriftBaseline.FILE_NAME), objectMapper);
+        writeMetrics(metrics, modelVersion);
+        return new Run(metrics, train.length);
+    }
+
+    /**
+     * Holdout split keeping the churn rate of both parts (train_test_split(stratify=y)); each class is shuffled
+     * with the seed and its first testFraction goes to the test side. Both index arrays are ascending.
+     */
+    static int[][] stratifiedSplit(byte[] labels, double testFraction, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] byClass = new int[2][];
+        int[] counts = new int[2];
+        for (byte label : labels) {
+            counts[label]++;
+        }
+        int[] testRows = new int[2];
+        for (int c = 0; c < 2; c++) {
+            byClass[c] = new int[counts[c]];
+            testRows[c] = (int) Math.round(counts[c] * testFraction);
+        }
+        int[] fill = new int[2];
+        for (int i = 0; i < labels.length; i++) {
+            byClass[labels[i]][fill[labels[i]]++] = i;
+        }
+        // Sized exactly: on a large file these index arrays are most of what a run keeps on the heap.
+        int[] train = new int[labels.length - testRows[0] - testRows[1]];
+        int[] test = new int[testRows[0] + testRows[1]];
+        int trainCount = 0;
+        int testCount = 0;
+        for (int c = 0; c < 2; c++) {
+            int[] rows = byClass[c];
+            for (int i = rows.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = rows[i];
+                rows[i] = rows[j];
+                rows[j] = t;
+            }
+            for (int i = 0; i < rows.length; i++) {
+                if (i < testRows[c]) {
+                    test[testCount++] = rows[i];
+                } else {
+                    train[trainCount++] = rows[i];
+                }
+            }
+        }
+        Arrays.sort(train);
+        Arrays.sort(test);
+        return new int[][]{train, test};
+    }
+
+    /**
+     * KPIs, confusion matrix and ROC curve of holdout scores, as train_rf.py computes them with sklearn except that a
+     * score of exactly 0.5 counts as CHURN, as the service labels it (sklearn's predict calls that tie NO_CHURN). ROC
+     * points at each distinct score with collinear points dropped, AUC by trapezoids.
+     */
+    static ModelMetricsResponse evaluate(double[] scores, byte[] labels, double churnRate) {
+        int n = scores.length;
+        long tp = 0;
+        long fp = 0;
+        long tn = 0;
+        long fn = 0;
+        long positives = 0;
+        for (int i = 0; i < n; i++) {
+            boolean predicted = scores[i] >= 0.5;
+            if (labels[i] == 1) {
+                positives++;
+                if (predicted) tp++; else fn++;
+            } else {
+                if (predicted) fp++; else tn++;
+            }
+        }
+        long negatives = n - positives;
+
+        // Scores of each class sorted once, then merged from the top: one ROC point per distinct score.
+        double[] churned = new double[(int) positives];
+        double[] stayed = new double[(int) negatives];
+        for (int i = 0, c = 0, s = 0; i < n; i++) {
+            if (labels[i] == 1) churned[c++] = scores[i]; else stayed[s++] = scores[i];
+        }
+        Arrays.sort(churned);
+        Arrays.sort(stayed);
+        long[] fps = new long[n + 1];
+        long[] tps = new long[n + 1];
+        int count = 1;
+        int c = churned.length - 1;
+        int s = stayed.length - 1;
+        while (c >= 0 || s >= 0) {
+            double t = Math.max(c >= 0 ? churned[c] : Double.NEGATIVE_INFINITY, s >= 0 ? stayed[s] : Double.NEGATIVE_INFINITY);
+            tps[count] = tps[count - 1];
+            fps[count] = fps[count - 1];
+            while (c >= 0 && churned[c] == t) {
+                tps[count]++;
+                c--;
+            }
+            while (s >= 0 && stayed[s] == t) {
+                fps[count]++;
+                s--;
+            }
+            count++;
+        }
+        return OutcomeEvaluator.metrics(fps, tps, count, tn, fp, fn, tp, churnRate);
+    }
+
+    private static List<FeatureImportanceItem> topFeatures(List<String> names, double[] importances) {
+        List<FeatureImportanceItem> items = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            items.add(new FeatureImportanceItem(names.get(i), importances[i]));
+        }
+        items.sort(Comparator.comparingDouble(FeatureImportanceItem::getImportance).reversed());
+        return new ArrayList<>(items.subList(0, Math.min(TOP_FEATURES, items.size())));
+    }
+
+    /** Same keys and order as train_rf.py, including the top-level model_version the python engine reports. */
+    private void writeMetrics(ModelMetricsResponse metrics, String modelVersion) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.set("model", objectMapper.valueToTree(metrics.getModel()));
+        root.put("model_version", modelVersion);
+        root.set("kpis", objectMapper.valueToTree(metrics.getKpis()));
+        root.set("confusionMatrix", objectMapper.valueToTree(metrics.getConfusionMatrix()));
+        root.set("rocCurve", objectMapper.valueToTree(metrics.getRocCurve()));
+        root.set("featureImportance", objectMapper.valueToTree(metrics.getFeatureImportance()));
+        Path dir = metricsPath.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, metricsPath.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
+            Files.move(tmp, metricsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static double round4(double v) {
+        return Math.round(v * 10_000.0) / 10_000.0;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,297 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ModelVariantStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Candidate forests kept loaded next to the primary model, for comparing retrained models on live traffic.
+ * <p>
+ * Each variant is an rf_forest.bin export ({@code model.variants.paths}, as {@code name=path} pairs). A variant
+ * with a share in {@code model.variants.traffic} answers that fraction of single predictions instead of the
+ * primary (A/B), picked by a hash of the request so repeated calls for one customer stay on one model. The {@code model.shadow.variant} also scores a sample of the primary's requests on a small
+ * bounded executor after the response is ready; its score only feeds the comparison metrics, and when the
+ * executor's queue is full the shadow score is skipped rather than slowing the caller down.
+ */
+@Service
+public class ModelVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelVariants.class);
+    /** Label of the primary model in per-model metrics. */
+    public static final String PRIMARY = "primary";
+
+    /** One loaded candidate and its comparison counters. */
+    static final class Variant {
+        final String name;
+        final Path path;
+        final ForestModel forest;
+        final double share;
+        final LongAdder routed = new LongAdder();
+        final LongAdder shadowScored = new LongAdder();
+        final LongAdder shadowDropped = new LongAdder();
+        final LongAdder disagreements = new LongAdder();
+        final DoubleAdder absDelta = new DoubleAdder();
+        final DoubleAccumulator maxAbsDelta = new DoubleAccumulator(Math::max, 0.0);
+
+        Variant(String name, Path path, ForestModel forest, double share) {
+            this.name = name;
+            this.path = path;
+            this.forest = forest;
+            this.share = share;
+        }
+    }
+
+    private final List<Variant> variants;
+    /** Cumulative traffic shares, parallel to {@link #routable}. */
+    private final double[] cumulativeShare;
+    private final Variant[] routable;
+    private final Variant shadow;
+    private final double shadowSampleRate;
+    private final ThreadPoolExecutor shadowExecutor;
+    private final PredictionMetrics metrics;
+
+    @Autowired
+    public ModelVariants(@Value("${model.variants.paths:}") String paths,
+                         @Value("${model.variants.traffic:}") String traffic,
+                         @Value("${model.shadow.variant:}") String shadowVariant,
+                         @Value("${model.shadow.sample-rate:1.0}") double shadowSampleRate,
+                         @Value("${model.shadow.threads:1}") int shadowThreads,
+                         @Value("${model.shadow.queue-capacity:1024}") int shadowQueueCapacity,
+                         PredictionMetrics metrics) {
+        this.metrics = metrics;
+        Map<String, String> shares = pairs(traffic, "model.variants.traffic");
+        List<Variant> loaded = new ArrayList<>();
+        for (Map.Entry<String, String> e : pairs(paths, "model.variants.paths").entrySet()) {
+            double share = parseShare(e.getKey(), shares.remove(e.getKey()));
+            Variant variant = load(e.getKey(), Path.of(e.getValue()), share);
+            if (variant != null) {
+                loaded.add(variant);
+            }
+        }
+        if (!shares.isEmpty()) {
+            throw new IllegalArgumentException("model.variants.traffic names unknown variants: " + shares.keySet());
+        }
+        this.variants = List.copyOf(loaded);
+        List<Variant> withShare = new ArrayList<>();
+        double total = 0.0;
+        for (Variant variant : variants) {
+            if (variant.share > 0) {
+                withShare.add(variant);
+                total += variant.share;
+            }
+        }
+        if (total > 1.0 + 1e-9) {
+            throw new IllegalArgumentException("model.variants.traffic shares add up to " + total + " (> 1).");
+        }
+        this.routable = withShare.toArray(new Variant[0]);
+        this.cumulativeShare = new double[routable.length];
+        double cumulative = 0.0;
+        for (int i = 0; i < routable.length; i++) {
+            cumulative += routable[i].share;
+            cumulativeShare[i] = cumulative;
+        }
+        this.shadow = shadowVariant == null || shadowVariant.isBlank() ? null : find(shadowVariant.trim());
+        if (shadow == null && shadowVariant != null && !shadowVariant.isBlank()) {
+            log.warn("Shadow variant {} is not loaded; shadow scoring disabled", shadowVariant);
+        }
+        this.shadowSampleRate = shadowSampleRate;
+        this.shadowExecutor = shadow != null && shadowSampleRate > 0
+                ? new ThreadPoolExecutor(Math.max(1, shadowThreads), Math.max(1, shadowThreads), 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, shadowQueueCapacity)), VirtualThreads.factory("shadow-scoring", false),
+                        new ThreadPoolExecutor.AbortPolicy())
+                : null;
+    }
+
+    /** No variants: every request is answered by the primary model. */
+    static ModelVariants none(PredictionMetrics metrics) {
+        return new ModelVariants("", "", "", 0.0, 1, 1, metrics);
+    }
+
+    private static Variant load(String name, Path path, double share) {
+        try {
+            ForestModel forest = ForestModelLoader.load(path);
+            ModelRegistry.validate(forest);
+            log.info("Loaded model variant {}: {} ({} trees) from {}, {}% of traffic", name, forest.getModelVersion(),
+                    forest.getTreeCount(), path, share * 100);
+            return new Variant(name, path, forest, share);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load model variant {} from {}: {}; skipping it", name, path, e.getMessage());
+            return null;
+        }
+    }
+
+    /** True when some variant takes a share of single predictions. */
+    boolean isRouting() {
+        return routable.length > 0;
+    }
+
+    /**
+     * The variant that should answer {@code req}, or null for the primary model. The draw is a hash of the request's
+     * features, so the same inputs always get the same model (and score), while distinct customers spread over the
+     * variants in their configured shares.
+     */
+    Variant route(PredictRequest req) {
+        if (routable.length == 0) {
+            return null;
+        }
+        double r = unitHash(req);
+        for (int i = 0; i < routable.length; i++) {
+            if (r < cumulativeShare[i]) {
+                routable[i].routed.increment();
+                return routable[i];
+            }
+        }
+        return null;
+    }
+
+    /** Uniform in [0, 1) for a request's features: its cache key, or a hash of the fields when it has none. */
+    static double unitHash(PredictRequest req) {
+        long h = PredictionCache.key(req);
+        if (h == PredictionCache.NO_KEY) {
+            h = Objects.hash(req.getAge(), req.getTenure(), req.getMonthlyCharges(), req.getContract(),
+                    req.getInternetService(), req.getPaymentDelay());
+        }
+        // SplitMix64 finalizer: neighbouring keys land far apart.
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /** Queues the shadow variant's score of {@code req} for comparison with {@code served}; never blocks. */
+    void shadow(PredictRequest req, PredictResponse served) {
+        if (shadowExecutor == null || !sampled()) {
+            return;
+        }
+        submit(() -> compare(req, served));
+    }
+
+    /** Batch form of {@link #shadow}: one task for the sampled rows. */
+    void shadow(List<PredictRequest> requests, List<PredictResponse> served) {
+        if (shadowExecutor == null) {
+            return;
+        }
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (sampled()) {
+                rows.add(i);
+            }
+        }
+        if (!rows.isEmpty()) {
+            submit(() -> {
+                for (int i : rows) {
+                    compare(requests.get(i), served.get(i));
+                }
+            });
+        }
+    }
+
+    private boolean sampled() {
+        return shadowSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < shadowSampleRate;
+    }
+
+    private void submit(Runnable task) {
+        try {
+            shadowExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            shadow.shadowDropped.increment();
+            metrics.recordShadowDropped(shadow.name);
+        }
+    }
+
+    private void compare(PredictRequest req, PredictResponse served) {
+        long start = System.nanoTime();
+        double score = shadow.forest.predictProba(req);
+        metrics.recordModel(shadow.name, System.nanoTime() - start);
+        double absDelta = Math.abs(score - served.getScore());
+        boolean disagrees = (score >= 0.5) != PredictionCodec.CHURN.equals(served.getLabel());
+        shadow.shadowScored.increment();
+        shadow.absDelta.add(absDelta);
+        shadow.maxAbsDelta.accumulate(absDelta);
+        if (disagrees) {
+            shadow.disagreements.increment();
+        }
+        metrics.recordShadow(shadow.name, absDelta, disagrees);
+    }
+
+    public List<ModelVariantStats> getStats() {
+        List<ModelVariantStats> stats = new ArrayList<>(variants.size());
+        for (Variant v : variants) {
+            long scored = v.shadowScored.sum();
+            stats.add(new ModelVariantStats(v.name, v.forest.getModelVersion(), v.path.toString(), v.share,
+                    v == shadow, v.routed.sum(), scored, v.shadowDropped.sum(), v.disagreements.sum(),
+                    scored > 0 ? v.absDelta.sum() / scored : 0.0, v.maxAbsDelta.get()));
+        }
+        return stats;
+    }
+
+    /** Shadow comparisons queued but not yet run. */
+    public int getShadowQueueDepth() {
+        return shadowExecutor != null ? shadowExecutor.getQueue().size() : 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (shadowExecutor != null) {
+            shadowExecutor.shutdownNow();
+        }
+    }
+
+    private Variant find(String name) {
+        for (Variant variant : variants) {
+            if (variant.name.equals(name)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /** Parses {@code a=x,b=y}; blank means none. */
+    private static Map<String, String> pairs(String spec, String property) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return out;
+        }
+        for (String part : spec.split(",")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0 || eq == part.length() - 1) {
+                throw new IllegalArgumentException(property + " entries must look like name=value: " + part.trim());
+            }
+            out.put(part.substring(0, eq).trim(), part.substring(eq + 1).trim());
+        }
+        return out;
+    }
+
+    private static double parseShare(String name, String share) {
+        if (share == null) {
+            return 0.0;
+        }
+        double value = Double.parseDouble(share);
+        if (!(value >= 0.0 && value <= 1.0)) {
+            throw new IllegalArgumentException("Traffic share for " + name + " must be between 0 and 1: " + share);
+        }
+        return value;
+    }
+}
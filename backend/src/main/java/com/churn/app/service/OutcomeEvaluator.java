@@ -0,0 +1,198 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ConfusionMatrix;
+import com.churn.app.dto.Kpis;
+import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.dto.RocPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Evaluates the model on labelled outcomes as they arrive (score the service returned, whether the customer
+ * churned) over a sliding time window, in fixed memory. The window is split into {@code slices} time slices; each
+ * holds two score histograms (churned, stayed) of {@code bins} equal-width bins, and a slice is cleared when the
+ * clock comes back round to it. Recording is one increment; {@link #evaluate()} merges the live slices and walks
+ * the bins once from the top, so its cost is O(slices * bins) however many outcomes the window holds.
+ * <p>
+ * Bins are closed on the left ({@code [b/bins, (b+1)/bins)}, the top one also holding 1.0) and bins is even, so the
+ * served label's rule, CHURN at a score of 0.5 or more, falls exactly on a bin edge: accuracy, F1, precision, recall
+ * and the confusion matrix are exact and agree with the labels returned. The ROC curve and AUC treat scores
+ * in one bin as tied. A forest of T trees scores in multiples of 1/T, so when T divides bins every distinct score
+ * has its own bin and both match the sorted computation in {@link ModelTrainingService#evaluate}.
+ */
+@Service
+public class OutcomeEvaluator {
+
+    static final int MAX_BINS = 1 << 16;
+
+    private final int bins;
+    private final int slices;
+    private final long sliceMs;
+    private final int minSamples;
+    private final LongSupplier clock;
+    /** Per slice: the slice number it holds (clock / sliceMs), or -1 when empty. */
+    private final long[] sliceNumber;
+    private final long[][] churned;
+    private final long[][] stayed;
+    /** Merge buffers for {@link #evaluate()}, reused under the lock. */
+    private final long[] mergedChurned;
+    private final long[] mergedStayed;
+    private long version;
+
+    @Autowired
+    public OutcomeEvaluator(@Value("${model.evaluation.bins:1000}") int bins,
+                            @Value("${model.evaluation.window-ms:3600000}") long windowMs,
+                            @Value("${model.evaluation.slices:12}") int slices,
+                            @Value("${model.evaluation.min-samples:100}") int minSamples) {
+        this(bins, windowMs, slices, minSamples, System::currentTimeMillis);
+    }
+
+    OutcomeEvaluator(int bins, long windowMs, int slices, int minSamples, LongSupplier clock) {
+        if (bins < 2 || bins > MAX_BINS || bins % 2 != 0) {
+            throw new IllegalArgumentException("model.evaluation.bins must be even and between 2 and " + MAX_BINS + ": " + bins);
+        }
+        if (slices < 1 || windowMs < slices) {
+            throw new IllegalArgumentException("model.evaluation.window-ms must be at least one ms per slice.");
+        }
+        this.bins = bins;
+        this.slices = slices;
+        this.sliceMs = windowMs / slices;
+        this.minSamples = Math.max(1, minSamples);
+        this.clock = clock;
+        this.sliceNumber = new long[slices];
+        Arrays.fill(sliceNumber, -1);
+        this.churned = new long[slices][bins];
+        this.stayed = new long[slices][bins];
+        this.mergedChurned = new long[bins];
+        this.mergedStayed = new long[bins];
+    }
+
+    /** Adds one outcome to the current slice. */
+    public synchronized void record(double score, boolean churn) {
+        long slice = currentSlice();
+        int i = (int) (slice % slices);
+        if (sliceNumber[i] != slice) {
+            Arrays.fill(churned[i], 0);
+            Arrays.fill(stayed[i], 0);
+            sliceNumber[i] = slice;
+        }
+        (churn ? churned : stayed)[i][bin(score)]++;
+        version++;
+    }
+
+    /** Bumped by every {@link #record}. */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /** Changes each time a slice ages out of the window. */
+    public long currentSlice() {
+        return clock.getAsLong() / sliceMs;
+    }
+
+    public long getWindowMs() {
+        return sliceMs * slices;
+    }
+
+    /** Current time of the evaluator's clock, in epoch millis. */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    /** Metrics over the outcomes in the window, or null when it holds fewer than model.evaluation.min-samples. */
+    public synchronized ModelMetricsResponse evaluate() {
+        long oldest = currentSlice() - slices + 1;
+        Arrays.fill(mergedChurned, 0);
+        Arrays.fill(mergedStayed, 0);
+        for (int i = 0; i < slices; i++) {
+            if (sliceNumber[i] >= oldest) {
+                for (int b = 0; b < bins; b++) {
+                    mergedChurned[b] += churned[i][b];
+                    mergedStayed[b] += stayed[i][b];
+                }
+            }
+        }
+        // ROC points at each non-empty bin edge, from the top; the confusion counts at the 0.5 edge on the way.
+        long[] fps = new long[bins + 1];
+        long[] tps = new long[bins + 1];
+        int count = 1;
+        long tp = 0;
+        long fp = 0;
+        for (int b = bins - 1; b >= 0; b--) {
+            if (b == bins / 2 - 1) {
+                tp = tps[count - 1];
+                fp = fps[count - 1];
+            }
+            if (mergedChurned[b] + mergedStayed[b] > 0) {
+                tps[count] = tps[count - 1] + mergedChurned[b];
+                fps[count] = fps[count - 1] + mergedStayed[b];
+                count++;
+            }
+        }
+        long positives = tps[count - 1];
+        long negatives = fps[count - 1];
+        long n = positives + negatives;
+        if (n < minSamples) {
+            return null;
+        }
+        return metrics(fps, tps, count, negatives - fp, fp, positives - tp, tp, round4((double) positives / n));
+    }
+
+    /** Bin of {@code score}, with scores of 0.5 or more always in the upper half whatever the rounding of score * bins. */
+    int bin(double score) {
+        int b = (int) Math.floor(score * bins);
+        int half = bins / 2;
+        if (score >= 0.5) {
+            b = Math.max(b, half);
+        } else {
+            b = Math.min(b, half - 1);
+        }
+        return Math.max(0, Math.min(bins - 1, b));
+    }
+
+    /**
+     * KPIs, confusion matrix and ROC curve from cumulative ROC counts: {@code fps[k], tps[k]} for k below
+     * {@code count} are the stayed/churned outcomes scored at or above the k-th threshold from the top, starting at
+     * (0, 0). Points whose neighbours are equally spaced on both axes are dropped (sklearn's drop_intermediate); AUC
+     * is by trapezoids.
+     */
+    static ModelMetricsResponse metrics(long[] fps, long[] tps, int count, long tn, long fp, long fn, long tp,
+                                        double churnRate) {
+        long positives = tps[count - 1];
+        long negatives = fps[count - 1];
+        long n = positives + negatives;
+        double auc = 0.0;
+        for (int k = 1; k < count; k++) {
+            auc += (double) (fps[k] - fps[k - 1]) * (tps[k - 1] + tps[k]) / 2.0;
+        }
+        double rocAuc = positives > 0 && negatives > 0 ? auc / ((double) positives * negatives) : 0.0;
+        List<RocPoint> roc = new ArrayList<>();
+        for (int k = 0; k < count; k++) {
+            if (k > 0 && k < count - 1 && fps[k + 1] - 2 * fps[k] + fps[k - 1] == 0
+                    && tps[k + 1] - 2 * tps[k] + tps[k - 1] == 0) {
+                continue;
+            }
+            roc.add(new RocPoint(negatives > 0 ? (double) fps[k] / negatives : 0.0,
+                    positives > 0 ? (double) tps[k] / positives : 0.0));
+        }
+        double accuracy = n > 0 ? (double) (tp + tn) / n : 0.0;
+        double f1 = tp > 0 ? 2.0 * tp / (2.0 * tp + fp + fn) : 0.0;
+        double precision = tp + fp > 0 ? (double) tp / (tp + fp) : 0.0;
+        double recall = tp + fn > 0 ? (double) tp / (tp + fn) : 0.0;
+        ConfusionMatrix confusion = new ConfusionMatrix(List.of(PredictionCodec.NO_CHURN, PredictionCodec.CHURN),
+                List.of(List.of((int) tn, (int) fp), List.of((int) fn, (int) tp)));
+        Kpis kpis = new Kpis(round4(accuracy), round4(f1), round4(precision), round4(recall), round4(rocAuc), churnRate,
+                (int) Math.min(n, Integer.MAX_VALUE));
+        return new ModelMetricsResponse(null, kpis, confusion, roc, null);
+    }
+
+    static double round4(double v) {
+        return Math.round(v * 10_000.0) / 10_000.0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads {@link PredictRequest} rows from CSV shaped like data/telecom_churn_sample.csv.
+ * Header names are matched like train_rf.py (spaces removed, case-insensitive); extra columns such as
+ * Churn are ignored. Supports double-quoted fields with "" escapes.
+ */
+public final class PredictCsv {
+
+    public static final List<String> COLUMNS = List.of(
+            "age", "tenure", "monthlyCharges", "contract", "internetService", "paymentDelay");
+
+    private final int[] index;
+    private final int headerWidth;
+
+    private PredictCsv(int[] index, int headerWidth) {
+        this.index = index;
+        this.headerWidth = headerWidth;
+    }
+
+    /** Maps the header line to column positions; throws IllegalArgumentException if a column is missing. */
+    public static PredictCsv fromHeader(String headerLine) {
+        List<String> headers = split(headerLine);
+        int[] index = new int[COLUMNS.size()];
+        List<String> missing = new ArrayList<>();
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            index[c] = -1;
+            String wanted = COLUMNS.get(c).toLowerCase(Locale.ROOT);
+            for (int h = 0; h < headers.size(); h++) {
+                if (headers.get(h).replace(" ", "").toLowerCase(Locale.ROOT).equals(wanted)) {
+                    index[c] = h;
+                    break;
+                }
+            }
+            if (index[c] < 0) {
+                missing.add(COLUMNS.get(c));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV missing columns: " + String.join(", ", missing));
+        }
+        return new PredictCsv(index, headers.size());
+    }
+
+    public int getHeaderWidth() {
+        return headerWidth;
+    }
+
+    /** Header position of {@link #COLUMNS} entry {@code column}. */
+    int columnIndex(int column) {
+        return index[column];
+    }
+
+    /** Parses one data line; throws IllegalArgumentException naming the bad column. Empty cells become null. */
+    public PredictRequest parse(String line) {
+        List<String> cells = split(line);
+        PredictRequest req = new PredictRequest();
+        req.setAge(parseInt(cell(cells, 0), "age"));
+        req.setTenure(parseInt(cell(cells, 1), "tenure"));
+        req.setMonthlyCharges(parseDouble(cell(cells, 2), "monthlyCharges"));
+        req.setContract(cell(cells, 3));
+        req.setInternetService(cell(cells, 4));
+        req.setPaymentDelay(parseInt(cell(cells, 5), "paymentDelay"));
+        return req;
+    }
+
+    private String cell(List<String> cells, int column) {
+        int i = index[column];
+        if (i >= cells.size()) {
+            return null;
+        }
+        String v = cells.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static Integer parseInt(String v, String name) {
+        if (v == null) return null;
+        try {
+            return Integer.valueOf(v);
+        } catch (NumberFormatException e) {
+            try {
+                double d = Double.parseDouble(v);
+                if (d == Math.rint(d) && Math.abs(d) <= Integer.MAX_VALUE) {
+                    return (int) d;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    private static Double parseDouble(String v, String name) {
+        if (v == null) return null;
+        try {
+            double d = Double.parseDouble(v);
+            if (Double.isFinite(d)) {
+                return d;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(name + " must be a number");
+    }
+
+    static List<String> split(String line) {
+        List<String> out = new ArrayList<>(8);
+        StringBuilder cur = new StringBuilder();
+        int i = 0;
+        int n = line.length();
+        while (i <= n) {
+            if (i < n && line.charAt(i) == '"') {
+                i++;
+                while (i < n) {
+                    char ch = line.charAt(i);
+                    if (ch == '"') {
+                        if (i + 1 < n && line.charAt(i + 1) == '"') {
+                            cur.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    cur.append(ch);
+                    i++;
+                }
+                while (i < n && line.charAt(i) != ',') i++;
+            } else {
+                while (i < n && line.charAt(i) != ',') {
+                    cur.append(line.charAt(i));
+                    i++;
+                }
+            }
+            out.add(cur.toString().trim());
+            cur.setLength(0);
+            i++;
+        }
+        return out;
+    }
+}
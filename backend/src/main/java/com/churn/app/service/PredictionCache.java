@@ -0,0 +1,201 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.CacheStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded score cache keyed by a packed {@code long} of the six request features (see {@link #key}).
+ * Two-way set-associative table of immutable entries: lookups are lock-free and allocation-free, a full
+ * set evicts its oldest entry, and entries expire after the TTL. Each entry carries the model version that
+ * produced it, so a hit is only returned for the version currently serving. An entry can also hold the explained
+ * response for its inputs ({@link #putExplained}), so single predictions with explanations are cached too.
+ */
+public final class PredictionCache {
+
+    /** Returned by {@link #key} when a request falls outside the packable domain; such requests are not cached. */
+    public static final long NO_KEY = -1L;
+
+    private static final String[] CONTRACTS = {"Month-to-month", "One year", "Two year"};
+    private static final String[] INTERNET_SERVICES = {"DSL", "Fiber optic", "None"};
+    /** monthlyCharges is packed in cents; the validator caps it at 1000.00. */
+    private static final long MAX_CENTS = 100_000;
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private volatile String modelVersion;
+
+    PredictionCache(int maxEntries, long ttlMs) {
+        int size = maxEntries <= 2 ? 2 : Integer.highestOneBit(maxEntries - 1) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.ttlNanos = ttlMs > 0 ? ttlMs * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Packs a request into 41 bits: age (7) | tenure (7) | paymentDelay (6) | contract (2) | internetService (2)
+     * | monthlyCharges in cents (17). Returns {@link #NO_KEY} for missing or out-of-range values and for charges
+     * that are not a whole number of cents, so a cached score is always for exactly the same inputs.
+     */
+    public static long key(PredictRequest req) {
+        Integer age = req.getAge();
+        Integer tenure = req.getTenure();
+        Integer delay = req.getPaymentDelay();
+        Double charges = req.getMonthlyCharges();
+        int contract = indexOf(CONTRACTS, req.getContract());
+        int internet = indexOf(INTERNET_SERVICES, req.getInternetService());
+        if (age == null || age < 0 || age > 127 || tenure == null || tenure < 0 || tenure > 127
+                || delay == null || delay < 0 || delay > 63 || charges == null || contract < 0 || internet < 0) {
+            return NO_KEY;
+        }
+        long cents = Math.round(charges * 100);
+        if (cents < 0 || cents > MAX_CENTS || cents / 100.0 != charges) {
+            return NO_KEY;
+        }
+        return ((long) age << 34) | ((long) tenure << 27) | ((long) delay << 21) | ((long) contract << 19)
+                | ((long) internet << 17) | cents;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** The cached score for {@code key} under {@code version}, or NaN on a miss. */
+    double get(long key, String version) {
+        Entry e = lookup(key, version, false);
+        return e != null ? e.score : Double.NaN;
+    }
+
+    /** The cached explained response for {@code key} under {@code version}, or null; shared, so not to be modified. */
+    PredictResponse getExplained(long key, String version) {
+        Entry e = lookup(key, version, true);
+        return e != null ? e.explained : null;
+    }
+
+    private Entry lookup(long key, String version, boolean explained) {
+        if (key == NO_KEY) {
+            return null;
+        }
+        observeVersion(version);
+        int i = slot(key);
+        long now = System.nanoTime();
+        for (int way = 0; way < 2; way++) {
+            Entry e = table.get(i ^ way);
+            if (e != null && e.key == key && e.modelVersion.equals(version)) {
+                if (now - e.createdAt > ttlNanos) {
+                    if (table.compareAndSet(i ^ way, e, null)) {
+                        expirations.increment();
+                    }
+                    break;
+                }
+                if (explained && e.explained == null) {
+                    break;
+                }
+                hits.increment();
+                return e;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(long key, String version, double score) {
+        put(key, version, score, null);
+    }
+
+    /** Caches an explained response; its score also answers {@link #get} for the same inputs. */
+    void putExplained(long key, String version, PredictResponse explained) {
+        put(key, version, explained.getScore(), explained);
+    }
+
+    private void put(long key, String version, double score, PredictResponse explained) {
+        if (key == NO_KEY || version == null) {
+            return;
+        }
+        observeVersion(version);
+        int i = slot(key);
+        long now = System.nanoTime();
+        Entry fresh = new Entry(key, version, score, explained, now);
+        Entry a = table.get(i);
+        Entry b = table.get(i ^ 1);
+        int target;
+        if (a == null || a.key == key || stale(a, now)) {
+            target = i;
+        } else if (b == null || b.key == key || stale(b, now)) {
+            target = i ^ 1;
+        } else {
+            target = a.createdAt <= b.createdAt ? i : i ^ 1;
+            evictions.increment();
+        }
+        table.set(target, fresh);
+    }
+
+    /** Drops every entry; called automatically when a different model version is seen. */
+    public void invalidate() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    public CacheStats getStats() {
+        int entries = 0;
+        for (int i = 0; i < table.length(); i++) {
+            if (table.get(i) != null) entries++;
+        }
+        return new CacheStats(true, table.length(), entries, hits.sum(), misses.sum(), evictions.sum(),
+                expirations.sum(), modelVersion);
+    }
+
+    private void observeVersion(String version) {
+        String current = modelVersion;
+        if (version != null && !version.equals(current)) {
+            synchronized (this) {
+                if (!version.equals(modelVersion)) {
+                    if (modelVersion != null) {
+                        invalidate();
+                    }
+                    modelVersion = version;
+                }
+            }
+        }
+    }
+
+    private boolean stale(Entry e, long now) {
+        return now - e.createdAt > ttlNanos || !e.modelVersion.equals(modelVersion);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask & ~1;
+    }
+
+    private static final class Entry {
+        final long key;
+        final String modelVersion;
+        final double score;
+        /** Null for score-only entries. */
+        final PredictResponse explained;
+        final long createdAt;
+
+        Entry(long key, String modelVersion, double score, PredictResponse explained, long createdAt) {
+            this.key = key;
+            this.modelVersion = modelVersion;
+            this.score = score;
+            this.explained = explained;
+            this.createdAt = createdAt;
+        }
+    }
+}
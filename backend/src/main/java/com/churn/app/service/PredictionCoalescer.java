@@ -0,0 +1,234 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.CoalescerStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Micro-batching front for {@link ChurnScoringService}: single-row requests arriving within
+ * {@code model.coalesce.max-delay-ms} (or until {@code model.coalesce.max-batch} rows) are scored with one
+ * {@link ChurnScoringService#predictCoalesced} call, and each caller's future is completed separately.
+ * The delay is the latency budget coalescing may add to a request. When disabled, calls go straight through.
+ */
+@Service
+public class PredictionCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionCoalescer.class);
+    /** Upper bounds of the batch-size histogram buckets; the last bucket is everything above. */
+    static final int[] BATCH_SIZE_BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+
+    private final ChurnScoringService churnScoringService;
+    private final boolean enabled;
+    private final long maxDelayNanos;
+    private final int maxBatch;
+    private final long callerTimeoutMs;
+    private final BlockingQueue<Pending> queue;
+    private final Semaphore scoringSlots;
+    private final ExecutorService scoringExecutor;
+    private final Thread dispatcher;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLongArray batchSizeCounts = new AtomicLongArray(BATCH_SIZE_BUCKETS.length + 1);
+    private volatile boolean running = true;
+
+    /**
+     * With spring.threads.virtual.enabled each batch is scored on a new virtual thread; the parallelism limit still
+     * holds, since the dispatcher takes a scoring slot before handing a batch over.
+     */
+    public PredictionCoalescer(ChurnScoringService churnScoringService,
+                               @Value("${model.coalesce.enabled:false}") boolean enabled,
+                               @Value("${model.coalesce.max-delay-ms:2}") double maxDelayMs,
+                               @Value("${model.coalesce.max-batch:64}") int maxBatch,
+                               @Value("${model.coalesce.max-queue:4096}") int maxQueue,
+                               @Value("${model.coalesce.parallelism:2}") int parallelism,
+                               @Value("${model.predict-timeout-ms:30000}") long callerTimeoutMs,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.churnScoringService = churnScoringService;
+        this.enabled = enabled;
+        this.maxDelayNanos = (long) (maxDelayMs * 1_000_000);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.callerTimeoutMs = callerTimeoutMs;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, maxQueue));
+        this.scoringSlots = new Semaphore(Math.max(1, parallelism));
+        if (enabled) {
+            this.scoringExecutor = VirtualThreads.newExecutor("predict-coalesce-score", virtualThreads, Math.max(1, parallelism));
+            this.dispatcher = daemon(this::dispatchLoop, "predict-coalesce-dispatch");
+            this.dispatcher.start();
+        } else {
+            this.scoringExecutor = null;
+            this.dispatcher = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            scoringExecutor.shutdownNow();
+        }
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.future.completeExceptionally(new PredictionException("Prediction service shutting down.", 503));
+        }
+    }
+
+    public PredictResponse predict(PredictRequest req) {
+        if (!enabled) {
+            return churnScoringService.predict(req);
+        }
+        Pending pending = new Pending(req);
+        if (!queue.offer(pending)) {
+            rejected.incrementAndGet();
+            throw new PredictionException("Prediction queue is full; try again shortly.", 503);
+        }
+        try {
+            return pending.future.get(callerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PredictionException pe) {
+                throw pe;
+            }
+            throw new PredictionException("Prediction failed: " + e.getCause().getMessage(), 500);
+        } catch (TimeoutException e) {
+            throw new PredictionException("Prediction timed out.", 500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PredictionException("Prediction interrupted.", 500);
+        }
+    }
+
+    public CoalescerStats getStats() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE_BUCKETS.length; i++) {
+            histogram.put(String.valueOf(BATCH_SIZE_BUCKETS[i]), batchSizeCounts.get(i));
+        }
+        histogram.put("+Inf", batchSizeCounts.get(BATCH_SIZE_BUCKETS.length));
+        return new CoalescerStats(enabled, queue.size(), batches.get(), rows.get(), rejected.get(), histogram);
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long deadline = first.enqueuedAt + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // Waiting here while all scorers are busy lets the next batch grow instead of queueing tiny ones.
+                scoringSlots.acquire();
+                List<Pending> toScore = List.copyOf(batch);
+                batch.clear();
+                record(toScore.size());
+                try {
+                    scoringExecutor.execute(() -> {
+                        try {
+                            score(toScore);
+                        } finally {
+                            scoringSlots.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    scoringSlots.release();
+                    fail(toScore, e);
+                }
+            } catch (InterruptedException e) {
+                fail(batch, new PredictionException("Prediction service shutting down.", 503));
+                batch.clear();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void score(List<Pending> batch) {
+        List<PredictRequest> requests = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            requests.add(p.request);
+        }
+        PredictResponse[] responses = new PredictResponse[batch.size()];
+        try {
+            churnScoringService.predictCoalesced(requests, responses);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // One bad row must not fail its neighbours: rows left without an answer are scored one by one. Answered
+            // rows are already in the metrics, drift counts and audit log, so they are not scored again.
+            log.debug("Coalesced batch of {} failed ({}); scoring rows individually", batch.size(), e.getMessage());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            if (responses[i] != null) {
+                p.future.complete(responses[i]);
+                continue;
+            }
+            try {
+                p.future.complete(churnScoringService.predict(p.request));
+            } catch (RuntimeException rowError) {
+                p.future.completeExceptionally(rowError);
+            }
+        }
+    }
+
+    private void record(int size) {
+        batches.incrementAndGet();
+        rows.addAndGet(size);
+        int bucket = 0;
+        while (bucket < BATCH_SIZE_BUCKETS.length && size > BATCH_SIZE_BUCKETS[bucket]) {
+            bucket++;
+        }
+        batchSizeCounts.incrementAndGet(bucket);
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException e) {
+        for (Pending p : batch) {
+            p.future.completeExceptionally(e);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static final class Pending {
+        final PredictRequest request;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<PredictResponse> future = new CompletableFuture<>();
+
+        Pending(PredictRequest request) {
+            this.request = request;
+        }
+    }
+}
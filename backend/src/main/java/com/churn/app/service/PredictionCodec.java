@@ -0,0 +1,223 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ExplanationItem;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between the scoring service and ml/model_store.py, without intermediate objects.
+ * <p>
+ * Requests are appended straight into a caller-supplied (reusable) StringBuilder as ASCII-only JSON, so they
+ * can be written to a pipe byte for byte. Answers are read with one streaming parser from a shared
+ * {@link JsonFactory} (which recycles its buffers) directly into {@link PredictResponse}s: no ObjectMapper per
+ * call, no payload object and no JsonNode tree. Labels and the model version are returned as shared strings
+ * when they match what was seen before, and responses share one empty explanation list.
+ */
+public final class PredictionCodec {
+
+    public static final String CHURN = "CHURN";
+    public static final String NO_CHURN = "NO_CHURN";
+    /** Shared by every response without an explanation; immutable, so sharing is safe. */
+    public static final List<ExplanationItem> NO_EXPLANATION = List.of();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    /** Last model_version decoded; reused while python keeps reporting the same one. */
+    private volatile String lastModelVersion = "";
+
+    /** Appends {@code {"age":..,"tenure":..,...}} with model_store.py's keys. */
+    public StringBuilder appendRequest(StringBuilder out, PredictRequest req) {
+        out.append("{\"age\":");
+        appendInteger(out, req.getAge());
+        out.append(",\"tenure\":");
+        appendInteger(out, req.getTenure());
+        out.append(",\"monthlyCharges\":");
+        Double charges = req.getMonthlyCharges();
+        if (charges == null || charges.isNaN() || charges.isInfinite()) {
+            out.append("null");
+        } else {
+            out.append(charges.doubleValue());
+        }
+        out.append(",\"contract\":");
+        appendString(out, req.getContract());
+        out.append(",\"internetService\":");
+        appendString(out, req.getInternetService());
+        out.append(",\"paymentDelay\":");
+        appendInteger(out, req.getPaymentDelay());
+        return out.append('}');
+    }
+
+    /** Appends {@code {"rows":[...]}}, the batch request. */
+    public StringBuilder appendBatchRequest(StringBuilder out, List<PredictRequest> requests) {
+        out.append("{\"rows\":[");
+        for (int i = 0; i < requests.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendRequest(out, requests.get(i));
+        }
+        return out.append("]}");
+    }
+
+    /** Decodes a single-row answer; an {"error": ...} answer throws PredictionException (400). */
+    public PredictResponse readResponse(String json) {
+        return read(json, null);
+    }
+
+    /** Decodes a {"results": [...]} answer holding exactly {@code expected} rows. */
+    public List<PredictResponse> readResults(String json, int expected) {
+        List<PredictResponse> results = new ArrayList<>(expected);
+        read(json, results);
+        if (results.size() != expected) {
+            throw new PredictionException("Prediction failed: batch result size mismatch.", 500);
+        }
+        return results;
+    }
+
+    /** The "error" text of a JSON error document (python's stderr), or null if there is none. */
+    public String readError(String json) {
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                if ("error".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return p.getText();
+                }
+                p.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Reads one answer object: rows of a "results" array go to {@code results} (skipped when null), the top-level fields are returned. */
+    private PredictResponse read(String json, List<PredictResponse> results) {
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new PredictionException("Prediction failed: unexpected python output.", 500);
+            }
+            String label = null;
+            double score = 0.0;
+            String modelVersion = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "label" -> label = value == JsonToken.VALUE_STRING ? label(p) : null;
+                    case "score" -> score = value.isNumeric() ? p.getDoubleValue() : 0.0;
+                    case "model_version" -> modelVersion = value == JsonToken.VALUE_STRING ? modelVersion(p) : null;
+                    case "error" -> throw new PredictionException(
+                            value == JsonToken.VALUE_STRING ? p.getText() : "Prediction failed (Python error).", 400);
+                    case "results" -> {
+                        if (results == null || value != JsonToken.START_ARRAY) {
+                            p.skipChildren();
+                        } else {
+                            while (p.nextToken() == JsonToken.START_OBJECT) {
+                                results.add(readRow(p));
+                            }
+                        }
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            return response(label, score, modelVersion);
+        } catch (IOException e) {
+            throw new PredictionException("Prediction failed: " + e.getMessage(), 500);
+        }
+    }
+
+    private PredictResponse readRow(JsonParser p) throws IOException {
+        String label = null;
+        double score = 0.0;
+        String modelVersion = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "label" -> label = value == JsonToken.VALUE_STRING ? label(p) : null;
+                case "score" -> score = value.isNumeric() ? p.getDoubleValue() : 0.0;
+                case "model_version" -> modelVersion = value == JsonToken.VALUE_STRING ? modelVersion(p) : null;
+                default -> p.skipChildren();
+            }
+        }
+        return response(label, score, modelVersion);
+    }
+
+    private static PredictResponse response(String label, double score, String modelVersion) {
+        String l = label != null ? label : NO_CHURN;
+        return new PredictResponse(l, score, CHURN.equals(l) ? 1 : 0, NO_EXPLANATION, modelVersion);
+    }
+
+    private static String label(JsonParser p) throws IOException {
+        if (textEquals(p, CHURN)) return CHURN;
+        if (textEquals(p, NO_CHURN)) return NO_CHURN;
+        return p.getText();
+    }
+
+    private String modelVersion(JsonParser p) throws IOException {
+        String last = lastModelVersion;
+        if (textEquals(p, last)) {
+            return last;
+        }
+        String version = p.getText();
+        lastModelVersion = version;
+        return version;
+    }
+
+    private static boolean textEquals(JsonParser p, String expected) throws IOException {
+        int length = p.getTextLength();
+        if (length != expected.length()) {
+            return false;
+        }
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendInteger(StringBuilder out, Integer value) {
+        if (value == null) {
+            out.append("null");
+        } else {
+            out.append(value.intValue());
+        }
+    }
+
+    /** JSON string with every non-ASCII or control character escaped, so the output is pure ASCII. */
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                out.append("\\u").append(HEX[(c >> 12) & 0xf]).append(HEX[(c >> 8) & 0xf])
+                        .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,125 @@
+package com.churn.app.service;
+
+import com.churn.app.exception.PredictionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps prediction requests in flight (single, batch and stream calls count one each). When all
+ * {@code model.max-in-flight} permits are taken, a request waits at most {@code model.admission-timeout-ms}
+ * (0 = not at all) and is then rejected with 503, so overload turns into fast failures instead of a growing
+ * queue of threads waiting on the scoring backend.
+ */
+@Service
+public class PredictionLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionLimiter.class);
+
+    private final int maxInFlight;
+    private final long admissionTimeoutMs;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PredictionLimiter(@Value("${model.max-in-flight:64}") int maxInFlight,
+                             @Value("${model.admission-timeout-ms:0}") long admissionTimeoutMs,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.maxInFlight = maxInFlight;
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                    Runtime.version().feature());
+        } else if (virtualThreads) {
+            log.info("Virtual threads enabled for request handling and prediction executors");
+        }
+    }
+
+    /** Takes a permit or throws PredictionException(503); close the returned permit when the call is done. */
+    public Permit acquire() {
+        if (permits == null) {
+            return Permit.NONE;
+        }
+        boolean acquired;
+        try {
+            acquired = admissionTimeoutMs > 0
+                    ? permits.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS)
+                    : permits.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PredictionException("Prediction interrupted.", 503);
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new PredictionException("Prediction service is busy; try again shortly.", 503);
+        }
+        return new Permit(permits);
+    }
+
+    /** Runs {@code call} holding a permit; rejected with PredictionException(503) like {@link #acquire()}. */
+    public <T, E extends Exception> T call(Call<T, E> call) throws E {
+        Permit permit = acquire();
+        try {
+            return call.run();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /** {@link #call} for work without a result. */
+    public <E extends Exception> void run(Action<E> action) throws E {
+        Permit permit = acquire();
+        try {
+            action.run();
+        } finally {
+            permit.close();
+        }
+    }
+
+    public int getInFlight() {
+        return permits == null ? 0 : maxInFlight - permits.availablePermits();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    /** Releases its permit once, on close. */
+    public static final class Permit implements AutoCloseable {
+        static final Permit NONE = new Permit(null);
+
+        private final Semaphore permits;
+        private boolean released;
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (permits != null && !released) {
+                released = true;
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms for the prediction path, rendered in the Prometheus text exposition format
+ * (served at {@code GET /actuator/prometheus}). Recording is lock-free (LongAdder per bucket) so it can sit
+ * on the hot path; the labelled series are fixed enums or small bounded sets (labels, exception classes).
+ */
+@Service
+public class PredictionMetrics {
+
+    /** Where a prediction spends its time. */
+    public enum Phase {
+        /** Starting a python process: per request, or a pool worker up to its ready line. */
+        SPAWN,
+        /** Loading and validating rf_forest.bin (startup and hot reloads). */
+        MODEL_LOAD,
+        /** Scoring: forest traversal, or the python round trip. */
+        INFERENCE,
+        /** Parsing python's JSON answer. */
+        JSON_PARSE
+    }
+
+    /** Seconds; spans in-process traversal (microseconds) to a cold python start (seconds). */
+    static final double[] LATENCY_BUCKETS = {
+            0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01,
+            0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    static final double[] SCORE_BUCKETS = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+    /** Absolute score difference between a shadow model and the served answer. */
+    static final double[] DELTA_BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0};
+
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+    private final Map<String, Histogram> requests = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> predictionsByLabel = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Histogram scores = new Histogram(SCORE_BUCKETS);
+    private final Map<String, Histogram> models = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> shadowDeltas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> shadowDisagreements = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> shadowDropped = new ConcurrentHashMap<>();
+
+    public PredictionMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Histogram(LATENCY_BUCKETS));
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).observe(nanos / 1e9);
+    }
+
+    /** Wall time of one call to a prediction endpoint, successful or not. */
+    public void recordRequest(String endpoint, long nanos) {
+        requests.computeIfAbsent(endpoint, e -> new Histogram(LATENCY_BUCKETS)).observe(nanos / 1e9);
+    }
+
+    public void recordPrediction(PredictResponse response) {
+        predictionsByLabel.computeIfAbsent(response.getLabel(), l -> new LongAdder()).increment();
+        scores.observe(response.getScore());
+    }
+
+    /** Scoring time of one request by a named model ({@link ModelVariants#PRIMARY} or a variant), served or shadow. */
+    public void recordModel(String model, long nanos) {
+        models.computeIfAbsent(model, m -> new Histogram(LATENCY_BUCKETS)).observe(nanos / 1e9);
+    }
+
+    /** A shadow score compared with the served one. */
+    public void recordShadow(String model, double absDelta, boolean disagrees) {
+        shadowDeltas.computeIfAbsent(model, m -> new Histogram(DELTA_BUCKETS)).observe(absDelta);
+        LongAdder count = shadowDisagreements.computeIfAbsent(model, m -> new LongAdder());
+        if (disagrees) {
+            count.increment();
+        }
+    }
+
+    /** A shadow score skipped because the shadow executor was full. */
+    public void recordShadowDropped(String model) {
+        shadowDropped.computeIfAbsent(model, m -> new LongAdder()).increment();
+    }
+
+    /** An exception turned into an error response by the exception handler. */
+    public void recordError(Throwable error, int status) {
+        String key = "exception=\"" + error.getClass().getSimpleName() + "\",status=\"" + status + "\"";
+        errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    /** Every series recorded so far, in Prometheus text format. Gauges owned by other components are appended by the caller. */
+    public void scrape(StringBuilder out) {
+        header(out, "churn_phase_seconds", "Time spent per prediction phase.", "histogram");
+        for (Map.Entry<Phase, Histogram> e : phases.entrySet()) {
+            e.getValue().write(out, "churn_phase_seconds", "phase=\"" + e.getKey().name().toLowerCase(Locale.ROOT) + "\"");
+        }
+        header(out, "churn_http_request_seconds", "Prediction endpoint latency.", "histogram");
+        new TreeMap<>(requests).forEach((endpoint, h) ->
+                h.write(out, "churn_http_request_seconds", "endpoint=\"" + endpoint + "\""));
+        header(out, "churn_predictions_total", "Predictions returned, by label.", "counter");
+        new TreeMap<>(predictionsByLabel).forEach((label, n) ->
+                sample(out, "churn_predictions_total", "label=\"" + escape(label) + "\"", n.sum()));
+        header(out, "churn_prediction_score", "Distribution of churn probabilities returned.", "histogram");
+        scores.write(out, "churn_prediction_score", null);
+        header(out, "churn_model_inference_seconds", "Scoring time per model, served and shadow.", "histogram");
+        new TreeMap<>(models).forEach((model, h) ->
+                h.write(out, "churn_model_inference_seconds", "model=\"" + escape(model) + "\""));
+        header(out, "churn_shadow_score_delta", "Absolute difference between shadow and served scores.", "histogram");
+        new TreeMap<>(shadowDeltas).forEach((model, h) ->
+                h.write(out, "churn_shadow_score_delta", "model=\"" + escape(model) + "\""));
+        header(out, "churn_shadow_disagreements_total", "Shadow scores on the other side of 0.5 from the served label.", "counter");
+        new TreeMap<>(shadowDisagreements).forEach((model, n) ->
+                sample(out, "churn_shadow_disagreements_total", "model=\"" + escape(model) + "\"", n.sum()));
+        header(out, "churn_shadow_dropped_total", "Shadow scores skipped because the shadow executor was full.", "counter");
+        new TreeMap<>(shadowDropped).forEach((model, n) ->
+                sample(out, "churn_shadow_dropped_total", "model=\"" + escape(model) + "\"", n.sum()));
+        header(out, "churn_request_errors_total", "Error responses, by exception class and status.", "counter");
+        new TreeMap<>(errors).forEach((labels, n) -> sample(out, "churn_request_errors_total", labels, n.sum()));
+    }
+
+    public static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "gauge");
+        sample(out, name, null, value);
+    }
+
+    /** A monotonic count kept by another component (cache hits, limiter rejections). */
+    public static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "counter");
+        sample(out, name, null, value);
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double v) {
+        if (v == Math.rint(v) && !Double.isInfinite(v) && Math.abs(v) < 1e15) {
+            return Long.toString((long) v);
+        }
+        return Double.toString(v);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** Fixed-bucket histogram; counts are per bucket and made cumulative when written. */
+    static final class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] counts;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.counts = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            counts[i].increment();
+            sum.add(value);
+        }
+
+        void write(StringBuilder out, String name, String labels) {
+            String prefix = labels != null ? labels + "," : "";
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += counts[i].sum();
+                sample(out, name + "_bucket", prefix + "le=\"" + format(bounds[i]) + "\"", cumulative);
+            }
+            cumulative += counts[bounds.length].sum();
+            sample(out, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+            sample(out, name + "_sum", labels, sum.sum());
+            sample(out, name + "_count", labels, cumulative);
+        }
+    }
+}
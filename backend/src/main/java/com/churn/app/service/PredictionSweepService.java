@@ -0,0 +1,77 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.SweepAxis;
+import com.churn.app.dto.SweepRequest;
+import com.churn.app.dto.SweepResponse;
+import com.churn.app.exception.PredictionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What-if sweeps for POST /api/predict/sweep: one base request with one or two numeric features stepped over a
+ * range, scored as a whole grid by {@link ChurnScoringService#sweep} instead of one prediction per value.
+ */
+@Service
+public class PredictionSweepService {
+
+    /** Upper bounds of the swept features, by {@link ForestModel#NUMERIC_FEATURES} index (all start at 0). */
+    private static final double[] MAX_VALUE = {120, 120, 1000, 60};
+    /** Features held as whole numbers in PredictRequest. */
+    private static final boolean[] INTEGRAL = {true, true, false, true};
+
+    private final ChurnScoringService churnScoringService;
+    private final int maxCells;
+
+    public PredictionSweepService(ChurnScoringService churnScoringService,
+                                  @Value("${model.sweep.max-cells:40000}") int maxCells) {
+        this.churnScoringService = churnScoringService;
+        this.maxCells = maxCells;
+    }
+
+    /** Scores the grid; the request must already be bean-validated. Bad ranges or too many cells throw 400. */
+    public SweepResponse sweep(SweepRequest request) {
+        List<String> features = new ArrayList<>(2);
+        List<double[]> values = new ArrayList<>(2);
+        long cells = 1;
+        for (SweepAxis axis : request.getAxes()) {
+            if (features.contains(axis.getFeature())) {
+                throw new PredictionException("Each feature can be swept only once: " + axis.getFeature(), 400);
+            }
+            double[] axisValues = values(axis);
+            cells *= axisValues.length;
+            if (cells > maxCells) {
+                throw new PredictionException("Sweep grid exceeds " + maxCells + " cells; use larger steps.", 400);
+            }
+            features.add(axis.getFeature());
+            values.add(axisValues);
+        }
+        return churnScoringService.sweep(request.getBase(), features, values);
+    }
+
+    /** from, from + step, ... up to to (inclusive), computed per index so steps do not accumulate rounding. */
+    private double[] values(SweepAxis axis) {
+        String name = axis.getFeature();
+        int feature = ForestModel.NUMERIC_FEATURES.indexOf(name);
+        double from = axis.getFrom();
+        double to = axis.getTo();
+        double step = axis.getStep();
+        if (!(from >= 0 && from <= to && to <= MAX_VALUE[feature])) {
+            throw new PredictionException(name + " sweep needs 0 <= from <= to <= " + (long) MAX_VALUE[feature], 400);
+        }
+        if (INTEGRAL[feature] && (from != Math.rint(from) || step != Math.rint(step))) {
+            throw new PredictionException(name + " sweep needs whole-number from and step", 400);
+        }
+        double count = Math.floor((to - from) / step + 1e-9) + 1;
+        if (count > maxCells) {
+            throw new PredictionException("Sweep grid exceeds " + maxCells + " cells; use larger steps.", 400);
+        }
+        double[] values = new double[(int) count];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.min(from + i * step, to);
+        }
+        return values;
+    }
+}
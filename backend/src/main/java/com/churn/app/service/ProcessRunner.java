@@ -0,0 +1,180 @@
+package com.churn.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a short-lived child process to completion under a wall-clock deadline.
+ * <p>
+ * stdin is written and stdout/stderr are drained on separate threads at the same time, so a child that fills
+ * either pipe (or never reads its input) cannot block the caller. Each stream is kept up to
+ * {@code maxOutputBytes}; anything beyond is read and discarded. The deadline covers spawn, I/O and exit:
+ * when it passes, the child and all of its descendants are killed and the result is marked timed out.
+ */
+final class ProcessRunner {
+
+    /** I/O threads are shared by all runners; they are virtual where the runtime supports it. */
+    private static final ExecutorService IO = Executors.newCachedThreadPool(VirtualThreads.factory("process-io", true));
+
+    private final Path workingDir;
+    private final int maxOutputBytes;
+
+    ProcessRunner(Path workingDir, int maxOutputBytes) {
+        this.workingDir = workingDir;
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    /** Outcome of one run; {@link #getExitCode()} is -1 when the run timed out. */
+    static final class Result {
+        private final int exitCode;
+        private final boolean timedOut;
+        private final Output stdout;
+        private final Output stderr;
+        private final long spawnNanos;
+        private final long ioNanos;
+        private final long exitNanos;
+
+        private Result(int exitCode, boolean timedOut, Output stdout, Output stderr,
+                       long spawnNanos, long ioNanos, long exitNanos) {
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.spawnNanos = spawnNanos;
+            this.ioNanos = ioNanos;
+            this.exitNanos = exitNanos;
+        }
+
+        int getExitCode() { return exitCode; }
+        boolean isTimedOut() { return timedOut; }
+        String getStdout() { return stdout.text(); }
+        String getStderr() { return stderr.text(); }
+        boolean isStdoutTruncated() { return stdout.truncated; }
+        boolean isStderrTruncated() { return stderr.truncated; }
+        /** Time spent in {@link ProcessBuilder#start()}. */
+        long getSpawnNanos() { return spawnNanos; }
+        /** From spawn until both output streams reached EOF (or the deadline). */
+        long getIoNanos() { return ioNanos; }
+        /** From the end of I/O until the exit status was collected. */
+        long getExitNanos() { return exitNanos; }
+
+        long getTotalNanos() {
+            return spawnNanos + ioNanos + exitNanos;
+        }
+    }
+
+    /**
+     * Starts {@code command}, feeds it {@code stdin} and waits for it to exit. Returns a timed-out result rather
+     * than throwing when the deadline passes; throws IOException only when the process cannot be started.
+     */
+    Result run(List<String> command, byte[] stdin, Duration timeout) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        Process process = new ProcessBuilder(command).directory(workingDir.toFile()).start();
+        long spawned = System.nanoTime();
+        Output stdout = new Output(maxOutputBytes);
+        Output stderr = new Output(maxOutputBytes);
+        Future<?> writer = IO.submit(() -> write(process.getOutputStream(), stdin));
+        CompletableFuture<Void> drained = CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> stdout.drain(process.getInputStream()), IO),
+                CompletableFuture.runAsync(() -> stderr.drain(process.getErrorStream()), IO));
+        boolean timedOut = false;
+        try {
+            drained.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+        } catch (ExecutionException e) {
+            // drain() does not throw; treat anything unexpected like a stuck child
+            timedOut = true;
+        } catch (InterruptedException e) {
+            kill(process);
+            throw e;
+        }
+        long ioDone = System.nanoTime();
+        if (!timedOut) {
+            try {
+                timedOut = !process.waitFor(remaining(deadline), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                kill(process);
+                throw e;
+            }
+        }
+        if (timedOut) {
+            kill(process);
+            writer.cancel(true);
+        }
+        long exited = System.nanoTime();
+        return new Result(timedOut ? -1 : process.exitValue(), timedOut, stdout, stderr,
+                spawned - start, ioDone - spawned, exited - ioDone);
+    }
+
+    /** Kills the child's descendants first so none is left holding the pipes open. */
+    static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void write(OutputStream out, byte[] data) {
+        try (out) {
+            if (data != null) {
+                out.write(data);
+            }
+        } catch (IOException ignored) {
+            // the child closed its stdin or exited; its exit status tells the caller what happened
+        }
+    }
+
+    /** Keeps the first {@code limit} bytes of a stream and discards the rest while still reading to EOF. */
+    private static final class Output {
+        private final ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        private final int limit;
+        private volatile boolean truncated;
+
+        Output(int limit) {
+            this.limit = limit;
+        }
+
+        void drain(InputStream in) {
+            byte[] buf = new byte[8192];
+            try (in) {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    synchronized (kept) {
+                        int keep = Math.min(n, limit - kept.size());
+                        if (keep > 0) {
+                            kept.write(buf, 0, keep);
+                        }
+                        if (keep < n) {
+                            truncated = true;
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+                // stream closed because the child was killed
+            }
+        }
+
+        String text() {
+            synchronized (kept) {
+                return kept.toString(StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
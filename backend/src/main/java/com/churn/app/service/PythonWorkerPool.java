@@ -0,0 +1,300 @@
+package com.churn.app.service;
+
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of long-lived {@code python ml/model_store.py --worker} processes.
+ * Each worker imports pandas and loads the joblib pipeline once, then answers one JSON line per request line,
+ * so requests skip interpreter start-up and model load. A worker that crashes, times out or fails a health
+ * check is killed and replaced; callers wait at most the request timeout for a free worker.
+ */
+class PythonWorkerPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonWorkerPool.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final String PING = "{\"ping\":true}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path workingDir;
+    private final String script;
+    private final Duration requestTimeout;
+    private final BlockingQueue<Slot> idle;
+    private final ScheduledExecutorService healthChecker;
+    private final PredictionMetrics metrics;
+    /** Bumped by {@link #recycle()}; workers started under an older generation are replaced before their next request. */
+    private volatile int generation;
+    private volatile boolean closed;
+
+    PythonWorkerPool(Path workingDir, String script, int size, Duration requestTimeout, Duration healthInterval,
+                     PredictionMetrics metrics) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Worker pool size must be > 0.");
+        }
+        this.workingDir = workingDir;
+        this.script = script;
+        this.requestTimeout = requestTimeout;
+        this.metrics = metrics;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idle.add(new Slot(i));
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "python-worker-health");
+            t.setDaemon(true);
+            return t;
+        });
+        // First check runs immediately so workers are warm before the first request.
+        long intervalMs = healthInterval.toMillis();
+        if (intervalMs > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkIdleWorkers, 0, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            healthChecker.execute(this::checkIdleWorkers);
+        }
+    }
+
+    /** Sends one request line and returns the worker's JSON response line (which may carry an "error" field). */
+    String request(CharSequence jsonLine) {
+        long deadline = System.nanoTime() + requestTimeout.toNanos();
+        Slot slot;
+        try {
+            slot = idle.poll(requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PredictionException("Prediction interrupted.", 500);
+        }
+        if (slot == null) {
+            throw new PredictionException("Prediction timed out waiting for a worker.", 503);
+        }
+        try {
+            Worker worker = slot.ensureStarted();
+            long remaining = deadline - System.nanoTime();
+            long sent = System.nanoTime();
+            String line = worker.exchange(jsonLine, Math.max(remaining, 0));
+            metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, System.nanoTime() - sent);
+            if (line == null) {
+                slot.discard("timed out");
+                throw new PredictionException("Prediction timed out.", 500);
+            }
+            return line;
+        } catch (IOException e) {
+            slot.discard(e.getMessage());
+            log.warn("Python worker failed: {}", e.getMessage());
+            throw new PredictionException("Prediction failed: " + e.getMessage(), 500);
+        } catch (InterruptedException e) {
+            slot.discard("interrupted");
+            Thread.currentThread().interrupt();
+            throw new PredictionException("Prediction interrupted.", 500);
+        } finally {
+            idle.offer(slot);
+        }
+    }
+
+    private void checkIdleWorkers() {
+        int n = idle.size();
+        for (int i = 0; i < n && !closed; i++) {
+            Slot slot = idle.poll();
+            if (slot == null) {
+                return;
+            }
+            try {
+                Worker worker = slot.ensureStarted();
+                String line = worker.exchange(PING, requestTimeout.toNanos());
+                if (line == null || !objectMapper.readTree(line).path("ok").asBoolean()) {
+                    slot.discard("health check failed");
+                }
+            } catch (IOException | PredictionException e) {
+                log.warn("Python worker {} unavailable: {}", slot.index, e.getMessage());
+                slot.discard(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Python worker health check error", e);
+            } finally {
+                idle.offer(slot);
+            }
+        }
+    }
+
+    /**
+     * Replaces every worker so the next requests load the current model files. Busy workers finish their
+     * request first; idle ones are restarted straight away by the health checker.
+     */
+    void recycle() {
+        generation++;
+        log.info("Model files changed; recycling python workers");
+        if (!closed) {
+            healthChecker.execute(this::checkIdleWorkers);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        healthChecker.shutdownNow();
+        Slot slot;
+        while ((slot = idle.poll()) != null) {
+            slot.discard(null);
+        }
+    }
+
+    /** Fixed pool position; holds the current worker process, replaced on failure. */
+    private final class Slot {
+        private final int index;
+        private Worker worker;
+        private int workerGeneration;
+
+        Slot(int index) {
+            this.index = index;
+        }
+
+        Worker ensureStarted() throws IOException, InterruptedException {
+            if (worker != null && worker.process.isAlive() && workerGeneration == generation) {
+                return worker;
+            }
+            if (worker != null && workerGeneration != generation) {
+                discard(null);
+            }
+            if (worker != null) {
+                log.warn("Python worker {} exited ({}); restarting. {}", index, worker.process.exitValue(), worker.lastStderr);
+            }
+            worker = null;
+            int startedGeneration = generation;
+            long start = System.nanoTime();
+            worker = Worker.start(workingDir, script, index, objectMapper);
+            metrics.recordPhase(PredictionMetrics.Phase.SPAWN, System.nanoTime() - start);
+            workerGeneration = startedGeneration;
+            return worker;
+        }
+
+        void discard(String reason) {
+            if (worker != null) {
+                if (reason != null) {
+                    log.warn("Discarding python worker {}: {}", index, reason);
+                }
+                worker.kill();
+                worker = null;
+            }
+        }
+    }
+
+    /** One worker process; stdout lines are pumped into a queue so reads can time out. */
+    private static final class Worker {
+        private static final String EOF = "\u0000eof";
+
+        final Process process;
+        private final OutputStream stdin;
+        private byte[] out = new byte[512];
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        volatile String lastStderr = "";
+
+        private Worker(Process process) {
+            this.process = process;
+            this.stdin = process.getOutputStream();
+        }
+
+        static Worker start(Path workingDir, String script, int index, ObjectMapper objectMapper)
+                throws IOException, InterruptedException {
+            Process process = new ProcessBuilder("python", script, "--worker")
+                    .directory(workingDir.toFile())
+                    .start();
+            Worker worker = new Worker(process);
+            daemon("python-worker-" + index + "-out", () -> worker.pumpStdout());
+            daemon("python-worker-" + index + "-err", () -> worker.drainStderr());
+            String ready = worker.lines.poll(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (ready == null || EOF.equals(ready)) {
+                worker.kill();
+                throw new PredictionException("Prediction worker failed to start. " + worker.lastStderr, 500);
+            }
+            JsonNode node = objectMapper.readTree(ready);
+            if (!node.path("ready").asBoolean()) {
+                worker.kill();
+                JsonNode err = node.get("error");
+                throw new PredictionException(err != null && err.isTextual() ? err.asText() : "Prediction worker failed to start.", 500);
+            }
+            log.info("Python worker {} ready (model {})", index, node.path("model_version").asText(""));
+            return worker;
+        }
+
+        /** Writes one line and waits up to {@code timeoutNanos} for the reply; null on timeout. */
+        String exchange(CharSequence line, long timeoutNanos) throws IOException, InterruptedException {
+            write(line);
+            stdin.flush();
+            String reply = lines.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+            if (EOF.equals(reply)) {
+                throw new IOException("worker exited. " + lastStderr);
+            }
+            return reply;
+        }
+
+        /** Copies ASCII lines into a reused buffer (the codec only writes ASCII); anything else is UTF-8 encoded. */
+        private void write(CharSequence line) throws IOException {
+            int n = line.length();
+            if (out.length < n + 1) {
+                out = new byte[Math.max(n + 1, out.length * 2)];
+            }
+            for (int i = 0; i < n; i++) {
+                char c = line.charAt(i);
+                if (c > 0x7f) {
+                    stdin.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                    stdin.write('\n');
+                    return;
+                }
+                out[i] = (byte) c;
+            }
+            out[n] = '\n';
+            stdin.write(out, 0, n + 1);
+        }
+
+        void kill() {
+            ProcessRunner.kill(process);
+        }
+
+        private void pumpStdout() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException ignored) {
+            } finally {
+                lines.add(EOF);
+            }
+        }
+
+        private void drainStderr() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lastStderr = line.length() > 200 ? line.substring(0, 200) + "..." : line;
+                    log.debug("python worker: {}", line);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        private static void daemon(String name, Runnable task) {
+            Thread t = new Thread(task, name);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.churn.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only file of session records, the durable side of {@link SessionStoreService}.
+ * <p>
+ * Each record is {@code int length | byte kind | byte flags | long timestamp | short idLength | id | payload | int crc32},
+ * where the payload is JSON, deflated when that makes it smaller. A put appends the whole session, an append
+ * record holds only a delta to apply on top of the records before it, and a delete appends a tombstone. A
+ * session is therefore its last put followed by the appends since then. {@link #recover} rebuilds the index
+ * on startup and cuts off a torn or corrupt tail, and {@link #copy} and {@link #swapIn} rewrite only the live
+ * records once most of the file is dead.
+ * Writes go to the OS page cache (no fsync per record), so they survive a process crash but not a power loss.
+ */
+final class SessionLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionLog.class);
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte APPEND = 3;
+    private static final byte DEFLATED = 1;
+    /** kind + flags + timestamp + idLength, then the crc after the payload. */
+    private static final int FIXED = 1 + 1 + Long.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD = 64 * 1024 * 1024;
+    private static final int DEFLATE_OVER = 256;
+
+    /** Where a session's latest record lives; for an append record, {@code previous} leads back to the put. */
+    static final class Location {
+        final long offset;
+        final int length;
+        final long timestamp;
+        final Location previous;
+        /** Append records since the put. */
+        final int depth;
+        /** Bytes of this record and all before it in the chain. */
+        final long chainLength;
+
+        Location(long offset, int length, long timestamp, Location previous) {
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+            this.previous = previous;
+            this.depth = previous != null ? previous.depth + 1 : 0;
+            this.chainLength = length + (previous != null ? previous.chainLength : 0);
+        }
+    }
+
+    private final Path path;
+    private FileChannel channel;
+    private long size;
+    private long liveBytes;
+
+    SessionLog(Path path) throws IOException {
+        this.path = path;
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        this.channel = open(path);
+        this.size = channel.size();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Scans the whole file and returns each live session's latest record, oldest write first. Sessions last written
+     * before {@code expireBefore} are dropped, and so are append records with no put before them. A record that is
+     * cut short or fails its checksum ends the scan and the file is truncated there, so the next append starts on a
+     * clean boundary.
+     */
+    synchronized Map<String, Location> recover(long expireBefore) throws IOException {
+        Map<String, Location> live = new LinkedHashMap<>();
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        long pos = 0;
+        long fileSize = channel.size();
+        while (pos + Integer.BYTES <= fileSize) {
+            header.clear();
+            readFully(header, pos);
+            int bodyLength = header.getInt(0);
+            if (bodyLength < FIXED || bodyLength > MAX_RECORD || pos + Integer.BYTES + bodyLength > fileSize) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(body, pos + Integer.BYTES);
+            if (!checksumMatches(body)) {
+                break;
+            }
+            byte kind = body.get(0);
+            long timestamp = body.getLong(2);
+            String id = id(body);
+            Location previous = live.remove(id);
+            if (kind == PUT) {
+                live.put(id, new Location(pos, Integer.BYTES + bodyLength, timestamp, null));
+            } else if (kind == APPEND && previous != null) {
+                live.put(id, new Location(pos, Integer.BYTES + bodyLength, timestamp, previous));
+            }
+            pos += Integer.BYTES + bodyLength;
+        }
+        if (pos < fileSize) {
+            log.warn("Session log {}: discarding {} bytes of incomplete or corrupt records", path, fileSize - pos);
+            channel.truncate(pos);
+        }
+        size = pos;
+        live.values().removeIf(location -> location.timestamp < expireBefore);
+        liveBytes = 0;
+        for (Location location : live.values()) {
+            liveBytes += location.chainLength;
+        }
+        return live;
+    }
+
+    /** Appends the whole session JSON for {@code id}; its previous records, if any, become dead. */
+    synchronized Location append(String id, long timestamp, byte[] json, Location previous) throws IOException {
+        Location location = write(PUT, id, timestamp, json, null);
+        liveBytes += location.length - (previous != null ? previous.chainLength : 0);
+        return location;
+    }
+
+    /** Appends a delta for {@code id} on top of {@code previous}, which stays live. */
+    synchronized Location appendDelta(String id, long timestamp, byte[] json, Location previous) throws IOException {
+        Location location = write(APPEND, id, timestamp, json, previous);
+        liveBytes += location.length;
+        return location;
+    }
+
+    /** Records that {@code id} is gone (evicted or expired) so it is not brought back on restart. */
+    synchronized void delete(String id, long timestamp, Location previous) throws IOException {
+        write(DELETE, id, timestamp, new byte[0], null);
+        if (previous != null) {
+            liveBytes -= previous.chainLength;
+        }
+    }
+
+    private Location write(byte kind, String id, long timestamp, byte[] json, Location previous) throws IOException {
+        byte flags = 0;
+        byte[] payload = json;
+        if (json.length > DEFLATE_OVER) {
+            byte[] deflated = deflate(json);
+            if (deflated.length < json.length) {
+                payload = deflated;
+                flags = DEFLATED;
+            }
+        }
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = FIXED + idBytes.length + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bodyLength);
+        record.putInt(bodyLength).put(kind).put(flags).putLong(timestamp)
+                .putShort((short) idBytes.length).put(idBytes).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, bodyLength - Integer.BYTES);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        long offset = size;
+        while (record.hasRemaining()) {
+            channel.write(record, offset + record.position());
+        }
+        size += record.limit();
+        return new Location(offset, record.limit(), timestamp, previous);
+    }
+
+    /** The put's JSON followed by each append's delta, oldest first; safe to call concurrently with appends. */
+    List<byte[]> readChain(Location location) throws IOException {
+        byte[][] payloads = new byte[location.depth + 1][];
+        for (Location l = location; l != null; l = l.previous) {
+            payloads[l.depth] = read(l);
+        }
+        return Arrays.asList(payloads);
+    }
+
+    /** The JSON of the single record at {@code location}. */
+    byte[] read(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(location.length);
+        readFully(record, location.offset);
+        ByteBuffer body = record.position(Integer.BYTES).slice();
+        if (record.getInt(0) != location.length - Integer.BYTES || !checksumMatches(body)) {
+            throw new IOException("Corrupt session record at " + location.offset);
+        }
+        int idLength = body.getShort(10);
+        int payloadStart = 12 + idLength;
+        int payloadLength = body.limit() - payloadStart - Integer.BYTES;
+        byte[] payload = new byte[payloadLength];
+        body.get(payloadStart, payload);
+        return (body.get(1) & DEFLATED) != 0 ? inflate(payload) : payload;
+    }
+
+    /**
+     * First half of a compaction, run without holding any lock: copies the chains in {@code live} to a side file, in
+     * their current order. {@code end} is the file size when {@code live} was taken; records appended meanwhile land
+     * at or after it and are carried over by {@link #swapIn}.
+     */
+    Compaction copy(Map<String, Location> live, long end) throws IOException {
+        FileChannel source;
+        synchronized (this) {
+            source = channel;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        Map<String, Location> moved = new LinkedHashMap<>();
+        long pos = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Location[] chain = new Location[0];
+            for (Map.Entry<String, Location> e : live.entrySet()) {
+                Location last = e.getValue();
+                if (chain.length <= last.depth) {
+                    chain = new Location[last.depth + 1];
+                }
+                for (Location l = last; l != null; l = l.previous) {
+                    chain[l.depth] = l;
+                }
+                Location copy = null;
+                for (int i = 0; i <= last.depth; i++) {
+                    Location from = chain[i];
+                    long copied = 0;
+                    while (copied < from.length) {
+                        copied += source.transferTo(from.offset + copied, from.length - copied, out);
+                    }
+                    copy = new Location(pos, from.length, from.timestamp, copy);
+                    pos += from.length;
+                }
+                moved.put(e.getKey(), copy);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Compaction(tmp, end, pos, moved);
+    }
+
+    /**
+     * Second half: appends the records written since the copy started after the copied ones and swaps the side file
+     * in atomically. The caller must keep locations from changing until it has passed them all through
+     * {@link Compaction#relocate}.
+     */
+    synchronized void swapIn(Compaction compaction) throws IOException {
+        try (FileChannel out = FileChannel.open(compaction.tmp, StandardOpenOption.WRITE)) {
+            out.position(compaction.copied);
+            long tail = size - compaction.end;
+            long copied = 0;
+            while (copied < tail) {
+                copied += channel.transferTo(compaction.end + copied, tail - copied, out);
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compaction.tmp);
+            throw e;
+        }
+        long before = size;
+        channel.close();
+        try {
+            Files.move(compaction.tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // The old file if the move failed, so the store keeps its locations and goes on appending.
+            channel = open(path);
+        }
+        size = channel.size();
+        liveBytes = size;
+        log.info("Compacted session log {}: {} -> {} bytes, {} sessions", path, before, size, compaction.moved.size());
+    }
+
+    /** Live chains copied by {@link #copy}; maps locations in the old file to the compacted one. */
+    static final class Compaction {
+        final Path tmp;
+        /** Old-file size when the live chains were taken; later records are carried over as one block. */
+        final long end;
+        /** Bytes of copied chains, where that block starts in the new file. */
+        final long copied;
+        final Map<String, Location> moved;
+
+        Compaction(Path tmp, long end, long copied, Map<String, Location> moved) {
+            this.tmp = tmp;
+            this.end = end;
+            this.copied = copied;
+            this.moved = moved;
+        }
+
+        /**
+         * Where the chain of {@code id} ending at {@code location} lives after the swap. Records before {@link #end}
+         * were part of the chain copied for {@code id}, so they are found at the same depth of that copy; later ones
+         * moved by a fixed offset. Null if the chain was not copied.
+         */
+        Location relocate(String id, Location location) {
+            if (location == null) {
+                return null;
+            }
+            if (location.offset >= end) {
+                return new Location(location.offset - end + copied, location.length, location.timestamp,
+                        relocate(id, location.previous));
+            }
+            Location copy = moved.get(id);
+            while (copy != null && copy.depth > location.depth) {
+                copy = copy.previous;
+            }
+            return copy;
+        }
+    }
+
+    /** True once dead records outweigh live ones in a file of at least {@code minBytes}. */
+    synchronized boolean needsCompaction(long minBytes) {
+        return size >= minBytes && size > 2 * liveBytes;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        FileChannel ch;
+        synchronized (this) {
+            ch = channel;
+        }
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of session log");
+            }
+        }
+    }
+
+    private static boolean checksumMatches(ByteBuffer body) {
+        int n = body.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate().position(0).limit(n));
+        return (int) crc.getValue() == body.getInt(n);
+    }
+
+    private static String id(ByteBuffer body) {
+        int idLength = body.getShort(10);
+        byte[] id = new byte[idLength];
+        body.get(12, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buf = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflated session record");
+                }
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated session record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,26 +1,448 @@
 package com.churn.app.service;
 
+import com.churn.app.dto.SessionAck;
+import com.churn.app.dto.SessionStoreStats;
+import com.churn.app.exception.SessionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
- * In-memory store for chat sessions keyed by session id.
- * Used by GET/PUT /api/sessions/{id} for optional server-side persistence.
+ * Chat sessions keyed by session id, for GET/PUT/PATCH /api/sessions/{id}.
+ * <p>
+ * Every write is appended to a {@link SessionLog} file, so sessions survive restarts and are reloaded on startup;
+ * {@link #append} writes only the new messages or fields rather than the whole session.
+ * The {@code session.max-resident} most recently used sessions are also kept deserialized on the heap; older ones
+ * are dropped from memory and read back from the file when asked for. Sessions unused for {@code session.ttl-ms},
+ * or beyond {@code session.max-sessions} (least recently used first), are deleted. With an empty
+ * {@code session.store-path} nothing is written and a session evicted from memory is gone.
+ * Compaction of the log runs on a background thread, holding the store lock only to take the live set and to swap the
+ * rewritten file in.
  */
 @Service
 public class SessionStoreService {
 
-    private final Map<String, Map<String, Object>> store = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(SessionStoreService.class);
+    private static final TypeReference<Map<String, Object>> SESSION_TYPE = new TypeReference<>() { };
+    /** The log is compacted once it is at least this big and mostly dead records. */
+    static final long COMPACT_MIN_BYTES = 4L * 1024 * 1024;
+    /** Append records kept on top of a session's last full write before it is written whole again. */
+    static final int MAX_DELTAS = 32;
+    private static final String MESSAGES = "messages";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int maxResident;
+    private final int maxSessions;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final SessionLog sessionLog;
+    private final Executor compactor;
+    /** Set while a compaction is queued or running, so only one is. */
+    private boolean compacting;
+    /** Every live session, least recently used first. */
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    /** The sessions held on the heap, least recently used first. */
+    private final LinkedHashMap<String, Entry> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private long spills;
+    private long coldLoads;
+    private long evictions;
+    private long expirations;
+
+    @Autowired
+    public SessionStoreService(@Value("${session.store-path:./data/sessions.log}") String storePath,
+                               @Value("${session.max-resident:1000}") int maxResident,
+                               @Value("${session.max-sessions:100000}") int maxSessions,
+                               @Value("${session.ttl-ms:2592000000}") long ttlMs) {
+        this(storePath == null || storePath.isBlank() ? null : Path.of(storePath), maxResident, maxSessions, ttlMs,
+                System::currentTimeMillis,
+                Executors.newSingleThreadExecutor(VirtualThreads.factory("session-compaction", false)));
+    }
+
+    SessionStoreService(Path storePath, int maxResident, int maxSessions, long ttlMs, LongSupplier clock,
+                        Executor compactor) {
+        this.maxResident = Math.max(1, maxResident);
+        this.maxSessions = Math.max(this.maxResident, maxSessions);
+        this.ttlMs = ttlMs > 0 ? ttlMs : Long.MAX_VALUE;
+        this.clock = clock;
+        this.compactor = compactor;
+        this.sessionLog = storePath != null ? openLog(storePath) : null;
+    }
+
+    private SessionLog openLog(Path storePath) {
+        try {
+            SessionLog opened = new SessionLog(storePath);
+            long now = clock.getAsLong();
+            Map<String, SessionLog.Location> live = opened.recover(ttlMs == Long.MAX_VALUE ? Long.MIN_VALUE : now - ttlMs);
+            synchronized (this) {
+                for (Map.Entry<String, SessionLog.Location> e : live.entrySet()) {
+                    Entry entry = new Entry(e.getKey());
+                    entry.location = e.getValue();
+                    entry.lastAccess = e.getValue().timestamp;
+                    index.put(e.getKey(), entry);
+                }
+                trimIndex(now, opened);
+            }
+            log.info("Session store {}: {} sessions reloaded", storePath, index.size());
+            return opened;
+        } catch (IOException e) {
+            log.warn("Session log {} unavailable ({}); sessions are kept in memory only", storePath, e.getMessage());
+            return null;
+        }
+    }
 
     public Map<String, Object> get(String id) {
-        return id == null ? null : store.get(id);
+        if (id == null) {
+            return null;
+        }
+        Entry entry;
+        SessionLog.Location location;
+        synchronized (this) {
+            entry = index.get(id);
+            if (entry == null) {
+                return null;
+            }
+            long now = clock.getAsLong();
+            if (now - entry.lastAccess > ttlMs) {
+                remove(entry, now);
+                expirations++;
+                return null;
+            }
+            entry.lastAccess = now;
+            if (entry.value != null) {
+                resident.get(id);
+                return entry.value;
+            }
+            location = entry.location;
+        }
+        // Read outside the lock; a compaction in between moves the record, so retry once with its new location.
+        List<byte[]> records;
+        try {
+            records = sessionLog.readChain(location);
+        } catch (IOException first) {
+            synchronized (this) {
+                if (index.get(id) != entry || entry.location == location) {
+                    log.warn("Could not read session {}: {}", id, first.getMessage());
+                    return entry.value;
+                }
+                location = entry.location;
+            }
+            try {
+                records = sessionLog.readChain(location);
+            } catch (IOException e) {
+                log.warn("Could not read session {}: {}", id, e.getMessage());
+                return null;
+            }
+        }
+        Map<String, Object> value = null;
+        int bytes = 0;
+        try {
+            for (byte[] json : records) {
+                Map<String, Object> record = objectMapper.readValue(json, SESSION_TYPE);
+                value = value == null ? record : merge(value, record);
+                bytes += json.length;
+            }
+        } catch (IOException e) {
+            log.warn("Could not parse session {}: {}", id, e.getMessage());
+            return null;
+        }
+        synchronized (this) {
+            coldLoads++;
+            if (index.get(id) == entry && entry.location == location && entry.value == null) {
+                makeResident(entry, value, bytes);
+            }
+            return entry.value != null ? entry.value : value;
+        }
     }
 
     public void put(String id, Map<String, Object> session) {
-        if (id != null && session != null) {
-            store.put(id, session);
+        if (id == null || session == null) {
+            return;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(session);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Session is not serializable: " + e.getOriginalMessage(), e);
+        }
+        boolean compact;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Entry entry = index.get(id);
+            if (entry == null) {
+                entry = new Entry(id);
+                index.put(id, entry);
+            }
+            if (sessionLog != null) {
+                try {
+                    entry.location = sessionLog.append(id, now, json, entry.location);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not persist session " + id, e);
+                }
+            }
+            entry.lastAccess = now;
+            makeResident(entry, session, json.length);
+            trimIndex(now, sessionLog);
+            compact = claimCompaction();
+        }
+        if (compact) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Applies {@code delta} to the session: its {@code messages} are appended to the session's messages and any
+     * other field replaces the stored one. Only the delta is written to the log until {@link #MAX_DELTAS} have
+     * piled up, when the merged session is written whole again. An unknown id starts a new session.
+     */
+    public SessionAck append(String id, Map<String, Object> delta) {
+        Object messages = delta.get(MESSAGES);
+        if (messages != null && !(messages instanceof List)) {
+            throw new SessionException("Session messages must be a JSON array.", 400);
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Session is not serializable: " + e.getOriginalMessage(), e);
+        }
+        // Loading a spilled session reads the log outside the lock, so check again once the lock is held.
+        SessionAck ack;
+        boolean compact;
+        for (int attempt = 0; ; attempt++) {
+            Map<String, Object> current = get(id);
+            synchronized (this) {
+                Entry entry = index.get(id);
+                if (entry != null && entry.value == null) {
+                    if (attempt < 3) {
+                        continue;
+                    }
+                    if (current == null) {
+                        throw new UncheckedIOException(new IOException("Could not read session " + id));
+                    }
+                }
+                long now = clock.getAsLong();
+                if (entry == null) {
+                    entry = new Entry(id);
+                    index.put(id, entry);
+                }
+                Map<String, Object> base = entry.value != null ? entry.value : current;
+                Map<String, Object> merged = base != null ? merge(base, delta) : merge(Map.of(), delta);
+                int bytes = json.length;
+                if (sessionLog != null) {
+                    try {
+                        if (base != null && entry.location != null && entry.location.depth < MAX_DELTAS) {
+                            entry.location = sessionLog.appendDelta(id, now, json, entry.location);
+                            bytes += entry.bytes;
+                        } else {
+                            byte[] whole = objectMapper.writeValueAsBytes(merged);
+                            entry.location = sessionLog.append(id, now, whole, entry.location);
+                            bytes = whole.length;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not persist session " + id, e);
+                    }
+                } else if (base != null) {
+                    bytes += entry.bytes;
+                }
+                entry.lastAccess = now;
+                makeResident(entry, merged, bytes);
+                trimIndex(now, sessionLog);
+                compact = claimCompaction();
+                ack = new SessionAck(id, messageCount(merged), messages != null ? ((List<?>) messages).size() : 0);
+                break;
+            }
+        }
+        if (compact) {
+            compactor.execute(this::compact);
+        }
+        return ack;
+    }
+
+    public synchronized SessionStoreStats getStats() {
+        return new SessionStoreStats(sessionLog != null, index.size(), resident.size(), residentBytes,
+                sessionLog != null ? sessionLog.size() : 0, sessionLog != null ? sessionLog.liveBytes() : 0,
+                spills, coldLoads, evictions, expirations);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (compactor instanceof ExecutorService executor) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Session log compaction still running at shutdown");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (sessionLog != null) {
+            try {
+                sessionLog.close();
+            } catch (IOException e) {
+                log.warn("Closing session log: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** A new map with {@code delta} applied; {@code base} is left untouched since readers may be serializing it. */
+    static Map<String, Object> merge(Map<String, Object> base, Map<String, Object> delta) {
+        Map<String, Object> merged = new LinkedHashMap<>(base);
+        for (Map.Entry<String, Object> e : delta.entrySet()) {
+            if (MESSAGES.equals(e.getKey()) && e.getValue() instanceof List<?> added) {
+                List<Object> messages = new ArrayList<>();
+                if (base.get(MESSAGES) instanceof List<?> existing) {
+                    messages.addAll(existing);
+                }
+                messages.addAll(added);
+                merged.put(MESSAGES, messages);
+            } else {
+                merged.put(e.getKey(), e.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static int messageCount(Map<String, Object> session) {
+        return session.get(MESSAGES) instanceof List<?> messages ? messages.size() : 0;
+    }
+
+    /** Caller holds the lock. */
+    private void makeResident(Entry entry, Map<String, Object> value, int bytes) {
+        if (entry.value != null) {
+            residentBytes -= entry.bytes;
+        }
+        entry.value = value;
+        entry.bytes = bytes;
+        residentBytes += bytes;
+        resident.put(entry.id, entry);
+        while (resident.size() > maxResident) {
+            Iterator<Entry> eldest = resident.values().iterator();
+            Entry spilled = eldest.next();
+            eldest.remove();
+            residentBytes -= spilled.bytes;
+            spilled.value = null;
+            if (sessionLog != null) {
+                spills++;
+            } else {
+                // Nowhere to spill to: the session is gone.
+                index.remove(spilled.id);
+                evictions++;
+            }
+        }
+    }
+
+    /** Drops expired sessions and the least recently used beyond max-sessions. Caller holds the lock. */
+    private void trimIndex(long now, SessionLog target) {
+        Iterator<Entry> it = index.values().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next();
+            boolean expired = now - eldest.lastAccess > ttlMs;
+            if (!expired && index.size() <= maxSessions) {
+                return;
+            }
+            it.remove();
+            forget(eldest, now, target);
+            if (expired) {
+                expirations++;
+            } else {
+                evictions++;
+            }
+        }
+    }
+
+    /** Caller holds the lock. */
+    private void remove(Entry entry, long now) {
+        index.remove(entry.id);
+        forget(entry, now, sessionLog);
+    }
+
+    private void forget(Entry entry, long now, SessionLog target) {
+        if (resident.remove(entry.id) != null) {
+            residentBytes -= entry.bytes;
+        }
+        entry.value = null;
+        if (target != null && entry.location != null) {
+            try {
+                target.delete(entry.id, now, entry.location);
+            } catch (IOException e) {
+                log.warn("Could not record removal of session {}: {}", entry.id, e.getMessage());
+            }
+            entry.location = null;
+        }
+    }
+
+    /** Caller holds the lock. True if a compaction is due and this caller should start it. */
+    private boolean claimCompaction() {
+        if (sessionLog == null || compacting || !sessionLog.needsCompaction(COMPACT_MIN_BYTES)) {
+            return false;
+        }
+        compacting = true;
+        return true;
+    }
+
+    /**
+     * Copies the live records to a new file without the lock, so requests go on meanwhile; records they append are
+     * carried over when the file is swapped in, which is the only step that holds the lock.
+     */
+    private void compact() {
+        try {
+            Map<String, SessionLog.Location> live = new LinkedHashMap<>();
+            long end;
+            synchronized (this) {
+                for (Entry entry : index.values()) {
+                    if (entry.location != null) {
+                        live.put(entry.id, entry.location);
+                    }
+                }
+                end = sessionLog.size();
+            }
+            SessionLog.Compaction compaction = sessionLog.copy(live, end);
+            synchronized (this) {
+                sessionLog.swapIn(compaction);
+                for (Entry entry : index.values()) {
+                    entry.location = compaction.relocate(entry.id, entry.location);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Session log compaction failed: {}", e.toString());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        SessionLog.Location location;
+        long lastAccess;
+        Map<String, Object> value;
+        int bytes;
+
+        Entry(String id) {
+            this.id = id;
         }
     }
 }
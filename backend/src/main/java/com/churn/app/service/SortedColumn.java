@@ -0,0 +1,130 @@
+package com.churn.app.service;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Values added one at a time and read back once in ascending order ({@link Arrays#sort(double[])} order), for the
+ * exact medians and quantiles training takes. Without a spill file they are sorted in one heap array. With one, they
+ * are sorted in runs of {@link #RUN_VALUES} that are written to the file, and {@link #next} merges the runs, so only
+ * one run is on the heap however long the column is.
+ */
+final class SortedColumn {
+
+    static final int RUN_VALUES = 1 << 20;
+
+    private final SpillFile spill;
+    private final List<DoubleBuffer> runs = new ArrayList<>();
+    private double[] buffer;
+    private int buffered;
+    private int size;
+
+    private int[] heap;
+    private int[] positions;
+    private int heapSize;
+
+    /** {@code capacity} bounds the values added; with no spill file, one array of that size holds them all. */
+    SortedColumn(SpillFile spill, int capacity) {
+        this(spill, capacity, RUN_VALUES);
+    }
+
+    SortedColumn(SpillFile spill, int capacity, int runValues) {
+        this.spill = spill;
+        this.buffer = new double[spill == null ? capacity : Math.min(capacity, runValues)];
+    }
+
+    void add(double value) throws IOException {
+        if (buffered == buffer.length) {
+            flush();
+        }
+        buffer[buffered++] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Ends the adds; {@link #next} then returns the {@link #size} values in ascending order. */
+    void sort() throws IOException {
+        if (spill == null) {
+            Arrays.sort(buffer, 0, buffered);
+            runs.add(DoubleBuffer.wrap(buffer, 0, buffered).slice());
+        } else {
+            flush();
+        }
+        buffer = null;
+        heap = new int[runs.size()];
+        positions = new int[runs.size()];
+        for (int run = 0; run < runs.size(); run++) {
+            if (runs.get(run).limit() > 0) {
+                heap[heapSize] = run;
+                siftUp(heapSize++);
+            }
+        }
+    }
+
+    double next() {
+        int run = heap[0];
+        DoubleBuffer values = runs.get(run);
+        double value = values.get(positions[run]++);
+        if (positions[run] == values.limit()) {
+            heap[0] = heap[--heapSize];
+        }
+        siftDown(0);
+        return value;
+    }
+
+    private void flush() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        DoubleBuffer run = spill.allocate((long) buffered * Double.BYTES).asDoubleBuffer();
+        run.put(0, buffer, 0, buffered);
+        runs.add(run);
+        buffered = 0;
+    }
+
+    private double head(int run) {
+        return runs.get(run).get(positions[run]);
+    }
+
+    private boolean less(int i, int j) {
+        return Double.compare(head(heap[i]), head(heap[j])) < 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0 && less(i, (i - 1) >>> 1)) {
+            swap(i, (i - 1) >>> 1);
+            i = (i - 1) >>> 1;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            if (left < heapSize && less(left, smallest)) {
+                smallest = left;
+            }
+            if (left + 1 < heapSize && less(left + 1, smallest)) {
+                smallest = left + 1;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+    }
+}
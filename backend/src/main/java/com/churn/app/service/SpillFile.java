@@ -0,0 +1,43 @@
+package com.churn.app.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A temp file that a training run pages its per-row columns to (model.training.spill-dir). Each region is mapped
+ * read-write and filled in place, so the data lives in the page cache, written back by the kernel under memory
+ * pressure, rather than on the heap. The file is deleted on {@link #close}; buffers mapped from it must not be used
+ * afterwards.
+ */
+final class SpillFile implements Closeable {
+
+    private final FileChannel channel;
+    private long size;
+
+    SpillFile(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        this.channel = FileChannel.open(Files.createTempFile(dir, "training", ".bin"), StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /** A new zero-filled little-endian region of {@code bytes} bytes at the end of the file. */
+    synchronized ByteBuffer allocate(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Spill regions are limited to 2 GB, requested " + bytes + " bytes");
+        }
+        long offset = size;
+        size += bytes;
+        return channel.map(FileChannel.MapMode.READ_WRITE, offset, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
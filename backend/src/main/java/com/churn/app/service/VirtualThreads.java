@@ -0,0 +1,80 @@
+package com.churn.app.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual threads when the runtime has them (Java 21+), looked up reflectively so the app still builds and
+ * runs on Java 17, where callers get daemon platform threads instead.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method THREAD_PER_TASK;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method perTask = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        THREAD_PER_TASK = perTask;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /** Threads named {@code name-N}: virtual if requested and supported, otherwise daemon platform threads. */
+    public static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual && isSupported()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual thread factory", e);
+            }
+        }
+        AtomicInteger next = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + next.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * A new virtual thread per task when virtual threads are requested and supported (Executors.newThreadPerTaskExecutor,
+     * so blocked tasks cost no platform thread and virtual threads are never pooled); otherwise a fixed pool of
+     * {@code platformThreads} daemon threads.
+     */
+    public static ExecutorService newExecutor(String name, boolean virtual, int platformThreads) {
+        if (virtual && isSupported()) {
+            try {
+                return (ExecutorService) THREAD_PER_TASK.invoke(null, factory(name, true));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads, factory(name, false));
+    }
+}
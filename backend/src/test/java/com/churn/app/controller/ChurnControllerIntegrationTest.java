@@ -8,9 +8,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -82,4 +86,94 @@ class ChurnControllerIntegrationTest {
                         .content(body))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void predictBatch_invalidRows_returnsPerRowErrors() throws Exception {
+        Map<String, Object> invalid = Map.of(
+                "age", 200,
+                "tenure", 24,
+                "monthlyCharges", 70.0,
+                "contract", "Weekly",
+                "internetService", "DSL",
+                "paymentDelay", 5
+        );
+        String body = objectMapper.writeValueAsString(List.of(invalid));
+
+        mockMvc.perform(post("/api/predict/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].row").value(0))
+                .andExpect(jsonPath("$.results[0].error").isString());
+    }
+
+    @Test
+    void predictBatch_csvMissingColumn_returns400() throws Exception {
+        mockMvc.perform(post("/api/predict/batch")
+                        .contentType("text/csv")
+                        .content("age,tenure\n40,24\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void predictStream_invalidRows_streamsCsvWithErrorColumn() throws Exception {
+        String csv = "age,tenure,monthlyCharges,contract,internetService,paymentDelay\n"
+                + "200,24,70.0,Month-to-month,DSL,5\n";
+
+        mockMvc.perform(post("/api/predict/stream")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(containsString(",score,label,error\n")))
+                .andExpect(content().string(containsString("age must be <= 120")));
+    }
+
+    @Test
+    void predictSweep_invalidAxes_returns400() throws Exception {
+        Map<String, Object> tooLarge = Map.of("base", validRequest(), "axes", List.of(
+                Map.of("feature", "monthlyCharges", "from", 0, "to", 1000, "step", 0.01)));
+        mockMvc.perform(post("/api/predict/sweep")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tooLarge)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("cells")));
+
+        Map<String, Object> categorical = Map.of("base", validRequest(), "axes", List.of(
+                Map.of("feature", "contract", "from", 0, "to", 2, "step", 1)));
+        mockMvc.perform(post("/api/predict/sweep")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(categorical)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("axes[0].feature")));
+    }
+
+    @Test
+    void prometheus_exposesErrorCountsAndGauges() throws Exception {
+        mockMvc.perform(post("/api/predict/batch")
+                        .contentType("text/csv")
+                        .content("age,tenure\n40,24\n"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string(containsString("churn_request_errors_total{exception=\"PredictionException\",status=\"400\"}")))
+                .andExpect(content().string(containsString("churn_http_request_seconds_count{endpoint=\"batch\"}")))
+                .andExpect(content().string(containsString("# TYPE churn_in_flight_requests gauge\nchurn_in_flight_requests 0\n")));
+    }
+
+    @Test
+    void patchSession_nonArrayMessages_returns400WithoutCountingAPredictionError() throws Exception {
+        mockMvc.perform(patch("/api/sessions/bad-patch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"messages\":\"hi\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Session messages must be a JSON array."));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("SessionException"))));
+    }
 }
@@ -6,6 +6,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,6 +30,42 @@ class ModelMetricsControllerIntegrationTest {
                 .andExpect(jsonPath("$.confusionMatrix.matrix").isArray())
                 .andExpect(jsonPath("$.confusionMatrix.matrix.length()").value(2))
                 .andExpect(jsonPath("$.rocCurve").isArray())
-                .andExpect(jsonPath("$.featureImportance").isArray());
+                .andExpect(jsonPath("$.featureImportance").isArray())
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void getMetrics_matchingEtagReturns304AndGzipIsServedWhenAccepted() throws Exception {
+        String etag = mockMvc.perform(get("/api/model/metrics"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/model/metrics").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        byte[] gzip = mockMvc.perform(get("/api/model/metrics").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", etag.substring(0, etag.length() - 1) + "-gzip\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("\"confusionMatrix\""));
+        }
+
+        // The identity ETag does not validate the gzip representation, and q=0 refuses gzip.
+        mockMvc.perform(get("/api/model/metrics").header("If-None-Match", etag).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/model/metrics").header("Accept-Encoding", "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void getFeatureImportance_returnsArrayWithEtag() throws Exception {
+        mockMvc.perform(get("/api/model/feature-importance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(header().exists("ETag"));
     }
 }
@@ -0,0 +1,139 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.AuditLogStats;
+import com.churn.app.dto.PredictResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import static com.churn.app.service.TestRequests.request;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    /** A writer that exits at once, so records stay on the ring until close() drains them. */
+    private static final ThreadFactory NO_WRITER = r -> new Thread(() -> { });
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void publish_replaysEveryFieldThroughTheReader() throws IOException {
+        AuditLog audit = new AuditLog(tempDir, 1 << 20, 64, 0, 0, VirtualThreads.factory("audit-test", false));
+        audit.publish(request(42, 3, 70.35, "Month-to-month", "Fiber optic", 2),
+                new PredictResponse("CHURN", 0.82, 246, null, "rf-1"), 1_500_000);
+        audit.publish(request(null, 60, null, "Two \"year\"", null, null),
+                new PredictResponse("NO_CHURN", 0.1, 30, null, null), 250_000);
+        audit.close();
+
+        List<AuditLogReader.Entry> entries = replay();
+        assertEquals(2, entries.size());
+        AuditLogReader.Entry first = entries.get(0);
+        assertEquals(42, first.age);
+        assertEquals(3, first.tenure);
+        assertEquals(70.35, first.monthlyCharges);
+        assertEquals(2, first.paymentDelay);
+        assertEquals("Month-to-month", first.contract);
+        assertEquals("Fiber optic", first.internetService);
+        assertEquals("CHURN", first.label);
+        assertEquals("rf-1", first.modelVersion);
+        assertEquals(0.82, first.score);
+        assertEquals(1_500_000, first.latencyNanos);
+        assertTrue(first.timestamp > 0);
+        AuditLogReader.Entry second = entries.get(1);
+        assertNull(second.age);
+        assertNull(second.monthlyCharges);
+        assertNull(second.internetService);
+        assertNull(second.modelVersion);
+
+        StringBuilder json = new StringBuilder();
+        second.appendJson(json);
+        assertTrue(json.toString().contains("\"contract\":\"Two \\\"year\\\"\",\"internetService\":null"), json.toString());
+        AuditLogStats stats = audit.getStats();
+        assertEquals(2, stats.getWritten());
+        assertEquals(0, stats.getDropped());
+    }
+
+    @Test
+    void segments_rotateBySizeAndAreTruncatedToTheirRecords() throws IOException {
+        AuditLog audit = new AuditLog(tempDir, AuditLog.MIN_SEGMENT_BYTES, 1024, 1000, 0,
+                VirtualThreads.factory("audit-test", false));
+        for (int i = 0; i < 500; i++) {
+            audit.publish(request(i, i % 72, i / 10.0, "One year", "DSL", i % 4),
+                    new PredictResponse("NO_CHURN", i / 1000.0, 0, null, "rf-1"), i);
+        }
+        audit.close();
+
+        List<Path> segments = AuditLogReader.segments(tempDir);
+        assertTrue(segments.size() > 1, "expected rotation, got " + segments);
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= AuditLog.MIN_SEGMENT_BYTES);
+        }
+        List<AuditLogReader.Entry> entries = replay();
+        assertEquals(500, entries.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, entries.get(i).age);
+            assertEquals(i, entries.get(i).latencyNanos);
+        }
+
+        // A restart numbers its segments after the existing ones.
+        AuditLog next = new AuditLog(tempDir, AuditLog.MIN_SEGMENT_BYTES, 16, 0, 0, NO_WRITER);
+        next.publish(request(1, 1, 1.0, "One year", "DSL", 0), new PredictResponse("NO_CHURN", 0.2, 0, null, null), 1);
+        next.close();
+        List<Path> after = AuditLogReader.segments(tempDir);
+        assertEquals(segments.size() + 1, after.size());
+        assertEquals(501, replay().size());
+    }
+
+    @Test
+    void fullRing_dropsAfterTheBlockTimeoutAndCounts() throws IOException {
+        AuditLog audit = new AuditLog(tempDir, 1 << 16, 4, 20, 0, NO_WRITER);
+        PredictResponse response = new PredictResponse("CHURN", 0.9, 0, null, "rf-1");
+        for (int i = 0; i < 4; i++) {
+            audit.publish(request(i, 1, 1.0, "One year", "DSL", 0), response, 0);
+        }
+        long start = System.nanoTime();
+        audit.publish(request(99, 1, 1.0, "One year", "DSL", 0), response, 0);
+        assertTrue(System.nanoTime() - start >= 20_000_000L, "should wait block-timeout-ms before dropping");
+
+        AuditLogStats stats = audit.getStats();
+        assertEquals(4, stats.getQueueDepth());
+        assertEquals(1, stats.getDropped());
+        audit.close();
+        audit.publish(request(100, 1, 1.0, "One year", "DSL", 0), response, 0);
+
+        List<AuditLogReader.Entry> entries = replay();
+        assertEquals(List.of(0, 1, 2, 3), entries.stream().map(e -> e.age).toList());
+        assertEquals(2, audit.getStats().getDropped());
+    }
+
+    @Test
+    void writeErrors_countAsDroppedNotWritten() throws IOException {
+        Path dir = tempDir.resolve("audit");
+        AuditLog audit = new AuditLog(dir, 1 << 16, 16, 0, 0, NO_WRITER);
+        PredictResponse response = new PredictResponse("CHURN", 0.9, 0, null, "rf-1");
+        audit.publish(request(1, 1, 1.0, "One year", "DSL", 0), response, 0);
+        audit.publish(request(2, 1, 1.0, "One year", "DSL", 0), response, 0);
+        // A file where the directory should be: no segment can be opened.
+        Files.writeString(dir, "not a directory");
+        audit.close();
+
+        AuditLogStats stats = audit.getStats();
+        assertEquals(2, stats.getPublished());
+        assertEquals(0, stats.getWritten());
+        assertEquals(2, stats.getDropped());
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    private List<AuditLogReader.Entry> replay() throws IOException {
+        List<AuditLogReader.Entry> entries = new ArrayList<>();
+        AuditLogReader.replay(tempDir, entries::add);
+        return entries;
+    }
+}
@@ -0,0 +1,146 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.BatchPredictItem;
+import com.churn.app.dto.BatchPredictResponse;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.exception.PredictionException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPredictionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChurnScoringService scoring;
+    private BatchPredictionService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path forest = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest(), forest);
+        scoring = new ChurnScoringService(new ChurnScoringService.Options().forest(forest.toString(), "native"));
+        service = new BatchPredictionService(scoring, Validation.buildDefaultValidatorFactory().getValidator(), 3, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    private static PredictRequest request(int age, int tenure, String contract, int paymentDelay) {
+        return TestRequests.request(age, tenure, 70.0, contract, "DSL", paymentDelay);
+    }
+
+    @Test
+    void predict_scoresValidRowsAndReportsInvalidOnes() {
+        PredictRequest first = request(40, 30, "Month-to-month", 20);
+        PredictRequest invalid = request(-1, 30, "Two year", 0);
+        PredictRequest third = request(40, 30, "Two year", 0);
+
+        BatchPredictResponse res = service.predict(Arrays.asList(first, invalid, third));
+
+        assertEquals(2, res.getSucceeded());
+        assertEquals(1, res.getFailed());
+        assertEquals("fixture-1", res.getModelVersion());
+        List<BatchPredictItem> items = res.getResults();
+        assertEquals(scoring.predict(first).getScore(), items.get(0).getScore(), 1e-12);
+        assertEquals("CHURN", items.get(0).getLabel());
+        assertEquals("age: age must be >= 0", items.get(1).getError());
+        assertNull(items.get(1).getScore());
+        assertEquals(0.4, items.get(2).getScore(), 1e-12);
+        assertEquals(2, items.get(2).getRow());
+    }
+
+    @Test
+    void predictCsv_mapsHeadersIgnoresExtraColumnsAndFlagsBadCells() {
+        String csv = "age,tenure,monthly charges,contract,internetService,paymentDelay,Churn\n"
+                + "40,30,70.0,Month-to-month,DSL,20,1\n"
+                + "40,abc,70.0,Two year,DSL,0,0\n"
+                + "\n"
+                + "40,30,70.0,\"Two year\",DSL,0,0\n";
+
+        BatchPredictResponse res = service.predictCsv(csv);
+
+        assertEquals(3, res.getResults().size());
+        assertEquals(0.85, res.getResults().get(0).getScore(), 1e-12);
+        assertEquals("tenure must be an integer", res.getResults().get(1).getError());
+        assertEquals(0.4, res.getResults().get(2).getScore(), 1e-12);
+    }
+
+    @Test
+    void predictCsv_missingColumn_isRejected() {
+        PredictionException ex = assertThrows(PredictionException.class,
+                () -> service.predictCsv("age,tenure,contract\n1,2,One year\n"));
+        assertEquals(400, ex.getStatusCode());
+        assertTrue(ex.getMessage().contains("monthlyCharges"));
+    }
+
+    @Test
+    void predict_tooManyRows_isRejected() {
+        PredictRequest req = request(40, 30, "Two year", 0);
+        PredictionException ex = assertThrows(PredictionException.class,
+                () -> service.predict(List.of(req, req, req, req)));
+        assertEquals(413, ex.getStatusCode());
+    }
+
+    private String stream(String csv, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.openCsvStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).writeTo(out, ndjson);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvStream_appendsScoreLabelErrorAcrossChunksInOrder() throws IOException {
+        String csv = "age,tenure,monthlyCharges,contract,internetService,paymentDelay\n"
+                + "40,30,70.0,Two year,DSL,20\n"
+                + "40,30,70.0,Two year,DSL,0\n"
+                + "-1,30,70.0,Two year,DSL,0\n"
+                + "40,30,70.0,Two year,DSL,0\n"
+                + "40,30,70.0,Two year,DSL,20\n";
+
+        String[] lines = stream(csv, false).split("\n");
+
+        assertEquals(6, lines.length);
+        assertEquals("age,tenure,monthlyCharges,contract,internetService,paymentDelay,score,label,error", lines[0]);
+        assertEquals("40,30,70.0,Two year,DSL,20,0.75,CHURN,", lines[1]);
+        assertEquals("40,30,70.0,Two year,DSL,0,0.4,NO_CHURN,", lines[2]);
+        assertEquals("-1,30,70.0,Two year,DSL,0,,,\"age: age must be >= 0\"", lines[3]);
+        assertEquals("40,30,70.0,Two year,DSL,0,0.4,NO_CHURN,", lines[4]);
+        assertEquals("40,30,70.0,Two year,DSL,20,0.75,CHURN,", lines[5]);
+    }
+
+    @Test
+    void csvStream_ndjsonWritesOneObjectPerRow() throws IOException {
+        String csv = "age,tenure,monthlyCharges,contract,internetService,paymentDelay\n"
+                + "40,30,70.0,Two year,DSL,20\n"
+                + "40,x,70.0,Two year,DSL,0\n";
+
+        String[] lines = stream(csv, true).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"row\":0,\"age\":40,\"tenure\":30,\"monthlyCharges\":70.0,\"contract\":\"Two year\","
+                + "\"internetService\":\"DSL\",\"paymentDelay\":20,\"score\":0.75,\"label\":\"CHURN\"}", lines[0]);
+        assertEquals("{\"row\":1,\"error\":\"tenure must be an integer\"}", lines[1]);
+    }
+
+    @Test
+    void csvStream_missingColumn_failsBeforeWriting() {
+        PredictionException ex = assertThrows(PredictionException.class,
+                () -> service.openCsvStream(new ByteArrayInputStream("age\n1\n".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(400, ex.getStatusCode());
+    }
+}
@@ -0,0 +1,128 @@
+package com.churn.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.churn.app.service.TestRequests.request;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarDatasetTest {
+
+    private static final String HEADER = "Age,Tenure,Monthly Charges,Contract,Internet Service,Payment Delay,Churn";
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String text) throws IOException {
+        return Files.writeString(tempDir.resolve("data.csv"), text);
+    }
+
+    @Test
+    void read_parsesColumnsLikePredictCsv() throws IOException {
+        Path csv = write("\uFEFF" + HEADER + "\r\n"
+                + "42,3,70.35,Month-to-month,Fiber optic,2,Yes\r\n"
+                + "\r\n"
+                + " 7 , 60 ,-0.125, \"Two year\" ,,, no\r\n"
+                + "18,,1e2,One year,Fiber optic,0,1");
+
+        ColumnarDataset data = ColumnarDataset.read(csv);
+        assertEquals(3, data.getRows());
+        assertTrue(data.isLabelled());
+        assertEquals(70.35, data.numeric(2, 0));
+        assertEquals(-0.125, data.numeric(2, 1));
+        assertEquals(100.0, data.numeric(2, 2));
+        assertEquals(7.0, data.numeric(0, 1));
+        assertTrue(Double.isNaN(data.numeric(1, 2)));
+        assertTrue(Double.isNaN(data.numeric(3, 1)));
+        assertArrayEquals(new String[]{"Month-to-month", "Two year", "One year"}, data.dictionary(0));
+        assertArrayEquals(new String[]{"Fiber optic"}, data.dictionary(1));
+        assertEquals(1, data.category(0, 1));
+        assertEquals(0, data.category(1, 2));
+        assertEquals(-1, data.category(1, 1));
+        assertEquals(List.of(1, 0, 1), List.of(data.label(0), data.label(1), data.label(2)));
+    }
+
+    @Test
+    void read_parsesTargetLikeTrainScript() throws IOException {
+        String[] cells = {"YES", "True", "churn", "1.0", "\"yes\"", "+1", "No", "0", "false", "2", "maybe", "-", ""};
+        StringBuilder text = new StringBuilder(HEADER).append('\n');
+        for (String cell : cells) {
+            text.append("42,3,70,One year,DSL,0,").append(cell).append('\n');
+        }
+        ColumnarDataset data = ColumnarDataset.read(write(text.toString()));
+        int[] labels = IntStream.range(0, data.getRows()).map(data::label).toArray();
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0}, labels);
+    }
+
+    @Test
+    void read_rejectsMalformedCellsWithLineNumber() throws IOException {
+        Path csv = write(HEADER + "\n42,3,70,One year,DSL,0,No\n42.5,3,70,One year,DSL,0,No\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ColumnarDataset.read(csv));
+        assertEquals("Line 3: age must be an integer", e.getMessage());
+
+        Path other = write(HEADER + "\n42,3,abc,One year,DSL,0,No\n");
+        e = assertThrows(IllegalArgumentException.class, () -> ColumnarDataset.read(other));
+        assertEquals("Line 2: monthlyCharges must be a number", e.getMessage());
+    }
+
+    @Test
+    void read_smallWindowsAndSpilledChunksMatchOneWindowOnTheHeap() throws IOException {
+        StringBuilder text = new StringBuilder(HEADER).append('\n');
+        int rows = ColumnarDataset.CHUNK_ROWS + 1234;
+        for (int i = 0; i < rows; i++) {
+            text.append(18 + i % 60).append(',').append(i % 72).append(',').append(i % 9000 / 100.0).append(',')
+                    .append(i % 3 == 0 ? "Month-to-month" : i % 3 == 1 ? "One year" : "").append(',')
+                    .append(i % 5 == 0 ? "DSL" : "Fiber optic").append(',').append(i % 4).append(',')
+                    .append(i % 7 == 0 ? "Yes" : "No").append('\n');
+        }
+        Path csv = write(text.toString());
+
+        ColumnarDataset whole = ColumnarDataset.read(csv);
+        ColumnarDataset windowed = ColumnarDataset.read(csv, 4096);
+        try (SpillFile spill = new SpillFile(tempDir.resolve("spill"))) {
+            ColumnarDataset spilled = ColumnarDataset.read(csv, spill);
+            assertEquals(rows, whole.getRows());
+            assertEquals(rows, windowed.getRows());
+            assertEquals(rows, spilled.getRows());
+            for (int row = 0; row < rows; row++) {
+                for (int f = 0; f < ForestModel.NUMERIC_FEATURES.size(); f++) {
+                    assertEquals(whole.numeric(f, row), windowed.numeric(f, row));
+                    assertEquals(whole.numeric(f, row), spilled.numeric(f, row));
+                }
+                for (int f = 0; f < ForestModel.CATEGORICAL_FEATURES.size(); f++) {
+                    assertEquals(whole.category(f, row), windowed.category(f, row));
+                    assertEquals(whole.category(f, row), spilled.category(f, row));
+                }
+                assertEquals(whole.label(row), windowed.label(row));
+                assertEquals(whole.label(row), spilled.label(row));
+                assertEquals(row % 7 == 0 ? 1 : 0, whole.label(row));
+            }
+        }
+        int last = rows - 1;
+        assertEquals(18 + last % 60, windowed.numeric(0, last));
+        assertEquals(last % 9000 / 100.0, windowed.numeric(2, last));
+    }
+
+    @Test
+    void predictProba_scoresRowsLikeTheEquivalentRequests() throws IOException {
+        Path csv = write(HEADER + "\n42,3,70.35,Month-to-month,Fiber optic,2,Yes\n30,,20,Two year,,0,No\n"
+                + "50,24,55.5,Unseen,DSL,1,No\n");
+        ColumnarDataset sample = ColumnarDataset.read(Path.of("data/telecom_churn_sample.csv"));
+        int[] rows = IntStream.range(0, sample.getRows()).toArray();
+        ForestModel forest = new ForestTrainer(8, 64, 6, 2, 7, 1).train(sample, rows, "columnar").forest;
+
+        ColumnarDataset data = ColumnarDataset.read(csv);
+        double[] scores = new double[3];
+        forest.predictProba(data, new int[]{0, 1, 2}, scores);
+
+        assertEquals(forest.predictProba(request(42, 3, 70.35, "Month-to-month", "Fiber optic", 2)), scores[0]);
+        assertEquals(forest.predictProba(request(30, null, 20.0, "Two year", null, 0)), scores[1]);
+        assertEquals(forest.predictProba(request(50, 24, 55.5, "Unseen", "DSL", 1)), scores[2]);
+    }
+}
@@ -0,0 +1,120 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.DriftReport;
+import com.churn.app.dto.FeatureDrift;
+import com.churn.app.dto.PredictRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriftMonitorTest {
+
+    private static final Path SAMPLE_CSV = Path.of("data/telecom_churn_sample.csv");
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong now = new AtomicLong(1_800_000_000_000L);
+
+    /** Baseline of the sample's rows, with every row scored 0.25 or 0.75 by its label. */
+    private Path writeBaseline(ColumnarDataset data) throws IOException {
+        int[] rows = IntStream.range(0, data.getRows()).toArray();
+        double[] scores = IntStream.range(0, data.getRows()).mapToDouble(DriftMonitorTest::score).toArray();
+        Path path = tempDir.resolve(DriftBaseline.FILE_NAME);
+        DriftBaseline.of("v1", "telecom_churn_sample.csv", data, rows, scores).write(path, new ObjectMapper());
+        return path;
+    }
+
+    private static double score(int row) {
+        return row % 4 == 0 ? 0.75 : 0.25;
+    }
+
+    private static PredictRequest request(ColumnarDataset data, int row) {
+        return TestRequests.request((int) data.numeric(0, row), (int) data.numeric(1, row), data.numeric(2, row),
+                data.dictionary(0)[data.category(0, row)], data.dictionary(1)[data.category(1, row)],
+                (int) data.numeric(3, row));
+    }
+
+    private static Map<String, FeatureDrift> byFeature(DriftReport report) {
+        return report.getFeatures().stream().collect(Collectors.toMap(FeatureDrift::getFeature, Function.identity()));
+    }
+
+    @Test
+    void report_trainingLikeTrafficIsStableAndShiftedFeatureDrifts() throws IOException {
+        ColumnarDataset data = ColumnarDataset.read(SAMPLE_CSV);
+        DriftMonitor monitor = new DriftMonitor(writeBaseline(data), 3_600_000, 100, now::get);
+        for (int row = 0; row < data.getRows(); row++) {
+            PredictRequest req = request(data, row);
+            req.setAge(req.getAge() + 25);
+            req.setContract(row % 2 == 0 ? "Two year" : "Three year");
+            monitor.observe(req, score(row));
+        }
+
+        DriftReport report = monitor.getReport();
+        Map<String, FeatureDrift> drift = byFeature(report);
+
+        assertEquals("v1", report.getBaselineVersion());
+        assertEquals(data.getRows(), report.getRequests());
+        assertEquals(7, drift.size());
+        assertEquals(0.0, drift.get("tenure").getPsi());
+        assertEquals(0.0, drift.get("tenure").getKs());
+        assertEquals("ok", drift.get("monthlyCharges").getStatus());
+        assertEquals("ok", drift.get(DriftBaseline.SCORE).getStatus());
+        assertEquals("ok", drift.get("internetService").getStatus());
+        assertEquals("drift", drift.get("age").getStatus());
+        assertTrue(drift.get("age").getKs() > 0.3);
+        assertEquals("drift", drift.get("contract").getStatus());
+        assertNull(drift.get("contract").getKs());
+    }
+
+    @Test
+    void report_countsAgeOutAfterTwoWindowsAndWaitForMinSamples() throws IOException {
+        ColumnarDataset data = ColumnarDataset.read(SAMPLE_CSV);
+        DriftMonitor monitor = new DriftMonitor(writeBaseline(data), 60_000, 100, now::get);
+        for (int row = 0; row < 50; row++) {
+            monitor.observe(request(data, row), score(row));
+        }
+        assertEquals("insufficient", byFeature(monitor.getReport()).get("age").getStatus());
+
+        now.addAndGet(70_000);
+        for (int row = 50; row < 150; row++) {
+            monitor.observe(request(data, row), score(row));
+        }
+        assertEquals(150, monitor.getReport().getRequests());
+
+        now.addAndGet(60_000);
+        assertEquals(100, monitor.getReport().getRequests());
+        now.addAndGet(120_000);
+        assertEquals(0, monitor.getReport().getRequests());
+    }
+
+    @Test
+    void report_isEmptyWithoutBaselineAndPicksUpOneWrittenLater() throws IOException {
+        Path path = tempDir.resolve(DriftBaseline.FILE_NAME);
+        DriftMonitor monitor = new DriftMonitor(path, 60_000, 1, now::get);
+        PredictRequest req = new PredictRequest();
+        monitor.observe(req, 0.5);
+        assertTrue(monitor.getReport().getFeatures().isEmpty());
+        assertTrue(DriftMonitor.none().getReport().getFeatures().isEmpty());
+
+        ColumnarDataset data = ColumnarDataset.read(SAMPLE_CSV);
+        writeBaseline(data);
+        monitor.getReport();
+        monitor.observe(req, 0.5);
+
+        Map<String, FeatureDrift> drift = byFeature(monitor.getReport());
+        assertEquals(1, drift.get("age").getMissing());
+        assertEquals(0, drift.get("age").getCount());
+        assertEquals(1, drift.get(DriftBaseline.SCORE).getCount());
+    }
+}
@@ -0,0 +1,82 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.churn.app.service.TestRequests.request;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForestLookupTableTest {
+
+    @Test
+    void build_collapsesFeaturesToSplitIntervals() {
+        ForestLookupTable table = ForestLookupTable.build(ForestModelTest.fixtureForest(), 1_000, 1_000);
+
+        // age and monthlyCharges are never split on; tenure and paymentDelay have one threshold each.
+        assertEquals(1 * 2 * 2 * 3 * 3 * 1, table.getCells());
+        assertTrue(table.getMemoryBytes() >= table.getCells() * Double.BYTES);
+    }
+
+    @Test
+    void score_matchesTreeEvaluationExactly() {
+        ForestModel forest = ForestModelTest.fixtureForest();
+        ForestLookupTable table = ForestLookupTable.build(forest, 1_000, 0);
+
+        assertEquals(0, table.verify(20_000, 7L));
+        for (int tenure = 0; tenure <= ForestLookupTable.MAX_TENURE; tenure++) {
+            PredictRequest req = request(40, tenure, 70.0, "Month-to-month", "None", 10);
+            assertEquals(forest.predictProba(req), table.score(req));
+        }
+        assertEquals(0.15, table.score(request(40, 32, 70.0, "Two year", "DSL", 0)), 1e-12);
+    }
+
+    @Test
+    void score_matchesTreesSplittingOnMonthlyChargesAndAge() {
+        // monthlyCharges thresholds at 45.5, 70.123 and 99.99 (scaled), age at 30.5.
+        ForestModel.Tree charges = new ForestModel.Tree(
+                new int[]{2, 2, -2, -2, 2, -2, -2},
+                new double[]{(70.123 - 70) / 25, (45.5 - 70) / 25, -2, -2, (99.99 - 70) / 25, -2, -2},
+                new int[]{1, 2, -1, -1, 5, -1, -1},
+                new int[]{4, 3, -1, -1, 6, -1, -1},
+                new double[]{0.5, 0.3, 0.1, 0.2, 0.7, 0.6, 0.9});
+        ForestModel.Tree age = new ForestModel.Tree(
+                new int[]{0, -2, -2},
+                new double[]{(30.5 - 40) / 10, -2, -2},
+                new int[]{1, -1, -1},
+                new int[]{2, -1, -1},
+                new double[]{0.5, 0.25, 0.05});
+        ForestModel forest = ForestModel.of("charges-1",
+                new double[]{40.0, 24.0, 70.0, 0.0},
+                new double[]{40.0, 30.0, 70.0, 5.0},
+                new double[]{10.0, 20.0, 25.0, 10.0},
+                new String[]{"Month-to-month", "DSL"},
+                new String[][]{{"Month-to-month", "One year", "Two year"}, {"DSL", "Fiber optic"}},
+                List.of(charges, age));
+        ForestLookupTable table = ForestLookupTable.build(forest, 1_000, 0);
+
+        assertEquals(2 * 9 * 4, table.getCells());
+        assertEquals(0, table.verify(20_000, 11L));
+        for (double c : new double[]{0.0, 45.5, 45.51, 70.12, 70.13, 99.99, 100.0, 1000.0}) {
+            PredictRequest req = request(30, 5, c, "One year", "Fiber optic", 3);
+            assertEquals(forest.predictProba(req), table.score(req), "monthlyCharges " + c);
+        }
+    }
+
+    @Test
+    void score_isNaNOutsideTheDomain() {
+        ForestLookupTable table = ForestLookupTable.build(ForestModelTest.fixtureForest(), 1_000, 0);
+
+        assertTrue(Double.isNaN(table.score(request(40, 30, 70.0, "Weekly", "DSL", 0))));
+        assertTrue(Double.isNaN(table.score(request(40, 30, 1200.0, "Two year", "DSL", 0))));
+        assertTrue(Double.isNaN(table.score(request(40, 30, 70.0, "Two year", "DSL", 61))));
+    }
+
+    @Test
+    void build_refusesTablesAboveTheCellLimit() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> ForestLookupTable.build(ForestModelTest.fixtureForest(), 10, 0));
+        assertTrue(ex.getMessage().contains("36 cells"));
+    }
+}
@@ -0,0 +1,238 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.churn.app.service.TestRequests.request;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForestModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ForestModel model;
+
+    /** Two small trees: paymentDelay split, and contract=Month-to-month then tenure split. */
+    static ForestModel fixtureForest() {
+        return fixtureForest("fixture-1");
+    }
+
+    static ForestModel fixtureForest(String modelVersion) {
+        ForestModel.Tree delay = new ForestModel.Tree(
+                new int[]{3, -2, -2},
+                new double[]{0.5, -2.0, -2.0},
+                new int[]{1, -1, -1},
+                new int[]{2, -1, -1},
+                new double[]{0.5, 0.2, 0.9});
+        ForestModel.Tree contractTenure = new ForestModel.Tree(
+                new int[]{4, 1, -2, -2, -2},
+                new double[]{0.5, 0.1, -2.0, -2.0, -2.0},
+                new int[]{1, 2, -1, -1, -1},
+                new int[]{4, 3, -1, -1, -1},
+                new double[]{0.5, 0.35, 0.6, 0.1, 0.8});
+        return ForestModel.of(modelVersion,
+                new double[]{40.0, 24.0, 70.0, 0.0},
+                new double[]{40.0, 30.0, 70.0, 5.0},
+                new double[]{10.0, 20.0, 25.0, 10.0},
+                new String[]{"Month-to-month", "DSL"},
+                new String[][]{{"Month-to-month", "One year", "Two year"}, {"DSL", "Fiber optic"}},
+                List.of(delay, contractTenure));
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(fixtureForest(), file);
+        model = ForestModelLoader.load(file);
+    }
+
+    @Test
+    void load_readsVersionTreesAndOneHotWidth() {
+        assertEquals("fixture-1", model.getModelVersion());
+        assertEquals(2, model.getTreeCount());
+        assertEquals(8, model.getNodeCount());
+        assertEquals(9, model.getFeatureCount());
+    }
+
+    @Test
+    void transform_scalesNumericAndOneHotEncodesCategoricals() {
+        double[] x = new double[model.getFeatureCount()];
+        model.transform(request(50, 10, 95.0, "One year", "Fiber optic", 15), x);
+
+        assertArrayEquals(new double[]{1.0, -1.0, 1.0, 1.0, 0, 1, 0, 0, 1}, x, 1e-12);
+    }
+
+    @Test
+    void transform_unknownCategoryIsAllZerosAndMissingValuesAreImputed() {
+        PredictRequest req = request(40, 30, 70.0, "Month-to-month", "None", 0);
+        req.setPaymentDelay(null);
+        req.setContract(null);
+        double[] x = new double[model.getFeatureCount()];
+        model.transform(req, x);
+
+        assertEquals(-0.5, x[3], 1e-12);
+        assertArrayEquals(new double[]{1, 0, 0}, new double[]{x[4], x[5], x[6]});
+        assertArrayEquals(new double[]{0, 0}, new double[]{x[7], x[8]});
+    }
+
+    @Test
+    void predictProba_averagesTreeLeafValues() {
+        assertEquals(0.85, model.predictProba(request(40, 30, 70.0, "Month-to-month", "DSL", 20)), 1e-12);
+        assertEquals(0.4, model.predictProba(request(40, 30, 70.0, "Two year", "DSL", 0)), 1e-12);
+    }
+
+    @Test
+    void predictProba_comparesFeaturesAsFloat32LikeSklearn() {
+        // (32 - 30) / 20 == 0.1 in double, but float32(0.1) > 0.1, so sklearn takes the right branch.
+        assertEquals(0.15, model.predictProba(request(40, 32, 70.0, "Two year", "DSL", 0)), 1e-12);
+    }
+
+    @Test
+    void floorToFloat_neverRoundsAboveThreshold() {
+        double t = 0.1;
+        float f = ForestModel.floorToFloat(t);
+        assertTrue(f <= t);
+        assertTrue(Math.nextUp(f) > t);
+    }
+
+    @Test
+    void load_rejectsUnsupportedFormatVersion() {
+        ByteBuffer buf = ForestModelWriter.encode(fixtureForest());
+        buf.putInt(4, 99);
+
+        IOException ex = assertThrows(IOException.class, () -> ForestModelLoader.read(buf));
+        assertTrue(ex.getMessage().contains("99"));
+    }
+
+    @Test
+    void load_rejectsTruncatedFile() {
+        ByteBuffer buf = ForestModelWriter.encode(fixtureForest());
+        buf.limit(buf.limit() - 4);
+
+        IOException ex = assertThrows(IOException.class, () -> ForestModelLoader.read(buf));
+        assertTrue(ex.getMessage().contains("truncated"));
+    }
+
+    @Test
+    void explain_decomposesScoreIntoFeatureContributionsAndCountsVotes() {
+        PredictRequest req = request(40, 10, 70.0, "Month-to-month", "DSL", 10);
+        ForestModel.Explanation explanation = new ForestModel.Explanation(model);
+
+        model.explain(req, explanation);
+
+        // Tree 1: paymentDelay 10 -> scaled 0.5 <= 0.5, left leaf 0.2. Tree 2: Month-to-month -> right leaf 0.8.
+        assertEquals(model.predictProba(req), explanation.score);
+        assertEquals(1, explanation.votes);
+        assertEquals(0.5, model.getBias(), 1e-12);
+        assertEquals(-0.15, explanation.contributions[ForestModel.FEATURES.indexOf("paymentDelay")], 1e-12);
+        assertEquals(0.15, explanation.contributions[ForestModel.FEATURES.indexOf("contract")], 1e-12);
+        assertEquals(0.0, explanation.contributions[ForestModel.FEATURES.indexOf("tenure")]);
+        double total = model.getBias();
+        for (double c : explanation.contributions) {
+            total += c;
+        }
+        assertEquals(explanation.score, total, 1e-12);
+    }
+
+    @Test
+    void sweep_matchesPredictProbaForEveryCell() {
+        ForestModel forest = randomForest(new Random(11), 25, 6);
+        PredictRequest base = request(40, 10, 70.0, "One year", "DSL", 5);
+        double[] tenures = new double[121];
+        for (int i = 0; i < tenures.length; i++) {
+            tenures[i] = i;
+        }
+        double[] charges = new double[201];
+        for (int i = 0; i < charges.length; i++) {
+            charges[i] = i * 0.5;
+        }
+        double[] scores = new double[tenures.length * charges.length];
+
+        forest.sweep(base, 1, tenures, 2, charges, scores);
+
+        for (int a = 0; a < tenures.length; a++) {
+            for (int b = 0; b < charges.length; b++) {
+                PredictRequest req = request(40, (int) tenures[a], charges[b], "One year", "DSL", 5);
+                assertEquals(forest.predictProba(req), scores[a * charges.length + b], "tenure " + a + ", charges " + charges[b]);
+            }
+        }
+    }
+
+    @Test
+    void sweep_singleFeature_followsBaseForFixedFeatures() {
+        double[] delays = {0, 5, 10, 11, 60};
+        double[] scores = new double[delays.length];
+
+        model.sweep(request(40, 0, 70.0, "Two year", "DSL", 0), 3, delays, -1, null, scores);
+
+        // Tree 2 is fixed at 0.6 (Two year, tenure 0); tree 1 flips to 0.9 once scaled delay exceeds 0.5 (delay > 10).
+        assertArrayEquals(new double[]{0.4, 0.4, 0.4, 0.75, 0.75}, scores, 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> model.sweep(request(40, 0, 70.0, "Two year", "DSL", 0), 4,
+                delays, -1, null, scores));
+    }
+
+    /** Random splits over every transformed column, so sweeps meet splits on fixed and swept features alike. */
+    private static ForestModel randomForest(Random random, int trees, int depth) {
+        List<ForestModel.Tree> built = new ArrayList<>();
+        int nodes = (1 << (depth + 1)) - 1;
+        for (int t = 0; t < trees; t++) {
+            int[] feature = new int[nodes];
+            double[] threshold = new double[nodes];
+            int[] left = new int[nodes];
+            int[] right = new int[nodes];
+            double[] value = new double[nodes];
+            for (int i = 0; i < nodes; i++) {
+                value[i] = random.nextDouble();
+                if (2 * i + 2 < nodes) {
+                    feature[i] = random.nextInt(9);
+                    threshold[i] = feature[i] < 4 ? random.nextGaussian() * 1.5 : 0.5;
+                    left[i] = 2 * i + 1;
+                    right[i] = 2 * i + 2;
+                } else {
+                    feature[i] = -2;
+                    threshold[i] = -2.0;
+                    left[i] = -1;
+                    right[i] = -1;
+                }
+            }
+            built.add(new ForestModel.Tree(feature, threshold, left, right, value));
+        }
+        return ForestModel.of("random",
+                new double[]{40.0, 24.0, 70.0, 0.0},
+                new double[]{40.0, 30.0, 70.0, 5.0},
+                new double[]{10.0, 20.0, 25.0, 10.0},
+                new String[]{"Month-to-month", "DSL"},
+                new String[][]{{"Month-to-month", "One year", "Two year"}, {"DSL", "Fiber optic"}},
+                built);
+    }
+
+    @Test
+    void predict_withTopK_returnsLargestContributionsAndRealVotes() throws IOException {
+        Path file = tempDir.resolve("explained.bin");
+        ForestModelWriter.write(fixtureForest(), file);
+        ChurnScoringService service = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(file.toString(), "native").pythonWorkers(0).cache(0, 0).explanationTopK(1));
+
+        PredictResponse res = service.predict(request(40, 0, 70.0, "Two year", "DSL", 30));
+
+        // paymentDelay 30 -> right leaf 0.9 (+0.4); Two year -> left, tenure 0 -> scaled -1.5 <= 0.1 -> 0.6 (+0.1).
+        assertEquals(0.75, res.getScore(), 1e-12);
+        assertEquals(2, res.getVotes());
+        assertEquals(1, res.getExplanation().size());
+        assertEquals("paymentDelay", res.getExplanation().get(0).getFeature());
+        assertEquals(0.2, res.getExplanation().get(0).getContribution(), 1e-12);
+        assertEquals("30 raises churn risk by 20.0 pts", res.getExplanation().get(0).getReason());
+        service.close();
+    }
+}
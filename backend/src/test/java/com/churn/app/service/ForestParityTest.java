@@ -0,0 +1,58 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Native forest vs ml/model_store.py on the same trained artifacts.
+ * Runs when train_rf.py has produced models/rf_pipeline.joblib and models/rf_forest.bin (as in CI).
+ */
+class ForestParityTest {
+
+    private ChurnScoringService nativeService;
+    private ChurnScoringService pythonService;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(Files.isRegularFile(Path.of("models/rf_pipeline.joblib")), "rf_pipeline.joblib not trained");
+        assumeTrue(Files.isRegularFile(Path.of(ChurnScoringService.DEFAULT_FOREST_PATH)), "rf_forest.bin not exported");
+        nativeService = new ChurnScoringService(
+                new ChurnScoringService.Options().forest(ChurnScoringService.DEFAULT_FOREST_PATH, "native"));
+        pythonService = new ChurnScoringService(
+                new ChurnScoringService.Options().forest(ChurnScoringService.DEFAULT_FOREST_PATH, "python"));
+    }
+
+    @Test
+    void nativeScores_matchPythonPipeline() {
+        String[] contracts = {"Month-to-month", "One year", "Two year"};
+        String[] internet = {"DSL", "Fiber optic", "None"};
+        int i = 0;
+        for (String contract : contracts) {
+            for (String service : internet) {
+                PredictRequest req = new PredictRequest();
+                req.setAge(18 + (i * 7) % 60);
+                req.setTenure((i * 11) % 73);
+                req.setMonthlyCharges(25.0 + (i * 9.7) % 95);
+                req.setContract(contract);
+                req.setInternetService(service);
+                req.setPaymentDelay((i * 13) % 61);
+                i++;
+
+                PredictResponse expected = pythonService.predict(req);
+                PredictResponse actual = nativeService.predict(req);
+
+                assertEquals(expected.getScore(), actual.getScore(), 1e-9, "score for " + contract + "/" + service);
+                assertEquals(expected.getLabel(), actual.getLabel());
+                assertEquals(expected.getModelVersion(), actual.getModelVersion());
+            }
+        }
+    }
+}
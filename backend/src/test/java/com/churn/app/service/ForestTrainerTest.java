@@ -0,0 +1,107 @@
+package com.churn.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForestTrainerTest {
+
+    private static final Path SAMPLE_CSV = Path.of("data/telecom_churn_sample.csv");
+
+    @TempDir
+    Path tempDir;
+
+    private static int[] allRows(ColumnarDataset data) {
+        return IntStream.range(0, data.getRows()).toArray();
+    }
+
+    private ColumnarDataset csv(String name, String text) throws IOException {
+        return ColumnarDataset.read(Files.writeString(tempDir.resolve(name), text));
+    }
+
+    @Test
+    void train_sameSeed_givesSameForestOnAnyNumberOfThreads() throws IOException {
+        ColumnarDataset data = ColumnarDataset.read(SAMPLE_CSV);
+        int[] rows = allRows(data);
+
+        ForestTrainer.Result single = new ForestTrainer(24, 256, 0, 1, 42, 1).train(data, rows, "v1");
+        ForestTrainer.Result parallel = new ForestTrainer(24, 256, 0, 1, 42, 4).train(data, rows, "v1");
+
+        assertEquals(24, single.forest.getTreeCount());
+        assertEquals(single.forest.getNodeCount(), parallel.forest.getNodeCount());
+        assertArrayEquals(single.importances, parallel.importances);
+        double[] scores = new double[rows.length];
+        double[] parallelScores = new double[rows.length];
+        single.forest.predictProba(data, rows, scores);
+        parallel.forest.predictProba(data, rows, parallelScores);
+        assertArrayEquals(scores, parallelScores);
+        int correct = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if ((scores[row] > 0.5) == (data.label(row) == 1)) {
+                correct++;
+            }
+        }
+        // Fully grown bagged trees fit their own training rows almost perfectly.
+        assertTrue(correct > 0.95 * rows.length, "training accuracy " + correct + "/" + rows.length);
+        assertEquals(1.0, Arrays.stream(single.importances).sum(), 1e-9);
+        assertEquals("contract_Month-to-month", single.featureNames.get(4));
+    }
+
+    @Test
+    void train_writesForestThatLoadsAndScoresTheSame() throws IOException {
+        ColumnarDataset data = ColumnarDataset.read(SAMPLE_CSV);
+        ForestTrainer.Result result = new ForestTrainer(8, 64, 6, 2, 7, 2).train(data, allRows(data), "binned");
+        Path file = tempDir.resolve("rf_forest.bin");
+
+        ForestModelWriter.write(result.forest, file);
+        ForestModel loaded = ForestModelLoader.load(file);
+
+        ModelRegistry.validate(loaded);
+        assertEquals("binned", loaded.getModelVersion());
+        int[] rows = IntStream.range(0, data.getRows()).filter(row -> row % 7 == 0).toArray();
+        double[] expected = new double[rows.length];
+        double[] actual = new double[rows.length];
+        result.forest.predictProba(data, rows, expected);
+        loaded.predictProba(data, rows, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void train_splitsMidwayBetweenObservedValuesAndImputesMissingCells() throws IOException {
+        StringBuilder text = new StringBuilder("age,tenure,monthlyCharges,contract,internetService,paymentDelay,Churn\n");
+        for (int i = 0; i < 200; i++) {
+            boolean churn = i % 2 == 0;
+            text.append(churn ? 30 : 50).append(",12,").append(i == 1 ? "" : "70.0").append(",Month-to-month,")
+                    .append(i == 3 ? "" : "DSL").append(",0,").append(churn ? "Yes" : "No").append('\n');
+        }
+        ColumnarDataset data = csv("toy.csv", text.toString());
+
+        ForestTrainer.Result result = new ForestTrainer(10, 256, 0, 1, 42, 2).train(data, allRows(data), "toy");
+
+        // Only age varies, so every tree splits on it halfway between 30 and 50.
+        ColumnarDataset probe = csv("probe.csv", "age,tenure,monthlyCharges,contract,internetService,paymentDelay\n"
+                + "39,12,70,Month-to-month,DSL,0\n41,12,70,Month-to-month,DSL,0\n");
+        double[] scores = new double[2];
+        result.forest.predictProba(probe, new int[]{0, 1}, scores);
+        assertArrayEquals(new double[]{1.0, 0.0}, scores);
+        assertEquals(70.0, result.forest.numericMedians[2]);
+        assertEquals("DSL", result.forest.categoricalMostFrequent[1]);
+        assertEquals(1.0, result.importances[0], 1e-12);
+    }
+
+    @Test
+    void train_rejectsSingleClassAndUnlabelledData() throws IOException {
+        String header = "age,tenure,monthlyCharges,contract,internetService,paymentDelay";
+        ColumnarDataset data = csv("one.csv", header + ",Churn\n1,1,1,One year,DSL,1\n2,2,2,Two year,DSL,2\n");
+        assertThrows(IllegalArgumentException.class, () -> new ForestTrainer(2, 16, 0, 1, 1, 1).train(data, new int[]{0, 1}, "x"));
+        ColumnarDataset unlabelled = csv("none.csv", header + "\n1,1,1,One year,DSL,1\n2,2,2,Two year,DSL,2\n");
+        assertThrows(IllegalArgumentException.class, () -> new ForestTrainer(2, 16, 0, 1, 1, 1).train(unlabelled, new int[]{0, 1}, "x"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.LabelledOutcome;
+import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.exception.PredictionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelMetricsServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String metrics(String version, String feature) {
+        return "{\"model\":{\"version\":\"" + version + "\"},\"kpis\":{\"accuracy\":0.9},"
+                + "\"featureImportance\":[{\"feature\":\"" + feature + "\",\"importance\":0.5}]}";
+    }
+
+    private static void replace(Path target, String content) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(tmp, content);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void getMetrics_reusesSnapshotUntilFileIsReplaced() throws IOException {
+        Path file = tempDir.resolve("metrics.json");
+        replace(file, metrics("v1", "tenure"));
+        ModelMetricsService service = new ModelMetricsService(file.toString());
+
+        PrecomputedJson first = service.getMetricsJson();
+        assertSame(first, service.getMetricsJson());
+        assertSame(service.getMetrics(), service.getMetrics());
+        assertEquals("v1", service.getMetrics().getModel().getVersion());
+
+        replace(file, metrics("v2", "paymentDelay"));
+
+        assertEquals("v2", service.getMetrics().getModel().getVersion());
+        assertNotEquals(first.getEtag(), service.getMetricsJson().getEtag());
+        assertEquals("paymentDelay", service.getFeatureImportance().get(0).getFeature());
+        assertThrows(UnsupportedOperationException.class, () -> service.getFeatureImportance().clear());
+    }
+
+    @Test
+    void getFeatureImportanceJson_isEmptyListWhenMetricsInvalid() throws IOException {
+        Path file = tempDir.resolve("metrics.json");
+        Files.writeString(file, "{not json");
+        ModelMetricsService service = new ModelMetricsService(file.toString());
+
+        assertThrows(IllegalStateException.class, service::getMetrics);
+        assertEquals("[]", new String(service.getFeatureImportanceJson().getJson()));
+    }
+
+    @Test
+    void getMetrics_servesLiveEvaluationOnceWindowHasEnoughOutcomes() throws IOException {
+        Path file = tempDir.resolve("metrics.json");
+        replace(file, metrics("v1", "tenure"));
+        OutcomeEvaluator evaluator = new OutcomeEvaluator(100, 3_600_000, 12, 4, () -> 1_800_000_000_000L);
+        ModelMetricsService service = new ModelMetricsService(file.toString(), null, evaluator, 0);
+
+        service.recordOutcomes(List.of(new LabelledOutcome(0.9, true), new LabelledOutcome(0.2, false),
+                new LabelledOutcome(0.7, false)));
+        assertEquals(0.9, service.getMetrics().getKpis().getAccuracy());
+        PrecomputedJson fileJson = service.getMetricsJson();
+
+        service.recordOutcomes(List.of(new LabelledOutcome(0.6, true)));
+        ModelMetricsResponse live = service.getMetrics();
+
+        assertEquals(4, live.getKpis().getSamples());
+        assertEquals(0.75, live.getKpis().getAccuracy());
+        assertEquals(List.of(List.of(1, 1), List.of(0, 2)), live.getConfusionMatrix().getMatrix());
+        assertEquals("v1", live.getModel().getVersion());
+        assertEquals("tenure", live.getFeatureImportance().get(0).getFeature());
+        assertNotEquals(fileJson.getEtag(), service.getMetricsJson().getEtag());
+        assertSame(service.getMetricsJson(), service.getMetricsJson());
+
+        PredictionException e = assertThrows(PredictionException.class,
+                () -> service.recordOutcomes(List.of(new LabelledOutcome(0.5, true), new LabelledOutcome(1.5, false))));
+        assertEquals(400, e.getStatusCode());
+        assertEquals(4, service.getMetrics().getKpis().getSamples());
+    }
+}
@@ -0,0 +1,84 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path forestPath;
+    private ModelRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        forestPath = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-1"), forestPath);
+        registry = new ModelRegistry(forestPath, ChurnScoringService.Engine.NATIVE, false, 0, 0, new PredictionMetrics());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    private static PredictRequest request() {
+        return TestRequests.request(40, 30, 70.0, "Month-to-month", "DSL", 20);
+    }
+
+    private void awaitVersion(String version) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!version.equals(registry.active().forest.getModelVersion()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(version, registry.active().forest.getModelVersion());
+    }
+
+    @Test
+    void watch_swapsInNewExportWhileOldSnapshotKeepsScoring() throws Exception {
+        registry.watch(Duration.ofMillis(50));
+        ModelRegistry.Active inFlight = registry.active();
+
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-2"), forestPath);
+        awaitVersion("fixture-2");
+
+        assertEquals("fixture-1", inFlight.forest.getModelVersion());
+        assertEquals(0.85, inFlight.forest.predictProba(request()), 1e-12);
+        assertEquals(0.85, registry.active().forest.predictProba(request()), 1e-12);
+    }
+
+    @Test
+    void reload_keepsCurrentModelWhenExportIsInvalid() throws IOException {
+        Path bad = tempDir.resolve("bad.bin");
+        Files.write(bad, new byte[]{'C', 'H', 'R', 'F', 1, 0, 0, 0});
+        Files.move(bad, forestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertFalse(registry.reload());
+        assertEquals("fixture-1", registry.active().forest.getModelVersion());
+    }
+
+    @Test
+    void scoringService_reportsVersionOfModelThatProducedTheScore() throws IOException {
+        ChurnScoringService service = new ChurnScoringService(
+                new ChurnScoringService.Options().forest(forestPath.toString(), "native"));
+        assertEquals("fixture-1", service.predict(request()).getModelVersion());
+
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-2"), forestPath);
+        assertTrue(service.reloadModel());
+
+        assertEquals("fixture-2", service.predict(request()).getModelVersion());
+        assertEquals("fixture-2", service.getCacheStats().getModelVersion());
+    }
+}
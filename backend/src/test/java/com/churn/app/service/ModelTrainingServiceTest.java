@@ -0,0 +1,169 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ModelMetricsResponse;
+import com.churn.app.dto.TrainingStatus;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelTrainingServiceTest {
+
+    private static final String SAMPLE_CSV = "data/telecom_churn_sample.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private ModelTrainingService service(boolean enabled, String csv) {
+        return service(enabled, csv, "auto");
+    }
+
+    private ModelTrainingService service(boolean enabled, String csv, String scoringEngine) {
+        return new ModelTrainingService(enabled, csv, tempDir.resolve("models/rf_forest.bin").toString(), scoringEngine,
+                tempDir.resolve("models/metrics.json").toString(), 20, 256, 0, 1, 0.2, 42, 2, "");
+    }
+
+    @Test
+    void train_writesForestAndMetricsInTrainScriptFormat() throws IOException {
+        ModelTrainingService service = service(true, SAMPLE_CSV);
+
+        ModelTrainingService.Run run = service.train(Path.of(SAMPLE_CSV), "2026-01-01T00:00:00Z");
+
+        assertEquals(640, run.trainRows);
+        ForestModel forest = ForestModelLoader.load(tempDir.resolve("models/rf_forest.bin"));
+        assertEquals("2026-01-01T00:00:00Z", forest.getModelVersion());
+        assertEquals(20, forest.getTreeCount());
+        DriftBaseline baseline = DriftBaseline.read(tempDir.resolve("models/" + DriftBaseline.FILE_NAME), new ObjectMapper());
+        assertEquals("2026-01-01T00:00:00Z", baseline.modelVersion);
+        assertEquals(640, Arrays.stream(baseline.numeric.get("age").counts).sum());
+        assertEquals(160, Arrays.stream(baseline.numeric.get(DriftBaseline.SCORE).counts).sum());
+
+        JsonNode json = new ObjectMapper().readTree(tempDir.resolve("models/metrics.json").toFile());
+        assertEquals("2026-01-01T00:00:00Z", json.get("model_version").asText());
+        ModelMetricsResponse metrics = new ModelMetricsService(tempDir.resolve("models/metrics.json").toString()).getMetrics();
+        assertEquals(ModelTrainingService.MODEL_NAME, metrics.getModel().getName());
+        assertEquals("telecom_churn_sample.csv", metrics.getModel().getDataset());
+        assertEquals(160, metrics.getKpis().getSamples());
+        assertTrue(metrics.getKpis().getRocAuc() > 0.5);
+        List<List<Integer>> matrix = metrics.getConfusionMatrix().getMatrix();
+        assertEquals(160, matrix.get(0).get(0) + matrix.get(0).get(1) + matrix.get(1).get(0) + matrix.get(1).get(1));
+        assertEquals(0.0, metrics.getRocCurve().get(0).getFpr());
+        assertEquals(1.0, metrics.getRocCurve().get(metrics.getRocCurve().size() - 1).getTpr());
+        assertTrue(metrics.getFeatureImportance().size() <= 15);
+        service.close();
+    }
+
+    @Test
+    void train_withSpillDir_writesTheSameFilesAndDeletesItsTempFile() throws IOException {
+        Path spillDir = tempDir.resolve("spill");
+        ModelTrainingService heap = service(true, SAMPLE_CSV);
+        ModelTrainingService paged = new ModelTrainingService(true, SAMPLE_CSV,
+                tempDir.resolve("paged/rf_forest.bin").toString(), "auto", tempDir.resolve("paged/metrics.json").toString(),
+                20, 256, 0, 1, 0.2, 42, 2, spillDir.toString());
+
+        heap.train(Path.of(SAMPLE_CSV), "v1");
+        paged.train(Path.of(SAMPLE_CSV), "v1");
+
+        for (String file : List.of("rf_forest.bin", DriftBaseline.FILE_NAME, "metrics.json")) {
+            assertArrayEquals(Files.readAllBytes(tempDir.resolve("models").resolve(file)),
+                    Files.readAllBytes(tempDir.resolve("paged").resolve(file)), file);
+        }
+        try (Stream<Path> left = Files.list(spillDir)) {
+            assertEquals(0, left.count());
+        }
+        heap.close();
+        paged.close();
+    }
+
+    @Test
+    void evaluate_matchesSklearnDefinitions() {
+        ModelMetricsResponse metrics = ModelTrainingService.evaluate(new double[]{0.9, 0.8, 0.7, 0.6, 0.4, 0.4},
+                new byte[]{1, 0, 1, 0, 1, 0}, 0.5);
+
+        // Positive/negative pairs ranked correctly: 0.9 beats 3, 0.7 beats 2, the 0.4 tie counts half.
+        assertEquals(0.6111, metrics.getKpis().getRocAuc());
+        assertEquals(0.5, metrics.getKpis().getAccuracy());
+        assertEquals(0.5714, metrics.getKpis().getF1());
+        assertEquals(0.5, metrics.getKpis().getPrecision());
+        assertEquals(0.6667, metrics.getKpis().getRecall());
+        assertEquals(List.of(List.of(1, 2), List.of(1, 2)), metrics.getConfusionMatrix().getMatrix());
+        assertEquals(6, metrics.getRocCurve().size());
+    }
+
+    @Test
+    void stratifiedSplit_keepsChurnRateOnBothSides() {
+        byte[] labels = new byte[1000];
+        for (int i = 0; i < 300; i++) {
+            labels[i * 3] = 1;
+        }
+        int[][] split = ModelTrainingService.stratifiedSplit(labels, 0.2, 42);
+
+        assertEquals(800, split[0].length);
+        assertEquals(200, split[1].length);
+        assertEquals(60, Arrays.stream(split[1]).filter(i -> labels[i] == 1).count());
+    }
+
+    @Test
+    void start_runsInBackgroundAndRejectsWhenDisabled() throws InterruptedException {
+        PredictionException disabled = assertThrows(PredictionException.class, () -> service(false, SAMPLE_CSV).start());
+        assertEquals(403, disabled.getStatusCode());
+
+        ModelTrainingService service = service(true, tempDir.resolve("missing.csv").toString());
+        assertEquals("running", service.start().getState());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        TrainingStatus status = service.getStatus();
+        while ("running".equals(status.getState()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.getStatus();
+        }
+        assertEquals("failed", status.getState());
+        assertTrue(status.getError().startsWith("CSV not found"));
+        service.close();
+    }
+
+    @Test
+    void start_withPythonEngine_isRejectedAndWritesNothing() {
+        ModelTrainingService service = service(true, SAMPLE_CSV, "python");
+
+        PredictionException ex = assertThrows(PredictionException.class, service::start);
+
+        assertEquals(403, ex.getStatusCode());
+        assertEquals("idle", service.getStatus().getState());
+        assertFalse(Files.exists(tempDir.resolve("models/metrics.json")));
+        service.close();
+    }
+
+    @Test
+    void start_afterAnErrorInTraining_isNotStuckRunning() throws InterruptedException {
+        ModelTrainingService service = new ModelTrainingService(true, SAMPLE_CSV,
+                tempDir.resolve("models/rf_forest.bin").toString(), "auto", tempDir.resolve("models/metrics.json").toString(),
+                20, 256, 0, 1, 0.2, 42, 2, "") {
+            @Override
+            Run train(Path csv, String modelVersion) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        };
+        service.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        TrainingStatus status = service.getStatus();
+        while ("running".equals(status.getState()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.getStatus();
+        }
+        assertEquals("failed", status.getState());
+        assertEquals("Java heap space", status.getError());
+        assertEquals("running", service.start().getState());
+        service.close();
+    }
+}
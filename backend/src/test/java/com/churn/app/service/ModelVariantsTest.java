@@ -0,0 +1,188 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ModelVariantStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelVariantsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path primary;
+    private Path candidate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = tempDir.resolve("rf_forest.bin");
+        candidate = tempDir.resolve("candidate.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-1"), primary);
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-2"), candidate);
+    }
+
+    private static PredictRequest request(int paymentDelay) {
+        return TestRequests.request(40, 0, 70.0, "Two year", "DSL", paymentDelay);
+    }
+
+    private static ModelVariantStats awaitShadowScored(ModelVariants variants, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ModelVariantStats stats = variants.getStats().get(0);
+        while (stats.getShadowScored() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = variants.getStats().get(0);
+        }
+        return stats;
+    }
+
+    @Test
+    void predict_withFullTrafficShare_isAnsweredByVariant() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "v2=1.0", "", 1.0, 1, 16, metrics);
+        ChurnScoringService service = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(primary.toString(), "native").pythonWorkers(0).cache(64, 0)
+                .metrics(metrics).variants(variants));
+
+        PredictResponse res = service.predict(request(30));
+
+        assertEquals("fixture-2", res.getModelVersion());
+        assertEquals(0.75, res.getScore(), 1e-12);
+        assertEquals(1, variants.getStats().get(0).getRouted());
+        // Batches always go to the primary model.
+        assertEquals("fixture-1", service.predictBatch(List.of(request(30))).get(0).getModelVersion());
+        StringBuilder scrape = new StringBuilder();
+        metrics.scrape(scrape);
+        assertTrue(scrape.toString().contains("churn_model_inference_seconds_count{model=\"v2\"} 1"));
+        service.close();
+        variants.close();
+    }
+
+    @Test
+    void shadow_comparesScoresOffTheCallerThread() throws InterruptedException {
+        PredictionMetrics metrics = new PredictionMetrics();
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "", "v2", 1.0, 1, 16, metrics);
+        assertNull(variants.route(request(30)));
+
+        // The candidate scores 0.75 (CHURN); the first served answer is far off and on the other side of 0.5.
+        variants.shadow(request(30), new PredictResponse(PredictionCodec.NO_CHURN, 0.3, 0, List.of()));
+        variants.shadow(request(30), new PredictResponse(PredictionCodec.CHURN, 0.75, 2, List.of()));
+        ModelVariantStats stats = awaitShadowScored(variants, 2);
+
+        assertTrue(stats.isShadow());
+        assertEquals("fixture-2", stats.getModelVersion());
+        assertEquals(2, stats.getShadowScored());
+        assertEquals(1, stats.getDisagreements());
+        assertEquals(0.225, stats.getMeanAbsDelta(), 1e-12);
+        assertEquals(0.45, stats.getMaxAbsDelta(), 1e-12);
+        StringBuilder scrape = new StringBuilder();
+        metrics.scrape(scrape);
+        assertTrue(scrape.toString().contains("churn_shadow_disagreements_total{model=\"v2\"} 1"));
+        variants.close();
+    }
+
+    @Test
+    void shadow_whenQueueIsFull_dropsInsteadOfBlocking() throws InterruptedException {
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "", "v2", 1.0, 1, 1, new PredictionMetrics());
+        CountDownLatch release = new CountDownLatch(1);
+        List<PredictResponse> blocking = new AbstractList<>() {
+            @Override
+            public PredictResponse get(int index) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new PredictResponse(PredictionCodec.CHURN, 0.75, 2, List.of());
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+
+        variants.shadow(List.of(request(30)), blocking);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (variants.getShadowQueueDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        variants.shadow(List.of(request(30)), blocking);
+        variants.shadow(request(30), new PredictResponse(PredictionCodec.CHURN, 0.75, 2, List.of()));
+
+        assertEquals(1, variants.getShadowQueueDepth());
+        assertEquals(1, variants.getStats().get(0).getShadowDropped());
+        release.countDown();
+        assertEquals(2, awaitShadowScored(variants, 2).getShadowScored());
+        variants.close();
+    }
+
+    @Test
+    void constructor_rejectsBadTrafficAndSkipsUnloadableVariants() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        assertThrows(IllegalArgumentException.class,
+                () -> new ModelVariants("a=" + primary + ",b=" + candidate, "a=0.6,b=0.5", "", 1.0, 1, 1, metrics));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ModelVariants("a=" + primary, "c=0.1", "", 1.0, 1, 1, metrics));
+        assertThrows(IllegalArgumentException.class, () -> new ModelVariants("a", "", "", 1.0, 1, 1, metrics));
+
+        ModelVariants variants = new ModelVariants("gone=" + tempDir.resolve("missing.bin") + ",v2=" + candidate,
+                "gone=0.5", "gone", 1.0, 1, 1, metrics);
+        assertEquals(1, variants.getStats().size());
+        assertEquals("v2", variants.getStats().get(0).getName());
+        assertNull(variants.route(request(30)));
+        assertEquals(0, variants.getShadowQueueDepth());
+        variants.close();
+    }
+
+    @Test
+    void route_isStickyPerRequestAndSplitsDistinctRequestsByShare() {
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "v2=0.25", "", 1.0, 1, 16, new PredictionMetrics());
+        PredictRequest req = request(30);
+        ModelVariants.Variant first = variants.route(req);
+        for (int i = 0; i < 20; i++) {
+            assertSame(first, variants.route(request(30)));
+        }
+
+        int routed = 0;
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            PredictRequest other = request(i % 64);
+            other.setTenure(i / 64 % 128);
+            other.setAge(18 + i / 8192);
+            if (variants.route(other) != null) {
+                routed++;
+            }
+        }
+        assertEquals(0.25, (double) routed / n, 0.02);
+        variants.close();
+    }
+
+    @Test
+    void predictCoalesced_routesLikeSinglePredictions() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "v2=1.0", "", 1.0, 1, 16, metrics);
+        ChurnScoringService service = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(primary.toString(), "native").pythonWorkers(0).cache(64, 0)
+                .metrics(metrics).variants(variants));
+
+        PredictResponse[] responses = new PredictResponse[2];
+        service.predictCoalesced(List.of(request(30), request(0)), responses);
+
+        assertEquals("fixture-2", responses[0].getModelVersion());
+        assertEquals("fixture-2", responses[1].getModelVersion());
+        assertEquals(service.predict(request(30)).getScore(), responses[0].getScore(), 1e-12);
+        service.close();
+        variants.close();
+    }
+}
@@ -0,0 +1,92 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.ModelMetricsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutcomeEvaluatorTest {
+
+    @Test
+    void evaluate_matchesSortedEvaluationWhenTreeCountDividesBins() {
+        // A 20-tree forest scores in multiples of 1/20, so each distinct score has its own bin out of 1000.
+        SplittableRandom random = new SplittableRandom(7);
+        int n = 5000;
+        double[] scores = new double[n];
+        byte[] labels = new byte[n];
+        OutcomeEvaluator evaluator = new OutcomeEvaluator(1000, 60_000, 6, 1, () -> 0L);
+        for (int i = 0; i < n; i++) {
+            labels[i] = (byte) (random.nextDouble() < 0.3 ? 1 : 0);
+            int votes = Math.min(20, Math.max(0, (int) Math.round(random.nextGaussian() * 4 + (labels[i] == 1 ? 13 : 7))));
+            scores[i] = votes / 20.0;
+            evaluator.record(scores[i], labels[i] == 1);
+        }
+
+        ModelMetricsResponse live = evaluator.evaluate();
+        ModelMetricsResponse sorted = ModelTrainingService.evaluate(scores, labels, live.getKpis().getChurnRate());
+
+        assertEquals(sorted.getKpis().getAccuracy(), live.getKpis().getAccuracy());
+        assertEquals(sorted.getKpis().getF1(), live.getKpis().getF1());
+        assertEquals(sorted.getKpis().getRocAuc(), live.getKpis().getRocAuc());
+        assertEquals(sorted.getKpis().getPrecision(), live.getKpis().getPrecision());
+        assertEquals(sorted.getConfusionMatrix().getMatrix(), live.getConfusionMatrix().getMatrix());
+        assertEquals(sorted.getRocCurve().size(), live.getRocCurve().size());
+        for (int k = 0; k < sorted.getRocCurve().size(); k++) {
+            assertEquals(sorted.getRocCurve().get(k).getFpr(), live.getRocCurve().get(k).getFpr());
+            assertEquals(sorted.getRocCurve().get(k).getTpr(), live.getRocCurve().get(k).getTpr());
+        }
+        assertEquals(n, live.getKpis().getSamples());
+    }
+
+    @Test
+    void evaluate_splitsExactlyAtHalf() {
+        OutcomeEvaluator evaluator = new OutcomeEvaluator(10, 60_000, 6, 1, () -> 0L);
+        evaluator.record(0.5, true);
+        evaluator.record(Math.nextDown(0.5), true);
+        evaluator.record(0.0, false);
+        evaluator.record(1.0, false);
+
+        ModelMetricsResponse metrics = evaluator.evaluate();
+
+        // Actual NO_CHURN row: 0.0 -> NO_CHURN, 1.0 -> CHURN; actual CHURN row: just below 0.5 -> NO_CHURN, and 0.5
+        // itself -> CHURN, the label the service returns for it.
+        assertEquals(List.of(List.of(1, 1), List.of(1, 1)), metrics.getConfusionMatrix().getMatrix());
+        assertEquals(0.5, metrics.getKpis().getPrecision());
+        assertEquals(0.5, metrics.getKpis().getRecall());
+        assertEquals(4, evaluator.getVersion());
+    }
+
+    @Test
+    void evaluate_dropsSlicesOlderThanTheWindowAndWaitsForMinSamples() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        OutcomeEvaluator evaluator = new OutcomeEvaluator(100, 60_000, 6, 3, now::get);
+        evaluator.record(0.9, true);
+        evaluator.record(0.1, false);
+        assertNull(evaluator.evaluate());
+
+        now.addAndGet(30_000);
+        evaluator.record(0.8, true);
+        assertEquals(3, evaluator.evaluate().getKpis().getSamples());
+
+        // 60 s after the first two, their slice has left the window; the third remains.
+        now.addAndGet(30_000);
+        evaluator.record(0.2, false);
+        evaluator.record(0.7, true);
+        ModelMetricsResponse metrics = evaluator.evaluate();
+        assertEquals(3, metrics.getKpis().getSamples());
+        assertEquals(1.0, metrics.getKpis().getRocAuc());
+        assertEquals(0.6667, metrics.getKpis().getChurnRate());
+
+        now.addAndGet(120_000);
+        assertNull(evaluator.evaluate());
+    }
+
+    @Test
+    void constructor_rejectsOddBins() {
+        assertThrows(IllegalArgumentException.class, () -> new OutcomeEvaluator(999, 60_000, 6, 1, () -> 0L));
+    }
+}
@@ -0,0 +1,114 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.CacheStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.churn.app.service.TestRequests.request;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void key_isDistinctPerFeatureAndRejectsUnpackableValues() {
+        long base = PredictionCache.key(request(40, 12, 70.25, "One year", "DSL", 5));
+        assertNotEquals(PredictionCache.NO_KEY, base);
+        assertEquals(base, PredictionCache.key(request(40, 12, 70.25, "One year", "DSL", 5)));
+        assertNotEquals(base, PredictionCache.key(request(41, 12, 70.25, "One year", "DSL", 5)));
+        assertNotEquals(base, PredictionCache.key(request(40, 13, 70.25, "One year", "DSL", 5)));
+        assertNotEquals(base, PredictionCache.key(request(40, 12, 70.26, "One year", "DSL", 5)));
+        assertNotEquals(base, PredictionCache.key(request(40, 12, 70.25, "Two year", "DSL", 5)));
+        assertNotEquals(base, PredictionCache.key(request(40, 12, 70.25, "One year", "None", 5)));
+        assertNotEquals(base, PredictionCache.key(request(40, 12, 70.25, "One year", "DSL", 6)));
+
+        assertEquals(PredictionCache.NO_KEY, PredictionCache.key(request(40, 12, 70.255, "One year", "DSL", 5)));
+        assertEquals(PredictionCache.NO_KEY, PredictionCache.key(request(40, 12, 70.0, "Weekly", "DSL", 5)));
+        assertEquals(PredictionCache.NO_KEY, PredictionCache.key(request(200, 12, 70.0, "One year", "DSL", 5)));
+    }
+
+    @Test
+    void get_returnsScoreOnlyForSameModelVersionAndInvalidatesOnChange() {
+        PredictionCache cache = new PredictionCache(16, 60_000);
+        long key = PredictionCache.key(request(40, 12, 70.0, "One year", "DSL", 5));
+
+        assertTrue(Double.isNaN(cache.get(key, "v1")));
+        cache.put(key, "v1", 0.42);
+        assertEquals(0.42, cache.get(key, "v1"));
+
+        assertTrue(Double.isNaN(cache.get(key, "v2")));
+        CacheStats stats = cache.getStats();
+        assertEquals(0, stats.getEntries());
+        assertEquals("v2", stats.getModelVersion());
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void put_evictsOldestEntryWhenSetIsFullAndExpiresAfterTtl() throws InterruptedException {
+        PredictionCache cache = new PredictionCache(2, 60_000);
+        for (int tenure = 0; tenure < 5; tenure++) {
+            cache.put(PredictionCache.key(request(40, tenure, 70.0, "One year", "DSL", 5)), "v1", tenure / 10.0);
+        }
+        assertEquals(3, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getEntries());
+
+        PredictionCache shortLived = new PredictionCache(16, 1);
+        long key = PredictionCache.key(request(40, 12, 70.0, "One year", "DSL", 5));
+        shortLived.put(key, "v1", 0.5);
+        Thread.sleep(5);
+        assertTrue(Double.isNaN(shortLived.get(key, "v1")));
+        assertEquals(1, shortLived.getStats().getExpirations());
+    }
+
+    @Test
+    void scoringService_servesRepeatedRequestsFromCache() throws IOException {
+        Path forest = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest(), forest);
+        ChurnScoringService service = new ChurnScoringService(
+                new ChurnScoringService.Options().forest(forest.toString(), "native"));
+        PredictRequest req = request(40, 30, 70.0, "Month-to-month", "DSL", 20);
+
+        double first = service.predict(req).getScore();
+        double second = service.predict(req).getScore();
+        List<Double> batch = service.predictBatch(List.of(req, request(40, 30, 70.0, "Two year", "DSL", 0)))
+                .stream().map(r -> r.getScore()).toList();
+
+        assertEquals(0.85, first, 1e-12);
+        assertEquals(first, second);
+        assertEquals(List.of(first, 0.4), batch);
+        CacheStats stats = service.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals("fixture-1", stats.getModelVersion());
+    }
+
+    @Test
+    void scoringService_cachesExplainedAnswersOfSinglePredictions() throws IOException {
+        Path forest = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest(), forest);
+        ChurnScoringService service = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(forest.toString(), "native").pythonWorkers(0).cache(64, 60_000).explanationTopK(1));
+        PredictRequest req = request(40, 0, 70.0, "Two year", "DSL", 30);
+
+        PredictResponse first = service.predict(req);
+        PredictResponse second = service.predict(req);
+        double batch = service.predictBatch(List.of(req)).get(0).getScore();
+
+        assertEquals(1, first.getExplanation().size());
+        assertSame(first, second);
+        assertEquals(first.getScore(), batch);
+        CacheStats stats = service.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        service.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.CoalescerStats;
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionCoalescerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChurnScoringService scoring;
+    private PredictionCoalescer coalescer;
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path forest = tempDir.resolve("rf_forest.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest(), forest);
+        scoring = new ChurnScoringService(new ChurnScoringService.Options().forest(forest.toString(), "native"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+        callers.shutdownNow();
+    }
+
+    private static PredictRequest request(int tenure, String contract, int paymentDelay) {
+        return TestRequests.request(40, tenure, 70.0, contract, "DSL", paymentDelay);
+    }
+
+    private List<PredictResponse> predictConcurrently(List<PredictRequest> requests) {
+        List<CompletableFuture<PredictResponse>> futures = new ArrayList<>();
+        for (PredictRequest req : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> coalescer.predict(req), callers));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static List<PredictRequest> sampleRequests(int n) {
+        List<PredictRequest> requests = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            requests.add(request(i, i % 2 == 0 ? "Month-to-month" : "Two year", i % 3 == 0 ? 20 : 0));
+        }
+        return requests;
+    }
+
+    @Test
+    void predict_coalescesConcurrentCallsAndCompletesEachWithItsOwnScore() {
+        coalescer = new PredictionCoalescer(scoring, true, 50, 8, 100, 1, 5_000, false);
+        List<PredictRequest> requests = sampleRequests(16);
+
+        List<PredictResponse> responses = predictConcurrently(requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(scoring.predict(requests.get(i)).getScore(), responses.get(i).getScore(), 1e-12);
+        }
+        CoalescerStats stats = coalescer.getStats();
+        assertEquals(16, stats.getRows());
+        assertTrue(stats.getBatches() < 16, "expected some requests to share a batch");
+        assertEquals(stats.getBatches(), stats.getBatchSizeHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    void predict_failedBatchFallsBackToScoringRowsIndividually() {
+        ChurnScoringService failingBatch = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(tempDir.resolve("rf_forest.bin").toString(), "native")) {
+            @Override
+            public List<PredictResponse> predictBatch(List<PredictRequest> requests) {
+                if (requests.size() > 1) {
+                    throw new PredictionException("batch failed", 500);
+                }
+                return super.predictBatch(requests);
+            }
+        };
+        coalescer = new PredictionCoalescer(failingBatch, true, 50, 8, 100, 1, 5_000, false);
+        List<PredictRequest> requests = sampleRequests(6);
+
+        List<PredictResponse> responses = predictConcurrently(requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(scoring.predict(requests.get(i)).getScore(), responses.get(i).getScore(), 1e-12);
+        }
+    }
+
+    @Test
+    void predict_failedBatchDoesNotRecordRoutedRowsTwice() throws IOException {
+        Path candidate = tempDir.resolve("candidate.bin");
+        ForestModelWriter.write(ForestModelTest.fixtureForest("fixture-2"), candidate);
+        PredictionMetrics metrics = new PredictionMetrics();
+        ModelVariants variants = new ModelVariants("v2=" + candidate, "v2=0.5", "", 1.0, 1, 16, metrics);
+        ChurnScoringService failingBatch = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(tempDir.resolve("rf_forest.bin").toString(), "native").metrics(metrics).variants(variants)) {
+            @Override
+            public List<PredictResponse> predictBatch(List<PredictRequest> requests) {
+                throw new PredictionException("batch failed", 500);
+            }
+        };
+        coalescer = new PredictionCoalescer(failingBatch, true, 50, 8, 100, 1, 5_000, false);
+        List<PredictRequest> requests = sampleRequests(8);
+
+        predictConcurrently(requests);
+
+        assertTrue(variants.getStats().get(0).getRouted() > 0, "expected some rows routed to the variant");
+        StringBuilder scrape = new StringBuilder();
+        metrics.scrape(scrape);
+        double recorded = scrape.toString().lines()
+                .filter(line -> line.startsWith("churn_predictions_total{"))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+        assertEquals(requests.size(), recorded, scrape.toString());
+        failingBatch.close();
+        variants.close();
+    }
+
+    @Test
+    void predict_disabledCallsScoringServiceDirectly() {
+        coalescer = new PredictionCoalescer(scoring, false, 2, 64, 100, 1, 5_000, false);
+
+        PredictResponse res = coalescer.predict(request(30, "Month-to-month", 20));
+
+        assertEquals(0.85, res.getScore(), 1e-12);
+        assertEquals(0, coalescer.getStats().getBatches());
+        assertFalse(coalescer.getStats().isEnabled());
+    }
+
+    @Test
+    void predict_coalescedCallsKeepTheirExplanationsAndVotes() {
+        ChurnScoringService explaining = new ChurnScoringService(new ChurnScoringService.Options()
+                .forest(tempDir.resolve("rf_forest.bin").toString(), "native").pythonWorkers(0).cache(0, 0)
+                .explanationTopK(2));
+        coalescer = new PredictionCoalescer(explaining, true, 50, 8, 100, 1, 5_000, false);
+        List<PredictRequest> requests = sampleRequests(8);
+
+        List<PredictResponse> responses = predictConcurrently(requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            PredictResponse direct = explaining.predict(requests.get(i));
+            assertEquals(direct.getScore(), responses.get(i).getScore(), 1e-12);
+            assertEquals(direct.getVotes(), responses.get(i).getVotes());
+            assertEquals(direct.getExplanation().size(), responses.get(i).getExplanation().size());
+        }
+        assertTrue(responses.stream().anyMatch(r -> !r.getExplanation().isEmpty()));
+        explaining.close();
+    }
+}
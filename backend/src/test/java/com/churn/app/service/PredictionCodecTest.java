@@ -0,0 +1,80 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionCodecTest {
+
+    private final PredictionCodec codec = new PredictionCodec();
+
+    private static PredictRequest request(String contract) {
+        return TestRequests.request(40, 24, 79.85, contract, "Fiber optic", 5);
+    }
+
+    @Test
+    void appendRequest_writesAsciiJsonWithModelStoreKeys() throws Exception {
+        String json = codec.appendRequest(new StringBuilder(), request("Month-to-month \"é\"")).toString();
+
+        assertTrue(json.chars().allMatch(c -> c < 0x80));
+        JsonNode node = new ObjectMapper().readTree(json);
+        assertEquals(40, node.get("age").asInt());
+        assertEquals(79.85, node.get("monthlyCharges").asDouble());
+        assertEquals("Month-to-month \"é\"", node.get("contract").asText());
+        assertEquals(5, node.get("paymentDelay").asInt());
+    }
+
+    @Test
+    void appendBatchRequest_wrapsRowsInOrder() throws Exception {
+        String json = codec.appendBatchRequest(new StringBuilder(), List.of(request("One year"), request("Two year"))).toString();
+
+        JsonNode rows = new ObjectMapper().readTree(json).get("rows");
+        assertEquals(2, rows.size());
+        assertEquals("Two year", rows.get(1).get("contract").asText());
+    }
+
+    @Test
+    void readResponse_decodesAndSharesLabelAndVersion() {
+        PredictResponse first = codec.readResponse("{\"label\":\"CHURN\",\"score\":0.8,\"proba\":0.8,\"model_version\":\"v7\"}");
+        PredictResponse second = codec.readResponse("{\"score\":0.2,\"label\":\"NO_CHURN\",\"model_version\":\"v7\"}");
+
+        assertEquals("CHURN", first.getLabel());
+        assertEquals(0.8, first.getScore());
+        assertEquals(1, first.getVotes());
+        assertSame(PredictionCodec.CHURN, first.getLabel());
+        assertSame(first.getModelVersion(), second.getModelVersion());
+        assertEquals(0, second.getVotes());
+        assertTrue(second.getExplanation().isEmpty());
+    }
+
+    @Test
+    void readResponse_errorAnswerThrows400() {
+        PredictionException ex = assertThrows(PredictionException.class,
+                () -> codec.readResponse("{\"error\":\"Missing required fields: ['age']\"}"));
+        assertEquals(400, ex.getStatusCode());
+        assertEquals("Missing required fields: ['age']", ex.getMessage());
+    }
+
+    @Test
+    void readResults_checksRowCount() {
+        String answer = "{\"results\":[{\"label\":\"CHURN\",\"score\":0.9},{\"label\":\"NO_CHURN\",\"score\":0.1}],\"model_version\":\"v7\"}";
+
+        List<PredictResponse> results = codec.readResults(answer, 2);
+
+        assertEquals(0.1, results.get(1).getScore());
+        assertThrows(PredictionException.class, () -> codec.readResults(answer, 3));
+    }
+
+    @Test
+    void readError_returnsNullForNonJson() {
+        assertEquals("boom", codec.readError("{\"error\":\"boom\"}"));
+        assertNull(codec.readError("Traceback (most recent call last):"));
+    }
+}
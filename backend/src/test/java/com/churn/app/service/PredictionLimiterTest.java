@@ -0,0 +1,62 @@
+package com.churn.app.service;
+
+import com.churn.app.exception.PredictionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionLimiterTest {
+
+    @Test
+    void acquire_rejectsWith503WhenAllPermitsAreTaken() {
+        PredictionLimiter limiter = new PredictionLimiter(1, 0, false);
+
+        PredictionLimiter.Permit first = limiter.acquire();
+        PredictionException ex = assertThrows(PredictionException.class, limiter::acquire);
+
+        assertEquals(503, ex.getStatusCode());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+        first.close();
+        first.close();
+        assertEquals(0, limiter.getInFlight());
+        limiter.acquire().close();
+    }
+
+    @Test
+    void acquire_waitsUpToAdmissionTimeoutForARelease() throws Exception {
+        PredictionLimiter limiter = new PredictionLimiter(1, 5_000, false);
+        PredictionLimiter.Permit held = limiter.acquire();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> limiter.acquire().close());
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        held.close();
+
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void zeroMaxInFlightDisablesTheLimit() {
+        PredictionLimiter limiter = new PredictionLimiter(0, 0, false);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+        }
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void virtualThreadFactory_fallsBackToDaemonPlatformThreadsWhenUnsupported() {
+        ThreadFactory factory = VirtualThreads.factory("test", true);
+        Thread t = factory.newThread(() -> { });
+        assertTrue(t.getName().startsWith("test-"));
+        if (!VirtualThreads.isSupported()) {
+            assertTrue(t.isDaemon());
+        }
+    }
+}
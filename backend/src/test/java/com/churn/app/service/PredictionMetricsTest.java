@@ -0,0 +1,53 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictResponse;
+import com.churn.app.exception.PredictionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionMetricsTest {
+
+    @Test
+    void scrape_writesCumulativeHistogramBuckets() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, 20_000);        // 20 us
+        metrics.recordPhase(PredictionMetrics.Phase.INFERENCE, 3_000_000_000L); // 3 s
+
+        String text = scrape(metrics);
+
+        assertTrue(text.contains("# TYPE churn_phase_seconds histogram\n"));
+        assertTrue(text.contains("churn_phase_seconds_bucket{phase=\"inference\",le=\"1.0E-5\"} 0\n"));
+        assertTrue(text.contains("churn_phase_seconds_bucket{phase=\"inference\",le=\"2.5E-5\"} 1\n"));
+        assertTrue(text.contains("churn_phase_seconds_bucket{phase=\"inference\",le=\"2.5\"} 1\n"));
+        assertTrue(text.contains("churn_phase_seconds_bucket{phase=\"inference\",le=\"5\"} 2\n"));
+        assertTrue(text.contains("churn_phase_seconds_bucket{phase=\"inference\",le=\"+Inf\"} 2\n"));
+        assertTrue(text.contains("churn_phase_seconds_count{phase=\"inference\"} 2\n"));
+        assertTrue(text.contains("churn_phase_seconds_count{phase=\"spawn\"} 0\n"));
+    }
+
+    @Test
+    void scrape_countsPredictionsByLabelAndErrorsByClass() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        metrics.recordPrediction(new PredictResponse("CHURN", 0.83, 1, new ArrayList<>(), "v1"));
+        metrics.recordPrediction(new PredictResponse("CHURN", 0.91, 1, new ArrayList<>(), "v1"));
+        metrics.recordPrediction(new PredictResponse("NO_CHURN", 0.12, 0, new ArrayList<>(), "v1"));
+        metrics.recordError(new PredictionException("busy", 503), 503);
+
+        String text = scrape(metrics);
+
+        assertTrue(text.contains("churn_predictions_total{label=\"CHURN\"} 2\n"));
+        assertTrue(text.contains("churn_predictions_total{label=\"NO_CHURN\"} 1\n"));
+        assertTrue(text.contains("churn_prediction_score_bucket{le=\"0.2\"} 1\n"));
+        assertTrue(text.contains("churn_prediction_score_count 3\n"));
+        assertTrue(text.contains("churn_request_errors_total{exception=\"PredictionException\",status=\"503\"} 1\n"));
+    }
+
+    private static String scrape(PredictionMetrics metrics) {
+        StringBuilder out = new StringBuilder();
+        metrics.scrape(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.churn.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessRunnerTest {
+
+    private final ProcessRunner runner = new ProcessRunner(Path.of("."), 1024);
+
+    @Test
+    void run_feedsStdinAndCollectsStdout() throws Exception {
+        ProcessRunner.Result result = runner.run(
+                List.of("python", "-c", "import sys; sys.stdout.write(sys.stdin.read().upper())"),
+                "{\"age\":40}".getBytes(StandardCharsets.UTF_8), Duration.ofSeconds(10));
+
+        assertFalse(result.isTimedOut());
+        assertEquals(0, result.getExitCode());
+        assertEquals("{\"AGE\":40}", result.getStdout());
+        assertTrue(result.getTotalNanos() > 0);
+    }
+
+    @Test
+    void run_drainsAFullStderrPipeAndTruncatesToTheLimit() throws Exception {
+        // 1 MiB of stderr before any stdout: reading stdout first would block on the full stderr pipe.
+        ProcessRunner.Result result = runner.run(
+                List.of("python", "-c", "import sys; sys.stderr.write('x' * 1048576); sys.stderr.flush(); print('done')"),
+                null, Duration.ofSeconds(10));
+
+        assertFalse(result.isTimedOut());
+        assertEquals("done", result.getStdout().trim());
+        assertEquals(1024, result.getStderr().length());
+        assertTrue(result.isStderrTruncated());
+        assertFalse(result.isStdoutTruncated());
+    }
+
+    @Test
+    void run_killsTheProcessTreeAtTheDeadline() throws Exception {
+        // The child holds stdout open through a grandchild, so the deadline has to cover the reads.
+        String script = "import subprocess, sys, time\n"
+                + "subprocess.Popen([sys.executable, '-c', 'import time; time.sleep(60)'])\n"
+                + "time.sleep(60)\n";
+        long start = System.nanoTime();
+        ProcessRunner.Result result = runner.run(List.of("python", "-c", script), null, Duration.ofMillis(500));
+
+        assertTrue(result.isTimedOut());
+        assertEquals(-1, result.getExitCode());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+    }
+}
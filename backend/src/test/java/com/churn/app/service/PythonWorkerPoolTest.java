@@ -0,0 +1,93 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.SweepResponse;
+import com.churn.app.exception.PredictionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PythonWorkerPoolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PythonWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new PythonWorkerPool(Path.of("src/test/resources/python"), "fake_worker.py", 1,
+                Duration.ofSeconds(2), Duration.ZERO, new PredictionMetrics());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void request_reusesWarmWorker() {
+        JsonNode first = request("{\"age\":40}");
+        JsonNode second = request("{\"age\":41}");
+
+        assertEquals("CHURN", first.get("label").asText());
+        assertEquals(first.get("pid").asLong(), second.get("pid").asLong());
+    }
+
+    @Test
+    void crashedWorker_isRestartedOnNextRequest() {
+        long pid = request("{}").get("pid").asLong();
+
+        PredictionException ex = assertThrows(PredictionException.class, () -> request("{\"crash\":true}"));
+        assertEquals(500, ex.getStatusCode());
+
+        JsonNode after = request("{}");
+        assertNotEquals(pid, after.get("pid").asLong());
+    }
+
+    @Test
+    void slowWorker_timesOutAndIsReplaced() {
+        long pid = request("{}").get("pid").asLong();
+
+        PredictionException ex = assertThrows(PredictionException.class, () -> request("{\"sleep\":10}"));
+        assertTrue(ex.getMessage().contains("timed out"));
+
+        JsonNode after = request("{}");
+        assertNotEquals(pid, after.get("pid").asLong());
+    }
+
+    @Test
+    void sweep_onPythonEngine_scoresTheGridWithoutRecordingPredictions() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        ChurnScoringService service = new ChurnScoringService(new ChurnScoringService.Options()
+                .python("src/test/resources/python", "fake_worker.py")
+                .forest("missing/rf_forest.bin", "python").pythonWorkers(1).cache(64, 0).metrics(metrics));
+        try {
+            SweepResponse sweep = service.sweep(TestRequests.request(40, 12, 70.0, "Month-to-month", "DSL", 5),
+                    List.of("tenure", "monthlyCharges"), List.of(new double[]{0, 12, 24}, new double[]{20, 80}));
+
+            assertArrayEquals(new double[]{0.75, 0.75, 0.75, 0.75, 0.75, 0.75}, sweep.getScores());
+            assertEquals("fake", sweep.getModelVersion());
+            StringBuilder scrape = new StringBuilder();
+            metrics.scrape(scrape);
+            assertFalse(scrape.toString().contains("churn_predictions_total{"), scrape.toString());
+            assertEquals(0, service.getCacheStats().getEntries());
+        } finally {
+            service.close();
+        }
+    }
+
+    private JsonNode request(String line) {
+        try {
+            return objectMapper.readTree(pool.request(line));
+        } catch (JsonProcessingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
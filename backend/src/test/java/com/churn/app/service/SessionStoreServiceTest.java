@@ -0,0 +1,273 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.SessionAck;
+import com.churn.app.dto.SessionStoreStats;
+import com.churn.app.exception.SessionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private SessionStoreService store(Path log, int maxResident, int maxSessions, long ttlMs) {
+        return new SessionStoreService(log, maxResident, maxSessions, ttlMs, clock::get, Runnable::run);
+    }
+
+    private static Map<String, Object> session(String title, int messages) {
+        return Map.of("title", title, "messages", List.of("hello ".repeat(messages).trim()));
+    }
+
+    @Test
+    void put_beyondMaxResident_spillsToLogAndReadsBack() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 2, 100, 0);
+        for (int i = 0; i < 5; i++) {
+            store.put("s" + i, session("chat " + i, 100));
+        }
+
+        SessionStoreStats stats = store.getStats();
+        assertEquals(5, stats.getSessions());
+        assertEquals(2, stats.getResident());
+        assertEquals(3, stats.getSpills());
+        assertTrue(stats.getDiskBytes() > 0);
+
+        assertEquals("chat 0", store.get("s0").get("title"));
+        assertEquals(session("chat 1", 100), store.get("s1"));
+        assertEquals(2, store.getStats().getColdLoads());
+        assertEquals(2, store.getStats().getResident());
+        store.close();
+    }
+
+    @Test
+    void restart_reloadsLatestVersionOfEachSession() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 10, 100, 0);
+        store.put("a", session("first", 1));
+        store.put("b", session("other", 1));
+        store.put("a", session("second", 3));
+        store.close();
+
+        SessionStoreService reopened = store(log, 10, 100, 0);
+        assertEquals(2, reopened.getStats().getSessions());
+        assertEquals(0, reopened.getStats().getResident());
+        assertEquals(session("second", 3), reopened.get("a"));
+        assertEquals("other", reopened.get("b").get("title"));
+        assertNull(reopened.get("missing"));
+        reopened.close();
+    }
+
+    @Test
+    void maxSessions_dropsLeastRecentlyUsedAndItStaysGoneAfterRestart() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 1, 2, 0);
+        store.put("a", session("a", 1));
+        store.put("b", session("b", 1));
+        assertNotNull(store.get("a"));
+        store.put("c", session("c", 1));
+
+        assertNull(store.get("b"));
+        assertEquals(1, store.getStats().getEvictions());
+        store.close();
+
+        SessionStoreService reopened = store(log, 1, 2, 0);
+        assertNull(reopened.get("b"));
+        assertNotNull(reopened.get("a"));
+        assertNotNull(reopened.get("c"));
+        reopened.close();
+    }
+
+    @Test
+    void ttl_expiresUnusedSessionsInMemoryAndOnReload() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 10, 100, 1_000);
+        store.put("old", session("old", 1));
+        clock.addAndGet(600);
+        store.put("recent", session("recent", 1));
+        clock.addAndGet(600);
+
+        assertNull(store.get("old"));
+        assertNotNull(store.get("recent"));
+        assertEquals(1, store.getStats().getExpirations());
+        store.close();
+
+        clock.addAndGet(1_500);
+        SessionStoreService reopened = store(log, 10, 100, 1_000);
+        assertEquals(0, reopened.getStats().getSessions());
+        reopened.close();
+    }
+
+    @Test
+    void restart_afterTornWrite_keepsCompleteRecordsAndAppendsCleanly() throws IOException {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 10, 100, 0);
+        store.put("a", session("kept", 1));
+        store.put("b", session("torn", 50));
+        store.close();
+        long size = Files.size(log);
+        try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 7);
+        }
+
+        SessionStoreService reopened = store(log, 10, 100, 0);
+        assertEquals("kept", reopened.get("a").get("title"));
+        assertNull(reopened.get("b"));
+        reopened.put("c", session("after", 1));
+        reopened.close();
+
+        SessionStoreService again = store(log, 10, 100, 0);
+        assertEquals(2, again.getStats().getSessions());
+        assertEquals("after", again.get("c").get("title"));
+        again.close();
+    }
+
+    @Test
+    void compaction_keepsOnlyLiveRecords() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 4, 100, 0);
+        Map<String, Object> big = Map.of("blob", randomText(64 * 1024));
+        long rewrites = SessionStoreService.COMPACT_MIN_BYTES / (64 * 1024) * 3;
+        for (int i = 0; i < rewrites; i++) {
+            store.put("s" + (i % 3), big);
+        }
+
+        SessionStoreStats stats = store.getStats();
+        assertTrue(stats.getDiskBytes() < SessionStoreService.COMPACT_MIN_BYTES, "log was compacted");
+        assertTrue(stats.getLiveDiskBytes() <= stats.getDiskBytes());
+        store.close();
+
+        SessionStoreService reopened = store(log, 4, 100, 0);
+        assertEquals(3, reopened.getStats().getSessions());
+        assertEquals(big, reopened.get("s2"));
+        reopened.close();
+    }
+
+    @Test
+    void compaction_runsOffTheWritePathAndKeepsWritesMadeMeanwhile() {
+        Path log = tempDir.resolve("sessions.log");
+        List<Runnable> queued = new ArrayList<>();
+        SessionStoreService store = new SessionStoreService(log, 1, 100, 0, clock::get, queued::add);
+        Map<String, Object> big = Map.of("blob", randomText(64 * 1024));
+        for (int i = 0; queued.isEmpty(); i++) {
+            store.put("s" + (i % 3), big);
+        }
+        long before = store.getStats().getDiskBytes();
+        assertTrue(before >= SessionStoreService.COMPACT_MIN_BYTES, "compaction handed off instead of run inline");
+
+        // Written after the live set was queued for compaction: a delta on a copied chain, a fresh put, a new id.
+        store.append("s0", Map.of("messages", List.of("late")));
+        store.put("s1", Map.of("title", "rewritten"));
+        store.append("s3", Map.of("messages", List.of("new")));
+        store.put("s4", big);
+        assertEquals(1, queued.size(), "only one compaction at a time");
+        queued.remove(0).run();
+
+        assertTrue(store.getStats().getDiskBytes() < before, "log was compacted");
+        // Only one session is resident, so these read the relocated records from the new file.
+        assertEquals(List.of("late"), store.get("s0").get("messages"));
+        assertEquals(big, store.get("s2"));
+        assertEquals(List.of("new"), store.get("s3").get("messages"));
+        store.close();
+        SessionStoreService reopened = store(log, 1, 100, 0);
+        assertEquals(5, reopened.getStats().getSessions());
+        assertEquals(List.of("late"), reopened.get("s0").get("messages"));
+        assertEquals(Map.of("title", "rewritten"), reopened.get("s1"));
+        assertEquals(big, reopened.get("s2"));
+        assertEquals(List.of("new"), reopened.get("s3").get("messages"));
+        assertEquals(big, reopened.get("s4"));
+        reopened.close();
+    }
+
+    @Test
+    void append_writesOnlyDeltasAndRestartRebuildsSession() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 10, 100, 0);
+        store.put("a", Map.of("title", "chat", "messages", List.of(Map.of("role", "user", "content", "hi"))));
+        long afterPut = store.getStats().getDiskBytes();
+        store.append("a", Map.of("messages", List.of(Map.of("role", "assistant", "content", "hello"))));
+        long firstDelta = store.getStats().getDiskBytes() - afterPut;
+
+        SessionAck ack = store.append("a", Map.of("messages", List.of(Map.of("role", "assistant", "content", "hello")),
+                "status", "done"));
+        assertEquals(3, ack.getMessages());
+        assertEquals(1, ack.getAppended());
+        long secondDelta = store.getStats().getDiskBytes() - afterPut - firstDelta;
+        assertTrue(secondDelta < firstDelta + 20, "record size does not grow with the session");
+        store.close();
+
+        SessionStoreService reopened = store(log, 10, 100, 0);
+        Map<String, Object> session = reopened.get("a");
+        assertEquals("chat", session.get("title"));
+        assertEquals("done", session.get("status"));
+        assertEquals(List.of(Map.of("role", "user", "content", "hi"), Map.of("role", "assistant", "content", "hello"),
+                Map.of("role", "assistant", "content", "hello")), session.get("messages"));
+        reopened.close();
+    }
+
+    @Test
+    void append_onSpilledSessionAndPastMaxDeltas_keepsEveryMessage() {
+        Path log = tempDir.resolve("sessions.log");
+        SessionStoreService store = store(log, 1, 100, 0);
+        int appends = SessionStoreService.MAX_DELTAS * 2 + 5;
+        for (int i = 0; i < appends; i++) {
+            store.append("a", Map.of("messages", List.of("a" + i)));
+            store.append("b", Map.of("messages", List.of("b" + i)));
+        }
+        assertEquals(appends, store.append("a", Map.of("title", "t")).getMessages());
+        store.close();
+
+        SessionStoreService reopened = store(log, 1, 100, 0);
+        List<?> messages = (List<?>) reopened.get("b").get("messages");
+        assertEquals(appends, messages.size());
+        assertEquals("b0", messages.get(0));
+        assertEquals("b" + (appends - 1), messages.get(appends - 1));
+        assertEquals("t", reopened.get("a").get("title"));
+        reopened.close();
+    }
+
+    @Test
+    void append_rejectsNonArrayMessages() {
+        SessionStoreService store = store(null, 2, 100, 0);
+        SessionException e = assertThrows(SessionException.class,
+                () -> store.append("a", Map.of("messages", "hi")));
+        assertEquals(400, e.getStatusCode());
+    }
+
+    @Test
+    void withoutStorePath_spilledSessionsAreGone() {
+        SessionStoreService store = store(null, 2, 100, 0);
+        store.put("a", session("a", 1));
+        store.put("b", session("b", 1));
+        store.put("c", session("c", 1));
+
+        assertNull(store.get("a"));
+        assertNotNull(store.get("c"));
+        assertFalse(store.getStats().isPersistent());
+        assertEquals(1, store.getStats().getEvictions());
+    }
+
+    /** Random letters: deflate only shrinks these records by about 40%, so rewrites fill the log quickly. */
+    private static String randomText(int length) {
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.churn.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedColumnTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static double[] values(int n) {
+        SplittableRandom random = new SplittableRandom(3);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i % 10 == 0 ? (i % 20 == 0 ? -0.0 : 0.0) : random.nextInt(500) / 4.0 - 60;
+        }
+        return values;
+    }
+
+    private static double[] drain(SortedColumn column) throws IOException {
+        column.sort();
+        double[] out = new double[column.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = column.next();
+        }
+        return out;
+    }
+
+    @Test
+    void next_mergesSpilledRunsInArraysSortOrder() throws IOException {
+        double[] values = values(10_007);
+        double[] expected = values.clone();
+        Arrays.sort(expected);
+
+        SortedColumn heap = new SortedColumn(null, values.length);
+        try (SpillFile spill = new SpillFile(tempDir)) {
+            SortedColumn paged = new SortedColumn(spill, values.length, 1000);
+            for (double v : values) {
+                heap.add(v);
+                paged.add(v);
+            }
+            assertArrayEquals(expected, drain(heap));
+            assertArrayEquals(expected, drain(paged));
+        }
+        try (var left = Files.list(tempDir)) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    @Test
+    void sort_ofNothingHasNoValues() throws IOException {
+        try (SpillFile spill = new SpillFile(tempDir)) {
+            assertEquals(0, drain(new SortedColumn(spill, 10, 4)).length);
+            assertEquals(0, drain(new SortedColumn(null, 10)).length);
+        }
+    }
+}
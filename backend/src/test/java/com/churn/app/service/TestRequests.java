@@ -0,0 +1,22 @@
+package com.churn.app.service;
+
+import com.churn.app.dto.PredictRequest;
+
+/** Prediction requests for tests; a null argument leaves that field unset. */
+final class TestRequests {
+
+    private TestRequests() {
+    }
+
+    static PredictRequest request(Integer age, Integer tenure, Double monthlyCharges, String contract,
+                                  String internetService, Integer paymentDelay) {
+        PredictRequest req = new PredictRequest();
+        req.setAge(age);
+        req.setTenure(tenure);
+        req.setMonthlyCharges(monthlyCharges);
+        req.setContract(contract);
+        req.setInternetService(internetService);
+        req.setPaymentDelay(paymentDelay);
+        return req;
+    }
+}
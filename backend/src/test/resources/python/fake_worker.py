@@ -0,0 +1,21 @@
+"""Stand-in for `model_store.py --worker` used by PythonWorkerPoolTest (needs no pandas/sklearn)."""
+import json
+import os
+import sys
+import time
+
+print(json.dumps({"ready": True, "model_version": "fake"}), flush=True)
+for line in sys.stdin:
+    req = json.loads(line)
+    if req.get("ping"):
+        out = {"ok": True}
+    elif req.get("crash"):
+        sys.exit(3)
+    elif req.get("sleep"):
+        time.sleep(req["sleep"])
+        out = {"ok": True}
+    elif "rows" in req:
+        out = {"results": [{"label": "CHURN", "score": 0.75, "model_version": "fake"} for _ in req["rows"]]}
+    else:
+        out = {"label": "CHURN", "score": 0.75, "model_version": "fake", "pid": os.getpid()}
+    print(json.dumps(out), flush=True)
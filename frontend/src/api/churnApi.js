@@ -42,6 +42,70 @@ export async function predictSmart(body, { demoModeEnabled }) {
   }
 }
 
+/**
+ * Score many rows in one request (POST /api/predict/batch).
+ * @param {object[]} bodies - Predict request bodies
+ * @returns {Promise<Array<{ row: number, label?: string, score?: number, error?: string }>>} - One item per body, in order
+ */
+export async function predictBatch(bodies) {
+  try {
+    const res = await fetch('/api/predict/batch', {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify(bodies),
+    })
+    if (!res.ok) {
+      const err = await res.json().catch(() => ({}))
+      throw new Error(err.message || `Request failed: ${res.status}`)
+    }
+    const data = await res.json()
+    return data.results
+  } catch (err) {
+    if (err.message && err.message.startsWith('Request failed:')) throw err
+    throw new Error("I couldn't reach the backend. Please try again.")
+  }
+}
+
+/**
+ * Batch variant of predictSmart: real backend first, demo predictions for the whole chunk on failure if demo mode is on.
+ * @param {object[]} bodies
+ * @param {{ demoModeEnabled: boolean }} opts
+ * @returns {Promise<object[]>} - Per-row { label, score, demo } or { error }
+ */
+export async function predictBatchSmart(bodies, { demoModeEnabled }) {
+  try {
+    const results = await predictBatch(bodies)
+    return results.map((r) => (r.error ? r : { ...r, demo: false }))
+  } catch (err) {
+    if (demoModeEnabled) return bodies.map((body) => demoPredict(body))
+    throw err
+  }
+}
+
+/**
+ * Score a base request over a range of one or two numeric features in one call (POST /api/predict/sweep).
+ * @param {object} base - Predict request body
+ * @param {Array<{ feature: string, from: number, to: number, step: number }>} axes - One or two axes
+ * @returns {Promise<{ features: string[], values: number[][], scores: number[], modelVersion?: string }>} - Scores row-major, first axis outer
+ */
+export async function predictSweep(base, axes) {
+  try {
+    const res = await fetch('/api/predict/sweep', {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ base, axes }),
+    })
+    if (!res.ok) {
+      const err = await res.json().catch(() => ({}))
+      throw new Error(err.message || `Request failed: ${res.status}`)
+    }
+    return res.json()
+  } catch (err) {
+    if (err.message && err.message.startsWith('Request failed:')) throw err
+    throw new Error("I couldn't reach the backend. Please try again.")
+  }
+}
+
 export async function getMetadata() {
   try {
     const res = await fetch('/api/metadata')
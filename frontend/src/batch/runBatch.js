@@ -54,3 +54,48 @@ export function runBatch(opts, predictFn) {
 
   if (rows.length === 0 && onDone) onDone()
 }
+
+/**
+ * Run batch predictions in chunks, one request per chunk, chunks sent one after another. Supports cancel via AbortSignal.
+ * @param {{ rows: Array<{ rowIndex: number, body: object }>, chunkSize?: number, onProgress?: (state: { processed: number, total: number }) => void, onResult?: (rowIndex: number, result: object) => void, onError?: (rowIndex: number, err: Error) => void, onDone?: () => void, signal?: AbortSignal }} opts
+ * @param {Function} predictBatchFn - Function that takes an array of bodies and returns Promise<Array<result | { error }>> (e.g. predictBatchSmart)
+ * @returns {Promise<void>}
+ */
+export async function runBatchChunks(opts, predictBatchFn) {
+  const {
+    rows,
+    chunkSize = 500,
+    onProgress,
+    onResult,
+    onError,
+    onDone,
+    signal,
+  } = opts
+
+  const total = rows.length
+  let processed = 0
+
+  for (let start = 0; start < rows.length; start += chunkSize) {
+    if (signal?.aborted) break
+    const chunk = rows.slice(start, start + chunkSize)
+    try {
+      const results = await predictBatchFn(chunk.map((r) => r.body))
+      chunk.forEach(({ rowIndex }, k) => {
+        const result = results[k]
+        if (!result || result.error) {
+          if (onError) onError(rowIndex, new Error(result?.error || 'Request failed'))
+        } else if (onResult) {
+          onResult(rowIndex, result)
+        }
+      })
+    } catch (err) {
+      chunk.forEach(({ rowIndex }) => {
+        if (onError) onError(rowIndex, err)
+      })
+    }
+    processed += chunk.length
+    if (onProgress) onProgress({ processed, total })
+  }
+
+  if (onDone) onDone()
+}
@@ -1,7 +1,7 @@
 import { useState, useEffect, useRef } from 'react'
 import { STEPS, STEP_CONFIG, validateAnswer } from './chatFlow'
 import { buildPredictBody } from './chatReducer'
-import { predictSmart } from '../api/churnApi'
+import { predictSmart, predictSweep } from '../api/churnApi'
 import { useBackendStatus } from '../hooks/useBackendStatus'
 import { useDemoMode } from '../hooks/useDemoMode'
 import { useDebouncedValue } from '../hooks/useDebouncedValue'
@@ -9,6 +9,16 @@ import Card from '../ui/Card'
 import Button from '../ui/Button'
 import Input from '../ui/Input'
 
+/**
+ * Whole-number features whose full range is fetched as one sweep curve, so further edits score locally. Sweep
+ * scores carry no explanation, so the curve is only used while predictions come without one.
+ */
+const SWEEP_FEATURES = ['age', 'tenure', 'paymentDelay']
+
+function curveKey(body, feature) {
+  return JSON.stringify({ ...body, [feature]: null, feature })
+}
+
 function getShortLabel(stepKey) {
   return stepKey.replace(/([A-Z])/g, ' $1').replace(/^./, (s) => s.toUpperCase()).trim()
 }
@@ -22,6 +32,7 @@ export default function WhatIfPanel({ baseAnswers, basePrediction }) {
   const [whatIfError, setWhatIfError] = useState(null)
   const [lastUpdatedAt, setLastUpdatedAt] = useState(null)
   const lastBodyStrRef = useRef('')
+  const curveRef = useRef(null)
 
   const debouncedInputs = useDebouncedValue(whatIfInputs, 400)
 
@@ -49,21 +60,56 @@ export default function WhatIfPanel({ baseAnswers, basePrediction }) {
       body[stepKey] = res.value
     }
     if (!allValid) return
-    const bodyStr = JSON.stringify(buildPredictBody(body))
+    const predictBody = buildPredictBody(body)
+    const bodyStr = JSON.stringify(predictBody)
     if (bodyStr === lastBodyStrRef.current) return
+    const lastBody = lastBodyStrRef.current ? JSON.parse(lastBodyStrRef.current) : {}
     lastBodyStrRef.current = bodyStr
+    const changed = Object.keys(predictBody).filter((k) => predictBody[k] !== lastBody[k])
+    const explained = basePrediction.explanation?.length > 0
+    const feature =
+      online !== false && !explained && changed.length === 1 && SWEEP_FEATURES.includes(changed[0]) ? changed[0] : null
+
+    const showResult = (res) => {
+      setWhatIfResult(res)
+      setWhatIfStatus('idle')
+      setLastUpdatedAt(Date.now())
+    }
+    const fromCurve = (curve) => {
+      const score = curve.scores[Number(predictBody[feature]) - curve.from]
+      if (score == null) return null
+      const churn = score >= 0.5
+      return {
+        label: churn ? 'CHURN' : 'NO_CHURN',
+        score,
+        votes: churn ? 1 : 0,
+        explanation: [],
+        modelVersion: curve.modelVersion,
+        demo: false,
+      }
+    }
+
+    const key = feature ? curveKey(predictBody, feature) : null
+    const cached = key && curveRef.current?.key === key ? fromCurve(curveRef.current) : null
+    if (cached) {
+      showResult(cached)
+      return
+    }
     setWhatIfStatus('loading')
     setWhatIfError(null)
-    predictSmart(buildPredictBody(body), { online, demoModeEnabled })
-      .then((res) => {
-        setWhatIfResult(res)
-        setWhatIfStatus('idle')
-        setLastUpdatedAt(Date.now())
-      })
-      .catch((err) => {
-        setWhatIfStatus('error')
-        setWhatIfError(err.message || 'Update failed.')
-      })
+    const scoreOne = () => predictSmart(predictBody, { online, demoModeEnabled })
+    const request = feature
+      ? predictSweep(predictBody, [
+          { feature, from: STEP_CONFIG[feature].min, to: STEP_CONFIG[feature].max, step: 1 },
+        ]).then((sweep) => {
+          curveRef.current = { key, from: STEP_CONFIG[feature].min, scores: sweep.scores, modelVersion: sweep.modelVersion }
+          return fromCurve(curveRef.current) ?? scoreOne()
+        }, scoreOne)
+      : scoreOne()
+    request.then(showResult).catch((err) => {
+      setWhatIfStatus('error')
+      setWhatIfError(err.message || 'Update failed.')
+    })
   }, [debouncedInputs, basePrediction, online, demoModeEnabled])
 
   const handleReset = () => {
@@ -59,6 +59,44 @@ export const handlers = [
     })
   }),
 
+  http.post('/api/predict/batch', async ({ request }) => {
+    let rows = []
+    try {
+      rows = await request.json()
+    } catch (_) {}
+    const results = (Array.isArray(rows) ? rows : []).map((_, row) => ({
+      row,
+      label: defaultPredictResponse.label,
+      score: defaultPredictResponse.score,
+    }))
+    return HttpResponse.json({
+      results,
+      succeeded: results.length,
+      failed: 0,
+      modelVersion: defaultPredictResponse.modelVersion,
+    })
+  }),
+
+  http.post('/api/predict/sweep', async ({ request }) => {
+    let body = {}
+    try {
+      body = await request.json()
+    } catch (_) {}
+    const axes = Array.isArray(body.axes) ? body.axes : []
+    const values = axes.map(({ from, to, step }) => {
+      const out = []
+      for (let i = 0; from + i * step <= to; i++) out.push(from + i * step)
+      return out
+    })
+    const cells = values.reduce((n, v) => n * v.length, 1)
+    return HttpResponse.json({
+      features: axes.map((a) => a.feature),
+      values,
+      scores: new Array(cells).fill(defaultPredictResponse.score),
+      modelVersion: defaultPredictResponse.modelVersion,
+    })
+  }),
+
   http.get('/api/model/metrics', () => HttpResponse.json(minimalMetricsResponse)),
 
   http.get('/api/metadata', () => HttpResponse.json(metadataResponse)),
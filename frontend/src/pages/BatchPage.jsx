@@ -2,10 +2,10 @@ import { useState, useRef } from 'react'
 import { parseCsv } from '../utils/csv'
 import { STEPS, validateAnswer, normalizeAnswer } from '../chat/chatFlow'
 import { buildPredictBody } from '../chat/chatReducer'
-import { predictSmart } from '../api/churnApi'
+import { predictBatchSmart } from '../api/churnApi'
 import { useBackendStatus } from '../hooks/useBackendStatus'
 import { useDemoMode } from '../hooks/useDemoMode'
-import { runBatch } from '../batch/runBatch'
+import { runBatchChunks } from '../batch/runBatch'
 import Card from '../ui/Card'
 import Button from '../ui/Button'
 import Badge from '../ui/Badge'
@@ -109,10 +109,10 @@ export default function BatchPage() {
     const controller = new AbortController()
     cancelRef.current = controller
 
-    runBatch(
+    runBatchChunks(
       {
         rows: validRows,
-        concurrency: 3,
+        chunkSize: 500,
         signal: controller.signal,
         onProgress: ({ processed, total }) => setProgress({ processed, total }),
         onResult: (rowIndex, result) => {
@@ -145,7 +145,7 @@ export default function BatchPage() {
           cancelRef.current = null
         },
       },
-      (body) => predictSmart(body, { online, demoModeEnabled })
+      (bodies) => predictBatchSmart(bodies, { demoModeEnabled })
     )
   }
 